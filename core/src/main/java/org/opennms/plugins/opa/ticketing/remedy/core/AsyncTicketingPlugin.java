@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+
+package org.opennms.plugins.opa.ticketing.remedy.core;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.opennms.integration.api.v1.ticketing.Ticket;
+import org.opennms.integration.api.v1.ticketing.TicketingPlugin;
+
+/**
+ * A {@link TicketingPlugin} that can also perform its operations without blocking the caller.
+ *
+ * The returned futures complete on the SOAP client's callback threads; failures are reported as
+ * a {@link RemedyTicketerException}.
+ */
+public interface AsyncTicketingPlugin extends TicketingPlugin {
+    /**
+     * Asynchronous variant of {@link #get(String)}.
+     */
+    CompletableFuture<Ticket> getAsync(String ticketId);
+
+    /**
+     * Asynchronous variant of {@link #saveOrUpdate(Ticket)}.
+     */
+    CompletableFuture<String> saveOrUpdateAsync(Ticket ticket);
+}
@@ -0,0 +1,383 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+
+package org.opennms.plugins.opa.ticketing.remedy.core;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.opennms.integration.remedy.ticketservice.GetListInputMap;
+import org.opennms.integration.remedy.ticketservice.GetListOutputMap;
+import org.opennms.integration.remedy.ticketservice.GetOutputMap;
+import org.opennms.integration.remedy.ticketservice.StatusType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Resolves incidents in batches, for the storm of alarm clears when a site recovers.
+ *
+ * Resolves are collected for a short window (or until a batch is full), the status of the whole
+ * batch is looked up with one {@code HelpDesk_QueryList_Service} call, incidents that are already
+ * resolved, closed or cancelled are skipped, and the remaining modifies are sent with at most
+ * {@code maxConcurrent} in flight.  If the lookup fails, every resolve of the batch falls back to
+ * its own query and modify.
+ */
+public class BulkResolver {
+    private static final Logger LOG = LoggerFactory.getLogger(BulkResolver.class);
+
+    private final long m_windowMillis;
+    private final int m_maxBatch;
+    private final int m_maxConcurrent;
+    private final Function<GetListInputMap, CompletableFuture<GetListOutputMap>> m_lookup;
+    private final ScheduledThreadPoolExecutor m_scheduler;
+
+    private List<Resolve> m_pending = new ArrayList<>();
+    private ScheduledFuture<?> m_window;
+    private final Deque<Runnable> m_waiting = new ArrayDeque<>();
+    private int m_running;
+    private boolean m_shutdown;
+
+    private final AtomicLong m_batches = new AtomicLong();
+    private final AtomicLong m_resolved = new AtomicLong();
+    private final AtomicLong m_skipped = new AtomicLong();
+    private final AtomicLong m_fallbacks = new AtomicLong();
+
+    /**
+     * @param windowMillis how long to collect resolves before looking them up
+     * @param maxBatch the maximum number of incidents looked up at once
+     * @param maxConcurrent the maximum number of modifies (or fallbacks) in flight
+     * @param lookup sends a {@code HelpDesk_QueryList_Service} request
+     */
+    public BulkResolver(final long windowMillis, final int maxBatch, final int maxConcurrent, final Function<GetListInputMap, CompletableFuture<GetListOutputMap>> lookup) {
+        m_windowMillis = windowMillis;
+        m_maxBatch = Math.max(maxBatch, 1);
+        m_maxConcurrent = Math.max(maxConcurrent, 1);
+        m_lookup = lookup;
+        m_scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            final Thread thread = new Thread(r, "remedy-resolve");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queue the resolve of an incident.
+     *
+     * @param modify sends the modify given the current incident
+     * @param fallback queries and modifies the incident on its own, if the batch lookup fails
+     * @return completes once the incident has been resolved or skipped
+     */
+    public CompletableFuture<Void> resolve(final String incidentNumber, final Function<GetOutputMap, CompletableFuture<?>> modify,
+                                           final Supplier<CompletableFuture<?>> fallback) {
+        final CompletableFuture<Void> result = new CompletableFuture<>();
+        final List<Resolve> full;
+        synchronized (this) {
+            if (m_shutdown) {
+                result.completeExceptionally(new RemedyTicketerException("Bulk resolver is shut down"));
+                return result;
+            }
+            if (m_pending.isEmpty()) {
+                final List<Resolve> batch = m_pending;
+                m_window = m_scheduler.schedule(() -> flushPending(batch), m_windowMillis, TimeUnit.MILLISECONDS);
+            }
+            m_pending.add(new Resolve(incidentNumber, modify, fallback, result));
+            if (m_pending.size() < m_maxBatch) {
+                return result;
+            }
+            full = m_pending;
+            m_pending = new ArrayList<>();
+            m_window.cancel(false);
+            m_window = null;
+        }
+        m_scheduler.execute(() -> flush(full));
+        return result;
+    }
+
+    /**
+     * Flush a batch at the end of its window, unless it was flushed because it was full.
+     */
+    private void flushPending(final List<Resolve> batch) {
+        synchronized (this) {
+            if (m_pending != batch) {
+                return;
+            }
+            m_pending = new ArrayList<>();
+            m_window = null;
+        }
+        flush(batch);
+    }
+
+    private void flush(final List<Resolve> batch) {
+        m_batches.incrementAndGet();
+        final Set<String> incidentNumbers = new LinkedHashSet<>();
+        for (final Resolve resolve : batch) {
+            incidentNumbers.add(resolve.m_incidentNumber);
+        }
+        LOG.debug("Looking up {} incidents to resolve.", incidentNumbers.size());
+
+        final GetListInputMap input = new GetListInputMap();
+        input.setQualification(getQualification(incidentNumbers));
+        input.setMaxLimit(Integer.toString(incidentNumbers.size()));
+        CompletableFuture<GetListOutputMap> lookup;
+        try {
+            lookup = m_lookup.apply(input);
+        } catch (final RuntimeException e) {
+            lookup = new CompletableFuture<>();
+            lookup.completeExceptionally(e);
+        }
+        lookup.whenComplete((output, e) -> {
+            if (e != null) {
+                LOG.warn("Unable to look up {} incidents to resolve, resolving them one by one.", incidentNumbers.size(), e);
+                m_fallbacks.addAndGet(batch.size());
+                batch.forEach(resolve -> run(resolve.m_fallback, resolve.m_result));
+                return;
+            }
+
+            final Map<String, GetOutputMap> incidents = new HashMap<>();
+            for (final GetListOutputMap.GetListValues values : output.getGetListValues()) {
+                incidents.put(values.getIncidentNumber(), toGetOutputMap(values));
+            }
+            for (final Resolve resolve : batch) {
+                final GetOutputMap remedy = incidents.get(resolve.m_incidentNumber);
+                if (remedy == null) {
+                    complete(resolve.m_result, new RemedyTicketerException("Unable to find incident " + resolve.m_incidentNumber));
+                } else if (isDone(remedy.getStatus())) {
+                    LOG.debug("Incident {} is already {}, skipping resolve.", resolve.m_incidentNumber, remedy.getStatus());
+                    m_skipped.incrementAndGet();
+                    complete(resolve.m_result, null);
+                } else {
+                    m_resolved.incrementAndGet();
+                    run(() -> resolve.m_modify.apply(remedy), resolve.m_result);
+                }
+            }
+        });
+    }
+
+    private static boolean isDone(final StatusType status) {
+        return status == StatusType.RESOLVED || status == StatusType.CLOSED || status == StatusType.CANCELLED;
+    }
+
+    /**
+     * Run a request once fewer than {@code maxConcurrent} are in flight.
+     */
+    private void run(final Supplier<CompletableFuture<?>> request, final CompletableFuture<Void> result) {
+        final Runnable task = () -> {
+            CompletableFuture<?> future;
+            try {
+                future = request.get();
+            } catch (final RuntimeException e) {
+                future = new CompletableFuture<>();
+                future.completeExceptionally(e);
+            }
+            future.whenComplete((value, e) -> {
+                complete(result, e);
+                final Runnable next;
+                synchronized (this) {
+                    next = m_waiting.poll();
+                    if (next == null) {
+                        m_running--;
+                    }
+                }
+                if (next != null) {
+                    next.run();
+                }
+            });
+        };
+        synchronized (this) {
+            if (m_running >= m_maxConcurrent) {
+                m_waiting.add(task);
+                return;
+            }
+            m_running++;
+        }
+        task.run();
+    }
+
+    private static void complete(final CompletableFuture<Void> result, final Throwable e) {
+        if (e == null) {
+            result.complete(null);
+        } else {
+            result.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * @return an AR System qualification matching the given incidents
+     */
+    static String getQualification(final Collection<String> incidentNumbers) {
+        final StringBuilder qualification = new StringBuilder();
+        for (final String incidentNumber : incidentNumbers) {
+            if (qualification.length() > 0) {
+                qualification.append(" OR ");
+            }
+            qualification.append("'Incident Number' = \"").append(incidentNumber.replace("\"", "\"\"")).append('"');
+        }
+        return qualification.toString();
+    }
+
+    private static GetOutputMap toGetOutputMap(final GetListOutputMap.GetListValues values) {
+        final GetOutputMap remedy = new GetOutputMap();
+        remedy.setAssignedGroup(values.getAssignedGroup());
+        remedy.setAssignedGroupShiftName(values.getAssignedGroupShiftName());
+        remedy.setAssignedSupportCompany(values.getAssignedSupportCompany());
+        remedy.setAssignedSupportOrganization(values.getAssignedSupportOrganization());
+        remedy.setAssignee(values.getAssignee());
+        remedy.setCategorizationTier1(values.getCategorizationTier1());
+        remedy.setCategorizationTier2(values.getCategorizationTier2());
+        remedy.setCategorizationTier3(values.getCategorizationTier3());
+        remedy.setCity(values.getCity());
+        remedy.setClosureManufacturer(values.getClosureManufacturer());
+        remedy.setClosureProductCategoryTier1(values.getClosureProductCategoryTier1());
+        remedy.setClosureProductCategoryTier2(values.getClosureProductCategoryTier2());
+        remedy.setClosureProductCategoryTier3(values.getClosureProductCategoryTier3());
+        remedy.setClosureProductModelVersion(values.getClosureProductModelVersion());
+        remedy.setClosureProductName(values.getClosureProductName());
+        remedy.setCompany(values.getCompany());
+        remedy.setContactCompany(values.getContactCompany());
+        remedy.setContactSensitivity(values.getContactSensitivity());
+        remedy.setCountry(values.getCountry());
+        remedy.setDepartment(values.getDepartment());
+        remedy.setFirstName(values.getFirstName());
+        remedy.setHPDCI(values.getHPDCI());
+        remedy.setHPDCIFormName(values.getHPDCIFormName());
+        remedy.setHPDCIReconID(values.getHPDCIReconID());
+        remedy.setImpact(values.getImpact());
+        remedy.setLastName(values.getLastName());
+        remedy.setManufacturer(values.getManufacturer());
+        remedy.setMiddleInitial(values.getMiddleInitial());
+        remedy.setNotes(values.getNotes());
+        remedy.setOrganization(values.getOrganization());
+        remedy.setPhoneNumber(values.getPhoneNumber());
+        remedy.setPriority(values.getPriority());
+        remedy.setPriorityWeight(values.getPriorityWeight());
+        remedy.setProductCategorizationTier1(values.getProductCategorizationTier1());
+        remedy.setProductCategorizationTier2(values.getProductCategorizationTier2());
+        remedy.setProductCategorizationTier3(values.getProductCategorizationTier3());
+        remedy.setProductModelVersion(values.getProductModelVersion());
+        remedy.setProductName(values.getProductName());
+        remedy.setRegion(values.getRegion());
+        remedy.setReportedSource(values.getReportedSource());
+        remedy.setResolution(values.getResolution());
+        remedy.setResolutionCategory(values.getResolutionCategory());
+        remedy.setResolutionCategoryTier2(values.getResolutionCategoryTier2());
+        remedy.setResolutionCategoryTier3(values.getResolutionCategoryTier3());
+        remedy.setServiceCI(values.getServiceCI());
+        remedy.setServiceCIReconID(values.getServiceCIReconID());
+        remedy.setServiceType(values.getServiceType());
+        remedy.setSite(values.getSite());
+        remedy.setSiteGroup(values.getSiteGroup());
+        remedy.setStatus(values.getStatus());
+        remedy.setStatusReason(values.getStatusReason());
+        remedy.setSummary(values.getSummary());
+        remedy.setUrgency(values.getUrgency());
+        remedy.setVIP(values.getVIP());
+        remedy.setZ1DCIFormName(values.getZ1DCIFormName());
+        return remedy;
+    }
+
+    /**
+     * @return the number of batch lookups
+     */
+    public long getBatchCount() {
+        return m_batches.get();
+    }
+
+    /**
+     * @return the number of incidents modified after a batch lookup
+     */
+    public long getResolvedCount() {
+        return m_resolved.get();
+    }
+
+    /**
+     * @return the number of incidents skipped because they were already resolved, closed or cancelled
+     */
+    public long getSkippedCount() {
+        return m_skipped.get();
+    }
+
+    /**
+     * @return the number of incidents resolved one by one because their batch lookup failed
+     */
+    public long getFallbackCount() {
+        return m_fallbacks.get();
+    }
+
+    public void resetStats() {
+        m_batches.set(0);
+        m_resolved.set(0);
+        m_skipped.set(0);
+        m_fallbacks.set(0);
+    }
+
+    /**
+     * Stop batching and fail the resolves that were not looked up yet.
+     */
+    public void shutdown() {
+        final List<Resolve> pending;
+        synchronized (this) {
+            m_shutdown = true;
+            pending = m_pending;
+            m_pending = new ArrayList<>();
+            m_window = null;
+        }
+        m_scheduler.shutdownNow();
+        for (final Resolve resolve : pending) {
+            complete(resolve.m_result, new RemedyTicketerException("Bulk resolver is shut down"));
+        }
+    }
+
+    private static class Resolve {
+        private final String m_incidentNumber;
+        private final Function<GetOutputMap, CompletableFuture<?>> m_modify;
+        private final Supplier<CompletableFuture<?>> m_fallback;
+        private final CompletableFuture<Void> m_result;
+
+        private Resolve(final String incidentNumber, final Function<GetOutputMap, CompletableFuture<?>> modify, final Supplier<CompletableFuture<?>> fallback,
+                        final CompletableFuture<Void> result) {
+            m_incidentNumber = incidentNumber;
+            m_modify = modify;
+            m_fallback = fallback;
+            m_result = result;
+        }
+    }
+}
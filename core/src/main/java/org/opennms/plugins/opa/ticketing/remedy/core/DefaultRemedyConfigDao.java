@@ -29,12 +29,23 @@
 package org.opennms.plugins.opa.ticketing.remedy.core;
 
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Paths;
+import java.security.KeyStore;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Dictionary;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Hashtable;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 
+import org.opennms.plugins.opa.ticketing.remedy.core.diagnostics.FlightRecorderEvents;
+import org.opennms.plugins.opa.ticketing.remedy.core.ha.JdbcLeaseStore;
+import org.opennms.plugins.opa.ticketing.remedy.core.ha.LeaseCoordinator;
 import org.osgi.service.cm.Configuration;
 import org.osgi.service.cm.ConfigurationAdmin;
 import org.slf4j.Logger;
@@ -46,22 +57,64 @@ public class DefaultRemedyConfigDao {
 
     private final ConfigurationAdmin configAdmin;
 
+    private volatile Dictionary<String, Object> properties;
+
+    /**
+     * Create a DAO backed by the {@value #REMEDY_CONFIG_PID} configuration.
+     *
+     * The configuration is read once; the blueprint property placeholder recreates
+     * the plugin when the configuration changes.
+     */
     public DefaultRemedyConfigDao(final ConfigurationAdmin configAdmin) {
         this.configAdmin = Objects.requireNonNull(configAdmin);
+        reload();
     }
 
-    protected Dictionary<String, Object> getProperties() throws ConfigRetrievalException {
+    /**
+     * Create a DAO backed by a fixed set of properties, as handed to a
+     * {@link org.osgi.service.cm.ManagedServiceFactory} for a factory configuration.
+     */
+    public DefaultRemedyConfigDao(final Dictionary<String, ?> properties) {
+        this.configAdmin = null;
+        final Object event = FlightRecorderEvents.beginConfigReload();
+        this.properties = copy(Objects.requireNonNull(properties));
+        final Object pid = properties.get("service.pid");
+        FlightRecorderEvents.endConfigReload(event, pid == null ? REMEDY_CONFIG_PID : pid.toString(), this.properties.size());
+    }
+
+    /**
+     * Re-read the configuration snapshot from the OSGi configuration admin.
+     */
+    public void reload() throws ConfigRetrievalException {
+        if (this.configAdmin == null) {
+            return;
+        }
+        final Object event = FlightRecorderEvents.beginConfigReload();
         try {
             final Configuration configuration = this.configAdmin.getConfiguration(REMEDY_CONFIG_PID);
-            if (configuration == null) return null;
-
-            return configuration.getProperties();
+            final Dictionary<String, Object> props = configuration == null ? null : configuration.getProperties();
+            this.properties = props == null ? null : copy(props);
+            FlightRecorderEvents.endConfigReload(event, REMEDY_CONFIG_PID, this.properties == null ? 0 : this.properties.size());
         } catch (final IOException e) {
             LOG.error("Unable to get configuration from OSGi from {}.cfg", REMEDY_CONFIG_PID, e);
             throw new ConfigRetrievalException(e);
         }
     }
 
+    private static Dictionary<String, Object> copy(final Dictionary<String, ?> source) {
+        final Dictionary<String, Object> copy = new Hashtable<>();
+        final Enumeration<String> keys = source.keys();
+        while (keys.hasMoreElements()) {
+            final String key = keys.nextElement();
+            copy.put(key, source.get(key));
+        }
+        return copy;
+    }
+
+    protected Dictionary<String, Object> getProperties() throws ConfigRetrievalException {
+        return this.properties;
+    }
+
     protected String getStringProperty(final String key) throws ConfigRetrievalException {
         final Dictionary<String, Object> props = getProperties();
         if (props == null) return null;
@@ -86,6 +139,38 @@ public class DefaultRemedyConfigDao {
         throw new ConfigRetrievalException("Configuration value " + value + " was of an unknown type");
     }
 
+    protected boolean getBooleanProperty(final String key, final boolean defaultValue) throws ConfigRetrievalException {
+        final String value = getStringProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        return Boolean.parseBoolean(value.trim());
+    }
+
+    protected long getLongProperty(final String key, final long defaultValue) throws ConfigRetrievalException {
+        final String value = getStringProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (final NumberFormatException e) {
+            throw new ConfigRetrievalException("Configuration value " + key + "=" + value + " is not a valid number");
+        }
+    }
+
+    protected double getDoubleProperty(final String key, final double defaultValue) throws ConfigRetrievalException {
+        final String value = getStringProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (final NumberFormatException e) {
+            throw new ConfigRetrievalException("Configuration value " + key + "=" + value + " is not a valid number");
+        }
+    }
+
     /**
      * <p>getUserName</p>
      *
@@ -116,10 +201,41 @@ public class DefaultRemedyConfigDao {
         return getStringProperty("endpoint");
     }
 
+    /**
+     * @return the endpoint hedged queries are sent to; defaults to {@link #getEndPoint()}
+     */
+    String getHedgeEndPoint() {
+        return getOptionalStringProperty("hedge.endpoint");
+    }
+
     boolean getStrictSsl() {
         return getBooleanProperty("endpoint.strict-ssl");
     }
 
+    /**
+     * @return the content encoding of requests to the endpoint (and the hedge endpoint): none, gzip or deflate
+     */
+    String getCompression() {
+        final String compression = getStringProperty("endpoint.compression");
+        return compression == null ? "none" : compression.trim().toLowerCase(Locale.ROOT);
+    }
+
+    int getCompressionThreshold() {
+        return (int) Math.min(getLongProperty("endpoint.compression.threshold", 1024L), Integer.MAX_VALUE);
+    }
+
+    /**
+     * @return the content encoding of requests to the create endpoint; defaults to {@link #getCompression()}
+     */
+    String getCreateCompression() {
+        final String compression = getStringProperty("createendpoint.compression");
+        return compression == null ? getCompression() : compression.trim().toLowerCase(Locale.ROOT);
+    }
+
+    int getCreateCompressionThreshold() {
+        return (int) Math.min(getLongProperty("createendpoint.compression.threshold", getCompressionThreshold()), Integer.MAX_VALUE);
+    }
+
     String getPortName() {
         return getStringProperty("portname");
     }
@@ -128,8 +244,11 @@ public class DefaultRemedyConfigDao {
         return getStringProperty("createendpoint");
     }
 
+    /**
+     * @return whether to verify the certificate of the create endpoint; defaults to {@link #getStrictSsl()}
+     */
     boolean getCreateStrictSsl() {
-        return getBooleanProperty("createendpoint.strict-ssl");
+        return getBooleanProperty("createendpoint.strict-ssl", getStrictSsl());
     }
 
     String getCreatePortName() {
@@ -230,4 +349,335 @@ public class DefaultRemedyConfigDao {
     String getCancelledStatusReason() {
         return getStringProperty("reason.cancelled");
     }
+
+    String getAttachmentDirectory() {
+        return getStringProperty("attachment.directory");
+    }
+
+    long getAttachmentMaxSize() {
+        // Remedy carries the attachment size as an xsd:int
+        return Math.min(getLongProperty("attachment.max-size", 10L * 1024L * 1024L), Integer.MAX_VALUE);
+    }
+
+    boolean getAttachmentCompress() {
+        return getBooleanProperty("attachment.compress", true);
+    }
+
+    boolean getAttachmentMtom() {
+        return getBooleanProperty("attachment.mtom", true);
+    }
+
+    List<String> getTracingExporters() {
+        final String exporters = getStringProperty("tracing.exporter");
+        if (exporters == null || exporters.trim().isEmpty()) {
+            return Collections.emptyList();
+        }
+        return Arrays.asList(exporters.trim().split(":"));
+    }
+
+    String getTracingFile() {
+        final String file = getStringProperty("tracing.file");
+        if (file != null && !file.trim().isEmpty()) {
+            return file.trim();
+        }
+        return Paths.get(System.getProperty("karaf.data", System.getProperty("java.io.tmpdir")), "remedy-traces.json").toString();
+    }
+
+    long getTracingFileMaxSize() {
+        return getLongProperty("tracing.file.max-size", 50L * 1024L * 1024L);
+    }
+
+    long getSlowCallThreshold() {
+        return getLongProperty("diagnostics.slow-call.threshold", 5000L);
+    }
+
+    int getSlowCallCapacity() {
+        return (int) Math.min(getLongProperty("diagnostics.slow-call.capacity", 20L), Integer.MAX_VALUE);
+    }
+
+    int getSlowCallMaxPayload() {
+        return (int) Math.min(getLongProperty("diagnostics.slow-call.max-payload", 16384L), Integer.MAX_VALUE);
+    }
+
+    boolean getDispatchEnabled() {
+        return getBooleanProperty("dispatch.enabled", false);
+    }
+
+    int getDispatchMaxConcurrent() {
+        return (int) Math.min(getLongProperty("dispatch.max-concurrent", 4L), Integer.MAX_VALUE);
+    }
+
+    /**
+     * @return the share of a target group, or of tickets without a target group if null
+     */
+    int getDispatchWeight(final String targetGroup) {
+        final long defaultWeight = getLongProperty("dispatch.weight", 1L);
+        return (int) Math.min(targetGroup == null ? defaultWeight : getLongProperty("dispatch.weight." + targetGroup, defaultWeight), Integer.MAX_VALUE);
+    }
+
+    /**
+     * @return the concurrency cap of a target group; defaults to {@link #getDispatchMaxConcurrent()}
+     */
+    int getDispatchMaxConcurrent(final String targetGroup) {
+        return (int) Math.min(getLongProperty("dispatch.max-concurrent." + targetGroup, getDispatchMaxConcurrent()), Integer.MAX_VALUE);
+    }
+
+    int getDispatchOverloadQueueDepth() {
+        return (int) Math.min(getLongProperty("dispatch.overload.queue-depth", 100L), Integer.MAX_VALUE);
+    }
+
+    long getDispatchOverloadMaxWait() {
+        return getLongProperty("dispatch.overload.max-wait", 30000L);
+    }
+
+    int getDispatchOverloadMinUrgency() {
+        final String urgency = getStringProperty("dispatch.overload.min-urgency");
+        return urgency == null || urgency.trim().isEmpty() ? TicketDispatcher.LOWEST_URGENCY : TicketDispatcher.getUrgencyLevel(urgency);
+    }
+
+    TicketDispatcher.OverloadPolicy getDispatchOverloadPolicy() {
+        final String policy = getStringProperty("dispatch.overload.policy");
+        if (policy == null || policy.trim().isEmpty()) {
+            return TicketDispatcher.OverloadPolicy.DEFER;
+        }
+        try {
+            return TicketDispatcher.OverloadPolicy.valueOf(policy.trim().toUpperCase(Locale.ROOT));
+        } catch (final IllegalArgumentException e) {
+            throw new ConfigRetrievalException("Configuration value dispatch.overload.policy=" + policy + " must be 'defer' or 'shed'");
+        }
+    }
+
+    int getDispatchMaxDeferred() {
+        return (int) Math.min(getLongProperty("dispatch.deferred.max", 1000L), Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param operation one of "query", "modify" or "submit"
+     * @return the receive timeout in milliseconds, {@link OperationTimeouts#ADAPTIVE}, or 0 for the transport default
+     */
+    long getTimeout(final String operation) {
+        final String key = "timeout." + operation;
+        final String value = getStringProperty(key);
+        if (value != null && "adaptive".equalsIgnoreCase(value.trim())) {
+            return OperationTimeouts.ADAPTIVE;
+        }
+        final long timeout = getLongProperty(key, 0L);
+        if (timeout < 0) {
+            throw new ConfigRetrievalException("Configuration value " + key + "=" + value + " must be a number of milliseconds or 'adaptive'");
+        }
+        return timeout;
+    }
+
+    long getTimeoutConnect() {
+        return getLongProperty("timeout.connect", 0L);
+    }
+
+    double getTimeoutAdaptivePercentile() {
+        return getDoubleProperty("timeout.adaptive.percentile", 99.0);
+    }
+
+    double getTimeoutAdaptiveFactor() {
+        return getDoubleProperty("timeout.adaptive.factor", 3.0);
+    }
+
+    long getTimeoutAdaptiveMin() {
+        return getLongProperty("timeout.adaptive.min", 2000L);
+    }
+
+    long getTimeoutAdaptiveMax() {
+        return getLongProperty("timeout.adaptive.max", 120000L);
+    }
+
+    boolean getHedgeEnabled() {
+        return getBooleanProperty("hedge.enabled", false);
+    }
+
+    double getHedgePercentile() {
+        return getDoubleProperty("hedge.percentile", 95.0);
+    }
+
+    long getHedgeMinDelay() {
+        return getLongProperty("hedge.min-delay", 50L);
+    }
+
+    double getHedgeBudget() {
+        return getDoubleProperty("hedge.budget", 10.0);
+    }
+
+    int getTimeoutAdaptiveWindow() {
+        return (int) Math.min(getLongProperty("timeout.adaptive.window", 1000L), Integer.MAX_VALUE);
+    }
+
+    int getNotesMaxLength() {
+        return (int) Math.min(getLongProperty("notes.max-length", 0L), Integer.MAX_VALUE);
+    }
+
+    boolean getNotesStripHtml() {
+        return getBooleanProperty("notes.strip-html", false);
+    }
+
+    boolean getNotesOverflowAttachment() {
+        return getBooleanProperty("notes.overflow-attachment", false);
+    }
+
+    boolean getModifyMinimal() {
+        return getBooleanProperty("modify.minimal", false);
+    }
+
+    boolean getSubmitFastPath() {
+        return getBooleanProperty("submit.fast-path", false);
+    }
+
+    boolean getSubmitFastPathVerify() {
+        return getBooleanProperty("submit.fast-path.verify", false);
+    }
+
+    boolean getResolveBatchEnabled() {
+        return getBooleanProperty("resolve.batch.enabled", false);
+    }
+
+    long getResolveBatchWindow() {
+        return getLongProperty("resolve.batch.window", 2000L);
+    }
+
+    int getResolveBatchMaxSize() {
+        return (int) Math.min(getLongProperty("resolve.batch.max-size", 50L), Integer.MAX_VALUE);
+    }
+
+    int getResolveBatchMaxConcurrent() {
+        return (int) Math.min(getLongProperty("resolve.batch.max-concurrent", 8L), Integer.MAX_VALUE);
+    }
+
+    String getHaStore() {
+        final String store = getStringProperty("ha.store");
+        return store == null ? "none" : store.trim().toLowerCase(Locale.ROOT);
+    }
+
+    String getHaNodeId() {
+        final String nodeId = getOptionalStringProperty("ha.node-id");
+        // <pid>@<hostname>
+        return nodeId == null ? ManagementFactory.getRuntimeMXBean().getName() : nodeId;
+    }
+
+    long getHaLeaseTtl() {
+        return getLongProperty("ha.lease-ttl", 300000L);
+    }
+
+    long getHaResultTtl() {
+        return getLongProperty("ha.result-ttl", 60000L);
+    }
+
+    long getHaPollInterval() {
+        return getLongProperty("ha.poll-interval", 500L);
+    }
+
+    int getHaIoThreads() {
+        return (int) Math.min(getLongProperty("ha.io-threads", LeaseCoordinator.DEFAULT_IO_THREADS), Integer.MAX_VALUE);
+    }
+
+    String getHaFileDirectory() {
+        return getOptionalStringProperty("ha.file.directory");
+    }
+
+    String getHaJdbcUrl() {
+        return getOptionalStringProperty("ha.jdbc.url");
+    }
+
+    String getHaJdbcUser() {
+        return getOptionalStringProperty("ha.jdbc.user");
+    }
+
+    String getHaJdbcPassword() {
+        return getStringProperty("ha.jdbc.password");
+    }
+
+    String getHaJdbcTable() {
+        final String table = getOptionalStringProperty("ha.jdbc.table");
+        return table == null ? JdbcLeaseStore.DEFAULT_TABLE : table;
+    }
+
+    /**
+     * @return the {@value FieldMapping#PREFIX}* properties
+     */
+    Map<String, String> getMappingProperties() {
+        final Map<String, String> mapping = new HashMap<>();
+        final Dictionary<String, Object> props = getProperties();
+        if (props == null) {
+            return mapping;
+        }
+        final Enumeration<String> keys = props.keys();
+        while (keys.hasMoreElements()) {
+            final String key = keys.nextElement();
+            final Object value = props.get(key);
+            if (key.startsWith(FieldMapping.PREFIX) && value != null) {
+                mapping.put(key, value.toString().trim());
+            }
+        }
+        return mapping;
+    }
+
+    String getTlsProtocol() {
+        final String protocol = getStringProperty("tls.protocol");
+        return protocol == null || protocol.trim().isEmpty() ? "TLS" : protocol.trim();
+    }
+
+    String getTlsTruststore() {
+        return getOptionalStringProperty("tls.truststore");
+    }
+
+    String getTlsTruststoreType() {
+        final String type = getOptionalStringProperty("tls.truststore.type");
+        return type == null ? KeyStore.getDefaultType() : type;
+    }
+
+    String getTlsTruststorePassword() {
+        return getStringProperty("tls.truststore.password");
+    }
+
+    String getTlsKeystore() {
+        return getOptionalStringProperty("tls.keystore");
+    }
+
+    String getTlsKeystoreType() {
+        final String type = getOptionalStringProperty("tls.keystore.type");
+        return type == null ? KeyStore.getDefaultType() : type;
+    }
+
+    String getTlsKeystorePassword() {
+        return getStringProperty("tls.keystore.password");
+    }
+
+    /**
+     * @return the password of the client key; defaults to the keystore password
+     */
+    String getTlsKeyPassword() {
+        return getStringProperty("tls.key.password");
+    }
+
+    /**
+     * @return the maximum number of cached TLS sessions, or -1 for the JVM default
+     */
+    int getTlsSessionCacheSize() {
+        return (int) Math.min(getLongProperty("tls.session.cache-size", -1L), Integer.MAX_VALUE);
+    }
+
+    /**
+     * @return how long (in seconds) TLS sessions may be resumed, or -1 for the JVM default
+     */
+    int getTlsSessionTimeout() {
+        return (int) Math.min(getLongProperty("tls.session.timeout", -1L), Integer.MAX_VALUE);
+    }
+
+    private String getOptionalStringProperty(final String key) {
+        final String value = getStringProperty(key);
+        return value == null || value.trim().isEmpty() ? null : value.trim();
+    }
+
+    String getCaptureFile() {
+        return getOptionalStringProperty("capture.file");
+    }
+
+    long getCaptureMaxSize() {
+        return getLongProperty("capture.max-size", 104857600L);
+    }
 }
@@ -0,0 +1,352 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+package org.opennms.plugins.opa.ticketing.remedy.core;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+import javax.xml.bind.annotation.XmlElement;
+
+import org.opennms.integration.remedy.ticketservice.CreateInputMap;
+
+/**
+ * Sets fields of the create requests from the attributes of the tickets, as configured with
+ * {@code mapping.<field>.*}, where {@code <field>} is the element name of a field of the
+ * {@code HelpDesk_Submit_Service} request, such as {@code Impact} or {@code Categorization_Tier_1}:
+ * <ul>
+ *     <li>{@code mapping.<field>.attribute}: the ticket attribute the value is taken from;</li>
+ *     <li>{@code mapping.<field>.value.<attribute value>}: the value sent for an attribute value,
+ *     without any the attribute value is sent as it is;</li>
+ *     <li>{@code mapping.<field>.default}: the value sent when the ticket has no such attribute,
+ *     or one that is not in the values.  A field with only a default is set for every ticket.</li>
+ * </ul>
+ * The configuration is compiled once: fields are resolved to method handles of their setters,
+ * and values of enumerated fields to their constants.  Mapping a ticket then takes a map lookup
+ * and a setter call per field, without reflection or parsing.
+ */
+public class FieldMapping {
+    static final String PREFIX = "mapping.";
+
+    private static final String ATTRIBUTE = "attribute";
+    private static final String DEFAULT = "default";
+    private static final String VALUE_PREFIX = "value.";
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, CreateInputMap.class, Object.class);
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, CreateInputMap.class);
+
+    private static final FieldMapping EMPTY = new FieldMapping(Collections.emptyList());
+
+    private final Rule[] m_rules;
+
+    private FieldMapping(final List<Rule> rules) {
+        m_rules = rules.toArray(new Rule[0]);
+    }
+
+    /**
+     * @param properties the configuration properties, those not starting with {@value #PREFIX} are ignored
+     * @throws ConfigRetrievalException if a field is unknown, not a string or enumeration, or given an invalid value
+     */
+    public static FieldMapping compile(final Map<String, String> properties) throws ConfigRetrievalException {
+        final Map<String, Map<String, String>> fields = new TreeMap<>();
+        for (final Map.Entry<String, String> property : properties.entrySet()) {
+            final String key = property.getKey();
+            if (!key.startsWith(PREFIX)) {
+                continue;
+            }
+            final int dot = key.indexOf('.', PREFIX.length());
+            if (dot < 0) {
+                throw new ConfigRetrievalException("Invalid field mapping " + key + ", expected " + PREFIX + "<field>.attribute, .value.<value> or .default");
+            }
+            fields.computeIfAbsent(key.substring(PREFIX.length(), dot), field -> new HashMap<>()).put(key.substring(dot + 1), property.getValue());
+        }
+        if (fields.isEmpty()) {
+            return EMPTY;
+        }
+
+        final Map<String, Field> elements = getElements();
+        final List<Rule> rules = new ArrayList<>(fields.size());
+        for (final Map.Entry<String, Map<String, String>> field : fields.entrySet()) {
+            final Field element = elements.get(field.getKey());
+            if (element == null) {
+                throw new ConfigRetrievalException("Unknown field " + field.getKey() + " in " + PREFIX + field.getKey() + ".*");
+            }
+            rules.add(compile(field.getKey(), element, field.getValue()));
+        }
+        return new FieldMapping(rules);
+    }
+
+    private static Rule compile(final String name, final Field element, final Map<String, String> properties) {
+        final Function<String, Object> converter = getConverter(name, element.getType());
+        String attribute = null;
+        Object defaultValue = null;
+        final Map<String, Object> values = new HashMap<>();
+        for (final Map.Entry<String, String> property : properties.entrySet()) {
+            final String key = property.getKey();
+            if (ATTRIBUTE.equals(key)) {
+                attribute = property.getValue();
+            } else if (DEFAULT.equals(key)) {
+                defaultValue = convert(converter, name, key, property.getValue());
+            } else if (key.startsWith(VALUE_PREFIX)) {
+                values.put(key.substring(VALUE_PREFIX.length()), convert(converter, name, key, property.getValue()));
+            } else {
+                throw new ConfigRetrievalException("Invalid field mapping " + PREFIX + name + "." + key + ", expected .attribute, .value.<value> or .default");
+            }
+        }
+        if (attribute == null && !values.isEmpty()) {
+            throw new ConfigRetrievalException("Field mapping " + PREFIX + name + " has values but no attribute");
+        }
+        if (attribute == null && defaultValue == null) {
+            throw new ConfigRetrievalException("Field mapping " + PREFIX + name + " has neither an attribute nor a default");
+        }
+        if (values.isEmpty() && element.getType() != String.class) {
+            // attribute values are passed through, resolve every constant up front
+            for (final Object constant : element.getType().getEnumConstants()) {
+                values.put(getEnumValue(constant), constant);
+            }
+        }
+
+        final Method setter = findSetter(element);
+        try {
+            final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            return new Rule(name, attribute, values.isEmpty() ? null : values, defaultValue,
+                    lookup.unreflect(setter).asType(SETTER_TYPE),
+                    lookup.unreflect(findGetter(element)).asType(GETTER_TYPE));
+        } catch (final IllegalAccessException e) {
+            throw new ConfigRetrievalException(e);
+        }
+    }
+
+    private static Object convert(final Function<String, Object> converter, final String name, final String key, final String value) {
+        try {
+            return converter.apply(value);
+        } catch (final IllegalArgumentException e) {
+            throw new ConfigRetrievalException("Invalid value '" + value + "' for " + PREFIX + name + "." + key);
+        }
+    }
+
+    private static Function<String, Object> getConverter(final String name, final Class<?> type) {
+        if (type == String.class) {
+            return value -> value;
+        }
+        if (type.isEnum()) {
+            final Map<String, Object> constants = new HashMap<>();
+            for (final Object constant : type.getEnumConstants()) {
+                constants.put(getEnumValue(constant), constant);
+            }
+            return value -> {
+                final Object constant = constants.get(value);
+                if (constant == null) {
+                    throw new IllegalArgumentException(value);
+                }
+                return constant;
+            };
+        }
+        throw new ConfigRetrievalException("Field " + name + " of type " + type.getSimpleName() + " cannot be mapped, only text and enumerated fields can");
+    }
+
+    /**
+     * @return the value of an enumeration constant in the request, such as {@code 3-Moderate/Limited}
+     */
+    private static String getEnumValue(final Object constant) {
+        try {
+            return (String) constant.getClass().getMethod("value").invoke(constant);
+        } catch (final ReflectiveOperationException e) {
+            return ((Enum<?>) constant).name();
+        }
+    }
+
+    /**
+     * @return the fields of a create request by element name
+     */
+    private static Map<String, Field> getElements() {
+        final Map<String, Field> elements = new HashMap<>();
+        for (final Field field : CreateInputMap.class.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            final XmlElement element = field.getAnnotation(XmlElement.class);
+            elements.put(element == null || "##default".equals(element.name()) ? field.getName() : element.name(), field);
+        }
+        return elements;
+    }
+
+    private static Method findSetter(final Field field) {
+        for (final Method method : CreateInputMap.class.getMethods()) {
+            if (method.getName().equalsIgnoreCase("set" + field.getName()) && method.getParameterCount() == 1
+                    && method.getParameterTypes()[0] == field.getType()) {
+                return method;
+            }
+        }
+        throw new ConfigRetrievalException("Field " + field.getName() + " has no setter");
+    }
+
+    private static Method findGetter(final Field field) {
+        for (final Method method : CreateInputMap.class.getMethods()) {
+            if (method.getName().equalsIgnoreCase("get" + field.getName()) && method.getParameterCount() == 0
+                    && method.getReturnType() == field.getType()) {
+                return method;
+            }
+        }
+        throw new ConfigRetrievalException("Field " + field.getName() + " has no getter");
+    }
+
+    public static FieldMapping empty() {
+        return EMPTY;
+    }
+
+    public boolean isEmpty() {
+        return m_rules.length == 0;
+    }
+
+    /**
+     * @return the element names of the mapped fields
+     */
+    public List<String> getFields() {
+        final List<String> fields = new ArrayList<>(m_rules.length);
+        for (final Rule rule : m_rules) {
+            fields.add(rule.m_field);
+        }
+        return fields;
+    }
+
+    /**
+     * @return the attributes the fields are mapped from, with the attribute values in their value tables
+     */
+    public Map<String, Set<String>> getAttributeValues() {
+        final Map<String, Set<String>> attributes = new TreeMap<>();
+        for (final Rule rule : m_rules) {
+            if (rule.m_attribute != null) {
+                final Set<String> values = attributes.computeIfAbsent(rule.m_attribute, attribute -> new TreeSet<>());
+                if (rule.m_values != null) {
+                    values.addAll(rule.m_values.keySet());
+                }
+            }
+        }
+        return attributes;
+    }
+
+    /**
+     * @return the getters of the mapped fields, by element name
+     */
+    Map<String, Function<CreateInputMap, Object>> getGetters() {
+        final Map<String, Function<CreateInputMap, Object>> getters = new LinkedHashMap<>();
+        for (final Rule rule : m_rules) {
+            getters.put(rule.m_field, rule::get);
+        }
+        return getters;
+    }
+
+    /**
+     * Set the mapped fields of a request.
+     *
+     * @param attributes the attributes of the ticket, or null
+     */
+    public void apply(final Map<String, String> attributes, final CreateInputMap input) {
+        for (final Rule rule : m_rules) {
+            rule.apply(attributes, input);
+        }
+    }
+
+    /**
+     * Copy the mapped fields from one request to another.
+     */
+    void copy(final CreateInputMap from, final CreateInputMap to) {
+        for (final Rule rule : m_rules) {
+            rule.set(to, rule.get(from));
+        }
+    }
+
+    private static final class Rule {
+        private final String m_field;
+        private final String m_attribute;
+        private final Map<String, Object> m_values;
+        private final Object m_default;
+        private final MethodHandle m_setter;
+        private final MethodHandle m_getter;
+
+        /**
+         * @param values the value for each attribute value, or null to pass attribute values through
+         */
+        private Rule(final String field, final String attribute, final Map<String, Object> values, final Object defaultValue, final MethodHandle setter, final MethodHandle getter) {
+            m_field = field;
+            m_attribute = attribute;
+            m_values = values;
+            m_default = defaultValue;
+            m_setter = setter;
+            m_getter = getter;
+        }
+
+        private void apply(final Map<String, String> attributes, final CreateInputMap input) {
+            final String attribute = m_attribute == null || attributes == null ? null : attributes.get(m_attribute);
+            Object value = m_default;
+            if (attribute != null) {
+                final Object mapped = m_values == null ? attribute : m_values.get(attribute);
+                if (mapped != null) {
+                    value = mapped;
+                }
+            }
+            if (value != null) {
+                set(input, value);
+            }
+        }
+
+        private void set(final CreateInputMap input, final Object value) {
+            try {
+                m_setter.invokeExact(input, value);
+            } catch (final RuntimeException | Error e) {
+                throw e;
+            } catch (final Throwable t) {
+                throw new RemedyTicketerException("Unable to set " + m_field, t);
+            }
+        }
+
+        private Object get(final CreateInputMap input) {
+            try {
+                return (Object) m_getter.invokeExact(input);
+            } catch (final RuntimeException | Error e) {
+                throw e;
+            } catch (final Throwable t) {
+                throw new RemedyTicketerException("Unable to get " + m_field, t);
+            }
+        }
+    }
+}
@@ -0,0 +1,415 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+package org.opennms.plugins.opa.ticketing.remedy.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import org.apache.cxf.endpoint.Client;
+import org.apache.cxf.helpers.CastUtils;
+import org.apache.cxf.interceptor.AttachmentInInterceptor;
+import org.apache.cxf.interceptor.Fault;
+import org.apache.cxf.interceptor.MessageSenderInterceptor;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.phase.AbstractPhaseInterceptor;
+import org.apache.cxf.phase.Phase;
+
+/**
+ * HTTP compression of the SOAP messages of a port: requests are sent compressed once they
+ * reach a size threshold, and responses are accepted compressed.
+ *
+ * Requests are buffered up to the threshold, so smaller requests go out as they are, without
+ * a {@code Content-Encoding}.  The bytes of the messages and the bytes on the wire are counted
+ * in both directions to show what compression saves.  Install it before
+ * {@link org.opennms.plugins.opa.ticketing.remedy.core.tracing.SoapTracing} so that the traced
+ * sizes stay those of the messages.
+ */
+public class HttpCompression {
+    public static final String GZIP = "gzip";
+    public static final String DEFLATE = "deflate";
+
+    private static final String CONTENT_ENCODING = "Content-Encoding";
+    private static final String ACCEPT_ENCODING = "Accept-Encoding";
+    private static final List<String> ACCEPTED_ENCODINGS = Collections.singletonList(GZIP + ", " + DEFLATE);
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final String m_encoding;
+    private final int m_threshold;
+
+    private final AtomicLong m_requests = new AtomicLong();
+    private final AtomicLong m_compressedRequests = new AtomicLong();
+    private final AtomicLong m_rawSent = new AtomicLong();
+    private final AtomicLong m_wireSent = new AtomicLong();
+    private final AtomicLong m_responses = new AtomicLong();
+    private final AtomicLong m_compressedResponses = new AtomicLong();
+    private final AtomicLong m_rawReceived = new AtomicLong();
+    private final AtomicLong m_wireReceived = new AtomicLong();
+
+    /**
+     * @param encoding {@value #GZIP} or {@value #DEFLATE}, used for the requests
+     * @param threshold the size (in bytes) from which requests are compressed
+     */
+    public HttpCompression(final String encoding, final int threshold) {
+        if (!GZIP.equals(encoding) && !DEFLATE.equals(encoding)) {
+            throw new IllegalArgumentException("Unsupported content encoding '" + encoding + "'");
+        }
+        m_encoding = encoding;
+        m_threshold = Math.max(threshold, 0);
+    }
+
+    /**
+     * Compress the requests and accept compressed responses of a client.
+     */
+    public void install(final Client client) {
+        client.getOutInterceptors().add(new CompressingInterceptor());
+        client.getInInterceptors().add(new DecompressingInterceptor());
+    }
+
+    public String getEncoding() {
+        return m_encoding;
+    }
+
+    public int getThreshold() {
+        return m_threshold;
+    }
+
+    public long getRequestCount() {
+        return m_requests.get();
+    }
+
+    /**
+     * @return the number of requests that reached the threshold and were sent compressed
+     */
+    public long getCompressedRequestCount() {
+        return m_compressedRequests.get();
+    }
+
+    /**
+     * @return the number of request bytes before compression
+     */
+    public long getRawBytesSent() {
+        return m_rawSent.get();
+    }
+
+    /**
+     * @return the number of request bytes on the wire
+     */
+    public long getWireBytesSent() {
+        return m_wireSent.get();
+    }
+
+    public long getResponseCount() {
+        return m_responses.get();
+    }
+
+    /**
+     * @return the number of responses the server sent compressed
+     */
+    public long getCompressedResponseCount() {
+        return m_compressedResponses.get();
+    }
+
+    /**
+     * @return the number of response bytes after decompression
+     */
+    public long getRawBytesReceived() {
+        return m_rawReceived.get();
+    }
+
+    /**
+     * @return the number of response bytes on the wire
+     */
+    public long getWireBytesReceived() {
+        return m_wireReceived.get();
+    }
+
+    public void resetStats() {
+        m_requests.set(0);
+        m_compressedRequests.set(0);
+        m_rawSent.set(0);
+        m_wireSent.set(0);
+        m_responses.set(0);
+        m_compressedResponses.set(0);
+        m_rawReceived.set(0);
+        m_wireReceived.set(0);
+    }
+
+    private static Map<String, List<String>> getHeaders(final Message message) {
+        Map<String, List<String>> headers = CastUtils.cast((Map<?, ?>) message.get(Message.PROTOCOL_HEADERS));
+        if (headers == null) {
+            headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            message.put(Message.PROTOCOL_HEADERS, headers);
+        }
+        return headers;
+    }
+
+    private static String getContentEncoding(final Map<String, List<String>> headers) {
+        for (final Map.Entry<String, List<String>> header : headers.entrySet()) {
+            if (CONTENT_ENCODING.equalsIgnoreCase(header.getKey()) && header.getValue() != null && !header.getValue().isEmpty()) {
+                return header.getValue().get(0).trim().toLowerCase(Locale.ROOT);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Wraps the stream of the conduit once it has been prepared, before anything is written to it.
+     */
+    private final class CompressingInterceptor extends AbstractPhaseInterceptor<Message> {
+        private CompressingInterceptor() {
+            super(Phase.PREPARE_SEND);
+            addAfter(MessageSenderInterceptor.class.getName());
+        }
+
+        @Override
+        public void handleMessage(final Message message) throws Fault {
+            final OutputStream os = message.getContent(OutputStream.class);
+            if (os == null) {
+                return;
+            }
+            m_requests.incrementAndGet();
+            final Map<String, List<String>> headers = getHeaders(message);
+            headers.put(ACCEPT_ENCODING, ACCEPTED_ENCODINGS);
+            message.setContent(OutputStream.class, new CompressingOutputStream(new CountingOutputStream(os, m_wireSent), headers));
+        }
+    }
+
+    private final class DecompressingInterceptor extends AbstractPhaseInterceptor<Message> {
+        private DecompressingInterceptor() {
+            super(Phase.RECEIVE);
+            addBefore(AttachmentInInterceptor.class.getName());
+        }
+
+        @Override
+        public void handleMessage(final Message message) throws Fault {
+            final InputStream is = message.getContent(InputStream.class);
+            if (is == null) {
+                return;
+            }
+            m_responses.incrementAndGet();
+            final Map<String, List<String>> headers = getHeaders(message);
+            final String encoding = getContentEncoding(headers);
+            if (!GZIP.equals(encoding) && !"x-gzip".equals(encoding) && !DEFLATE.equals(encoding)) {
+                message.setContent(InputStream.class, new CountingInputStream(is, m_wireReceived, m_rawReceived));
+                return;
+            }
+
+            try {
+                final InputStream wire = new CountingInputStream(is, m_wireReceived, null);
+                message.setContent(InputStream.class, new CountingInputStream(decompress(encoding, wire), m_rawReceived, null));
+            } catch (final IOException e) {
+                throw new Fault(e);
+            }
+            headers.keySet().removeIf(CONTENT_ENCODING::equalsIgnoreCase);
+            m_compressedResponses.incrementAndGet();
+        }
+
+        private InputStream decompress(final String encoding, final InputStream in) throws IOException {
+            final PushbackInputStream peek = new PushbackInputStream(in, 2);
+            final int b0 = peek.read();
+            if (b0 < 0) {
+                // no body
+                return peek;
+            }
+            final int b1 = peek.read();
+            if (b1 >= 0) {
+                peek.unread(b1);
+            }
+            peek.unread(b0);
+            if (!DEFLATE.equals(encoding)) {
+                return new GZIPInputStream(peek, BUFFER_SIZE);
+            }
+
+            // "deflate" is meant to be zlib wrapped, but some servers send raw deflate data
+            final boolean zlib = b1 >= 0 && (b0 & 0x0F) == 8 && ((b0 << 8) | b1) % 31 == 0;
+            final Inflater inflater = new Inflater(!zlib);
+            return new InflaterInputStream(peek, inflater, BUFFER_SIZE) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        inflater.end();
+                    }
+                }
+            };
+        }
+    }
+
+    /**
+     * Buffers a request until it reaches the threshold, then compresses it.
+     */
+    private final class CompressingOutputStream extends OutputStream {
+        private final OutputStream m_wire;
+        private final Map<String, List<String>> m_headers;
+        private ByteArrayOutputStream m_buffer = new ByteArrayOutputStream();
+        private OutputStream m_out;
+
+        private CompressingOutputStream(final OutputStream wire, final Map<String, List<String>> headers) {
+            m_wire = wire;
+            m_headers = headers;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            m_rawSent.incrementAndGet();
+            if (m_out == null && m_buffer.size() + 1 < m_threshold) {
+                m_buffer.write(b);
+                return;
+            }
+            compress().write(b);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            m_rawSent.addAndGet(len);
+            if (m_out == null && m_buffer.size() + len < m_threshold) {
+                m_buffer.write(b, off, len);
+                return;
+            }
+            compress().write(b, off, len);
+        }
+
+        private OutputStream compress() throws IOException {
+            if (m_out == null) {
+                // nothing was written to the conduit yet, so its headers have not been sent
+                m_headers.put(CONTENT_ENCODING, Collections.singletonList(m_encoding));
+                m_out = GZIP.equals(m_encoding) ? new GZIPOutputStream(m_wire, BUFFER_SIZE) : new DeflaterOutputStream(m_wire);
+                m_buffer.writeTo(m_out);
+                m_buffer = null;
+                m_compressedRequests.incrementAndGet();
+            }
+            return m_out;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            // while buffering, flushing would send the headers before the encoding is known
+            if (m_out != null) {
+                m_out.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (m_out != null) {
+                m_out.close();
+                return;
+            }
+            if (m_buffer != null) {
+                m_buffer.writeTo(m_wire);
+                m_buffer = null;
+            }
+            m_wire.close();
+        }
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+        private final AtomicLong m_count;
+
+        private CountingOutputStream(final OutputStream out, final AtomicLong count) {
+            super(out);
+            m_count = count;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            out.write(b);
+            m_count.incrementAndGet();
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            out.write(b, off, len);
+            m_count.addAndGet(len);
+        }
+    }
+
+    /**
+     * Counts the bytes read into one counter, or two for responses that are not compressed.
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        private final AtomicLong m_count;
+        private final AtomicLong m_alsoCount;
+
+        private CountingInputStream(final InputStream in, final AtomicLong count, final AtomicLong alsoCount) {
+            super(in);
+            m_count = count;
+            m_alsoCount = alsoCount;
+        }
+
+        private void count(final long n) {
+            m_count.addAndGet(n);
+            if (m_alsoCount != null) {
+                m_alsoCount.addAndGet(n);
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = in.read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            final int n = in.read(b, off, len);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            final long skipped = in.skip(n);
+            count(skipped);
+            return skipped;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+
+package org.opennms.plugins.opa.ticketing.remedy.core;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Registry of the requests in flight for each incident.
+ *
+ * Concurrent queries of the same incident share a single call and its result.  Modifies of
+ * the same incident (the query and modify of an update) run one after another, in the order
+ * they were started, so an update always reads the result of the previous one instead of
+ * overwriting it.  A query that was in flight while a modify ran is not shared after the
+ * modify completes.
+ *
+ * @param <T> the query result
+ */
+public class InFlightRequests<T> {
+    private final ConcurrentMap<String, CompletableFuture<T>> m_queries = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CompletableFuture<Void>> m_modifies = new ConcurrentHashMap<>();
+
+    private final AtomicLong m_queryCount = new AtomicLong();
+    private final AtomicLong m_sharedQueries = new AtomicLong();
+    private final AtomicLong m_serializedModifies = new AtomicLong();
+
+    /**
+     * Run a query of an incident, or wait for the one in flight.
+     */
+    public T query(final String incidentNumber, final Supplier<T> query) {
+        m_queryCount.incrementAndGet();
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        final CompletableFuture<T> inFlight = m_queries.putIfAbsent(incidentNumber, future);
+        if (inFlight != null) {
+            m_sharedQueries.incrementAndGet();
+            return join(inFlight);
+        }
+
+        try {
+            final T result = query.get();
+            future.complete(result);
+            return result;
+        } catch (final RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            m_queries.remove(incidentNumber, future);
+        }
+    }
+
+    /**
+     * Start a query of an incident, or share the one in flight.
+     */
+    public CompletableFuture<T> queryAsync(final String incidentNumber, final Supplier<CompletableFuture<T>> query) {
+        m_queryCount.incrementAndGet();
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        final CompletableFuture<T> inFlight = m_queries.putIfAbsent(incidentNumber, future);
+        if (inFlight != null) {
+            m_sharedQueries.incrementAndGet();
+            // a copy, so that one caller cannot complete or cancel the result of the others
+            return inFlight.thenApply(Function.identity());
+        }
+
+        start(query).whenComplete((result, e) -> {
+            m_queries.remove(incidentNumber, future);
+            if (e == null) {
+                future.complete(result);
+            } else {
+                future.completeExceptionally(e);
+            }
+        });
+        return future.thenApply(Function.identity());
+    }
+
+    /**
+     * Run a modify of an incident once the modifies started before it have completed.
+     */
+    public <R> R modify(final String incidentNumber, final Supplier<R> modify) {
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        final CompletableFuture<Void> previous = m_modifies.put(incidentNumber, done);
+        try {
+            if (previous != null) {
+                m_serializedModifies.incrementAndGet();
+                previous.join();
+            }
+            return modify.get();
+        } finally {
+            completed(incidentNumber, done);
+        }
+    }
+
+    /**
+     * Start a modify of an incident once the modifies started before it have completed.
+     */
+    public <R> CompletableFuture<R> modifyAsync(final String incidentNumber, final Supplier<CompletableFuture<R>> modify) {
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        final CompletableFuture<Void> previous = m_modifies.put(incidentNumber, done);
+        final CompletableFuture<R> result;
+        if (previous == null) {
+            result = start(modify);
+        } else {
+            m_serializedModifies.incrementAndGet();
+            result = previous.thenCompose(v -> start(modify));
+        }
+        return result.whenComplete((value, e) -> completed(incidentNumber, done));
+    }
+
+    private void completed(final String incidentNumber, final CompletableFuture<Void> done) {
+        // queries started before the modify completed may have missed it
+        m_queries.remove(incidentNumber);
+        m_modifies.remove(incidentNumber, done);
+        done.complete(null);
+    }
+
+    /**
+     * @return the number of queries made
+     */
+    public long getQueryCount() {
+        return m_queryCount.get();
+    }
+
+    /**
+     * @return the number of queries that shared the result of one in flight
+     */
+    public long getSharedQueryCount() {
+        return m_sharedQueries.get();
+    }
+
+    /**
+     * @return the number of modifies that waited for an earlier modify of the same incident
+     */
+    public long getSerializedModifyCount() {
+        return m_serializedModifies.get();
+    }
+
+    public void resetStats() {
+        m_queryCount.set(0);
+        m_sharedQueries.set(0);
+        m_serializedModifies.set(0);
+    }
+
+    private static <R> CompletableFuture<R> start(final Supplier<CompletableFuture<R>> operation) {
+        try {
+            return operation.get();
+        } catch (final RuntimeException e) {
+            final CompletableFuture<R> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+    }
+
+    private static <R> R join(final CompletableFuture<R> future) {
+        try {
+            return future.join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
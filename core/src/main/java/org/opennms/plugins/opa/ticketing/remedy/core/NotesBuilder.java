@@ -0,0 +1,370 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+
+package org.opennms.plugins.opa.ticketing.remedy.core;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Builds the notes of an incident within a budget of characters, without ever concatenating
+ * the full text.
+ *
+ * Content is copied one character at a time, optionally stripping HTML tags and decoding the
+ * common entities on the way.  Once the budget is reached, the notes end with a marker and the
+ * rest either goes to a gzipped overflow attachment (itself bounded in size, and written to a
+ * temporary file rather than held in memory) or is dropped.
+ * Surrogate pairs are never split.
+ */
+class NotesBuilder {
+    static final String OVERFLOW_ATTACHMENT_NAME = "notes-overflow.txt.gz";
+    static final String TRUNCATED_MARKER = "\n[truncated]";
+    static final String OVERFLOW_MARKER = "\n[truncated, continued in attachment " + OVERFLOW_ATTACHMENT_NAME + "]";
+
+    private static final int MAX_TAG_NAME = 8;
+    private static final int MAX_ENTITY = 8;
+    // the overflow is flushed and measured every so many characters
+    private static final int FLUSH_CHARS = 4096;
+    // what the characters written between two measurements and the gzip trailer can add at most:
+    // three bytes per character stored uncompressed, plus the deflate block headers and the trailer
+    private static final int OVERFLOW_HEADROOM = 3 * (FLUSH_CHARS + 1) + 64;
+
+    private final int m_maxChars;
+    private final boolean m_stripHtml;
+    private final long m_maxAttachmentSize;
+    private final StringBuilder m_notes = new StringBuilder();
+
+    private boolean m_overflowed;
+    private long m_overflowChars;
+    private Path m_attachmentFile;
+    private CountingOutputStream m_attachment;
+    private Writer m_overflow;
+    private int m_unflushed = FLUSH_CHARS;
+    private boolean m_overflowFull;
+
+    // HTML stripping state, kept across appends
+    private boolean m_lessThan;
+    private boolean m_inTag;
+    private final StringBuilder m_tagName = new StringBuilder();
+    private boolean m_tagNameDone;
+    private StringBuilder m_entity;
+
+    /**
+     * @param maxChars the maximum length of the notes, 0 for no limit
+     * @param stripHtml whether to strip HTML from content
+     * @param maxAttachmentSize the maximum size of the gzipped overflow attachment, 0 to drop the overflow
+     */
+    NotesBuilder(final int maxChars, final boolean stripHtml, final long maxAttachmentSize) {
+        m_maxChars = maxChars;
+        m_stripHtml = stripHtml;
+        m_maxAttachmentSize = maxAttachmentSize;
+    }
+
+    /**
+     * Append text written by the plugin itself, which is never stripped.
+     */
+    NotesBuilder append(final String text) {
+        final String value = String.valueOf(text);
+        for (int i = 0; i < value.length(); i++) {
+            emit(value.charAt(i));
+        }
+        return this;
+    }
+
+    /**
+     * Append content from the alarm or user, which may be HTML.
+     */
+    NotesBuilder appendContent(final String content) {
+        if (!m_stripHtml) {
+            return append(content);
+        }
+        final String value = String.valueOf(content);
+        for (int i = 0; i < value.length(); i++) {
+            strip(value.charAt(i));
+        }
+        flushEntity();
+        if (m_lessThan) {
+            m_lessThan = false;
+            emit('<');
+        }
+        m_inTag = false;
+        return this;
+    }
+
+    private void strip(final char c) {
+        if (m_lessThan) {
+            // only a letter, '/' or '!' starts a tag, anything else is a plain less-than sign
+            m_lessThan = false;
+            if (Character.isLetter(c) || c == '/' || c == '!') {
+                m_inTag = true;
+                m_tagName.setLength(0);
+                m_tagNameDone = false;
+            } else {
+                emit('<');
+            }
+        }
+        if (m_inTag) {
+            if (c == '>') {
+                m_inTag = false;
+                if (isBlockTag(m_tagName)) {
+                    emit('\n');
+                }
+            } else if (!m_tagNameDone) {
+                if (Character.isLetterOrDigit(c) && m_tagName.length() < MAX_TAG_NAME) {
+                    m_tagName.append(Character.toLowerCase(c));
+                } else if (c != '/' || m_tagName.length() > 0) {
+                    m_tagNameDone = true;
+                }
+            }
+        } else if (m_entity != null) {
+            if (c == ';') {
+                final String decoded = decodeEntity(m_entity);
+                if (decoded != null) {
+                    m_entity = null;
+                    append(decoded);
+                } else {
+                    flushEntity(';');
+                }
+            } else if (Character.isLetterOrDigit(c) || (c == '#' && m_entity.length() == 0)) {
+                if (m_entity.length() < MAX_ENTITY) {
+                    m_entity.append(c);
+                } else {
+                    flushEntity(c);
+                }
+            } else {
+                flushEntity();
+                strip(c);
+            }
+        } else if (c == '<') {
+            m_lessThan = true;
+        } else if (c == '&') {
+            m_entity = new StringBuilder();
+        } else {
+            emit(c);
+        }
+    }
+
+    private void flushEntity() {
+        if (m_entity != null) {
+            final String entity = m_entity.toString();
+            m_entity = null;
+            emit('&');
+            append(entity);
+        }
+    }
+
+    private void flushEntity(final char last) {
+        flushEntity();
+        emit(last);
+    }
+
+    private static boolean isBlockTag(final CharSequence name) {
+        switch (name.toString()) {
+            case "br":
+            case "p":
+            case "div":
+            case "li":
+            case "tr":
+            case "h1":
+            case "h2":
+            case "h3":
+            case "pre":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static String decodeEntity(final CharSequence entity) {
+        final String name = entity.toString();
+        switch (name) {
+            case "lt":
+                return "<";
+            case "gt":
+                return ">";
+            case "amp":
+                return "&";
+            case "quot":
+                return "\"";
+            case "apos":
+                return "'";
+            case "nbsp":
+                return " ";
+            default:
+                break;
+        }
+        if (name.length() > 1 && name.charAt(0) == '#') {
+            try {
+                final int codePoint = name.charAt(1) == 'x' || name.charAt(1) == 'X'
+                        ? Integer.parseInt(name.substring(2), 16) : Integer.parseInt(name.substring(1));
+                return isXmlChar(codePoint) ? new String(Character.toChars(codePoint)) : null;
+            } catch (final NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return whether the code point is allowed in XML 1.0 documents (the {@code Char} production)
+     */
+    private static boolean isXmlChar(final int codePoint) {
+        return codePoint == 0x9 || codePoint == 0xA || codePoint == 0xD
+                || (codePoint >= 0x20 && codePoint <= 0xD7FF)
+                || (codePoint >= 0xE000 && codePoint <= 0xFFFD)
+                || (codePoint >= 0x10000 && codePoint <= 0x10FFFF);
+    }
+
+    private void emit(final char c) {
+        if (m_overflowed) {
+            overflow(c);
+            return;
+        }
+        if (m_maxChars <= 0 || m_notes.length() < m_maxChars) {
+            m_notes.append(c);
+            return;
+        }
+
+        // the budget is exhausted: make room for the marker and move the tail to the overflow
+        m_overflowed = true;
+        int keep = Math.max(m_maxChars - marker().length(), 0);
+        if (keep > 0 && Character.isHighSurrogate(m_notes.charAt(keep - 1))) {
+            keep--;
+        }
+        for (int i = keep; i < m_notes.length(); i++) {
+            overflow(m_notes.charAt(i));
+        }
+        m_notes.setLength(keep);
+        overflow(c);
+    }
+
+    private String marker() {
+        return m_maxAttachmentSize > 0 ? OVERFLOW_MARKER : TRUNCATED_MARKER;
+    }
+
+    private void overflow(final char c) {
+        m_overflowChars++;
+        if (m_maxAttachmentSize <= 0) {
+            return;
+        }
+        try {
+            if (m_attachment == null) {
+                m_attachmentFile = Files.createTempFile("remedy-notes-", ".gz");
+                m_attachment = new CountingOutputStream(Files.newOutputStream(m_attachmentFile));
+                m_overflow = new OutputStreamWriter(new GZIPOutputStream(m_attachment, 8192, true), StandardCharsets.UTF_8);
+            }
+            if (m_overflowFull) {
+                return;
+            }
+            // the compressor holds on to what is written, so the size is only known after a flush;
+            // never measured between the halves of a surrogate pair
+            if (m_unflushed >= FLUSH_CHARS && !Character.isLowSurrogate(c)) {
+                m_overflow.flush();
+                m_unflushed = 0;
+                if (m_attachment.m_count + OVERFLOW_HEADROOM > m_maxAttachmentSize) {
+                    m_overflowFull = true;
+                    return;
+                }
+            }
+            m_overflow.write(c);
+            m_unflushed++;
+        } catch (final IOException e) {
+            throw new RemedyTicketerException("Unable to compress the notes overflow", e);
+        }
+    }
+
+    /**
+     * @return the notes, ending with a marker if they were truncated
+     */
+    String getNotes() {
+        if (!m_overflowed) {
+            return m_notes.toString();
+        }
+        String marker = marker();
+        if (m_maxChars > 0 && marker.length() > m_maxChars) {
+            // no room for the whole marker
+            marker = marker.substring(0, m_maxChars);
+        }
+        return new StringBuilder(m_notes.length() + marker.length()).append(m_notes).append(marker).toString();
+    }
+
+    /**
+     * @return the number of characters that did not fit in the notes
+     */
+    long getOverflowChars() {
+        return m_overflowChars;
+    }
+
+    /**
+     * @return the gzipped overflow, or null if the notes fit or the overflow is dropped; it is cut short
+     * before it exceeds the maximum attachment size, and must be closed once the request has been sent
+     */
+    WorkInfoAttachment getOverflowAttachment() {
+        if (m_attachment == null) {
+            return null;
+        }
+        try {
+            m_overflow.close();
+            return WorkInfoAttachment.fromTemporaryFile(OVERFLOW_ATTACHMENT_NAME, m_attachmentFile);
+        } catch (final IOException e) {
+            try {
+                Files.deleteIfExists(m_attachmentFile);
+            } catch (final IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw new RemedyTicketerException("Unable to compress the notes overflow", e);
+        }
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long m_count;
+
+        private CountingOutputStream(final OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            out.write(b);
+            m_count++;
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            out.write(b, off, len);
+            m_count += len;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+
+package org.opennms.plugins.opa.ticketing.remedy.core;
+
+import java.net.SocketTimeoutException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.cxf.endpoint.Client;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.phase.AbstractPhaseInterceptor;
+import org.apache.cxf.phase.Phase;
+import org.apache.cxf.service.model.BindingOperationInfo;
+import org.opennms.plugins.opa.ticketing.remedy.core.diagnostics.LatencyHistogram;
+
+/**
+ * Receive timeouts per SOAP operation, either fixed or derived from the observed latency of
+ * the operation: a percentile of the recent calls times a factor, clamped to bounds.  Until
+ * enough calls have been seen, an adaptive timeout is the upper bound.  Calls that timed out
+ * count as taking at least the timeout they were given, so the timeout rises when the server
+ * slows down instead of going by the calls that were fast enough to succeed.
+ *
+ * The timeouts are applied per call by an interceptor, so operations sharing a port (query
+ * and modify) each get their own.
+ */
+public class OperationTimeouts {
+    /** Derive the timeout from the observed latency. */
+    public static final long ADAPTIVE = -1;
+
+    /** Calls needed before the observed latency is used. */
+    static final int MIN_SAMPLES = 20;
+
+    private final double m_percentile;
+    private final double m_factor;
+    private final long m_minMillis;
+    private final long m_maxMillis;
+    private final int m_window;
+    private final long m_connectMillis;
+
+    private final Map<String, Long> m_timeouts = new ConcurrentHashMap<>();
+    private final Map<String, Latency> m_latencies = new ConcurrentHashMap<>();
+
+    /**
+     * @param percentile the percentile of the observed latency used by adaptive timeouts
+     * @param factor the adaptive timeout is the percentile times this factor
+     * @param minMillis the lower bound of adaptive timeouts
+     * @param maxMillis the upper bound of adaptive timeouts
+     * @param window the number of calls after which the observed latency is started over
+     * @param connectMillis the connection timeout; 0 for the transport default
+     */
+    public OperationTimeouts(final double percentile, final double factor, final long minMillis, final long maxMillis, final int window, final long connectMillis) {
+        m_percentile = percentile;
+        m_factor = factor;
+        m_minMillis = minMillis;
+        m_maxMillis = Math.max(maxMillis, minMillis);
+        m_window = Math.max(window, MIN_SAMPLES);
+        m_connectMillis = connectMillis;
+    }
+
+    /**
+     * @param timeoutMillis the receive timeout, {@link #ADAPTIVE}, or 0 for the transport default
+     */
+    public void setTimeout(final String operation, final long timeoutMillis) {
+        m_timeouts.put(operation, timeoutMillis);
+    }
+
+    /**
+     * @return the receive timeout currently applied to the operation, 0 for the transport default
+     */
+    public long getTimeout(final String operation) {
+        final long timeout = m_timeouts.getOrDefault(operation, 0L);
+        if (timeout != ADAPTIVE) {
+            return Math.max(timeout, 0);
+        }
+
+        final Latency latency = m_latencies.get(operation);
+        final LatencyHistogram observed = latency == null ? null : latency.observed();
+        if (observed == null) {
+            return m_maxMillis;
+        }
+        final long millis = (long) Math.ceil(observed.getPercentileMicros(m_percentile) * m_factor / 1000.0);
+        return Math.min(Math.max(millis, m_minMillis), m_maxMillis);
+    }
+
+    /**
+     * Record the duration of a successful call.
+     */
+    public void record(final String operation, final long durationNanos) {
+        m_latencies.computeIfAbsent(operation, o -> new Latency()).record(durationNanos);
+    }
+
+    /**
+     * Record a call that timed out, as taking at least the timeout currently applied to the operation.
+     */
+    public void recordTimeout(final String operation, final long durationNanos) {
+        record(operation, Math.max(durationNanos, TimeUnit.MILLISECONDS.toNanos(getTimeout(operation))));
+    }
+
+    /**
+     * @return whether the call failed because the server did not answer in time
+     */
+    public static boolean isTimeout(final Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            if (cause instanceof SocketTimeoutException || cause instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the latency of the recent successful and timed-out calls of the operation, or null if none were recorded
+     */
+    public LatencyHistogram getLatency(final String operation) {
+        final Latency latency = m_latencies.get(operation);
+        return latency == null ? null : latency.m_current.get();
+    }
+
+    /**
+     * @return the latency the adaptive timeout is based on, or null if too few calls were seen
+     */
+    public LatencyHistogram getObservedLatency(final String operation) {
+        final Latency latency = m_latencies.get(operation);
+        return latency == null ? null : latency.observed();
+    }
+
+    /**
+     * Apply the timeouts to the calls made by a client.
+     */
+    public void install(final Client client) {
+        client.getOutInterceptors().add(new TimeoutInterceptor());
+    }
+
+    /**
+     * The latency of the current window, with the previous window used until the current one has enough calls.
+     */
+    private final class Latency {
+        private final AtomicReference<LatencyHistogram> m_current = new AtomicReference<>(new LatencyHistogram());
+        private volatile LatencyHistogram m_previous;
+
+        private void record(final long durationNanos) {
+            final LatencyHistogram current = m_current.get();
+            current.record(durationNanos);
+            if (current.getCount() >= m_window && m_current.compareAndSet(current, new LatencyHistogram())) {
+                m_previous = current;
+            }
+        }
+
+        private LatencyHistogram observed() {
+            final LatencyHistogram current = m_current.get();
+            if (current.getCount() >= MIN_SAMPLES) {
+                return current;
+            }
+            return m_previous;
+        }
+    }
+
+    private final class TimeoutInterceptor extends AbstractPhaseInterceptor<Message> {
+        private TimeoutInterceptor() {
+            super(Phase.SETUP);
+        }
+
+        @Override
+        public void handleMessage(final Message message) {
+            final Exchange exchange = message.getExchange();
+            final BindingOperationInfo operation = exchange == null ? null : exchange.getBindingOperationInfo();
+            if (operation != null) {
+                final long timeout = getTimeout(operation.getName().getLocalPart());
+                if (timeout > 0) {
+                    message.put(Message.RECEIVE_TIMEOUT, timeout);
+                }
+            }
+            if (m_connectMillis > 0) {
+                message.put(Message.CONNECTION_TIMEOUT, m_connectMillis);
+            }
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+
+package org.opennms.plugins.opa.ticketing.remedy.core;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import org.opennms.plugins.opa.ticketing.remedy.core.diagnostics.LatencyHistogram;
+
+/**
+ * Hedges idempotent requests: when the first attempt has not answered within a percentile of
+ * the observed latency, a second attempt is sent and the first reply wins.  The other attempt
+ * is then cancelled.
+ *
+ * Hedging is limited by a budget: every request earns a fraction of a hedge, up to a small
+ * burst, so hedges add at most that fraction of extra load even when the server is slow
+ * across the board.  The burst starts at the budget itself, so a budget of 0 never hedges.
+ * Without enough observed latency to go by, requests are not hedged.
+ */
+public class QueryHedger {
+    /** The number of hedges that may be saved up while requests are fast. */
+    private static final double MAX_TOKENS = 10;
+
+    private final double m_percentile;
+    private final long m_minDelayMillis;
+    private final double m_budget;
+    private final ScheduledThreadPoolExecutor m_scheduler;
+
+    private double m_tokens;
+
+    private final AtomicLong m_requests = new AtomicLong();
+    private final AtomicLong m_hedges = new AtomicLong();
+    private final AtomicLong m_hedgeWins = new AtomicLong();
+
+    /**
+     * @param percentile the percentile of the observed latency after which a request is hedged
+     * @param minDelayMillis the minimum delay before a request is hedged
+     * @param budgetPercent the maximum number of hedges per 100 requests
+     */
+    public QueryHedger(final double percentile, final long minDelayMillis, final double budgetPercent) {
+        m_percentile = percentile;
+        m_minDelayMillis = minDelayMillis;
+        m_budget = Math.max(budgetPercent, 0) / 100.0;
+        m_tokens = Math.min(Math.max(budgetPercent, 0), MAX_TOKENS);
+        m_scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            final Thread thread = new Thread(r, "remedy-hedge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        m_scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Start a request, hedging it if it is slow.
+     *
+     * @param observed the recent latency of the request, or null if too few were seen
+     * @param primary starts the first attempt
+     * @param hedge starts the second attempt
+     * @return the first successful reply, or the failure if every attempt sent failed
+     */
+    public <T> CompletableFuture<T> hedge(final LatencyHistogram observed, final Supplier<CompletableFuture<T>> primary, final Supplier<CompletableFuture<T>> hedge) {
+        m_requests.incrementAndGet();
+        deposit();
+
+        final CompletableFuture<T> first = start(primary);
+        if (observed == null || first.isDone() || m_scheduler.isShutdown()) {
+            return first;
+        }
+
+        final long delayMillis = Math.max(TimeUnit.MICROSECONDS.toMillis(observed.getPercentileMicros(m_percentile)), m_minDelayMillis);
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        final AtomicInteger pending = new AtomicInteger(1);
+        final AtomicBoolean settled = new AtomicBoolean();
+        final AtomicReference<CompletableFuture<T>> second = new AtomicReference<>();
+        final ScheduledFuture<?> timer = m_scheduler.schedule(() -> {
+            if (result.isDone() || !withdraw()) {
+                return;
+            }
+            if (result.isDone()) {
+                // the first attempt answered while the token was taken
+                refund();
+                return;
+            }
+            pending.incrementAndGet();
+            m_hedges.incrementAndGet();
+            final CompletableFuture<T> started = start(hedge);
+            second.set(started);
+            if (result.isDone()) {
+                started.cancel(false);
+            }
+            started.whenComplete((value, e) -> complete(result, pending, settled, value, e, true));
+        }, delayMillis, TimeUnit.MILLISECONDS);
+
+        first.whenComplete((value, e) -> {
+            timer.cancel(false);
+            complete(result, pending, settled, value, e, false);
+        });
+        result.whenComplete((value, e) -> {
+            // whichever attempt lost is no longer needed
+            first.cancel(false);
+            final CompletableFuture<T> started = second.get();
+            if (started != null) {
+                started.cancel(false);
+            }
+        });
+        return result;
+    }
+
+    private <T> void complete(final CompletableFuture<T> result, final AtomicInteger pending, final AtomicBoolean settled,
+                              final T value, final Throwable e, final boolean hedged) {
+        if (e == null) {
+            // count the win before the caller sees the reply
+            if (settled.compareAndSet(false, true)) {
+                if (hedged) {
+                    m_hedgeWins.incrementAndGet();
+                }
+                result.complete(value);
+            }
+        } else if (pending.decrementAndGet() == 0) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    private synchronized void deposit() {
+        m_tokens = Math.min(m_tokens + m_budget, MAX_TOKENS);
+    }
+
+    private synchronized boolean withdraw() {
+        if (m_tokens < 1) {
+            return false;
+        }
+        m_tokens--;
+        return true;
+    }
+
+    private synchronized void refund() {
+        m_tokens = Math.min(m_tokens + 1, MAX_TOKENS);
+    }
+
+    /**
+     * @return the number of requests made through the hedger
+     */
+    public long getRequestCount() {
+        return m_requests.get();
+    }
+
+    /**
+     * @return the number of second attempts sent
+     */
+    public long getHedgeCount() {
+        return m_hedges.get();
+    }
+
+    /**
+     * @return the number of second attempts that answered first
+     */
+    public long getHedgeWinCount() {
+        return m_hedgeWins.get();
+    }
+
+    /**
+     * @return the share of requests that were hedged
+     */
+    public double getHedgeRate() {
+        final long requests = m_requests.get();
+        return requests == 0 ? 0 : (double) m_hedges.get() / requests;
+    }
+
+    /**
+     * @return the share of hedges that answered first
+     */
+    public double getWinRate() {
+        final long hedges = m_hedges.get();
+        return hedges == 0 ? 0 : (double) m_hedgeWins.get() / hedges;
+    }
+
+    public void resetStats() {
+        m_requests.set(0);
+        m_hedges.set(0);
+        m_hedgeWins.set(0);
+    }
+
+    public void shutdown() {
+        m_scheduler.shutdownNow();
+    }
+
+    private static <T> CompletableFuture<T> start(final Supplier<CompletableFuture<T>> attempt) {
+        try {
+            return attempt.get();
+        } catch (final RuntimeException e) {
+            final CompletableFuture<T> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+    }
+}
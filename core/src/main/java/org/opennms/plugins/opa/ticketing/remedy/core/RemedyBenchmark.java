@@ -0,0 +1,567 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+
+package org.opennms.plugins.opa.ticketing.remedy.core;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Dictionary;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+import java.util.function.ToLongFunction;
+import java.util.stream.LongStream;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.stream.XMLStreamException;
+
+import org.apache.cxf.staxutils.StaxUtils;
+import org.codehaus.stax2.XMLStreamWriter2;
+import org.opennms.integration.api.v1.ticketing.Ticket;
+import org.opennms.integration.api.v1.ticketing.immutables.ImmutableTicket;
+import org.opennms.integration.remedy.ticketservice.AuthenticationInfo;
+import org.opennms.integration.remedy.ticketservice.CreateInputMap;
+import org.opennms.plugins.opa.ticketing.remedy.core.diagnostics.LatencyHistogram;
+
+/**
+ * Runs synthetic ticket operations through a plugin and measures their throughput and latency.
+ *
+ * Operations go through the asynchronous plugin API, with at most {@code concurrency} in flight.
+ * Against a real endpoint, creates open real incidents.  Concurrent queries of the same incident
+ * share one call, so query latency is best measured with a concurrency of 1.
+ */
+public class RemedyBenchmark {
+    /** Operations run unmeasured before {@link #runRender} and {@link #runMapping}, until the JIT has compiled them */
+    public static final int DEFAULT_WARMUP = 10000;
+    /** Rounds measured by {@link #runRender} and {@link #runMapping}, to tell how much the results vary */
+    public static final int DEFAULT_ROUNDS = 5;
+
+    public enum Operation {
+        QUERY,
+        CREATE
+    }
+
+    private final AsyncTicketingPlugin m_plugin;
+
+    public RemedyBenchmark(final AsyncTicketingPlugin plugin) {
+        m_plugin = plugin;
+    }
+
+    /**
+     * Create a plugin with the configuration of {@code template} that talks to an in-memory stub instead of Remedy.
+     *
+     * @param latencyMillis the time the stub takes to answer each call
+     */
+    public static RemedyTicketerPlugin newStubPlugin(final RemedyTicketerPlugin template, final long latencyMillis) {
+        final long latencyNanos = TimeUnit.MILLISECONDS.toNanos(latencyMillis);
+        return newStubPlugin(template, operation -> latencyNanos);
+    }
+
+    /**
+     * Create a plugin with the configuration of {@code template} that talks to an in-memory stub instead of Remedy.
+     * The stub plugin neither captures nor exports traces, so it does not mix with the production diagnostics,
+     * and does not take part in high availability, so it claims no leases in the store shared with other nodes.
+     * Hedged queries go to the stub as well, never to the configured hedge endpoint.
+     *
+     * @param latencyNanos the time the stub takes to answer a call, by SOAP operation name
+     */
+    public static RemedyTicketerPlugin newStubPlugin(final RemedyTicketerPlugin template, final ToLongFunction<String> latencyNanos) {
+        final Dictionary<String, Object> properties = new Hashtable<>();
+        final Dictionary<String, Object> source = template.getConfigDao().getProperties();
+        if (source != null) {
+            final Enumeration<String> keys = source.keys();
+            while (keys.hasMoreElements()) {
+                final String key = keys.nextElement();
+                if (!key.startsWith("ha.")) {
+                    properties.put(key, source.get(key));
+                }
+            }
+        }
+        properties.remove("capture.file");
+        properties.put("tracing.exporter", "none");
+
+        final StubIncidentPort stub = new StubIncidentPort(latencyNanos);
+        final RemedyTicketerPlugin plugin = new RemedyTicketerPlugin(new DefaultRemedyConfigDao(properties)) {
+            @Override
+            public void destroy() {
+                super.destroy();
+                stub.shutdown();
+            }
+        };
+        plugin.readPort = stub;
+        plugin.createPort = stub;
+        plugin.hedgePort = stub;
+        return plugin;
+    }
+
+    /**
+     * Run the operations and wait for all of them to complete.
+     *
+     * @param incidentNumber the incident to query
+     */
+    public Result run(final Operation operation, final String incidentNumber, final int count, final int concurrency) throws InterruptedException {
+        final int permits = Math.max(concurrency, 1);
+        final Semaphore inFlight = new Semaphore(permits);
+        final LatencyHistogram latency = new LatencyHistogram();
+        final AtomicLong errors = new AtomicLong();
+        final AtomicReference<Throwable> firstError = new AtomicReference<>();
+
+        final long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            inFlight.acquire();
+            final long begin = System.nanoTime();
+            CompletableFuture<?> future;
+            try {
+                future = operation == Operation.QUERY ? m_plugin.getAsync(incidentNumber) : m_plugin.saveOrUpdateAsync(newTicket(i));
+            } catch (final RuntimeException e) {
+                future = new CompletableFuture<>();
+                ((CompletableFuture<?>) future).completeExceptionally(e);
+            }
+            future.whenComplete((result, e) -> {
+                latency.record(System.nanoTime() - begin);
+                if (e != null) {
+                    errors.incrementAndGet();
+                    firstError.compareAndSet(null, e);
+                }
+                inFlight.release();
+            });
+        }
+        inFlight.acquire(permits);
+        return new Result(operation, count, errors.get(), firstError.get(), System.nanoTime() - start, latency);
+    }
+
+    /**
+     * Write {@code requests} create requests, with their authentication header, through JAXB and from the
+     * pre-rendered fragments of {@link SubmitRenderer}, and measure the CPU time and memory each takes.
+     * Nothing is sent: requests are written to a discarding stream, the way CXF writes them to the wire.
+     * Both ways first write {@code warmup} requests unmeasured, then {@code rounds} rounds of {@code requests}.
+     */
+    public static RenderResult runRender(final RemedyTicketerPlugin plugin, final int requests, final int warmup, final int rounds) throws JAXBException, XMLStreamException {
+        final int count = Math.max(requests, 1);
+        final int measured = Math.max(rounds, 1);
+        final JAXBContext context = plugin.getCreateJAXBContext();
+        if (context == null) {
+            throw new RemedyTicketerException("The create port is not a CXF client");
+        }
+        final SubmitRenderer renderer = plugin.newSubmitRenderer(context, false);
+        final AuthenticationInfo header = plugin.getRemedyAuthenticationHeader();
+        final CreateInputMap[] inputs = new CreateInputMap[64];
+        final List<WorkInfoAttachment> attachments = new ArrayList<>();
+        for (int i = 0; i < inputs.length; i++) {
+            inputs[i] = plugin.getRemedyCreateInputMap(newTicket(i), attachments);
+            attachments.forEach(WorkInfoAttachment::close);
+            attachments.clear();
+            if (!renderer.canRender(inputs[i])) {
+                throw new RemedyTicketerException("The synthetic create request cannot be rendered");
+            }
+        }
+
+        final RenderWriter jaxb = (writer, input) -> {
+            final Marshaller marshaller = context.createMarshaller();
+            marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);
+            writer.writeStartElement("Header");
+            marshaller.marshal(new JAXBElement<>(SubmitRenderer.HEADER_ELEMENT, AuthenticationInfo.class, header), writer);
+            writer.writeEndElement();
+            writer.writeStartElement("Body");
+            marshaller.marshal(new JAXBElement<>(SubmitRenderer.SUBMIT_ELEMENT, CreateInputMap.class, input), writer);
+            writer.writeEndElement();
+        };
+        final RenderWriter rendered = (writer, input) -> {
+            writer.writeStartElement("Header");
+            writer.writeRaw(renderer.renderHeader());
+            writer.writeEndElement();
+            writer.writeStartElement("Body");
+            renderer.render(input, writer);
+            writer.writeEndElement();
+        };
+
+        final RenderResult.Measurement jaxbResult = measureRender(jaxb, inputs, count, warmup, measured);
+        final RenderResult.Measurement renderedResult = measureRender(rendered, inputs, count, warmup, measured);
+        return new RenderResult(count, measured, jaxbResult, renderedResult);
+    }
+
+    /**
+     * Map the attributes of {@code tickets} synthetic tickets to the fields of their create requests, as
+     * configured with {@value FieldMapping#PREFIX}*, and measure the CPU time and memory it takes alone and
+     * as part of building the whole request.  The tickets cycle through the attribute values in the value
+     * tables, and a value missing from them.  Both ways first run {@code warmup} times unmeasured, then
+     * {@code rounds} rounds of {@code tickets}.
+     */
+    public static MappingResult runMapping(final RemedyTicketerPlugin plugin, final int tickets, final int warmup, final int rounds) {
+        final int count = Math.max(tickets, 1);
+        final int measured = Math.max(rounds, 1);
+        final FieldMapping mapping = plugin.getFieldMapping();
+        if (mapping.isEmpty()) {
+            throw new RemedyTicketerException("No fields are mapped, see " + FieldMapping.PREFIX + "* in the configuration");
+        }
+        final Map<String, List<String>> attributeValues = new LinkedHashMap<>();
+        mapping.getAttributeValues().forEach((attribute, values) -> {
+            final List<String> cycle = new ArrayList<>(values);
+            cycle.add("remedy:bench unmapped value");
+            attributeValues.put(attribute, cycle);
+        });
+        final Ticket[] ticketSamples = new Ticket[64];
+        for (int i = 0; i < ticketSamples.length; i++) {
+            final Map<String, String> attributes = new HashMap<>();
+            for (final Map.Entry<String, List<String>> attribute : attributeValues.entrySet()) {
+                attributes.put(attribute.getKey(), attribute.getValue().get(i % attribute.getValue().size()));
+            }
+            ticketSamples[i] = ImmutableTicket.newBuilderFrom(newTicket(i)).setAttributes(attributes).build();
+        }
+        final CreateInputMap[] inputs = new CreateInputMap[ticketSamples.length];
+        for (int i = 0; i < inputs.length; i++) {
+            inputs[i] = new CreateInputMap();
+        }
+
+        final RenderResult.Measurement mapped = measure(i -> mapping.apply(ticketSamples[i % ticketSamples.length].getAttributes(), inputs[i % inputs.length]), count, warmup, measured);
+        final List<WorkInfoAttachment> attachments = new ArrayList<>();
+        final RenderResult.Measurement built = measure(i -> {
+            plugin.getRemedyCreateInputMap(ticketSamples[i % ticketSamples.length], attachments);
+            if (!attachments.isEmpty()) {
+                attachments.forEach(WorkInfoAttachment::close);
+                attachments.clear();
+            }
+        }, count, warmup, measured);
+        return new MappingResult(count, measured, mapping.getFields().size(), mapped, built);
+    }
+
+    private static RenderResult.Measurement measure(final IntConsumer operation, final int count, final int warmup, final int rounds) {
+        for (int i = 0; i < warmup; i++) {
+            operation.accept(i);
+        }
+
+        final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        final long[] elapsed = new long[rounds];
+        final long[] cpu = new long[rounds];
+        final long allocatedBefore = getAllocatedBytes();
+        for (int round = 0; round < rounds; round++) {
+            final long cpuBefore = threads.getCurrentThreadCpuTime();
+            final long start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                operation.accept(i);
+            }
+            elapsed[round] = System.nanoTime() - start;
+            cpu[round] = cpuBefore < 0 ? -1 : threads.getCurrentThreadCpuTime() - cpuBefore;
+        }
+        final long allocated = getAllocatedBytes() - allocatedBefore;
+        return new RenderResult.Measurement(elapsed, cpu, allocatedBefore < 0 ? -1 : allocated, 0);
+    }
+
+    /**
+     * Write the requests as one stream, so that only their serialization is measured, not the creation of a writer.
+     */
+    private static RenderResult.Measurement measureRender(final RenderWriter render, final CreateInputMap[] inputs, final int count, final int warmup,
+                                                          final int rounds) throws JAXBException, XMLStreamException {
+        final CountingOutputStream out = new CountingOutputStream();
+        final XMLStreamWriter2 writer = (XMLStreamWriter2) StaxUtils.createXMLStreamWriter(out);
+        writer.writeStartElement("Envelope");
+        for (int i = 0; i < warmup; i++) {
+            render.write(writer, inputs[i % inputs.length]);
+        }
+        writer.flush();
+        out.m_count = 0;
+
+        final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        final long[] elapsed = new long[rounds];
+        final long[] cpu = new long[rounds];
+        final long allocatedBefore = getAllocatedBytes();
+        for (int round = 0; round < rounds; round++) {
+            final long cpuBefore = threads.getCurrentThreadCpuTime();
+            final long start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                render.write(writer, inputs[i % inputs.length]);
+            }
+            writer.flush();
+            elapsed[round] = System.nanoTime() - start;
+            cpu[round] = cpuBefore < 0 ? -1 : threads.getCurrentThreadCpuTime() - cpuBefore;
+        }
+        final long allocated = getAllocatedBytes() - allocatedBefore;
+        return new RenderResult.Measurement(elapsed, cpu, allocatedBefore < 0 ? -1 : allocated, out.m_count);
+    }
+
+    /**
+     * @return the bytes allocated by the current thread so far, or -1 if the JVM does not tell
+     */
+    private static long getAllocatedBytes() {
+        try {
+            final Object bytes = ManagementFactory.getPlatformMBeanServer().invoke(new ObjectName(ManagementFactory.THREAD_MXBEAN_NAME),
+                    "getThreadAllocatedBytes", new Object[] { Thread.currentThread().getId() }, new String[] { long.class.getName() });
+            return bytes instanceof Long ? (Long) bytes : -1;
+        } catch (final JMException | RuntimeException e) {
+            return -1;
+        }
+    }
+
+    private interface RenderWriter {
+        void write(XMLStreamWriter2 writer, CreateInputMap input) throws JAXBException, XMLStreamException;
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private long m_count;
+
+        @Override
+        public void write(final int b) {
+            m_count++;
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) {
+            m_count += len;
+        }
+    }
+
+    /**
+     * @return a synthetic ticket with a negative alarm id, so that it shares no lease or incident with a real alarm
+     */
+    private static Ticket newTicket(final int i) {
+        return ImmutableTicket.newBuilder()
+                .setAlarmId(-1 - i)
+                .setState(Ticket.State.OPEN)
+                .setSummary("remedy:bench synthetic ticket " + i)
+                .setDetails("Synthetic ticket created by the remedy:bench command")
+                .setUser("admin")
+                .build();
+    }
+
+    public static class Result {
+        private final Operation m_operation;
+        private final int m_count;
+        private final long m_errors;
+        private final Throwable m_firstError;
+        private final long m_elapsedNanos;
+        private final LatencyHistogram m_latency;
+
+        Result(final Operation operation, final int count, final long errors, final Throwable firstError, final long elapsedNanos, final LatencyHistogram latency) {
+            m_operation = operation;
+            m_count = count;
+            m_errors = errors;
+            m_firstError = firstError;
+            m_elapsedNanos = elapsedNanos;
+            m_latency = latency;
+        }
+
+        public Operation getOperation() {
+            return m_operation;
+        }
+
+        public int getCount() {
+            return m_count;
+        }
+
+        public long getErrors() {
+            return m_errors;
+        }
+
+        /**
+         * @return the first failure, or null if every operation succeeded
+         */
+        public Throwable getFirstError() {
+            return m_firstError;
+        }
+
+        public long getElapsedNanos() {
+            return m_elapsedNanos;
+        }
+
+        /**
+         * @return the completed operations per second
+         */
+        public double getThroughput() {
+            return m_elapsedNanos == 0 ? 0 : m_count * 1e9 / m_elapsedNanos;
+        }
+
+        public LatencyHistogram getLatency() {
+            return m_latency;
+        }
+    }
+
+    public static class RenderResult {
+        private final int m_count;
+        private final int m_rounds;
+        private final Measurement m_jaxb;
+        private final Measurement m_rendered;
+
+        RenderResult(final int count, final int rounds, final Measurement jaxb, final Measurement rendered) {
+            m_count = count;
+            m_rounds = rounds;
+            m_jaxb = jaxb;
+            m_rendered = rendered;
+        }
+
+        /**
+         * @return the number of requests written per round
+         */
+        public int getCount() {
+            return m_count;
+        }
+
+        public int getRounds() {
+            return m_rounds;
+        }
+
+        /**
+         * @return the cost of marshalling the requests through JAXB
+         */
+        public Measurement getJaxb() {
+            return m_jaxb;
+        }
+
+        /**
+         * @return the cost of writing the requests from pre-rendered fragments
+         */
+        public Measurement getRendered() {
+            return m_rendered;
+        }
+
+        /**
+         * The cost of all rounds together; the deviations are those of the rounds from their mean.
+         */
+        public static class Measurement {
+            private final long[] m_elapsedNanos;
+            private final long[] m_cpuNanos;
+            private final long m_allocatedBytes;
+            private final long m_writtenBytes;
+
+            Measurement(final long[] elapsedNanos, final long[] cpuNanos, final long allocatedBytes, final long writtenBytes) {
+                m_elapsedNanos = elapsedNanos;
+                m_cpuNanos = cpuNanos;
+                m_allocatedBytes = allocatedBytes;
+                m_writtenBytes = writtenBytes;
+            }
+
+            public long getElapsedNanos() {
+                return LongStream.of(m_elapsedNanos).sum();
+            }
+
+            /**
+             * @return the standard deviation of the elapsed time of a round
+             */
+            public double getElapsedDeviationNanos() {
+                return deviation(m_elapsedNanos);
+            }
+
+            /**
+             * @return the CPU time of the benchmark thread, or -1 if the JVM does not measure it
+             */
+            public long getCpuNanos() {
+                return LongStream.of(m_cpuNanos).anyMatch(cpu -> cpu < 0) ? -1 : LongStream.of(m_cpuNanos).sum();
+            }
+
+            /**
+             * @return the standard deviation of the CPU time of a round, or -1 if the JVM does not measure it
+             */
+            public double getCpuDeviationNanos() {
+                return getCpuNanos() < 0 ? -1 : deviation(m_cpuNanos);
+            }
+
+            private static double deviation(final long[] rounds) {
+                final double mean = LongStream.of(rounds).average().orElse(0);
+                final double variance = LongStream.of(rounds).mapToDouble(round -> (round - mean) * (round - mean)).sum() / Math.max(rounds.length - 1, 1);
+                return Math.sqrt(variance);
+            }
+
+            /**
+             * @return the memory allocated by the benchmark thread, or -1 if the JVM does not measure it
+             */
+            public long getAllocatedBytes() {
+                return m_allocatedBytes;
+            }
+
+            /**
+             * @return the size of the requests written
+             */
+            public long getWrittenBytes() {
+                return m_writtenBytes;
+            }
+        }
+    }
+
+    public static class MappingResult {
+        private final int m_count;
+        private final int m_rounds;
+        private final int m_fields;
+        private final RenderResult.Measurement m_mapping;
+        private final RenderResult.Measurement m_request;
+
+        MappingResult(final int count, final int rounds, final int fields, final RenderResult.Measurement mapping, final RenderResult.Measurement request) {
+            m_count = count;
+            m_rounds = rounds;
+            m_fields = fields;
+            m_mapping = mapping;
+            m_request = request;
+        }
+
+        /**
+         * @return the number of tickets mapped per round
+         */
+        public int getCount() {
+            return m_count;
+        }
+
+        public int getRounds() {
+            return m_rounds;
+        }
+
+        /**
+         * @return the number of mapped fields
+         */
+        public int getFields() {
+            return m_fields;
+        }
+
+        /**
+         * @return the cost of mapping the attributes alone
+         */
+        public RenderResult.Measurement getMapping() {
+            return m_mapping;
+        }
+
+        /**
+         * @return the cost of building the whole create requests, mapping included
+         */
+        public RenderResult.Measurement getRequest() {
+            return m_request;
+        }
+    }
+}
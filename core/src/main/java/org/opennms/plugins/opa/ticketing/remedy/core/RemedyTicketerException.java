@@ -35,7 +35,7 @@ public class RemedyTicketerException extends RuntimeException {
         super(message);
     }
 
-    public RemedyTicketerException(final String message, final Exception e) {
+    public RemedyTicketerException(final String message, final Throwable e) {
         super(message, e);
     }
 
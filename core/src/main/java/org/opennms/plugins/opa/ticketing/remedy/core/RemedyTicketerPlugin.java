@@ -28,28 +28,51 @@
 
 package org.opennms.plugins.opa.ticketing.remedy.core;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.GregorianCalendar;
-
-import javax.net.ssl.TrustManager;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.xml.bind.JAXBContext;
 import javax.xml.datatype.DatatypeConfigurationException;
 import javax.xml.datatype.DatatypeFactory;
 import javax.xml.datatype.XMLGregorianCalendar;
 import javax.xml.namespace.QName;
+import javax.xml.ws.AsyncHandler;
+import javax.xml.ws.BindingProvider;
+import javax.xml.ws.soap.SOAPBinding;
 
-import org.apache.cxf.configuration.jsse.TLSClientParameters;
 import org.apache.cxf.endpoint.Client;
 import org.apache.cxf.frontend.ClientProxy;
+import org.apache.cxf.jaxb.JAXBDataBinding;
 import org.apache.cxf.message.Message;
 import org.apache.cxf.transport.http.HTTPConduit;
 import org.opennms.integration.api.v1.ticketing.Ticket;
 import org.opennms.integration.api.v1.ticketing.Ticket.State;
-import org.opennms.integration.api.v1.ticketing.TicketingPlugin;
 import org.opennms.integration.api.v1.ticketing.immutables.ImmutableTicket;
 import org.opennms.integration.api.v1.ticketing.immutables.ImmutableTicket.Builder;
 import org.opennms.integration.remedy.ticketservice.AuthenticationInfo;
 import org.opennms.integration.remedy.ticketservice.CreateInputMap;
+import org.opennms.integration.remedy.ticketservice.CreateOutputMap;
 import org.opennms.integration.remedy.ticketservice.GetInputMap;
+import org.opennms.integration.remedy.ticketservice.GetListInputMap;
+import org.opennms.integration.remedy.ticketservice.GetListOutputMap;
 import org.opennms.integration.remedy.ticketservice.GetOutputMap;
 import org.opennms.integration.remedy.ticketservice.HPDIncidentInterfaceCreateWSPortTypePortType;
 import org.opennms.integration.remedy.ticketservice.HPDIncidentInterfaceCreateWSService;
@@ -58,13 +81,26 @@ import org.opennms.integration.remedy.ticketservice.HPDIncidentInterfaceWSServic
 import org.opennms.integration.remedy.ticketservice.ReportedSourceType;
 import org.opennms.integration.remedy.ticketservice.ServiceTypeType;
 import org.opennms.integration.remedy.ticketservice.SetInputMap;
+import org.opennms.integration.remedy.ticketservice.SetOutputMap;
 import org.opennms.integration.remedy.ticketservice.StatusReasonType;
 import org.opennms.integration.remedy.ticketservice.StatusType;
 import org.opennms.integration.remedy.ticketservice.VIPType;
 import org.opennms.integration.remedy.ticketservice.WorkInfoSourceType;
 import org.opennms.integration.remedy.ticketservice.WorkInfoTypeType;
 import org.opennms.integration.remedy.ticketservice.WorkInfoViewAccessType;
-import org.opennms.plugins.opa.ticketing.remedy.core.utils.AnyServerX509TrustManager;
+import org.opennms.plugins.opa.ticketing.remedy.core.capture.CaptureWriter;
+import org.opennms.plugins.opa.ticketing.remedy.core.diagnostics.HandshakeStats;
+import org.opennms.plugins.opa.ticketing.remedy.core.diagnostics.SoapCallRecorder;
+import org.opennms.plugins.opa.ticketing.remedy.core.ha.FileLeaseStore;
+import org.opennms.plugins.opa.ticketing.remedy.core.ha.JdbcLeaseStore;
+import org.opennms.plugins.opa.ticketing.remedy.core.ha.LeaseCoordinator;
+import org.opennms.plugins.opa.ticketing.remedy.core.ha.LeaseStore;
+import org.opennms.plugins.opa.ticketing.remedy.core.tracing.FileSpanExporter;
+import org.opennms.plugins.opa.ticketing.remedy.core.tracing.LoggingSpanExporter;
+import org.opennms.plugins.opa.ticketing.remedy.core.tracing.SoapTracing;
+import org.opennms.plugins.opa.ticketing.remedy.core.tracing.Span;
+import org.opennms.plugins.opa.ticketing.remedy.core.tracing.SpanExporter;
+import org.opennms.plugins.opa.ticketing.remedy.core.tracing.Tracer;
 import org.osgi.service.cm.ConfigurationAdmin;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -75,7 +111,7 @@ import org.slf4j.LoggerFactory;
  * @author <a href="mailto:jonathan@opennms.org">Jonathan Sartin</a>
  * @author <a href="antonio@opennms.it">Antonio Russo</a>
  */
-public class RemedyTicketerPlugin implements TicketingPlugin {
+public class RemedyTicketerPlugin implements AsyncTicketingPlugin {
     private static final String DEFAULT_URGENCY_TYPE = "4-Low";
 
     private static final Logger LOG = LoggerFactory.getLogger(RemedyTicketerPlugin.class);
@@ -86,6 +122,7 @@ public class RemedyTicketerPlugin implements TicketingPlugin {
     private String m_portname;
     private String m_createendpoint;
     private String m_createportname;
+    private String m_hedgeendpoint;
 
     public static final String ATTRIBUTE_NODE_LABEL_ID = "nodelabel";
 
@@ -95,11 +132,51 @@ public class RemedyTicketerPlugin implements TicketingPlugin {
     private static final String ATTRIBUTE_USER_COMMENT_ID = "remedy.user.comment";
     private static final String ATTRIBUTE_URGENCY_ID="remedy.urgency";
     private static final String ATTRIBUTE_ASSIGNED_GROUP_ID="remedy.assignedgroup";
+    private static final String ATTRIBUTE_ATTACHMENT_ID="remedy.attachment";
+    private static final String ATTRIBUTE_ATTACHMENT_SUMMARY_ID="remedy.attachment.summary";
 
     private static final int MAX_SUMMARY_CHARS=99;
 
-    HPDIncidentInterfaceWSPortTypePortType readPort;
-    HPDIncidentInterfaceCreateWSPortTypePortType createPort;
+    static final String OPERATION_QUERY = "HelpDesk_Query_Service";
+    static final String OPERATION_MODIFY = "HelpDesk_Modify_Service";
+    static final String OPERATION_SUBMIT = "HelpDesk_Submit_Service";
+    static final String OPERATION_QUERY_LIST = "HelpDesk_QueryList_Service";
+
+    static final String SPAN_GET = "remedy.get";
+    static final String SPAN_SAVE_OR_UPDATE = "remedy.saveOrUpdate";
+    static final String SPAN_QUEUE = "remedy.queue";
+    static final String SPAN_BATCH = "remedy.batch";
+    static final String SPAN_RESOLVE_BATCH = "remedy.resolveBatch";
+    static final String SPAN_CONFIG = "remedy.config";
+    static final String SPAN_REQUEST = "remedy.request";
+    static final String SPAN_SOAP_PREFIX = "remedy.soap.";
+    static final String SPAN_RESPONSE = "remedy.response";
+    static final String SPAN_ATTRIBUTE_INCIDENT_NUMBER = "remedy.incident_number";
+    static final String SPAN_ATTRIBUTE_ALARM_ID = "opennms.alarm_id";
+
+    private static final int ATTACHMENT_THREADS = 2;
+
+    private final Tracer m_tracer;
+    private final SoapCallRecorder m_callRecorder;
+    private final TicketDispatcher m_dispatcher;
+    private final OperationTimeouts m_timeouts;
+    private final QueryHedger m_hedger;
+    private final InFlightRequests<GetOutputMap> m_inFlight = new InFlightRequests<>();
+    private final CaptureWriter m_capture;
+    private final BulkResolver m_resolver;
+    private final TlsClientFactory m_tls;
+    private final HttpCompression m_compression;
+    private final HttpCompression m_createCompression;
+    private final FieldMapping m_mapping;
+    private final ThreadPoolExecutor m_attachments;
+    private volatile SubmitRenderer m_submitRenderer;
+    private volatile LeaseCoordinator m_coordinator;
+
+    // created on first use, by whichever thread gets there first
+    private final Object m_portLock = new Object();
+    volatile HPDIncidentInterfaceWSPortTypePortType readPort;
+    volatile HPDIncidentInterfaceCreateWSPortTypePortType createPort;
+    volatile HPDIncidentInterfaceWSPortTypePortType hedgePort;
 
     // Remember:
     // Summary ---> alarm logmsg
@@ -113,11 +190,284 @@ public class RemedyTicketerPlugin implements TicketingPlugin {
      * <p>Constructor for RemedyTicketerPlugin.</p>
      */
     public RemedyTicketerPlugin(ConfigurationAdmin configAdmin) {
-        m_configDao = new DefaultRemedyConfigDao(configAdmin);
+        this(new DefaultRemedyConfigDao(configAdmin));
+    }
+
+    /**
+     * <p>Constructor for a RemedyTicketerPlugin using its own configuration snapshot.</p>
+     */
+    RemedyTicketerPlugin(final DefaultRemedyConfigDao configDao) {
+        m_configDao = configDao;
         m_endpoint = m_configDao.getEndPoint();
         m_portname = m_configDao.getPortName();
         m_createendpoint = m_configDao.getCreateEndPoint();
         m_createportname = m_configDao.getCreatePortName();
+        m_hedgeendpoint = m_configDao.getHedgeEndPoint();
+        m_tracer = createTracer(m_configDao);
+        m_tls = new TlsClientFactory(m_configDao);
+        m_compression = createCompression("endpoint.compression", m_configDao.getCompression(), m_configDao.getCompressionThreshold());
+        m_createCompression = createCompression("createendpoint.compression", m_configDao.getCreateCompression(), m_configDao.getCreateCompressionThreshold());
+        m_mapping = FieldMapping.compile(m_configDao.getMappingProperties());
+        m_callRecorder = new SoapCallRecorder(m_configDao.getSlowCallThreshold(), m_configDao.getSlowCallCapacity(), m_configDao.getSlowCallMaxPayload());
+        m_dispatcher = m_configDao.getDispatchEnabled() ? createDispatcher(m_configDao) : null;
+        m_timeouts = createTimeouts(m_configDao);
+        m_hedger = m_configDao.getHedgeEnabled() ? new QueryHedger(m_configDao.getHedgePercentile(), m_configDao.getHedgeMinDelay(), m_configDao.getHedgeBudget()) : null;
+        final String captureFile = m_configDao.getCaptureFile();
+        m_capture = captureFile == null ? null : new CaptureWriter(Paths.get(captureFile), m_configDao.getCaptureMaxSize());
+        m_resolver = m_configDao.getResolveBatchEnabled()
+                ? new BulkResolver(m_configDao.getResolveBatchWindow(), m_configDao.getResolveBatchMaxSize(), m_configDao.getResolveBatchMaxConcurrent(), this::queryListAsync)
+                : null;
+        m_coordinator = createCoordinator(m_configDao);
+        m_attachments = m_configDao.getAttachmentDirectory() == null ? null : createAttachmentExecutor();
+    }
+
+    /**
+     * Attachments are read and compressed on their own threads, never on the threads completing SOAP calls.
+     */
+    private static ThreadPoolExecutor createAttachmentExecutor() {
+        final AtomicInteger threadCount = new AtomicInteger();
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(ATTACHMENT_THREADS, ATTACHMENT_THREADS, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            final Thread thread = new Thread(r, "remedy-attachment-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static HttpCompression createCompression(final String key, final String encoding, final int threshold) {
+        switch (encoding) {
+            case HttpCompression.GZIP:
+            case HttpCompression.DEFLATE:
+                return new HttpCompression(encoding, threshold);
+            case "none":
+            case "":
+                return null;
+            default:
+                LOG.warn("Unknown {} '{}'. Supported encodings are 'gzip' and 'deflate'.", key, encoding);
+                return null;
+        }
+    }
+
+    private static LeaseCoordinator createCoordinator(final DefaultRemedyConfigDao configDao) {
+        final String store = configDao.getHaStore();
+        switch (store) {
+            case "file":
+                if (configDao.getHaFileDirectory() == null) {
+                    LOG.warn("ha.store=file requires ha.file.directory, tickets are not coordinated with other nodes.");
+                    return null;
+                }
+                return newCoordinator(configDao, new FileLeaseStore(Paths.get(configDao.getHaFileDirectory())));
+            case "jdbc":
+                if (configDao.getHaJdbcUrl() == null) {
+                    LOG.warn("ha.store=jdbc requires ha.jdbc.url, tickets are not coordinated with other nodes.");
+                    return null;
+                }
+                return newCoordinator(configDao, new JdbcLeaseStore(configDao.getHaJdbcUrl(), configDao.getHaJdbcUser(), configDao.getHaJdbcPassword(), configDao.getHaJdbcTable(), configDao.getHaIoThreads()));
+            case "none":
+            case "":
+                return null;
+            default:
+                LOG.warn("Unknown lease store '{}'. Supported stores are 'file' and 'jdbc'.", store);
+                return null;
+        }
+    }
+
+    private static LeaseCoordinator newCoordinator(final DefaultRemedyConfigDao configDao, final LeaseStore store) {
+        return new LeaseCoordinator(store, configDao.getHaNodeId(), configDao.getHaLeaseTtl(), configDao.getHaResultTtl(), configDao.getHaPollInterval(), configDao.getHaIoThreads());
+    }
+
+    private static OperationTimeouts createTimeouts(final DefaultRemedyConfigDao configDao) {
+        final OperationTimeouts timeouts = new OperationTimeouts(configDao.getTimeoutAdaptivePercentile(), configDao.getTimeoutAdaptiveFactor(),
+                configDao.getTimeoutAdaptiveMin(), configDao.getTimeoutAdaptiveMax(), configDao.getTimeoutAdaptiveWindow(), configDao.getTimeoutConnect());
+        timeouts.setTimeout(OPERATION_QUERY, configDao.getTimeout("query"));
+        timeouts.setTimeout(OPERATION_MODIFY, configDao.getTimeout("modify"));
+        timeouts.setTimeout(OPERATION_SUBMIT, configDao.getTimeout("submit"));
+        return timeouts;
+    }
+
+    private static TicketDispatcher createDispatcher(final DefaultRemedyConfigDao configDao) {
+        final TicketDispatcher dispatcher = new TicketDispatcher(configDao.getDispatchMaxConcurrent(), configDao.getDispatchOverloadQueueDepth(), configDao.getDispatchOverloadMaxWait(),
+                configDao.getDispatchOverloadMinUrgency(), configDao.getDispatchOverloadPolicy(), configDao.getDispatchMaxDeferred());
+        dispatcher.setGroup(TicketDispatcher.DEFAULT_GROUP, configDao.getDispatchWeight(null), configDao.getDispatchMaxConcurrent());
+        for (final String group : configDao.getTargetGroups()) {
+            dispatcher.setGroup(group, configDao.getDispatchWeight(group), configDao.getDispatchMaxConcurrent(group));
+        }
+        return dispatcher;
+    }
+
+    private static Tracer createTracer(final DefaultRemedyConfigDao configDao) {
+        final List<SpanExporter> exporters = new ArrayList<>();
+        for (final String exporter : configDao.getTracingExporters()) {
+            switch (exporter.trim()) {
+                case "logging":
+                    exporters.add(new LoggingSpanExporter());
+                    break;
+                case "file":
+                    exporters.add(new FileSpanExporter(Paths.get(configDao.getTracingFile()), configDao.getTracingFileMaxSize()));
+                    break;
+                case "none":
+                case "":
+                    break;
+                default:
+                    LOG.warn("Unknown tracing exporter '{}'. Supported exporters are 'logging' and 'file'.", exporter);
+            }
+        }
+        return new Tracer(exporters);
+    }
+
+    /**
+     * Set span exporters provided by other bundles, in addition to those configured with {@code tracing.exporter}.
+     */
+    public void setSpanExporters(final Collection<SpanExporter> exporters) {
+        m_tracer.setServiceExporters(exporters);
+    }
+
+    /**
+     * Coordinate tickets with other nodes through the given store instead of the one configured with {@code ha.store}.
+     */
+    public void setLeaseStore(final LeaseStore store) {
+        final LeaseCoordinator previous = m_coordinator;
+        m_coordinator = store == null ? null : newCoordinator(m_configDao, store);
+        if (previous != null) {
+            previous.shutdown();
+        }
+    }
+
+    /**
+     * @return the coordinator of tickets between nodes, or null if no lease store is configured
+     */
+    public LeaseCoordinator getCoordinator() {
+        return m_coordinator;
+    }
+
+    /**
+     * @return the recorder holding the most recent slow SOAP calls
+     */
+    public SoapCallRecorder getCallRecorder() {
+        return m_callRecorder;
+    }
+
+    /**
+     * @return the dispatcher ordering ticket operations, or null if dispatching is disabled
+     */
+    public TicketDispatcher getDispatcher() {
+        return m_dispatcher;
+    }
+
+    public OperationTimeouts getTimeouts() {
+        return m_timeouts;
+    }
+
+    /**
+     * @return the query hedger, or null if hedging is disabled
+     */
+    public QueryHedger getHedger() {
+        return m_hedger;
+    }
+
+    public InFlightRequests<GetOutputMap> getInFlightRequests() {
+        return m_inFlight;
+    }
+
+    /**
+     * @return the TLS handshakes of all ports
+     */
+    public HandshakeStats getHandshakeStats() {
+        return m_tls.getStats();
+    }
+
+    /**
+     * @return the bulk resolver, or null if batched resolves are disabled
+     */
+    public BulkResolver getBulkResolver() {
+        return m_resolver;
+    }
+
+    /**
+     * @return the compression of the query and modify requests, or null if they are not compressed
+     */
+    public HttpCompression getCompression() {
+        return m_compression;
+    }
+
+    /**
+     * @return the fields set from ticket attributes, as configured with {@value FieldMapping#PREFIX}*
+     */
+    public FieldMapping getFieldMapping() {
+        return m_mapping;
+    }
+
+    /**
+     * @return the compression of the create requests, or null if they are not compressed
+     */
+    public HttpCompression getCreateCompression() {
+        return m_createCompression;
+    }
+
+    /**
+     * @return the renderer of create requests, or null if the fast path is disabled or no ticket has been created yet
+     */
+    public SubmitRenderer getSubmitRenderer() {
+        return m_submitRenderer;
+    }
+
+    /**
+     * Clear the call, queue, query sharing and hedging statistics.
+     */
+    public void resetStats() {
+        m_callRecorder.resetStats();
+        m_inFlight.resetStats();
+        if (m_dispatcher != null) {
+            m_dispatcher.resetStats();
+        }
+        if (m_hedger != null) {
+            m_hedger.resetStats();
+        }
+        if (m_resolver != null) {
+            m_resolver.resetStats();
+        }
+        if (m_submitRenderer != null) {
+            m_submitRenderer.resetStats();
+        }
+        final LeaseCoordinator coordinator = m_coordinator;
+        if (coordinator != null) {
+            coordinator.resetStats();
+        }
+        if (m_compression != null) {
+            m_compression.resetStats();
+        }
+        if (m_createCompression != null) {
+            m_createCompression.resetStats();
+        }
+        m_tls.getStats().resetStats();
+    }
+
+    DefaultRemedyConfigDao getConfigDao() {
+        return m_configDao;
+    }
+
+    public void destroy() {
+        if (m_dispatcher != null) {
+            m_dispatcher.shutdown();
+        }
+        if (m_hedger != null) {
+            m_hedger.shutdown();
+        }
+        if (m_resolver != null) {
+            m_resolver.shutdown();
+        }
+        if (m_attachments != null) {
+            m_attachments.shutdown();
+        }
+        final LeaseCoordinator coordinator = m_coordinator;
+        if (coordinator != null) {
+            coordinator.shutdown();
+        }
+        if (m_capture != null) {
+            m_capture.close();
+        }
+        m_tracer.close();
     }
 
     /** {@inheritDoc} */
@@ -130,32 +480,87 @@ public class RemedyTicketerPlugin implements TicketingPlugin {
         }
 
         LOG.debug("get: search ticket with id: {}", ticketId);
-        final HPDIncidentInterfaceWSPortTypePortType port = getTicketServicePort(m_portname,m_endpoint);
-
-        if (port == null) {
-            throw new RemedyTicketerException("Unable to retrieve port for port=" + m_portname + ", endpoint=" + m_endpoint);
+        if (m_capture != null) {
+            m_capture.get(ticketId);
         }
+        final Span span = m_tracer.startSpan(SPAN_GET).setAttribute(SPAN_ATTRIBUTE_INCIDENT_NUMBER, ticketId);
+        return inSpan(span, () -> {
+            final Span config = span.startChild(SPAN_CONFIG);
+            final HPDIncidentInterfaceWSPortTypePortType port = getTicketServicePort(m_portname,m_endpoint);
+            final AuthenticationInfo header = getRemedyAuthenticationHeader();
+            config.end();
+
+            if (port == null) {
+                throw new RemedyTicketerException("Unable to retrieve port for port=" + m_portname + ", endpoint=" + m_endpoint);
+            }
 
-        try {
-            final GetOutputMap outputmap = port.helpDeskQueryService(getRemedyInputMap(ticketId), getRemedyAuthenticationHeader());
-
-            if (outputmap == null || outputmap.getStatus() == null || outputmap.getUrgency() == null) {
-                throw new RemedyTicketerException("Unable to retrieve ticket, or ticket ID '" + ticketId + "' invalid.");
+            try {
+                final GetInputMap input = inSpan(span.startChild(SPAN_REQUEST), () -> getRemedyInputMap(ticketId));
+                final GetOutputMap outputmap = m_inFlight.query(ticketId, () -> m_hedger == null
+                        ? invoke(span, OPERATION_QUERY, port, input, () -> port.helpDeskQueryService(input, header))
+                        : join(queryAsync(span, port, input, header)));
+                return inSpan(span.startChild(SPAN_RESPONSE), () -> toTicket(ticketId, outputmap));
+            } catch (final Exception e) {
+                throw new RemedyTicketerException("Problem getting ticket", e);
             }
+        });
+    }
 
-            LOG.info("get: found ticket: {} status: {}", ticketId, outputmap.getStatus());
-            LOG.info("get: found ticket: {} urgency: {}", ticketId, outputmap.getUrgency());
+    /** {@inheritDoc} */
+    @Override
+    public CompletableFuture<Ticket> getAsync(final String ticketId) {
+        if (ticketId == null)  {
+            LOG.error("No Remedy ticketID available in OpenNMS Ticket");
+            return failed(new RemedyTicketerException("No Remedy ticketID available in OpenNMS Ticket"));
+        }
 
-            final Builder builder = ImmutableTicket.newBuilder();
-            builder.setId(ticketId);
-            builder.setSummary(outputmap.getSummary());
-            builder.setDetails(outputmap.getNotes());
-            builder.setState(getState(outputmap.getStatus()));
-            builder.setUser(outputmap.getAssignedGroup());
-            return builder.build();
-        } catch (final Exception e) {
-            throw new RemedyTicketerException("Problem getting ticket", e);
+        LOG.debug("getAsync: search ticket with id: {}", ticketId);
+        if (m_capture != null) {
+            m_capture.get(ticketId);
         }
+        final Span span = m_tracer.startSpan(SPAN_GET).setAttribute(SPAN_ATTRIBUTE_INCIDENT_NUMBER, ticketId);
+        return wrapFailure(inSpanAsync(span, () -> {
+            final Span config = span.startChild(SPAN_CONFIG);
+            final HPDIncidentInterfaceWSPortTypePortType port = getTicketServicePort(m_portname,m_endpoint);
+            final AuthenticationInfo header = getRemedyAuthenticationHeader();
+            config.end();
+
+            final GetInputMap input = inSpan(span.startChild(SPAN_REQUEST), () -> getRemedyInputMap(ticketId));
+            return m_inFlight.queryAsync(ticketId, () -> queryAsync(span, port, input, header))
+                    .thenApply(outputmap -> inSpan(span.startChild(SPAN_RESPONSE), () -> toTicket(ticketId, outputmap)));
+        }), "Problem getting ticket");
+    }
+
+    /**
+     * Start a query for {@link #get(String)}, hedged if enabled: a second query is sent if the first is slow.
+     */
+    private CompletableFuture<GetOutputMap> queryAsync(final Span span, final HPDIncidentInterfaceWSPortTypePortType port, final GetInputMap input, final AuthenticationInfo header) {
+        if (m_hedger == null) {
+            return this.<GetOutputMap>invokeAsync(span, OPERATION_QUERY, input, handler -> port.helpDeskQueryServiceAsync(input, header, handler));
+        }
+        return m_hedger.hedge(m_timeouts.getObservedLatency(OPERATION_QUERY),
+                () -> this.<GetOutputMap>invokeAsync(span, OPERATION_QUERY, input, handler -> port.helpDeskQueryServiceAsync(input, header, handler)),
+                () -> {
+                    final HPDIncidentInterfaceWSPortTypePortType hedge = getHedgeServicePort();
+                    return this.<GetOutputMap>invokeAsync(span, OPERATION_QUERY, input, handler -> hedge.helpDeskQueryServiceAsync(input, header, handler));
+                });
+    }
+
+    private Ticket toTicket(final String ticketId, final GetOutputMap outputmap) {
+        if (outputmap == null || outputmap.getStatus() == null || outputmap.getUrgency() == null) {
+            throw new RemedyTicketerException("Unable to retrieve ticket, or ticket ID '" + ticketId + "' invalid.");
+        }
+
+        LOG.info("get: found ticket: {} status: {}", ticketId, outputmap.getStatus());
+        LOG.info("get: found ticket: {} urgency: {}", ticketId, outputmap.getUrgency());
+
+        final Builder builder = ImmutableTicket.newBuilder();
+        builder.setId(ticketId);
+        builder.setSummary(outputmap.getSummary());
+        builder.setDetails(outputmap.getNotes());
+        builder.setState(getState(outputmap.getStatus()));
+        builder.setUser(outputmap.getAssignedGroup());
+        return builder.build();
     }
 
 
@@ -171,68 +576,252 @@ public class RemedyTicketerPlugin implements TicketingPlugin {
     /** {@inheritDoc} */
     @Override
     public String saveOrUpdate(final Ticket ticket) {
-        if ((ticket.getId() == null) ) {
-            return save(ticket);
-        } else {
-            update(ticket);
+        if (m_dispatcher != null || isBatchedResolve(ticket)) {
+            // queued operations run on the asynchronous ports, the caller only waits for the result
+            try {
+                return saveOrUpdateAsync(ticket).join();
+            } catch (final CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new RemedyTicketerException("Problem saving ticket", e.getCause());
+            }
+        }
+
+        if (m_capture != null) {
+            m_capture.saveOrUpdate(ticket);
+        }
+        final Span span = startSaveOrUpdateSpan(ticket);
+        return inSpan(span, () -> {
+            final LeaseCoordinator coordinator = m_coordinator;
+            if ((ticket.getId() == null) ) {
+                final String incidentNumber = coordinator == null ? save(ticket, span) : coordinator.create(ticket.getAlarmId(), () -> save(ticket, span));
+                span.setAttribute(SPAN_ATTRIBUTE_INCIDENT_NUMBER, incidentNumber);
+                return incidentNumber;
+            } else if (coordinator == null) {
+                update(ticket, span);
+            } else {
+                coordinator.modify(ticket.getId(), () -> {
+                    update(ticket, span);
+                    return ticket.getId();
+                });
+            }
+            return ticket.getId();
+        });
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public CompletableFuture<String> saveOrUpdateAsync(final Ticket ticket) {
+        if (m_capture != null) {
+            m_capture.saveOrUpdate(ticket);
+        }
+        final Span span = startSaveOrUpdateSpan(ticket);
+        if (isBatchedResolve(ticket)) {
+            // batched resolves bound their own concurrency, waiting in the dispatcher would hold slots for the whole window
+            return inSpanAsync(span, () -> modifyCoordinated(ticket, () -> resolveBatched(ticket, span)));
+        }
+        if (m_dispatcher == null) {
+            return inSpanAsync(span, () -> saveOrUpdateAsync(ticket, span));
         }
-        return ticket.getId();
+
+        final Span queue = span.startChild(SPAN_QUEUE);
+        return inSpanAsync(span, () -> m_dispatcher.submit(getTargetGroup(ticket), TicketDispatcher.getUrgencyLevel(getUrgency(ticket)), ticket.getId(), () -> {
+            queue.end();
+            return saveOrUpdateAsync(ticket, span);
+        }));
+    }
+
+    private CompletableFuture<String> saveOrUpdateAsync(final Ticket ticket, final Span span) {
+        if (ticket.getId() == null) {
+            final LeaseCoordinator coordinator = m_coordinator;
+            return (coordinator == null ? saveAsync(ticket, span) : coordinator.createAsync(ticket.getAlarmId(), () -> saveAsync(ticket, span)))
+                    .thenApply(incidentNumber -> {
+                        span.setAttribute(SPAN_ATTRIBUTE_INCIDENT_NUMBER, incidentNumber);
+                        return incidentNumber;
+                    });
+        }
+        return modifyCoordinated(ticket, () -> updateAsync(ticket, span).thenApply(result -> ticket.getId()));
+    }
+
+    /**
+     * Modify an incident once no other node is modifying it.
+     */
+    private CompletableFuture<String> modifyCoordinated(final Ticket ticket, final Supplier<CompletableFuture<String>> modify) {
+        final LeaseCoordinator coordinator = m_coordinator;
+        return coordinator == null ? modify.get() : coordinator.modifyAsync(ticket.getId(), modify);
+    }
+
+    private Span startSaveOrUpdateSpan(final Ticket ticket) {
+        return m_tracer.startSpan(SPAN_SAVE_OR_UPDATE)
+                .setAttribute(SPAN_ATTRIBUTE_ALARM_ID, ticket.getAlarmId())
+                .setAttribute(SPAN_ATTRIBUTE_INCIDENT_NUMBER, ticket.getId());
     }
 
-    private void update(final Ticket ticket) {
+    private void update(final Ticket ticket, final Span span) {
+        final Span config = span.startChild(SPAN_CONFIG);
         final HPDIncidentInterfaceWSPortTypePortType port = getTicketServicePort(m_portname,m_endpoint);
-        final String ticketId = ticket.getId();
+        final AuthenticationInfo header = getRemedyAuthenticationHeader();
+        config.end();
 
         if (port != null) {
-            try {
-                final GetOutputMap remedy = port.helpDeskQueryService(getRemedyInputMap(ticket.getId()), getRemedyAuthenticationHeader());
-                if (remedy == null) {
-                    LOG.error("update: Remedy: Cannot find incident with incident_number: {}", ticket.getId());
-                    return;
-                }
-                if (remedy.getStatus() == StatusType.CANCELLED) {
-                    LOG.info("update: Remedy: Ticket Cancelled. Skipping updating ticket with incident_number: {}", ticketId);
-                    return;
-                }
-                if (remedy.getStatus() == StatusType.CLOSED) {
-                    LOG.info("update: Remedy: Ticket Closed. Skipping updating ticket with incident_number: {}", ticketId);
-                    return;
+            m_inFlight.modify(ticket.getId(), () -> {
+                try {
+                    final GetInputMap input = getRemedyInputMap(ticket.getId());
+                    final GetOutputMap remedy = m_inFlight.query(ticket.getId(), () -> invoke(span, OPERATION_QUERY, port, input, () -> port.helpDeskQueryService(input, header)));
+                    final Span request = span.startChild(SPAN_REQUEST);
+                    final SetInputMap output = getModifyInputMap(ticket, remedy);
+                    if (output == null) {
+                        request.end();
+                        return null;
+                    }
+
+                    try (WorkInfoAttachment attachment = getAttachment(ticket)) {
+                        if (attachment != null) {
+                            setWorkInfoAttachment(output, ticket, attachment);
+                        }
+                        request.end();
+                        return invoke(span, OPERATION_MODIFY, port, output, () -> port.helpDeskModifyService(output , header));
+                    }
+                } catch (final Exception e) {
+                    throw new RemedyTicketerException("Problem creating ticket", e);
                 }
+            });
+        }
 
-                SetInputMap output = getRemedySetInputMap(ticket,remedy);
+    }
 
-                // The only things to update are urgency and state
-                LOG.debug("update: Remedy: found urgency: {} - for ticket with incident_number: {}", output.getUrgency(), ticket.getId());
-                output.setUrgency(getUrgency(ticket));
+    private CompletableFuture<SetOutputMap> updateAsync(final Ticket ticket, final Span span) {
+        final Span config = span.startChild(SPAN_CONFIG);
+        final HPDIncidentInterfaceWSPortTypePortType port = getTicketServicePort(m_portname,m_endpoint);
+        final AuthenticationInfo header = getRemedyAuthenticationHeader();
+        config.end();
 
-                LOG.debug("update: opennms status: {} - for ticket with incident_number: {}", ticket.getState(), ticket.getId());
+        return wrapFailure(m_inFlight.modifyAsync(ticket.getId(), () -> queryAndModifyAsync(ticket, span, port, header)), "Problem creating ticket");
+    }
 
-                LOG.debug("update: Remedy: found status: {} - for ticket with incident_number: {}", output.getStatus(), ticket.getId());
-                State outputState = getState(output.getStatus());
-                LOG.debug("update: Remedy: found opennms status: {} - for ticket with incident_number: {}", outputState, ticket.getId());
-                if (ticket.getState() != outputState) {
-                    output = opennmsToRemedyState(output,ticket.getState());
-                }
+    private CompletableFuture<SetOutputMap> queryAndModifyAsync(final Ticket ticket, final Span span, final HPDIncidentInterfaceWSPortTypePortType port, final AuthenticationInfo header) {
+        // the attachment is prepared while the incident is queried
+        final CompletableFuture<WorkInfoAttachment> attachment = getAttachmentAsync(ticket);
+        final GetInputMap input = getRemedyInputMap(ticket.getId());
+        final CompletableFuture<GetOutputMap> query = m_inFlight.queryAsync(ticket.getId(),
+                () -> this.<GetOutputMap>invokeAsync(span, OPERATION_QUERY, input, handler -> port.helpDeskQueryServiceAsync(input, header, handler)));
+        return attachment.thenCompose(a -> query.thenCompose(remedy -> modifyAsync(ticket, span, port, header, remedy, a))
+                .whenComplete((result, e) -> {
+                    if (a != null) {
+                        a.close();
+                    }
+                }));
+    }
 
-                port.helpDeskModifyService(output , getRemedyAuthenticationHeader());
-            } catch (final Exception e) {
-                throw new RemedyTicketerException("Problem creating ticket", e);
-            }
+    /**
+     * @param attachment the attachment to send with the modify, or null; closed by the caller
+     */
+    private CompletableFuture<SetOutputMap> modifyAsync(final Ticket ticket, final Span span, final HPDIncidentInterfaceWSPortTypePortType port,
+                                                        final AuthenticationInfo header, final GetOutputMap remedy, final WorkInfoAttachment attachment) {
+        final Span request = span.startChild(SPAN_REQUEST);
+        final SetInputMap output = getModifyInputMap(ticket, remedy);
+        if (output == null) {
+            request.end();
+            return CompletableFuture.completedFuture(null);
         }
 
+        if (attachment != null) {
+            setWorkInfoAttachment(output, ticket, attachment);
+        }
+        request.end();
+        return this.<SetOutputMap>invokeAsync(span, OPERATION_MODIFY, output, handler -> port.helpDeskModifyServiceAsync(output, header, handler));
     }
 
-    private SetInputMap getRemedySetInputMap(Ticket ticket, GetOutputMap output) {
-        DatatypeFactory datatypeFactory;
-        try {
-            datatypeFactory = DatatypeFactory.newInstance();
-        } catch (final DatatypeConfigurationException e) {
-            throw new RemedyTicketerException("Failed to initialize datatype factory", e);
+    /**
+     * @return whether the update resolves an existing incident and can be batched with other resolves
+     */
+    private boolean isBatchedResolve(final Ticket ticket) {
+        return m_resolver != null && ticket.getId() != null && ticket.getState() == State.CLOSED
+                && ticket.getAttributes().get(ATTRIBUTE_ATTACHMENT_ID) == null;
+    }
+
+    private CompletableFuture<String> resolveBatched(final Ticket ticket, final Span span) {
+        final Span config = span.startChild(SPAN_CONFIG);
+        final HPDIncidentInterfaceWSPortTypePortType port = getTicketServicePort(m_portname,m_endpoint);
+        final AuthenticationInfo header = getRemedyAuthenticationHeader();
+        config.end();
+
+        final Span batch = span.startChild(SPAN_BATCH);
+        return wrapFailure(m_inFlight.modifyAsync(ticket.getId(), () -> m_resolver.resolve(ticket.getId(),
+                remedy -> {
+                    batch.end();
+                    return modifyAsync(ticket, span, port, header, remedy, null);
+                },
+                () -> {
+                    batch.end();
+                    return queryAndModifyAsync(ticket, span, port, header);
+                }).whenComplete((result, e) -> batch.end())), "Problem creating ticket")
+                .thenApply(result -> ticket.getId());
+    }
+
+    /**
+     * Look up a batch of incidents for the {@link BulkResolver}.
+     */
+    private CompletableFuture<GetListOutputMap> queryListAsync(final GetListInputMap input) {
+        final HPDIncidentInterfaceWSPortTypePortType port = getTicketServicePort(m_portname,m_endpoint);
+        final AuthenticationInfo header = getRemedyAuthenticationHeader();
+        final Span span = m_tracer.startSpan(SPAN_RESOLVE_BATCH);
+        return inSpanAsync(span, () -> this.<GetListOutputMap>invokeAsync(span, OPERATION_QUERY_LIST, input, handler -> port.helpDeskQueryListServiceAsync(input, header, handler)));
+    }
+
+    /**
+     * Build the modify request for an update, or return null if the incident must not be modified.
+     */
+    private SetInputMap getModifyInputMap(final Ticket ticket, final GetOutputMap remedy) {
+        final String ticketId = ticket.getId();
+        if (remedy == null) {
+            LOG.error("update: Remedy: Cannot find incident with incident_number: {}", ticketId);
+            return null;
         }
-        final GregorianCalendar gc = new GregorianCalendar();
-        gc.setTime(new Date());
-        XMLGregorianCalendar cal = datatypeFactory.newXMLGregorianCalendar(gc);
+        if (remedy.getStatus() == StatusType.CANCELLED) {
+            LOG.info("update: Remedy: Ticket Cancelled. Skipping updating ticket with incident_number: {}", ticketId);
+            return null;
+        }
+        if (remedy.getStatus() == StatusType.CLOSED) {
+            LOG.info("update: Remedy: Ticket Closed. Skipping updating ticket with incident_number: {}", ticketId);
+            return null;
+        }
+
+        SetInputMap output = m_configDao.getModifyMinimal() ? getMinimalSetInputMap(ticket, remedy) : getRemedySetInputMap(ticket,remedy);
+
+        // The only things to update are urgency and state
+        LOG.debug("update: Remedy: found urgency: {} - for ticket with incident_number: {}", output.getUrgency(), ticketId);
+        output.setUrgency(getUrgency(ticket));
+
+        LOG.debug("update: opennms status: {} - for ticket with incident_number: {}", ticket.getState(), ticketId);
+
+        LOG.debug("update: Remedy: found status: {} - for ticket with incident_number: {}", output.getStatus(), ticketId);
+        State outputState = getState(output.getStatus());
+        LOG.debug("update: Remedy: found opennms status: {} - for ticket with incident_number: {}", outputState, ticketId);
+        if (ticket.getState() != outputState) {
+            output = opennmsToRemedyState(output,ticket.getState());
+        }
+        return output;
+    }
+
+    /**
+     * @return a modify request holding only the incident number and the fields a modify changes;
+     * Remedy leaves the fields that are not sent as they are.  The request is not valid against
+     * the WSDL, which requires most of the fields left out
+     */
+    private SetInputMap getMinimalSetInputMap(final Ticket ticket, final GetOutputMap output) {
+        final SetInputMap sim = new SetInputMap();
+        sim.setIncidentNumber(ticket.getId());
+        sim.setAction(ACTION_MODIFY);
+        sim.setUrgency(output.getUrgency());
+        sim.setStatus(output.getStatus());
+        // always sent, a state change may set it; only the nillable fields that are not set are left out
+        sim.setStatusReason(output.getStatusReason());
+        return sim;
+    }
 
+    private SetInputMap getRemedySetInputMap(Ticket ticket, GetOutputMap output) {
         final SetInputMap sim = new SetInputMap();
         sim.setCategorizationTier1(output.getCategorizationTier1());
         sim.setCategorizationTier2(output.getCategorizationTier2());
@@ -263,13 +852,7 @@ public class RemedyTicketerPlugin implements TicketingPlugin {
         sim.setStatus(output.getStatus());
         sim.setUrgency(output.getUrgency());
         sim.setAction(ACTION_MODIFY);
-        sim.setWorkInfoSummary("");
-        sim.setWorkInfoNotes("");
-        sim.setWorkInfoType(WorkInfoTypeType.SATISFACTION_SURVEY);
-        sim.setWorkInfoDate(cal);
-        sim.setWorkInfoSource(WorkInfoSourceType.EMAIL);
-        sim.setWorkInfoLocked(VIPType.NO);
-        sim.setWorkInfoViewAccess(WorkInfoViewAccessType.PUBLIC);
+        setWorkInfo(sim);
         sim.setIncidentNumber(ticket.getId());
         sim.setStatusReason(output.getStatusReason());
         sim.setServiceCI(output.getServiceCI());
@@ -279,11 +862,96 @@ public class RemedyTicketerPlugin implements TicketingPlugin {
         sim.setHPDCIFormName(output.getHPDCIFormName());
         sim.setZ1DCIFormName(output.getZ1DCIFormName());
         sim.setWorkInfoAttachment1Name("");
-        sim.setWorkInfoAttachment1Data(new byte[0]);
         sim.setWorkInfoAttachment1OrigSize(0);
         return sim;
     }
 
+    private static void setWorkInfo(final SetInputMap sim) {
+        DatatypeFactory datatypeFactory;
+        try {
+            datatypeFactory = DatatypeFactory.newInstance();
+        } catch (final DatatypeConfigurationException e) {
+            throw new RemedyTicketerException("Failed to initialize datatype factory", e);
+        }
+        final GregorianCalendar gc = new GregorianCalendar();
+        gc.setTime(new Date());
+        XMLGregorianCalendar cal = datatypeFactory.newXMLGregorianCalendar(gc);
+
+        sim.setWorkInfoSummary("");
+        sim.setWorkInfoNotes("");
+        sim.setWorkInfoType(WorkInfoTypeType.SATISFACTION_SURVEY);
+        sim.setWorkInfoDate(cal);
+        sim.setWorkInfoSource(WorkInfoSourceType.EMAIL);
+        sim.setWorkInfoLocked(VIPType.NO);
+        sim.setWorkInfoViewAccess(WorkInfoViewAccessType.PUBLIC);
+    }
+
+    private WorkInfoAttachment getAttachment(final Ticket ticket) throws IOException {
+        final String file = ticket.getAttributes().get(ATTRIBUTE_ATTACHMENT_ID);
+        if (file == null || file.isEmpty()) {
+            return null;
+        }
+
+        final String directory = m_configDao.getAttachmentDirectory();
+        if (directory == null) {
+            LOG.warn("update: ticket {} requests attachment {}, but attachment.directory is not configured. Skipping attachment.", ticket.getId(), file);
+            return null;
+        }
+
+        // only files inside the configured attachment directory may be sent to Remedy
+        final Path base = Paths.get(directory).toRealPath();
+        final Path path = base.resolve(file).toRealPath();
+        if (!path.startsWith(base)) {
+            throw new RemedyTicketerException("Attachment " + file + " is outside of the attachment directory " + base);
+        }
+
+        return WorkInfoAttachment.fromFile(path, m_configDao.getAttachmentMaxSize(), m_configDao.getAttachmentCompress());
+    }
+
+    /**
+     * Read and compress the attachment of an update on the attachment threads.
+     */
+    private CompletableFuture<WorkInfoAttachment> getAttachmentAsync(final Ticket ticket) {
+        final String file = ticket.getAttributes().get(ATTRIBUTE_ATTACHMENT_ID);
+        if (file == null || file.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        final CompletableFuture<WorkInfoAttachment> result = new CompletableFuture<>();
+        final Runnable prepare = () -> {
+            try {
+                result.complete(getAttachment(ticket));
+            } catch (final IOException | RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        };
+        if (m_attachments == null) {
+            // not configured: nothing is read
+            prepare.run();
+            return result;
+        }
+        try {
+            m_attachments.execute(prepare);
+        } catch (final RejectedExecutionException e) {
+            result.completeExceptionally(new RemedyTicketerException("Remedy ticketer plugin is shut down", e));
+        }
+        return result;
+    }
+
+    private void setWorkInfoAttachment(final SetInputMap sim, final Ticket ticket, final WorkInfoAttachment attachment) {
+        final String summary = ticket.getAttributes().get(ATTRIBUTE_ATTACHMENT_SUMMARY_ID);
+        LOG.debug("update: attaching {} ({} bytes) to ticket with incident_number: {}", attachment.getName(), attachment.getSize(), ticket.getId());
+        if (sim.getWorkInfoDate() == null) {
+            // a minimal modify request holds no work info yet
+            setWorkInfo(sim);
+        }
+        sim.setWorkInfoType(WorkInfoTypeType.GENERAL_INFORMATION);
+        sim.setWorkInfoSummary(summary == null ? "OpenNMS attachment: " + attachment.getName() : summary);
+        sim.setWorkInfoAttachment1Name(attachment.getName());
+        sim.setWorkInfoAttachment1Data(attachment.getDataHandler());
+        sim.setWorkInfoAttachment1OrigSize((int) attachment.getSize());
+    }
+
     private String getUrgency(final Ticket ticket) {
         try {
             if (ticket.getAttributes().get(ATTRIBUTE_URGENCY_ID) != null) {
@@ -295,6 +963,17 @@ public class RemedyTicketerPlugin implements TicketingPlugin {
         }
     }
 
+    /**
+     * @return the configured target group requested by the ticket, or the dispatcher's default group
+     */
+    private String getTargetGroup(final Ticket ticket) {
+        final String group = ticket.getAttributes().get(ATTRIBUTE_ASSIGNED_GROUP_ID);
+        if (group != null && m_configDao.getTargetGroups().contains(group)) {
+            return group;
+        }
+        return TicketDispatcher.DEFAULT_GROUP;
+    }
+
     private String getAssignedGroup(Ticket ticket) {
         if (ticket.getAttributes().get(ATTRIBUTE_ASSIGNED_GROUP_ID) != null) {
             for ( String group : m_configDao.getTargetGroups()) {
@@ -338,24 +1017,44 @@ public class RemedyTicketerPlugin implements TicketingPlugin {
         return summary.toString();
     }
 
-    private String getNotes(Ticket ticket) {
-        final StringBuilder notes = new StringBuilder("OpenNMS generated ticket by user: ");
+    private NotesBuilder getNotes(Ticket ticket) {
+        final NotesBuilder notes = new NotesBuilder(m_configDao.getNotesMaxLength(), m_configDao.getNotesStripHtml(),
+                m_configDao.getNotesOverflowAttachment() ? m_configDao.getAttachmentMaxSize() : 0);
+        notes.append("OpenNMS generated ticket by user: ");
         notes.append(ticket.getUser());
         notes.append("\n");
         notes.append("\n");
         if (ticket.getAttributes().get(ATTRIBUTE_USER_COMMENT_ID) != null ) {
              notes.append("OpenNMS user comment: ");
-             notes.append(ticket.getAttributes().get(ATTRIBUTE_USER_COMMENT_ID));
+             notes.appendContent(ticket.getAttributes().get(ATTRIBUTE_USER_COMMENT_ID));
             notes.append("\n");
             notes.append("\n");
         }
         notes.append("OpenNMS logmsg: ");
-        notes.append(ticket.getSummary());
+        notes.appendContent(ticket.getSummary());
         notes.append("\n");
         notes.append("\n");
         notes.append("OpenNMS descr: ");
-        notes.append(ticket.getDetails());
-        return notes.toString();
+        notes.appendContent(ticket.getDetails());
+        return notes;
+    }
+
+    private void setNotes(final CreateInputMap createInputMap, final Ticket ticket, final List<WorkInfoAttachment> attachments) {
+        final NotesBuilder notes = getNotes(ticket);
+        createInputMap.setNotes(notes.getNotes());
+
+        final WorkInfoAttachment overflow = notes.getOverflowAttachment();
+        if (overflow != null) {
+            attachments.add(overflow);
+            LOG.debug("create: {} characters of notes moved to attachment {} ({} bytes)", notes.getOverflowChars(), overflow.getName(), overflow.getSize());
+            createInputMap.setWorkInfoType(WorkInfoTypeType.GENERAL_INFORMATION);
+            createInputMap.setWorkInfoSummary("OpenNMS notes overflow");
+            createInputMap.setWorkInfoAttachment1Name(overflow.getName());
+            createInputMap.setWorkInfoAttachment1Data(overflow.getDataHandler());
+            createInputMap.setWorkInfoAttachment1OrigSize((int) overflow.getSize());
+        } else if (notes.getOverflowChars() > 0) {
+            LOG.debug("create: {} characters of notes truncated", notes.getOverflowChars());
+        }
     }
 
     private SetInputMap opennmsToRemedyState(SetInputMap inputmap, State state) {
@@ -393,7 +1092,7 @@ public class RemedyTicketerPlugin implements TicketingPlugin {
 
     }
 
-    private AuthenticationInfo getRemedyAuthenticationHeader() {
+    AuthenticationInfo getRemedyAuthenticationHeader() {
         final AuthenticationInfo requestHeader = new AuthenticationInfo();
         requestHeader.setUserName(m_configDao.getUserName());
         requestHeader.setPassword(m_configDao.getPassword());
@@ -414,12 +1113,31 @@ public class RemedyTicketerPlugin implements TicketingPlugin {
     }
 
 
-    private CreateInputMap getRemedyCreateInputMap(final Ticket newTicket) {
-        final CreateInputMap createInputMap = new CreateInputMap();
+    /**
+     * @param attachments receives the attachments of the request, to be closed once it has been sent
+     */
+    CreateInputMap getRemedyCreateInputMap(final Ticket newTicket, final List<WorkInfoAttachment> attachments) {
+        final CreateInputMap createInputMap = getRemedyCreateTemplate();
 
         // the only data set by the opennms ticket alarm
         createInputMap.setSummary(getSummary(newTicket));
-        createInputMap.setNotes(getNotes(newTicket));
+        setNotes(createInputMap, newTicket, attachments);
+        createInputMap.setUrgency(getUrgency(newTicket));
+        createInputMap.setAssignedGroup(getAssignedGroup(newTicket));
+        createInputMap.setAssignedSupportCompany(getAssignedSupportCompany(newTicket));
+        createInputMap.setAssignedSupportOrganization(getAssignedSupportOrganization(newTicket));
+
+        // mapped fields win over the ones above
+        m_mapping.apply(newTicket.getAttributes(), createInputMap);
+
+        return createInputMap;
+    }
+
+    /**
+     * @return a create request holding only the fields that are the same for every ticket
+     */
+    private CreateInputMap getRemedyCreateTemplate() {
+        final CreateInputMap createInputMap = new CreateInputMap();
 
         // all this is mandatory and set using the configuration file
         createInputMap.setFirstName(m_configDao.getFirstName());
@@ -429,30 +1147,225 @@ public class RemedyTicketerPlugin implements TicketingPlugin {
         createInputMap.setImpact(m_configDao.getImpact());
         createInputMap.setReportedSource(ReportedSourceType.fromValue(m_configDao.getReportedSource()));
         createInputMap.setServiceType(ServiceTypeType.fromValue(m_configDao.getServiceType()));
-        createInputMap.setUrgency(getUrgency(newTicket));
         createInputMap.setStatus(StatusType.NEW);
         createInputMap.setAction(ACTION_CREATE);
         createInputMap.setCategorizationTier1(m_configDao.getCategorizationtier1());
         createInputMap.setCategorizationTier2(m_configDao.getCategorizationtier2());
         createInputMap.setCategorizationTier3(m_configDao.getCategorizationtier3());
-        createInputMap.setAssignedGroup(getAssignedGroup(newTicket));
-        createInputMap.setAssignedSupportCompany(getAssignedSupportCompany(newTicket));
-        createInputMap.setAssignedSupportOrganization(getAssignedSupportOrganization(newTicket));
+
+        // constant and default mapped fields
+        m_mapping.apply(null, createInputMap);
 
         return createInputMap;
     }
 
-    private String save(final Ticket newTicket) {
+    /**
+     * @return a renderer of the create requests and authentication header for this configuration
+     */
+    SubmitRenderer newSubmitRenderer(final JAXBContext context, final boolean verify) {
+        return new SubmitRenderer(context, getRemedyCreateTemplate(), m_mapping, getRemedyAuthenticationHeader(), verify);
+    }
+
+    private String save(final Ticket newTicket, final Span span) {
+        final Span config = span.startChild(SPAN_CONFIG);
         final HPDIncidentInterfaceCreateWSPortTypePortType port = getCreateTicketServicePort(m_createportname,m_createendpoint);
+        final AuthenticationInfo header = getRemedyAuthenticationHeader();
+        config.end();
 
+        final List<WorkInfoAttachment> attachments = new ArrayList<>(1);
         try {
-            final String incidentNumber = port.helpDeskSubmitService(getRemedyAuthenticationHeader(), getRemedyCreateInputMap(newTicket)).getIncidentNumber();
+            final CreateInputMap input = inSpan(span.startChild(SPAN_REQUEST), () -> getRemedyCreateInputMap(newTicket, attachments));
+            final CreateOutputMap output = invoke(span, OPERATION_SUBMIT, port, input, () -> port.helpDeskSubmitService(header, input));
+            final String incidentNumber = inSpan(span.startChild(SPAN_RESPONSE), output::getIncidentNumber);
             LOG.debug("created new remedy ticket with reported incident number: {}", incidentNumber);
             return incidentNumber;
         } catch (final Exception e) {
             throw new RemedyTicketerException("Problem saving ticket", e);
+        } finally {
+            attachments.forEach(WorkInfoAttachment::close);
+        }
+
+    }
+
+    private CompletableFuture<String> saveAsync(final Ticket newTicket, final Span span) {
+        final Span config = span.startChild(SPAN_CONFIG);
+        final HPDIncidentInterfaceCreateWSPortTypePortType port = getCreateTicketServicePort(m_createportname,m_createendpoint);
+        final AuthenticationInfo header = getRemedyAuthenticationHeader();
+        config.end();
+
+        final List<WorkInfoAttachment> attachments = new ArrayList<>(1);
+        final CreateInputMap input = inSpan(span.startChild(SPAN_REQUEST), () -> getRemedyCreateInputMap(newTicket, attachments));
+        return wrapFailure(this.<CreateOutputMap>invokeAsync(span, OPERATION_SUBMIT, input, handler -> port.helpDeskSubmitServiceAsync(header, input, handler))
+                .whenComplete((output, e) -> attachments.forEach(WorkInfoAttachment::close))
+                .thenApply(output -> {
+                    final String incidentNumber = inSpan(span.startChild(SPAN_RESPONSE), output::getIncidentNumber);
+                    LOG.debug("created new remedy ticket with reported incident number: {}", incidentNumber);
+                    return incidentNumber;
+                }), "Problem saving ticket");
+    }
+
+    /**
+     * Invoke a SOAP operation inside a child span of {@code parent}, recording it for diagnostics.
+     */
+    private <T> T invoke(final Span parent, final String operation, final Object port, final Object request, final Supplier<T> call) {
+        final Span span = startSoapSpan(parent, operation);
+        final SoapCallRecorder.Call recorded = m_callRecorder.begin(operation);
+        final T result;
+        try {
+            result = call.get();
+        } catch (final RuntimeException e) {
+            endCall(span, recorded, request, null, null, e);
+            throw e;
+        }
+        endCall(span, recorded, request, result, port instanceof BindingProvider ? ((BindingProvider) port).getResponseContext() : null, null);
+        return result;
+    }
+
+    /**
+     * Invoke one of the generated {@code *Async} port methods inside a child span of {@code parent},
+     * bridging its callback to a {@link CompletableFuture}.
+     *
+     * The request is sent over CXF's asynchronous (NIO) HTTP conduit, so no thread is held while the call is in flight.
+     * Cancelling the returned future cancels the request, if CXF still can.
+     */
+    private <T> CompletableFuture<T> invokeAsync(final Span parent, final String operation, final Object request, final Function<AsyncHandler<T>, Future<?>> call) {
+        final Span span = startSoapSpan(parent, operation);
+        final SoapCallRecorder.Call recorded = m_callRecorder.begin(operation);
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            final Future<?> sent = call.apply(response -> {
+                try {
+                    final T result = response.get();
+                    endCall(span, recorded, request, result, response.getContext(), null);
+                    future.complete(result);
+                } catch (final ExecutionException e) {
+                    final Throwable cause = e.getCause() == null ? e : e.getCause();
+                    endCall(span, recorded, request, null, null, cause);
+                    future.completeExceptionally(cause);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    endCall(span, recorded, request, null, null, e);
+                    future.completeExceptionally(e);
+                }
+            });
+            future.whenComplete((result, e) -> {
+                if (future.isCancelled()) {
+                    sent.cancel(true);
+                }
+            });
+        } catch (final RuntimeException e) {
+            endCall(span, recorded, request, null, null, e);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private void endCall(final Span span, final SoapCallRecorder.Call recorded, final Object request, final Object response,
+                                final Map<String, Object> responseContext, final Throwable error) {
+        final String incidentNumber = getIncidentNumber(request, response);
+        final long requestSize = SoapTracing.getRequestSize(responseContext);
+        final long responseSize = SoapTracing.getResponseSize(responseContext);
+        final long durationNanos = recorded.end(incidentNumber, request, response, requestSize, responseSize, error);
+        if (error == null) {
+            m_timeouts.record(recorded.getOperation(), durationNanos);
+        } else if (OperationTimeouts.isTimeout(error)) {
+            m_timeouts.recordTimeout(recorded.getOperation(), durationNanos);
+        }
+        if (m_capture != null) {
+            m_capture.exchange(recorded.getOperation(), incidentNumber, durationNanos, requestSize, responseSize, error == null);
+        }
+
+        if (span.isRecording()) {
+            SoapTracing.addPhaseSpans(span, responseContext);
+            span.setAttribute(SPAN_ATTRIBUTE_INCIDENT_NUMBER, incidentNumber);
+            if (responseContext != null) {
+                span.setAttribute("rpc.request.size", requestSize);
+                span.setAttribute("rpc.response.size", responseSize);
+            }
+            if (error != null) {
+                span.recordException(error);
+            }
+        }
+        span.end();
+    }
+
+    private static String getIncidentNumber(final Object request, final Object response) {
+        if (request instanceof GetInputMap) {
+            return ((GetInputMap) request).getIncidentNumber();
+        } else if (request instanceof SetInputMap) {
+            return ((SetInputMap) request).getIncidentNumber();
+        } else if (response instanceof CreateOutputMap) {
+            return ((CreateOutputMap) response).getIncidentNumber();
+        }
+        return null;
+    }
+
+    private static Span startSoapSpan(final Span parent, final String operation) {
+        return parent.startChild(SPAN_SOAP_PREFIX + operation)
+                .setAttribute("rpc.system", "soap")
+                .setAttribute("rpc.method", operation);
+    }
+
+    /**
+     * Run {@code body} and end the span, recording any exception it throws.
+     */
+    private static <T> T inSpan(final Span span, final Supplier<T> body) {
+        try {
+            return body.get();
+        } catch (final RuntimeException e) {
+            span.recordException(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * Start an asynchronous {@code body} and end the span when the returned future completes.
+     * Exceptions thrown while starting are returned as a failed future.
+     */
+    private static <T> CompletableFuture<T> inSpanAsync(final Span span, final Supplier<CompletableFuture<T>> body) {
+        CompletableFuture<T> future;
+        try {
+            future = body.get();
+        } catch (final RuntimeException e) {
+            future = failed(e);
+        }
+        return future.whenComplete((result, e) -> {
+            if (e != null) {
+                span.recordException(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+            }
+            span.end();
+        });
+    }
+
+    private static <T> CompletableFuture<T> wrapFailure(final CompletableFuture<T> future, final String message) {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        future.whenComplete((value, e) -> {
+            if (e == null) {
+                result.complete(value);
+            } else {
+                result.completeExceptionally(new RemedyTicketerException(message, e instanceof CompletionException && e.getCause() != null ? e.getCause() : e));
+            }
+        });
+        return result;
+    }
+
+    private static <T> T join(final CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
         }
+    }
 
+    private static <T> CompletableFuture<T> failed(final Throwable t) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(t);
+        return future;
     }
 
     /**
@@ -462,29 +1375,60 @@ public class RemedyTicketerPlugin implements TicketingPlugin {
      */
 
     private HPDIncidentInterfaceWSPortTypePortType getTicketServicePort(final String portname, final String endpoint) {
-        if (readPort == null) {
-            final QName hpdPortname = new QName("HPD_IncidentInterface_WS", portname);
-            final HPDIncidentInterfaceWSService service = new HPDIncidentInterfaceWSService(HPDIncidentInterfaceWSService.WSDL_LOCATION, hpdPortname);
-            final HPDIncidentInterfaceWSPortTypePortType port = service.getHPDIncidentInterfaceWSPortTypeSoap();
-
-            final Client cxfClient = ClientProxy.getClient(port);
-
-            cxfClient.getRequestContext().put(Message.ENDPOINT_ADDRESS, endpoint);
-            final HTTPConduit http = (HTTPConduit) cxfClient.getConduit();
-
-            if (!m_configDao.getStrictSsl()) {
-                LOG.debug("Disabling strict SSL checking.");
-                // Accept all certificates
-                final TrustManager[] simpleTrustManager = new TrustManager[] { new AnyServerX509TrustManager() };
-                final TLSClientParameters tlsParams = new TLSClientParameters();
-                tlsParams.setTrustManagers(simpleTrustManager);
-                tlsParams.setDisableCNCheck(true);
-                http.setTlsClientParameters(tlsParams);
+        HPDIncidentInterfaceWSPortTypePortType port = readPort;
+        if (port == null) {
+            synchronized (m_portLock) {
+                port = readPort;
+                if (port == null) {
+                    port = newTicketServicePort(portname, endpoint);
+                    readPort = port;
+                }
             }
-            readPort = port;
         }
+        return port;
+    }
 
-        return readPort;
+    /**
+     * @return the port that hedged queries are sent to, the regular port unless a hedge endpoint is configured
+     */
+    private HPDIncidentInterfaceWSPortTypePortType getHedgeServicePort() {
+        if (m_hedgeendpoint == null) {
+            return getTicketServicePort(m_portname, m_endpoint);
+        }
+        HPDIncidentInterfaceWSPortTypePortType port = hedgePort;
+        if (port == null) {
+            synchronized (m_portLock) {
+                port = hedgePort;
+                if (port == null) {
+                    port = newTicketServicePort(m_portname, m_hedgeendpoint);
+                    hedgePort = port;
+                }
+            }
+        }
+        return port;
+    }
+
+    private HPDIncidentInterfaceWSPortTypePortType newTicketServicePort(final String portname, final String endpoint) {
+        final QName hpdPortname = new QName("HPD_IncidentInterface_WS", portname);
+        final HPDIncidentInterfaceWSService service = new HPDIncidentInterfaceWSService(HPDIncidentInterfaceWSService.WSDL_LOCATION);
+        final HPDIncidentInterfaceWSPortTypePortType port = service.getPort(hpdPortname, HPDIncidentInterfaceWSPortTypePortType.class);
+
+        final Client cxfClient = ClientProxy.getClient(port);
+
+        cxfClient.getRequestContext().put(Message.ENDPOINT_ADDRESS, endpoint);
+        if (m_compression != null) {
+            m_compression.install(cxfClient);
+        }
+        SoapTracing.install(cxfClient);
+        m_timeouts.install(cxfClient);
+        final HTTPConduit http = (HTTPConduit) cxfClient.getConduit();
+        http.setTlsClientParameters(m_tls.getClientParameters(m_configDao.getStrictSsl()));
+
+        if (m_configDao.getAttachmentDirectory() != null && m_configDao.getAttachmentMtom()) {
+            LOG.debug("Enabling MTOM for work info attachments.");
+            ((SOAPBinding) ((BindingProvider) port).getBinding()).setMTOMEnabled(true);
+        }
+        return port;
     }
 
 
@@ -495,29 +1439,65 @@ public class RemedyTicketerPlugin implements TicketingPlugin {
      */
 
     private HPDIncidentInterfaceCreateWSPortTypePortType getCreateTicketServicePort(final String portname, final String endpoint) {
-        if (createPort == null) {
-            final QName hpdPortname = new QName("urn:HPD_IncidentInterface_Create_WS", portname);
-            final HPDIncidentInterfaceCreateWSService service = new HPDIncidentInterfaceCreateWSService(HPDIncidentInterfaceCreateWSService.WSDL_LOCATION, hpdPortname);
-            final HPDIncidentInterfaceCreateWSPortTypePortType port = service.getHPDIncidentInterfaceCreateWSPortTypeSoap();
-
-            final Client cxfClient = ClientProxy.getClient(port);
-
-            cxfClient.getRequestContext().put(Message.ENDPOINT_ADDRESS, endpoint);
-            final HTTPConduit http = (HTTPConduit) cxfClient.getConduit();
-
-            if (!m_configDao.getStrictSsl()) {
-                LOG.debug("Disabling strict SSL checking.");
-                // Accept all certificates
-                final TrustManager[] simpleTrustManager = new TrustManager[] { new AnyServerX509TrustManager() };
-                final TLSClientParameters tlsParams = new TLSClientParameters();
-                tlsParams.setTrustManagers(simpleTrustManager);
-                tlsParams.setDisableCNCheck(true);
-                http.setTlsClientParameters(tlsParams);
+        HPDIncidentInterfaceCreateWSPortTypePortType port = createPort;
+        if (port == null) {
+            synchronized (m_portLock) {
+                port = createPort;
+                if (port == null) {
+                    port = newCreateTicketServicePort(portname, endpoint);
+                    createPort = port;
+                }
             }
+        }
+        return port;
+    }
+
+    private HPDIncidentInterfaceCreateWSPortTypePortType newCreateTicketServicePort(final String portname, final String endpoint) {
+        final QName hpdPortname = new QName("urn:HPD_IncidentInterface_Create_WS", portname);
+        final HPDIncidentInterfaceCreateWSService service = new HPDIncidentInterfaceCreateWSService(HPDIncidentInterfaceCreateWSService.WSDL_LOCATION);
+        final HPDIncidentInterfaceCreateWSPortTypePortType port = service.getPort(hpdPortname, HPDIncidentInterfaceCreateWSPortTypePortType.class);
+
+        final Client cxfClient = ClientProxy.getClient(port);
 
-            createPort = port;
+        cxfClient.getRequestContext().put(Message.ENDPOINT_ADDRESS, endpoint);
+        if (m_createCompression != null) {
+            m_createCompression.install(cxfClient);
         }
+        SoapTracing.install(cxfClient);
+        m_timeouts.install(cxfClient);
+        final HTTPConduit http = (HTTPConduit) cxfClient.getConduit();
+        http.setTlsClientParameters(m_tls.getClientParameters(m_configDao.getCreateStrictSsl()));
+
+        if (m_configDao.getNotesOverflowAttachment() && m_configDao.getAttachmentMtom()) {
+            LOG.debug("Enabling MTOM for notes overflow attachments.");
+            ((SOAPBinding) ((BindingProvider) port).getBinding()).setMTOMEnabled(true);
+        }
+        if (m_configDao.getSubmitFastPath()) {
+            installSubmitRenderer(cxfClient);
+        }
+        return port;
+    }
+
+    private void installSubmitRenderer(final Client cxfClient) {
+        try {
+            final SubmitRenderer renderer = newSubmitRenderer(getJAXBContext(cxfClient), m_configDao.getSubmitFastPathVerify());
+            renderer.install(cxfClient);
+            m_submitRenderer = renderer;
+            LOG.debug("Writing HelpDesk_Submit_Service requests from pre-rendered fragments{}.", renderer.isVerifying() ? ", verified against JAXB" : "");
+        } catch (final RuntimeException e) {
+            LOG.warn("Unable to pre-render HelpDesk_Submit_Service requests, they will be marshalled by JAXB.", e);
+        }
+    }
+
+    /**
+     * @return the JAXB context the create port marshals its requests with
+     */
+    JAXBContext getCreateJAXBContext() {
+        final HPDIncidentInterfaceCreateWSPortTypePortType port = getCreateTicketServicePort(m_createportname, m_createendpoint);
+        return port instanceof BindingProvider ? getJAXBContext(ClientProxy.getClient(port)) : null;
+    }
 
-        return createPort;
+    private static JAXBContext getJAXBContext(final Client cxfClient) {
+        return ((JAXBDataBinding) cxfClient.getEndpoint().getService().getDataBinding()).getContext();
     }
 }
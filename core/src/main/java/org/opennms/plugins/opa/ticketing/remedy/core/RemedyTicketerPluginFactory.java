@@ -0,0 +1,234 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+
+package org.opennms.plugins.opa.ticketing.remedy.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Dictionary;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.opennms.integration.api.v1.ticketing.Ticket;
+import org.opennms.plugins.opa.ticketing.remedy.core.tracing.SpanExporter;
+import org.osgi.service.cm.ConfigurationException;
+import org.osgi.service.cm.ManagedServiceFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates an isolated {@link RemedyTicketerPlugin} for every factory configuration
+ * {@code org.opennms.plugins.opa.ticketing.remedy-<name>.cfg}.
+ *
+ * Each instance gets its own configuration snapshot and its own SOAP ports, so several
+ * Remedy backends can be served side by side.  Tickets are dispatched to instances by
+ * the {@link RemedyTicketerPluginRouter}.
+ */
+public class RemedyTicketerPluginFactory implements ManagedServiceFactory {
+    private static final Logger LOG = LoggerFactory.getLogger(RemedyTicketerPluginFactory.class);
+
+    public static final String FACTORY_PID = DefaultRemedyConfigDao.REMEDY_CONFIG_PID;
+
+    /** Optional instance name; defaults to the {@code <name>} part of the configuration file name. */
+    public static final String PROPERTY_NAME = "name";
+    /** Prefix for routing rules: {@code route.<alarm attribute>=<regular expression>}. */
+    public static final String PROPERTY_ROUTE_PREFIX = "route.";
+
+    private static final String FILEINSTALL_FILENAME = "felix.fileinstall.filename";
+
+    private final Map<String, Instance> m_instances = new ConcurrentHashMap<>();
+
+    private volatile Collection<SpanExporter> m_spanExporters = Collections.emptyList();
+
+    @Override
+    public String getName() {
+        return "Remedy ticketing plugin factory";
+    }
+
+    @Override
+    public void updated(final String pid, final Dictionary<String, ?> properties) throws ConfigurationException {
+        final String name = getInstanceName(pid, properties);
+        if (name.indexOf(RemedyTicketerPluginRouter.INSTANCE_SEPARATOR) >= 0) {
+            throw new ConfigurationException(PROPERTY_NAME, "Instance name '" + name + "' must not contain '" + RemedyTicketerPluginRouter.INSTANCE_SEPARATOR + "'");
+        }
+        if (name.equals(RemedyTicketerPluginRouter.DEFAULT_INSTANCE)) {
+            throw new ConfigurationException(PROPERTY_NAME, "Instance name '" + name + "' is reserved for the default configuration");
+        }
+        for (final Instance instance : m_instances.values()) {
+            if (instance.getName().equals(name) && !instance.getPid().equals(pid)) {
+                throw new ConfigurationException(PROPERTY_NAME, "Instance name '" + name + "' is already used by " + instance.getPid());
+            }
+        }
+
+        final RemedyTicketerPlugin plugin = new RemedyTicketerPlugin(new DefaultRemedyConfigDao(properties));
+        plugin.setSpanExporters(m_spanExporters);
+        final Instance instance = new Instance(pid, name, getRoutes(properties), plugin);
+        final Instance previous = m_instances.put(pid, instance);
+        if (previous != null) {
+            previous.getPlugin().destroy();
+        }
+        LOG.info("{} Remedy ticketing instance '{}' ({}).", previous == null ? "Created" : "Updated", name, pid);
+    }
+
+    @Override
+    public void deleted(final String pid) {
+        final Instance instance = m_instances.remove(pid);
+        if (instance != null) {
+            instance.getPlugin().destroy();
+            LOG.info("Removed Remedy ticketing instance '{}' ({}).", instance.getName(), pid);
+        }
+    }
+
+    public void destroy() {
+        for (final Instance instance : m_instances.values()) {
+            instance.getPlugin().destroy();
+        }
+        m_instances.clear();
+    }
+
+    /**
+     * Set span exporters provided by other bundles; they are passed on to every instance.
+     */
+    public void setSpanExporters(final Collection<SpanExporter> exporters) {
+        m_spanExporters = exporters == null ? Collections.emptyList() : exporters;
+        for (final Instance instance : m_instances.values()) {
+            instance.getPlugin().setSpanExporters(m_spanExporters);
+        }
+    }
+
+    /**
+     * @return the instances, by name
+     */
+    public Collection<Instance> getInstances() {
+        final List<Instance> instances = new ArrayList<>(m_instances.values());
+        instances.sort(Comparator.comparing(Instance::getName));
+        return Collections.unmodifiableList(instances);
+    }
+
+    public Instance getInstance(final String name) {
+        for (final Instance instance : m_instances.values()) {
+            if (instance.getName().equals(name)) {
+                return instance;
+            }
+        }
+        return null;
+    }
+
+    private static String getInstanceName(final String pid, final Dictionary<String, ?> properties) {
+        final Object name = properties.get(PROPERTY_NAME);
+        if (name != null && !name.toString().trim().isEmpty()) {
+            return name.toString().trim();
+        }
+
+        // org.opennms.plugins.opa.ticketing.remedy-<name>.cfg
+        final Object filename = properties.get(FILEINSTALL_FILENAME);
+        if (filename != null) {
+            final String file = filename.toString();
+            final String prefix = FACTORY_PID + "-";
+            final int start = file.lastIndexOf(prefix);
+            final int end = file.lastIndexOf('.');
+            if (start >= 0 && end > start + prefix.length()) {
+                return file.substring(start + prefix.length(), end);
+            }
+        }
+        return pid;
+    }
+
+    private static Map<String, Pattern> getRoutes(final Dictionary<String, ?> properties) throws ConfigurationException {
+        final Map<String, Pattern> routes = new LinkedHashMap<>();
+        final Enumeration<String> keys = properties.keys();
+        while (keys.hasMoreElements()) {
+            final String key = keys.nextElement();
+            if (key.startsWith(PROPERTY_ROUTE_PREFIX) && key.length() > PROPERTY_ROUTE_PREFIX.length()) {
+                try {
+                    routes.put(key.substring(PROPERTY_ROUTE_PREFIX.length()), Pattern.compile(properties.get(key).toString()));
+                } catch (final PatternSyntaxException e) {
+                    throw new ConfigurationException(key, "Invalid routing expression: " + e.getMessage(), e);
+                }
+            }
+        }
+        return routes;
+    }
+
+    /**
+     * A named plugin instance and the alarm attribute rules that route tickets to it.
+     */
+    public static class Instance {
+        private final String m_pid;
+        private final String m_name;
+        private final Map<String, Pattern> m_routes;
+        private final RemedyTicketerPlugin m_plugin;
+
+        Instance(final String pid, final String name, final Map<String, Pattern> routes, final RemedyTicketerPlugin plugin) {
+            m_pid = Objects.requireNonNull(pid);
+            m_name = Objects.requireNonNull(name);
+            m_routes = routes;
+            m_plugin = Objects.requireNonNull(plugin);
+        }
+
+        public String getPid() {
+            return m_pid;
+        }
+
+        public String getName() {
+            return m_name;
+        }
+
+        public RemedyTicketerPlugin getPlugin() {
+            return m_plugin;
+        }
+
+        public List<String> getRouteAttributes() {
+            return new ArrayList<>(m_routes.keySet());
+        }
+
+        /**
+         * @return true if the instance has routing rules and the ticket's attributes match all of them
+         */
+        boolean matches(final Ticket ticket) {
+            if (m_routes.isEmpty() || ticket.getAttributes() == null) {
+                return false;
+            }
+            for (final Map.Entry<String, Pattern> route : m_routes.entrySet()) {
+                final String value = ticket.getAttributes().get(route.getKey());
+                if (value == null || !route.getValue().matcher(value).matches()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+
+package org.opennms.plugins.opa.ticketing.remedy.core;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+import org.opennms.integration.api.v1.ticketing.Ticket;
+import org.opennms.integration.api.v1.ticketing.immutables.ImmutableTicket;
+import org.opennms.plugins.opa.ticketing.remedy.core.RemedyTicketerPluginFactory.Instance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link org.opennms.integration.api.v1.ticketing.TicketingPlugin} exposed to OpenNMS: dispatches each ticket either to the
+ * default plugin (configured by {@value DefaultRemedyConfigDao#REMEDY_CONFIG_PID}) or to one
+ * of the instances created by the {@link RemedyTicketerPluginFactory}.
+ *
+ * Tickets created by a factory instance carry the instance name in their ID
+ * ({@code <instance>:<incident number>}) so that later {@link #get(String)} and update calls
+ * reach the same Remedy backend.  A ticket is routed to an instance by, in order:
+ * <ol>
+ *   <li>the instance prefix of its ID</li>
+ *   <li>the {@value #ATTRIBUTE_INSTANCE_ID} alarm attribute</li>
+ *   <li>the first instance, by name, whose {@code route.*} rules match the alarm attributes</li>
+ * </ol>
+ * and to the default plugin otherwise.  When the rules of several instances match, the ticket
+ * goes to the one whose name sorts first, so that the choice does not depend on the order the
+ * configurations were loaded in.
+ */
+public class RemedyTicketerPluginRouter implements AsyncTicketingPlugin {
+    private static final Logger LOG = LoggerFactory.getLogger(RemedyTicketerPluginRouter.class);
+
+    public static final char INSTANCE_SEPARATOR = ':';
+    public static final String ATTRIBUTE_INSTANCE_ID = "remedy.instance";
+
+    /** The name of the default plugin in {@link #getPlugins()}. */
+    public static final String DEFAULT_INSTANCE = "default";
+
+    private final RemedyTicketerPlugin m_defaultPlugin;
+    private final RemedyTicketerPluginFactory m_factory;
+
+    public RemedyTicketerPluginRouter(final RemedyTicketerPlugin defaultPlugin, final RemedyTicketerPluginFactory factory) {
+        m_defaultPlugin = Objects.requireNonNull(defaultPlugin);
+        m_factory = Objects.requireNonNull(factory);
+    }
+
+    @Override
+    public Ticket get(final String ticketId) {
+        final int separator = ticketId == null ? -1 : ticketId.indexOf(INSTANCE_SEPARATOR);
+        if (separator < 0) {
+            return m_defaultPlugin.get(ticketId);
+        }
+
+        final Instance instance = getInstance(ticketId.substring(0, separator), ticketId);
+        final Ticket ticket = instance.getPlugin().get(ticketId.substring(separator + 1));
+        return ImmutableTicket.newBuilderFrom(ticket).setId(ticketId).build();
+    }
+
+    @Override
+    public String saveOrUpdate(final Ticket ticket) {
+        final String ticketId = ticket.getId();
+
+        if (ticketId == null) {
+            final Instance instance = route(ticket);
+            if (instance == null) {
+                return m_defaultPlugin.saveOrUpdate(ticket);
+            }
+            LOG.debug("saveOrUpdate: routing new ticket for alarm {} to Remedy instance '{}'", ticket.getAlarmId(), instance.getName());
+            final String incidentNumber = instance.getPlugin().saveOrUpdate(ticket);
+            return incidentNumber == null ? null : instance.getName() + INSTANCE_SEPARATOR + incidentNumber;
+        }
+
+        final int separator = ticketId.indexOf(INSTANCE_SEPARATOR);
+        if (separator < 0) {
+            // tickets without an instance prefix belong to the default plugin
+            return m_defaultPlugin.saveOrUpdate(ticket);
+        }
+
+        final Instance instance = getInstance(ticketId.substring(0, separator), ticketId);
+        instance.getPlugin().saveOrUpdate(ImmutableTicket.newBuilderFrom(ticket).setId(ticketId.substring(separator + 1)).build());
+        return ticketId;
+    }
+
+    @Override
+    public CompletableFuture<Ticket> getAsync(final String ticketId) {
+        final int separator = ticketId == null ? -1 : ticketId.indexOf(INSTANCE_SEPARATOR);
+        if (separator < 0) {
+            return m_defaultPlugin.getAsync(ticketId);
+        }
+
+        final Instance instance = getInstance(ticketId.substring(0, separator), ticketId);
+        return instance.getPlugin().getAsync(ticketId.substring(separator + 1))
+                .thenApply(ticket -> ImmutableTicket.newBuilderFrom(ticket).setId(ticketId).build());
+    }
+
+    @Override
+    public CompletableFuture<String> saveOrUpdateAsync(final Ticket ticket) {
+        final String ticketId = ticket.getId();
+
+        if (ticketId == null) {
+            final Instance instance = route(ticket);
+            if (instance == null) {
+                return m_defaultPlugin.saveOrUpdateAsync(ticket);
+            }
+            LOG.debug("saveOrUpdateAsync: routing new ticket for alarm {} to Remedy instance '{}'", ticket.getAlarmId(), instance.getName());
+            return instance.getPlugin().saveOrUpdateAsync(ticket)
+                    .thenApply(incidentNumber -> incidentNumber == null ? null : instance.getName() + INSTANCE_SEPARATOR + incidentNumber);
+        }
+
+        final int separator = ticketId.indexOf(INSTANCE_SEPARATOR);
+        if (separator < 0) {
+            return m_defaultPlugin.saveOrUpdateAsync(ticket);
+        }
+
+        final Instance instance = getInstance(ticketId.substring(0, separator), ticketId);
+        return instance.getPlugin().saveOrUpdateAsync(ImmutableTicket.newBuilderFrom(ticket).setId(ticketId.substring(separator + 1)).build())
+                .thenApply(incidentNumber -> ticketId);
+    }
+
+    /**
+     * @return the default plugin and the plugin of every factory instance, by instance name
+     */
+    public Map<String, RemedyTicketerPlugin> getPlugins() {
+        final Map<String, RemedyTicketerPlugin> plugins = new LinkedHashMap<>();
+        plugins.put(DEFAULT_INSTANCE, m_defaultPlugin);
+        for (final Instance instance : m_factory.getInstances()) {
+            plugins.put(instance.getName(), instance.getPlugin());
+        }
+        return plugins;
+    }
+
+    private Instance route(final Ticket ticket) {
+        final String requested = ticket.getAttributes() == null ? null : ticket.getAttributes().get(ATTRIBUTE_INSTANCE_ID);
+        if (requested != null) {
+            return getInstance(requested, "alarm " + ticket.getAlarmId());
+        }
+        // first match, by instance name
+        for (final Instance instance : m_factory.getInstances()) {
+            if (instance.matches(ticket)) {
+                return instance;
+            }
+        }
+        return null;
+    }
+
+    private Instance getInstance(final String name, final String context) {
+        final Instance instance = m_factory.getInstance(name);
+        if (instance == null) {
+            throw new RemedyTicketerException("No Remedy instance named '" + name + "' is configured (" + context + ")");
+        }
+        return instance;
+    }
+}
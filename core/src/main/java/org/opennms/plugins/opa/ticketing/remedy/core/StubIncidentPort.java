@@ -0,0 +1,253 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+
+package org.opennms.plugins.opa.ticketing.remedy.core;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.ws.AsyncHandler;
+import javax.xml.ws.Response;
+
+import org.opennms.integration.remedy.ticketservice.AuthenticationInfo;
+import org.opennms.integration.remedy.ticketservice.CreateInputMap;
+import org.opennms.integration.remedy.ticketservice.CreateOutputMap;
+import org.opennms.integration.remedy.ticketservice.GetInputMap;
+import org.opennms.integration.remedy.ticketservice.GetListInputMap;
+import org.opennms.integration.remedy.ticketservice.GetListOutputMap;
+import org.opennms.integration.remedy.ticketservice.GetOutputMap;
+import org.opennms.integration.remedy.ticketservice.HPDIncidentInterfaceCreateWSPortTypePortType;
+import org.opennms.integration.remedy.ticketservice.HPDIncidentInterfaceWSPortTypePortType;
+import org.opennms.integration.remedy.ticketservice.SetInputMap;
+import org.opennms.integration.remedy.ticketservice.SetOutputMap;
+import org.opennms.integration.remedy.ticketservice.StatusType;
+
+/**
+ * An in-memory stand-in for the Remedy web services, answering every query with an assigned
+ * incident and every submit with a new incident number after a per-operation latency.  Used to
+ * benchmark the plugin itself, without a Remedy server.
+ */
+class StubIncidentPort implements HPDIncidentInterfaceWSPortTypePortType, HPDIncidentInterfaceCreateWSPortTypePortType {
+    private static final Pattern QUOTED = Pattern.compile("\"([^\"]*)\"");
+
+    private final ToLongFunction<String> m_latencyNanos;
+    private final ScheduledExecutorService m_scheduler;
+    private final AtomicLong m_incidentNumbers = new AtomicLong();
+
+    /**
+     * @param latencyNanos the time to answer a call, by SOAP operation name
+     */
+    StubIncidentPort(final ToLongFunction<String> latencyNanos) {
+        m_latencyNanos = latencyNanos;
+        final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            final Thread thread = new Thread(r, "remedy-stub");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        m_scheduler = scheduler;
+    }
+
+    void shutdown() {
+        m_scheduler.shutdownNow();
+    }
+
+    @Override
+    public GetOutputMap helpDeskQueryService(final GetInputMap parameters, final AuthenticationInfo arAuthenticate) {
+        sleep(RemedyTicketerPlugin.OPERATION_QUERY);
+        return query(parameters);
+    }
+
+    @Override
+    public Response<GetOutputMap> helpDeskQueryServiceAsync(final GetInputMap parameters, final AuthenticationInfo arAuthenticate) {
+        return respond(RemedyTicketerPlugin.OPERATION_QUERY, () -> query(parameters), null);
+    }
+
+    @Override
+    public Future<?> helpDeskQueryServiceAsync(final GetInputMap parameters, final AuthenticationInfo arAuthenticate, final AsyncHandler<GetOutputMap> asyncHandler) {
+        return respond(RemedyTicketerPlugin.OPERATION_QUERY, () -> query(parameters), asyncHandler);
+    }
+
+    @Override
+    public SetOutputMap helpDeskModifyService(final SetInputMap parameters, final AuthenticationInfo arAuthenticate) {
+        sleep(RemedyTicketerPlugin.OPERATION_MODIFY);
+        return modify(parameters);
+    }
+
+    @Override
+    public Response<SetOutputMap> helpDeskModifyServiceAsync(final SetInputMap parameters, final AuthenticationInfo arAuthenticate) {
+        return respond(RemedyTicketerPlugin.OPERATION_MODIFY, () -> modify(parameters), null);
+    }
+
+    @Override
+    public Future<?> helpDeskModifyServiceAsync(final SetInputMap parameters, final AuthenticationInfo arAuthenticate, final AsyncHandler<SetOutputMap> asyncHandler) {
+        return respond(RemedyTicketerPlugin.OPERATION_MODIFY, () -> modify(parameters), asyncHandler);
+    }
+
+    @Override
+    public CreateOutputMap helpDeskSubmitService(final AuthenticationInfo arAuthenticate, final CreateInputMap parameters) {
+        sleep(RemedyTicketerPlugin.OPERATION_SUBMIT);
+        return submit();
+    }
+
+    @Override
+    public Response<CreateOutputMap> helpDeskSubmitServiceAsync(final AuthenticationInfo arAuthenticate, final CreateInputMap parameters) {
+        return respond(RemedyTicketerPlugin.OPERATION_SUBMIT, this::submit, null);
+    }
+
+    @Override
+    public Future<?> helpDeskSubmitServiceAsync(final AuthenticationInfo arAuthenticate, final CreateInputMap parameters, final AsyncHandler<CreateOutputMap> asyncHandler) {
+        return respond(RemedyTicketerPlugin.OPERATION_SUBMIT, this::submit, asyncHandler);
+    }
+
+    @Override
+    public GetListOutputMap helpDeskQueryListService(final GetListInputMap parameters, final AuthenticationInfo arAuthenticate) {
+        sleep(RemedyTicketerPlugin.OPERATION_QUERY_LIST);
+        return queryList(parameters);
+    }
+
+    @Override
+    public Response<GetListOutputMap> helpDeskQueryListServiceAsync(final GetListInputMap parameters, final AuthenticationInfo arAuthenticate) {
+        return respond(RemedyTicketerPlugin.OPERATION_QUERY_LIST, () -> queryList(parameters), null);
+    }
+
+    @Override
+    public Future<?> helpDeskQueryListServiceAsync(final GetListInputMap parameters, final AuthenticationInfo arAuthenticate, final AsyncHandler<GetListOutputMap> asyncHandler) {
+        return respond(RemedyTicketerPlugin.OPERATION_QUERY_LIST, () -> queryList(parameters), asyncHandler);
+    }
+
+    private static GetOutputMap query(final GetInputMap parameters) {
+        final GetOutputMap output = new GetOutputMap();
+        output.setSummary("Stub incident " + parameters.getIncidentNumber());
+        output.setNotes("");
+        output.setStatus(StatusType.ASSIGNED);
+        output.setUrgency("4-Low");
+        output.setAssignedGroup("Stub");
+        return output;
+    }
+
+    /**
+     * Answer every incident number quoted in the qualification with an assigned incident.
+     */
+    private static GetListOutputMap queryList(final GetListInputMap parameters) {
+        final GetListOutputMap output = new GetListOutputMap();
+        final Matcher matcher = QUOTED.matcher(parameters.getQualification());
+        while (matcher.find()) {
+            final GetListOutputMap.GetListValues values = new GetListOutputMap.GetListValues();
+            values.setIncidentNumber(matcher.group(1));
+            values.setSummary("Stub incident " + matcher.group(1));
+            values.setNotes("");
+            values.setStatus(StatusType.ASSIGNED);
+            values.setUrgency("4-Low");
+            values.setAssignedGroup("Stub");
+            output.getGetListValues().add(values);
+        }
+        return output;
+    }
+
+    private static SetOutputMap modify(final SetInputMap parameters) {
+        return new SetOutputMap();
+    }
+
+    private CreateOutputMap submit() {
+        final CreateOutputMap output = new CreateOutputMap();
+        output.setIncidentNumber(String.format("INC%012d", m_incidentNumbers.incrementAndGet()));
+        return output;
+    }
+
+    private void sleep(final String operation) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(m_latencyNanos.applyAsLong(operation));
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private <T> StubResponse<T> respond(final String operation, final Supplier<T> answer, final AsyncHandler<T> handler) {
+        final StubResponse<T> response = new StubResponse<>();
+        final Runnable complete = () -> {
+            response.m_result.complete(answer.get());
+            if (handler != null) {
+                handler.handleResponse(response);
+            }
+        };
+        final long latencyNanos = m_latencyNanos.applyAsLong(operation);
+        if (latencyNanos > 0) {
+            m_scheduler.schedule(complete, latencyNanos, TimeUnit.NANOSECONDS);
+        } else {
+            complete.run();
+        }
+        return response;
+    }
+
+    private static class StubResponse<T> implements Response<T> {
+        private final CompletableFuture<T> m_result = new CompletableFuture<>();
+
+        @Override
+        public Map<String, Object> getContext() {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public boolean cancel(final boolean mayInterruptIfRunning) {
+            return m_result.cancel(mayInterruptIfRunning);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return m_result.isCancelled();
+        }
+
+        @Override
+        public boolean isDone() {
+            return m_result.isDone();
+        }
+
+        @Override
+        public T get() throws InterruptedException, ExecutionException {
+            return m_result.get();
+        }
+
+        @Override
+        public T get(final long timeout, final TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            return m_result.get(timeout, unit);
+        }
+    }
+}
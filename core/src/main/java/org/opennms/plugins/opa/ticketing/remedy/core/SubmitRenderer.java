@@ -0,0 +1,617 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+
+package org.opennms.plugins.opa.ticketing.remedy.core;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.validation.Schema;
+
+import org.apache.cxf.binding.soap.SoapMessage;
+import org.apache.cxf.binding.soap.interceptor.SoapOutInterceptor;
+import org.apache.cxf.databinding.DataBinding;
+import org.apache.cxf.databinding.DataReader;
+import org.apache.cxf.databinding.DataWriter;
+import org.apache.cxf.endpoint.Client;
+import org.apache.cxf.headers.Header;
+import org.apache.cxf.interceptor.Fault;
+import org.apache.cxf.message.Attachment;
+import org.apache.cxf.message.MessageContentsList;
+import org.apache.cxf.phase.AbstractPhaseInterceptor;
+import org.apache.cxf.phase.Phase;
+import org.apache.cxf.service.Service;
+import org.apache.cxf.service.model.BindingOperationInfo;
+import org.apache.cxf.service.model.MessagePartInfo;
+import org.apache.cxf.staxutils.StaxUtils;
+import org.apache.cxf.wsdl.interceptors.BareOutInterceptor;
+import org.codehaus.stax2.XMLStreamWriter2;
+import org.opennms.integration.remedy.ticketservice.AuthenticationInfo;
+import org.opennms.integration.remedy.ticketservice.CreateInputMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes {@code HelpDesk_Submit_Service} requests without JAXB.
+ *
+ * Apart from the summary, notes, urgency and assignment, a create request and its
+ * {@code AuthenticationInfo} header only hold configuration.  Both are marshalled once through
+ * JAXB, with markers in place of the fields that change per ticket, and the output is split at
+ * the markers into constant fragments.  A request is then written by joining the fragments with
+ * the escaped values of its ticket, which is what JAXB would have written for it.
+ *
+ * Fields set by a {@link FieldMapping} are written as they are in the template.  Requests that
+ * differ from the configuration in any other field, such as those carrying a notes overflow
+ * attachment or mapped from an attribute to another value than the default, are left to JAXB.
+ * In verify mode every rendered request is also marshalled through JAXB, and sent that way if
+ * the two differ.
+ */
+public class SubmitRenderer {
+    private static final Logger LOG = LoggerFactory.getLogger(SubmitRenderer.class);
+
+    static final String NAMESPACE = "urn:HPD_IncidentInterface_Create_WS";
+    static final QName SUBMIT_ELEMENT = new QName(NAMESPACE, "HelpDesk_Submit_Service");
+    static final QName HEADER_ELEMENT = new QName(NAMESPACE, "AuthenticationInfo");
+
+    private static final String RENDERED_INPUT = SubmitRenderer.class.getName() + ".input";
+
+    /**
+     * The fields of a create request that change per ticket.
+     */
+    private enum Field {
+        ASSIGNED_GROUP("Assigned_Group", CreateInputMap::getAssignedGroup, CreateInputMap::setAssignedGroup),
+        ASSIGNED_SUPPORT_COMPANY("Assigned_Support_Company", CreateInputMap::getAssignedSupportCompany, CreateInputMap::setAssignedSupportCompany),
+        ASSIGNED_SUPPORT_ORGANIZATION("Assigned_Support_Organization", CreateInputMap::getAssignedSupportOrganization, CreateInputMap::setAssignedSupportOrganization),
+        SUMMARY("Summary", CreateInputMap::getSummary, CreateInputMap::setSummary),
+        NOTES("Notes", CreateInputMap::getNotes, CreateInputMap::setNotes),
+        URGENCY("Urgency", CreateInputMap::getUrgency, CreateInputMap::setUrgency);
+
+        private final String m_element;
+        private final Function<CreateInputMap, String> m_getter;
+        private final BiConsumer<CreateInputMap, String> m_setter;
+
+        Field(final String element, final Function<CreateInputMap, String> getter, final BiConsumer<CreateInputMap, String> setter) {
+            m_element = element;
+            m_getter = getter;
+            m_setter = setter;
+        }
+
+        String marker() {
+            return "\uE000" + name() + "\uE001";
+        }
+    }
+
+    /**
+     * The fields the plugin sets from the configuration, or only for some tickets; a request
+     * is rendered only if they are the same as in the template.
+     */
+    private static final List<Function<CreateInputMap, Object>> CONSTANT_FIELDS = Arrays.asList(
+            CreateInputMap::getFirstName,
+            CreateInputMap::getLastName,
+            CreateInputMap::getServiceCI,
+            CreateInputMap::getServiceCIReconID,
+            CreateInputMap::getImpact,
+            CreateInputMap::getReportedSource,
+            CreateInputMap::getServiceType,
+            CreateInputMap::getStatus,
+            CreateInputMap::getAction,
+            CreateInputMap::getCategorizationTier1,
+            CreateInputMap::getCategorizationTier2,
+            CreateInputMap::getCategorizationTier3,
+            CreateInputMap::getWorkInfoType,
+            CreateInputMap::getWorkInfoSummary,
+            CreateInputMap::getWorkInfoNotes,
+            CreateInputMap::getWorkInfoAttachment1Name,
+            CreateInputMap::getWorkInfoAttachment1Data,
+            CreateInputMap::getWorkInfoAttachment1OrigSize);
+
+    private static final List<Function<AuthenticationInfo, String>> HEADER_FIELDS = Arrays.asList(
+            AuthenticationInfo::getUserName,
+            AuthenticationInfo::getPassword,
+            AuthenticationInfo::getAuthentication,
+            AuthenticationInfo::getLocale,
+            AuthenticationInfo::getTimeZone);
+
+    private static final DataBinding RAW_XML = new RawXmlDataBinding();
+
+    private final JAXBContext m_context;
+    private final CreateInputMap m_template;
+    private final FieldMapping m_mapping;
+    private final List<Function<CreateInputMap, Object>> m_constantFields;
+    private final AuthenticationInfo m_headerTemplate;
+    private final boolean m_verify;
+
+    private final String m_header;
+    private final String[] m_escapes;
+    private final Field[] m_fields;
+    private final String[] m_fragments;
+    private final String[] m_startTags;
+    private final String[] m_endTags;
+    private final int m_constantLength;
+
+    private final AtomicLong m_rendered = new AtomicLong();
+    private final AtomicLong m_fallbacks = new AtomicLong();
+    private final AtomicLong m_mismatches = new AtomicLong();
+
+    /**
+     * @param context the JAXB context of the create port
+     * @param template a request holding the configured fields; the fields that change per ticket are ignored
+     * @param mapping the fields set from ticket attributes, also rendered as they are in the template
+     * @param header the authentication header sent with every request
+     * @param verify compare every rendered request with the JAXB output
+     */
+    SubmitRenderer(final JAXBContext context, final CreateInputMap template, final FieldMapping mapping, final AuthenticationInfo header, final boolean verify) {
+        m_context = context;
+        m_template = template;
+        m_mapping = mapping;
+        m_constantFields = new ArrayList<>(CONSTANT_FIELDS);
+        mapping.getGetters().forEach((element, getter) -> {
+            if (Arrays.stream(Field.values()).noneMatch(field -> field.m_element.equals(element))) {
+                m_constantFields.add(getter);
+            }
+        });
+        m_headerTemplate = header;
+        m_verify = verify;
+        m_header = marshalHeader(header);
+
+        final CreateInputMap marked = copyConstantFields(template);
+        for (final Field field : Field.values()) {
+            field.m_setter.accept(marked, field.marker());
+        }
+        final String xml = new String(marshal(marked), StandardCharsets.UTF_8);
+
+        m_fields = Field.values();
+        Arrays.sort(m_fields, Comparator.comparingInt(field -> xml.indexOf(field.marker())));
+        m_fragments = new String[m_fields.length + 1];
+        m_startTags = new String[m_fields.length];
+        m_endTags = new String[m_fields.length];
+        int constantLength = 0;
+        int end = 0;
+        for (int i = 0; i < m_fields.length; i++) {
+            final String marker = m_fields[i].marker();
+            final int value = xml.indexOf(marker);
+            if (value < 0) {
+                throw new IllegalStateException("JAXB did not write field " + m_fields[i]);
+            }
+            final int start = xml.lastIndexOf('<', value);
+            final int close = xml.indexOf('>', value + marker.length()) + 1;
+            m_fragments[i] = xml.substring(end, start);
+            m_startTags[i] = xml.substring(start, value);
+            m_endTags[i] = xml.substring(value + marker.length(), close);
+            constantLength += m_fragments[i].length() + m_startTags[i].length() + m_endTags[i].length();
+            end = close;
+        }
+        m_fragments[m_fields.length] = xml.substring(end);
+        m_constantLength = constantLength + m_fragments[m_fields.length].length();
+        m_escapes = probeEscapes();
+    }
+
+    /**
+     * Marshal every ASCII character, to find which the JAXB implementation escapes and how.  Other
+     * characters are written as they are, in UTF-8.
+     */
+    private String[] probeEscapes() {
+        final StringBuilder probe = new StringBuilder("\uE000");
+        for (char c = 0; c < 128; c++) {
+            probe.append(c).append('\uE002');
+        }
+        final CreateInputMap input = new CreateInputMap();
+        input.setSummary(probe.append('\uE001').toString());
+        final String xml = new String(marshal(input), StandardCharsets.UTF_8);
+        final String[] written = xml.substring(xml.indexOf('\uE000') + 1, xml.indexOf('\uE001')).split("\uE002", -1);
+
+        final String[] escapes = new String[128];
+        for (char c = 0; c < 128; c++) {
+            if (!written[c].equals(String.valueOf(c))) {
+                escapes[c] = written[c];
+            }
+        }
+        return escapes;
+    }
+
+    private CreateInputMap copyConstantFields(final CreateInputMap template) {
+        final CreateInputMap copy = new CreateInputMap();
+        copy.setFirstName(template.getFirstName());
+        copy.setLastName(template.getLastName());
+        copy.setServiceCI(template.getServiceCI());
+        copy.setServiceCIReconID(template.getServiceCIReconID());
+        copy.setImpact(template.getImpact());
+        copy.setReportedSource(template.getReportedSource());
+        copy.setServiceType(template.getServiceType());
+        copy.setStatus(template.getStatus());
+        copy.setAction(template.getAction());
+        copy.setCategorizationTier1(template.getCategorizationTier1());
+        copy.setCategorizationTier2(template.getCategorizationTier2());
+        copy.setCategorizationTier3(template.getCategorizationTier3());
+        m_mapping.copy(template, copy);
+        return copy;
+    }
+
+    /**
+     * Add the interceptors writing rendered requests to the client of the create port.
+     */
+    void install(final Client client) {
+        client.getOutInterceptors().add(new HeaderInterceptor());
+        client.getOutInterceptors().add(new BodyInterceptor());
+    }
+
+    /**
+     * @return whether {@link #render} writes the same request as JAXB would
+     */
+    boolean canRender(final CreateInputMap input) {
+        for (final Function<CreateInputMap, Object> field : m_constantFields) {
+            if (!Objects.equals(field.apply(input), field.apply(m_template))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return whether the header is the one rendered for the configuration
+     */
+    boolean canRender(final AuthenticationInfo header) {
+        for (final Function<AuthenticationInfo, String> field : HEADER_FIELDS) {
+            if (!Objects.equals(field.apply(header), field.apply(m_headerTemplate))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the {@code HelpDesk_Submit_Service} element for a request that {@link #canRender(CreateInputMap) can be rendered}
+     */
+    String render(final CreateInputMap input) {
+        int length = m_constantLength;
+        for (final Field field : m_fields) {
+            final String value = field.m_getter.apply(input);
+            length += value == null ? 0 : value.length() + 16;
+        }
+        final StringBuilder xml = new StringBuilder(length);
+        render(input, xml::append);
+        return xml.toString();
+    }
+
+    /**
+     * Write the {@code HelpDesk_Submit_Service} element of a request that {@link #canRender(CreateInputMap) can be rendered}
+     * straight to a stream writer, without building it first.
+     */
+    void render(final CreateInputMap input, final XMLStreamWriter2 writer) throws XMLStreamException {
+        render(input, (text, start, end) -> writer.writeRaw(text, start, end - start));
+    }
+
+    private <E extends Exception> void render(final CreateInputMap input, final Output<E> output) throws E {
+        for (int i = 0; i < m_fields.length; i++) {
+            output.write(m_fragments[i]);
+            final String value = m_fields[i].m_getter.apply(input);
+            if (value != null) {
+                output.write(m_startTags[i]);
+                int start = 0;
+                for (int j = 0; j < value.length(); j++) {
+                    final char c = value.charAt(j);
+                    if (c < 128 && m_escapes[c] != null) {
+                        output.write(value, start, j);
+                        output.write(m_escapes[c]);
+                        start = j + 1;
+                    }
+                }
+                output.write(value, start, value.length());
+                output.write(m_endTags[i]);
+            }
+        }
+        output.write(m_fragments[m_fields.length]);
+    }
+
+    private interface Output<E extends Exception> {
+        void write(String text, int start, int end) throws E;
+
+        default void write(final String text) throws E {
+            write(text, 0, text.length());
+        }
+    }
+
+    /**
+     * @return the {@code AuthenticationInfo} header element
+     */
+    String renderHeader() {
+        return m_header;
+    }
+
+    /**
+     * @return the request as marshalled by JAXB, in UTF-8
+     */
+    byte[] marshal(final CreateInputMap input) {
+        return marshal(new JAXBElement<>(SUBMIT_ELEMENT, CreateInputMap.class, input));
+    }
+
+    /**
+     * CXF marshals headers onto its stream writer, which declares the namespaces of an element in
+     * another order than JAXB writing to a stream.
+     *
+     * @return the header as CXF writes it through JAXB
+     */
+    String marshalHeader(final AuthenticationInfo header) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        final XMLStreamWriter writer = StaxUtils.createXMLStreamWriter(out, StandardCharsets.UTF_8.name());
+        try {
+            final Marshaller marshaller = m_context.createMarshaller();
+            marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);
+            marshaller.marshal(new JAXBElement<>(HEADER_ELEMENT, AuthenticationInfo.class, header), writer);
+            writer.flush();
+        } catch (final JAXBException | XMLStreamException e) {
+            throw new RemedyTicketerException("Unable to marshal " + HEADER_ELEMENT.getLocalPart(), e);
+        } finally {
+            StaxUtils.close(writer);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private byte[] marshal(final JAXBElement<?> element) {
+        try {
+            final Marshaller marshaller = m_context.createMarshaller();
+            marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);
+            marshaller.setProperty(Marshaller.JAXB_ENCODING, StandardCharsets.UTF_8.name());
+            final ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+            marshaller.marshal(element, out);
+            return out.toByteArray();
+        } catch (final JAXBException e) {
+            throw new RemedyTicketerException("Unable to marshal " + element.getName().getLocalPart(), e);
+        }
+    }
+
+    /**
+     * @return whether the request is written from the pre-rendered fragments; if not it is marshalled by JAXB
+     */
+    boolean prepare(final AuthenticationInfo header, final CreateInputMap input) {
+        if (!canRender(header) || !canRender(input)) {
+            m_fallbacks.incrementAndGet();
+            return false;
+        }
+        if (m_verify) {
+            final String xml = render(input);
+            final byte[] rendered = xml.getBytes(StandardCharsets.UTF_8);
+            final byte[] expected = marshal(input);
+            if (!Arrays.equals(rendered, expected)) {
+                m_mismatches.incrementAndGet();
+                LOG.warn("Rendered HelpDesk_Submit_Service request differs from JAXB at byte {}; sending the JAXB request.\nrendered: {}\nexpected: {}",
+                        firstDifference(rendered, expected), xml, new String(expected, StandardCharsets.UTF_8));
+                return false;
+            }
+        }
+        m_rendered.incrementAndGet();
+        return true;
+    }
+
+    private static int firstDifference(final byte[] a, final byte[] b) {
+        final int length = Math.min(a.length, b.length);
+        for (int i = 0; i < length; i++) {
+            if (a[i] != b[i]) {
+                return i;
+            }
+        }
+        return length;
+    }
+
+    public boolean isVerifying() {
+        return m_verify;
+    }
+
+    /**
+     * @return the number of requests written from the pre-rendered fragments
+     */
+    public long getRenderedCount() {
+        return m_rendered.get();
+    }
+
+    /**
+     * @return the number of requests left to JAXB because they differ from the configuration
+     */
+    public long getFallbackCount() {
+        return m_fallbacks.get();
+    }
+
+    /**
+     * @return the number of requests left to JAXB because verify mode found the rendered request to differ
+     */
+    public long getMismatchCount() {
+        return m_mismatches.get();
+    }
+
+    public void resetStats() {
+        m_rendered.set(0);
+        m_fallbacks.set(0);
+        m_mismatches.set(0);
+    }
+
+    /**
+     * Replaces the {@code AuthenticationInfo} header of a renderable request with the pre-rendered
+     * one, before the envelope is started, and marks the request for {@link BodyInterceptor}.
+     */
+    private class HeaderInterceptor extends AbstractPhaseInterceptor<SoapMessage> {
+        HeaderInterceptor() {
+            super(Phase.WRITE);
+            addBefore(SoapOutInterceptor.class.getName());
+        }
+
+        @Override
+        public void handleMessage(final SoapMessage message) throws Fault {
+            final MessageContentsList args = MessageContentsList.getContentsList(message);
+            if (args == null || !(message.getContent(XMLStreamWriter.class) instanceof XMLStreamWriter2)) {
+                return;
+            }
+            int headerIndex = -1;
+            CreateInputMap input = null;
+            for (int i = 0; i < args.size(); i++) {
+                final Object arg = args.get(i);
+                if (arg instanceof AuthenticationInfo) {
+                    headerIndex = i;
+                } else if (arg instanceof CreateInputMap) {
+                    input = (CreateInputMap) arg;
+                }
+            }
+            if (headerIndex < 0 || input == null) {
+                return;
+            }
+            if (prepare((AuthenticationInfo) args.get(headerIndex), input)) {
+                args.set(headerIndex, null);
+                message.getHeaders().add(new Header(HEADER_ELEMENT, m_header, RAW_XML));
+                message.put(RENDERED_INPUT, input);
+            }
+        }
+    }
+
+    /**
+     * Renders the body in place of the JAXB one.
+     */
+    private class BodyInterceptor extends AbstractPhaseInterceptor<SoapMessage> {
+        BodyInterceptor() {
+            super(Phase.MARSHAL);
+            addBefore(BareOutInterceptor.class.getName());
+        }
+
+        @Override
+        public void handleMessage(final SoapMessage message) throws Fault {
+            final CreateInputMap input = (CreateInputMap) message.get(RENDERED_INPUT);
+            if (input == null) {
+                return;
+            }
+            try {
+                render(input, (XMLStreamWriter2) message.getContent(XMLStreamWriter.class));
+            } catch (final XMLStreamException e) {
+                throw new Fault(e);
+            }
+            final MessageContentsList args = MessageContentsList.getContentsList(message);
+            final BindingOperationInfo operation = message.getExchange().getBindingOperationInfo();
+            for (final MessagePartInfo part : operation.getInput().getMessageParts()) {
+                if (args.hasValue(part) && args.get(part) instanceof CreateInputMap) {
+                    args.remove(part);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes pre-rendered XML strings as they are, for {@link Header}s.
+     */
+    private static class RawXmlDataBinding implements DataBinding {
+        @Override
+        public <T> DataReader<T> createReader(final Class<T> cls) {
+            return null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> DataWriter<T> createWriter(final Class<T> cls) {
+            return cls == XMLStreamWriter.class ? (DataWriter<T>) new RawXmlWriter() : null;
+        }
+
+        @Override
+        public Class<?>[] getSupportedReaderFormats() {
+            return new Class<?>[0];
+        }
+
+        @Override
+        public Class<?>[] getSupportedWriterFormats() {
+            return new Class<?>[] { XMLStreamWriter.class };
+        }
+
+        @Override
+        public void initialize(final Service service) {
+        }
+
+        @Override
+        public Map<String, String> getDeclaredNamespaceMappings() {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public void setMtomEnabled(final boolean enabled) {
+        }
+
+        @Override
+        public boolean isMtomEnabled() {
+            return false;
+        }
+
+        @Override
+        public void setMtomThreshold(final int threshold) {
+        }
+
+        @Override
+        public int getMtomThreshold() {
+            return 0;
+        }
+    }
+
+    private static class RawXmlWriter implements DataWriter<XMLStreamWriter> {
+        @Override
+        public void setSchema(final Schema schema) {
+        }
+
+        @Override
+        public void setAttachments(final Collection<Attachment> attachments) {
+        }
+
+        @Override
+        public void setProperty(final String key, final Object value) {
+        }
+
+        @Override
+        public void write(final Object obj, final XMLStreamWriter output) {
+            try {
+                ((XMLStreamWriter2) output).writeRaw((String) obj);
+            } catch (final XMLStreamException e) {
+                throw new Fault(e);
+            }
+        }
+
+        @Override
+        public void write(final Object obj, final MessagePartInfo part, final XMLStreamWriter output) {
+            write(obj, output);
+        }
+    }
+}
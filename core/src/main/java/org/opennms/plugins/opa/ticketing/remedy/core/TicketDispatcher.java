@@ -0,0 +1,591 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+
+package org.opennms.plugins.opa.ticketing.remedy.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.opennms.plugins.opa.ticketing.remedy.core.diagnostics.LatencyHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Limits the number of concurrent ticket operations against a Remedy server and serves
+ * queued operations by urgency, creates before updates of the same urgency.
+ *
+ * Operations are queued per target group.  Free slots are shared between groups by weighted
+ * fair queueing (start-time fair queueing on a virtual clock): a group with weight 2 gets twice
+ * the dispatches of a group with weight 1 while both have work, a group that was idle does
+ * not build up credit, and a group limited by its own concurrency cap leaves its share to the
+ * others.  Urgency orders the operations within a group, but the updates of one ticket
+ * always run one after the other in the order they came in.
+ *
+ * When the server falls behind (the queue is too deep, or operations waited too long),
+ * low urgency updates are either deferred, coalesced per ticket and run once the queue has
+ * drained, or shed.  Creates are never deferred or shed.  The result of a deferred update
+ * completes once it has run, or fails if it is shed or dropped; an update superseded by a
+ * newer one of the same ticket completes with the result of the newer one.
+ */
+public class TicketDispatcher {
+    private static final Logger LOG = LoggerFactory.getLogger(TicketDispatcher.class);
+
+    public enum OverloadPolicy { DEFER, SHED }
+
+    /** Urgency levels, as in the leading digit of "1-Critical" to "4-Low". */
+    public static final int HIGHEST_URGENCY = 1;
+    public static final int LOWEST_URGENCY = 4;
+
+    /** The group of tickets that are not assigned to a target group. */
+    public static final String DEFAULT_GROUP = "default";
+
+    private final int m_maxConcurrent;
+    private final int m_overloadQueueDepth;
+    private final long m_overloadWaitNanos;
+    private final int m_overloadMinUrgency;
+    private final OverloadPolicy m_overloadPolicy;
+    private final int m_maxDeferred;
+
+    private final Map<String, Group> m_groups = new LinkedHashMap<>();
+    private final Map<String, Task> m_deferred = new LinkedHashMap<>();
+    /** The last update of each ticket that has not completed; later ones wait for it. */
+    private final Map<String, Task> m_updates = new HashMap<>();
+    private int m_queued;
+    private int m_running;
+    private double m_virtualTime;
+    private long m_sequence;
+    private long m_lastWaitNanos;
+    private boolean m_shutdown;
+
+    private final AtomicInteger m_drainRequests = new AtomicInteger();
+
+    private final LatencyHistogram[] m_createWaits = newHistograms();
+    private final LatencyHistogram[] m_updateWaits = newHistograms();
+    private final AtomicLong m_deferredCount = new AtomicLong();
+    private final AtomicLong m_coalescedCount = new AtomicLong();
+    private final AtomicLong m_shedCount = new AtomicLong();
+
+    /**
+     * @param maxConcurrent the number of operations sent to Remedy at the same time
+     * @param overloadQueueDepth the queue is overloaded when at least this many operations wait
+     * @param overloadWaitMillis the queue is overloaded when the last started operation waited at least this long
+     * @param overloadMinUrgency updates of this urgency level or lower are deferred or shed while overloaded
+     * @param overloadPolicy what to do with low urgency updates while overloaded
+     * @param maxDeferred the number of deferred updates to keep; the oldest are shed beyond that
+     */
+    public TicketDispatcher(final int maxConcurrent, final int overloadQueueDepth, final long overloadWaitMillis,
+                            final int overloadMinUrgency, final OverloadPolicy overloadPolicy, final int maxDeferred) {
+        m_maxConcurrent = Math.max(maxConcurrent, 1);
+        m_overloadQueueDepth = overloadQueueDepth;
+        m_overloadWaitNanos = TimeUnit.MILLISECONDS.toNanos(overloadWaitMillis);
+        m_overloadMinUrgency = overloadMinUrgency;
+        m_overloadPolicy = overloadPolicy;
+        m_maxDeferred = maxDeferred;
+    }
+
+    /**
+     * Set the share and concurrency cap of a target group.
+     *
+     * @param weight the relative share of dispatches while several groups have work queued
+     * @param maxConcurrent the number of operations of this group sent to Remedy at the same time
+     */
+    public synchronized void setGroup(final String name, final int weight, final int maxConcurrent) {
+        final Group group = getGroup(name);
+        group.m_weight = Math.max(weight, 1);
+        group.m_maxConcurrent = Math.max(maxConcurrent, 1);
+    }
+
+    private Group getGroup(final String name) {
+        return m_groups.computeIfAbsent(name == null ? DEFAULT_GROUP : name, Group::new);
+    }
+
+    /**
+     * Parse the urgency level from a Remedy urgency such as "1-Critical".
+     *
+     * @return the level, or {@link #LOWEST_URGENCY} if it cannot be determined
+     */
+    public static int getUrgencyLevel(final String urgency) {
+        if (urgency != null && !urgency.isEmpty()) {
+            final int level = Character.digit(urgency.trim().charAt(0), 10);
+            if (level >= HIGHEST_URGENCY && level <= LOWEST_URGENCY) {
+                return level;
+            }
+        }
+        return LOWEST_URGENCY;
+    }
+
+    /**
+     * Queue a ticket operation in the default group.
+     */
+    public CompletableFuture<String> submit(final int urgency, final String ticketId, final Supplier<CompletableFuture<String>> operation) {
+        return submit(DEFAULT_GROUP, urgency, ticketId, operation);
+    }
+
+    /**
+     * Queue a ticket operation.
+     *
+     * @param group the target group of the ticket
+     * @param urgency the urgency level of the ticket
+     * @param ticketId the incident number of an update, or null for a create
+     * @param operation starts the operation once it is dispatched
+     * @return the result of the operation, also for a deferred update
+     */
+    public CompletableFuture<String> submit(final String group, final int urgency, final String ticketId, final Supplier<CompletableFuture<String>> operation) {
+        final Task task;
+        final Map<Task, RemedyTicketerException> failures = new LinkedHashMap<>();
+        synchronized (this) {
+            if (m_shutdown) {
+                return failed(new RemedyTicketerException("Ticket dispatcher is shut down"));
+            }
+            task = new Task(getGroup(group), Math.min(Math.max(urgency, HIGHEST_URGENCY), LOWEST_URGENCY), ticketId == null, ticketId, operation, m_sequence++);
+
+            if (task.m_create) {
+                enqueue(task);
+            } else {
+                final Task last = m_updates.put(ticketId, task);
+                if (last != null && m_deferred.get(ticketId) == last) {
+                    // a newer update supersedes a deferred one
+                    m_deferred.remove(ticketId);
+                    m_coalescedCount.incrementAndGet();
+                    forward(task.m_result, last.m_result);
+                    admit(task, failures);
+                } else if (last != null) {
+                    // updates of a ticket run in the order they came in, whatever their urgency
+                    last.m_next = task;
+                } else {
+                    admit(task, failures);
+                }
+            }
+        }
+        fail(failures);
+        drain();
+        return task.m_result;
+    }
+
+    private static void forward(final CompletableFuture<String> from, final CompletableFuture<String> to) {
+        from.whenComplete((result, e) -> {
+            if (e == null) {
+                to.complete(result);
+            } else {
+                to.completeExceptionally(e);
+            }
+        });
+    }
+
+    /**
+     * Queue an update, or defer or shed it if it is of low urgency and the queue is overloaded.
+     *
+     * @param failures collects the updates that were shed
+     */
+    private void admit(final Task task, final Map<Task, RemedyTicketerException> failures) {
+        if (task.m_urgency >= m_overloadMinUrgency && isOverloaded()) {
+            overloaded(task, failures);
+        } else {
+            enqueue(task);
+        }
+    }
+
+    private void enqueue(final Task task) {
+        task.m_group.m_queue.add(task);
+        m_queued++;
+    }
+
+    private void overloaded(final Task task, final Map<Task, RemedyTicketerException> failures) {
+        if (m_overloadPolicy == OverloadPolicy.SHED) {
+            m_shedCount.incrementAndGet();
+            LOG.warn("Remedy is overloaded ({} queued), shedding update of ticket {}.", m_queued, task.m_ticketId);
+            failures.put(task, new RemedyTicketerException("Remedy is overloaded, update of ticket " + task.m_ticketId + " was shed"));
+            return;
+        }
+
+        task.m_deferred = true;
+        m_deferred.put(task.m_ticketId, task);
+        m_deferredCount.incrementAndGet();
+        LOG.debug("Remedy is overloaded ({} queued), deferring update of ticket {}.", m_queued, task.m_ticketId);
+        if (m_deferred.size() > m_maxDeferred) {
+            final Iterator<Task> oldest = m_deferred.values().iterator();
+            final Task shed = oldest.next();
+            oldest.remove();
+            m_shedCount.incrementAndGet();
+            LOG.warn("Too many deferred updates, shedding update of ticket {}.", shed.m_ticketId);
+            failures.put(shed, new RemedyTicketerException("Too many deferred updates, update of ticket " + shed.m_ticketId + " was shed"));
+        }
+    }
+
+    private void fail(final Map<Task, RemedyTicketerException> failures) {
+        failures.forEach((task, e) -> finished(task, null, e));
+    }
+
+    /**
+     * Complete an operation, and admit the next update of the same ticket.
+     */
+    private void finished(final Task task, final String result, final Throwable e) {
+        if (e == null) {
+            task.m_result.complete(result);
+        } else {
+            task.m_result.completeExceptionally(e);
+        }
+        if (task.m_create) {
+            return;
+        }
+
+        final Map<Task, RemedyTicketerException> failures = new LinkedHashMap<>();
+        synchronized (this) {
+            final Task next = task.m_next;
+            if (next == null) {
+                m_updates.remove(task.m_ticketId, task);
+            } else if (m_shutdown) {
+                failures.put(next, new RemedyTicketerException("Ticket dispatcher is shut down"));
+            } else {
+                admit(next, failures);
+            }
+        }
+        fail(failures);
+    }
+
+    /**
+     * @return whether low urgency updates are currently deferred or shed
+     */
+    public synchronized boolean isOverloaded() {
+        return m_queued >= m_overloadQueueDepth || m_lastWaitNanos >= m_overloadWaitNanos;
+    }
+
+    /**
+     * Start queued operations while there are free slots.  Only one thread drains at a time;
+     * requests from other threads in the meantime make it loop again.
+     */
+    private void drain() {
+        if (m_drainRequests.getAndIncrement() != 0) {
+            return;
+        }
+        int requests = 1;
+        do {
+            Task task;
+            while ((task = next()) != null) {
+                start(task);
+            }
+            requests = m_drainRequests.addAndGet(-requests);
+        } while (requests != 0);
+    }
+
+    private synchronized Task next() {
+        if (m_running >= m_maxConcurrent) {
+            return null;
+        }
+
+        // the group with work, below its cap, that has the earliest virtual start time
+        Group next = null;
+        double nextStart = Double.MAX_VALUE;
+        for (final Group group : m_groups.values()) {
+            if (!group.m_queue.isEmpty() && group.m_running < group.m_maxConcurrent) {
+                final double start = Math.max(m_virtualTime, group.m_finish);
+                if (start < nextStart) {
+                    next = group;
+                    nextStart = start;
+                }
+            }
+        }
+
+        final Task task;
+        if (next != null) {
+            task = next.m_queue.poll();
+            m_queued--;
+            m_virtualTime = nextStart;
+            next.m_finish = nextStart + 1.0 / next.m_weight;
+        } else {
+            // deferred updates only use otherwise idle capacity
+            task = nextDeferred();
+            if (task == null) {
+                return null;
+            }
+        }
+        m_running++;
+        task.m_group.m_running++;
+        task.m_group.m_dispatched.incrementAndGet();
+
+        final long waitNanos = System.nanoTime() - task.m_enqueuedNanos;
+        if (!task.m_deferred) {
+            m_lastWaitNanos = waitNanos;
+        } else if (m_queued == 0) {
+            // the backlog has cleared
+            m_lastWaitNanos = 0;
+        }
+        (task.m_create ? m_createWaits : m_updateWaits)[task.m_urgency - 1].record(waitNanos);
+        task.m_group.m_waits.record(waitNanos);
+        return task;
+    }
+
+    private Task nextDeferred() {
+        final Iterator<Task> deferred = m_deferred.values().iterator();
+        while (deferred.hasNext()) {
+            final Task task = deferred.next();
+            if (task.m_group.m_running < task.m_group.m_maxConcurrent) {
+                deferred.remove();
+                return task;
+            }
+        }
+        return null;
+    }
+
+    private void start(final Task task) {
+        CompletableFuture<String> future;
+        try {
+            future = task.m_operation.get();
+        } catch (final RuntimeException e) {
+            future = failed(e);
+        }
+        future.whenComplete((result, e) -> {
+            synchronized (this) {
+                m_running--;
+                task.m_group.m_running--;
+            }
+            if (e != null && task.m_deferred) {
+                LOG.warn("Deferred update of ticket {} failed.", task.m_ticketId, e);
+            }
+            finished(task, result, e);
+            drain();
+        });
+    }
+
+    /**
+     * Fail all queued operations and deferred updates.
+     */
+    public void shutdown() {
+        final List<Task> queued = new ArrayList<>();
+        synchronized (this) {
+            m_shutdown = true;
+            for (final Group group : m_groups.values()) {
+                queued.addAll(group.m_queue);
+                group.m_queue.clear();
+            }
+            m_queued = 0;
+            if (!m_deferred.isEmpty()) {
+                LOG.warn("Dropping {} deferred ticket updates on shutdown.", m_deferred.size());
+                queued.addAll(m_deferred.values());
+                m_deferred.clear();
+            }
+        }
+        // updates waiting for an earlier one of their ticket fail with it
+        for (final Task task : queued) {
+            finished(task, null, new RemedyTicketerException("Ticket dispatcher is shut down"));
+        }
+    }
+
+    public synchronized int getQueued() {
+        return m_queued;
+    }
+
+    public synchronized int getRunning() {
+        return m_running;
+    }
+
+    public synchronized int getDeferred() {
+        return m_deferred.size();
+    }
+
+    /**
+     * @return the time creates of the given urgency level waited in the queue
+     */
+    public LatencyHistogram getCreateQueueWait(final int urgency) {
+        return m_createWaits[urgency - 1];
+    }
+
+    /**
+     * @return the time updates of the given urgency level waited in the queue, including deferral
+     */
+    public LatencyHistogram getUpdateQueueWait(final int urgency) {
+        return m_updateWaits[urgency - 1];
+    }
+
+    public long getDeferredCount() {
+        return m_deferredCount.get();
+    }
+
+    public long getCoalescedCount() {
+        return m_coalescedCount.get();
+    }
+
+    public long getShedCount() {
+        return m_shedCount.get();
+    }
+
+    /**
+     * Clear the queue wait histograms and counters.
+     */
+    public synchronized void resetStats() {
+        for (int i = 0; i < LOWEST_URGENCY; i++) {
+            m_createWaits[i].reset();
+            m_updateWaits[i].reset();
+        }
+        for (final Group group : m_groups.values()) {
+            group.m_waits.reset();
+            group.m_dispatched.set(0);
+        }
+        m_deferredCount.set(0);
+        m_coalescedCount.set(0);
+        m_shedCount.set(0);
+    }
+
+    /**
+     * @return a snapshot of the per target group statistics
+     */
+    public synchronized Collection<GroupStats> getGroupStats() {
+        final List<GroupStats> stats = new ArrayList<>(m_groups.size());
+        for (final Group group : m_groups.values()) {
+            stats.add(new GroupStats(group.m_name, group.m_weight, group.m_maxConcurrent, group.m_queue.size(), group.m_running,
+                    group.m_dispatched.get(), group.m_waits));
+        }
+        return stats;
+    }
+
+    private static LatencyHistogram[] newHistograms() {
+        final LatencyHistogram[] histograms = new LatencyHistogram[LOWEST_URGENCY];
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+        return histograms;
+    }
+
+    private static <T> CompletableFuture<T> failed(final Throwable t) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(t);
+        return future;
+    }
+
+    public static class GroupStats {
+        private final String m_name;
+        private final int m_weight;
+        private final int m_maxConcurrent;
+        private final int m_queued;
+        private final int m_running;
+        private final long m_dispatched;
+        private final LatencyHistogram m_queueWait;
+
+        GroupStats(final String name, final int weight, final int maxConcurrent, final int queued, final int running, final long dispatched, final LatencyHistogram queueWait) {
+            m_name = name;
+            m_weight = weight;
+            m_maxConcurrent = maxConcurrent;
+            m_queued = queued;
+            m_running = running;
+            m_dispatched = dispatched;
+            m_queueWait = queueWait;
+        }
+
+        public String getName() {
+            return m_name;
+        }
+
+        public int getWeight() {
+            return m_weight;
+        }
+
+        public int getMaxConcurrent() {
+            return m_maxConcurrent;
+        }
+
+        public int getQueued() {
+            return m_queued;
+        }
+
+        public int getRunning() {
+            return m_running;
+        }
+
+        /**
+         * @return the number of operations sent to Remedy for this group
+         */
+        public long getDispatched() {
+            return m_dispatched;
+        }
+
+        public LatencyHistogram getQueueWait() {
+            return m_queueWait;
+        }
+    }
+
+    private final class Group {
+        private final String m_name;
+        private final PriorityQueue<Task> m_queue = new PriorityQueue<>();
+        private final LatencyHistogram m_waits = new LatencyHistogram();
+        private final AtomicLong m_dispatched = new AtomicLong();
+        private int m_weight = 1;
+        private int m_maxConcurrent = TicketDispatcher.this.m_maxConcurrent;
+        private int m_running;
+        /** The virtual time at which the group's last dispatch finishes its share. */
+        private double m_finish;
+
+        Group(final String name) {
+            m_name = name;
+        }
+    }
+
+    private static class Task implements Comparable<Task> {
+        private final Group m_group;
+        private final int m_urgency;
+        private final boolean m_create;
+        private final String m_ticketId;
+        private final Supplier<CompletableFuture<String>> m_operation;
+        private final long m_sequence;
+        private final long m_enqueuedNanos = System.nanoTime();
+        private final CompletableFuture<String> m_result = new CompletableFuture<>();
+        private boolean m_deferred;
+        /** The next update of the same ticket, admitted once this one completes. */
+        private Task m_next;
+
+        Task(final Group group, final int urgency, final boolean create, final String ticketId, final Supplier<CompletableFuture<String>> operation, final long sequence) {
+            m_group = group;
+            m_urgency = urgency;
+            m_create = create;
+            m_ticketId = ticketId;
+            m_operation = operation;
+            m_sequence = sequence;
+        }
+
+        /** Lower is served first: by urgency, creates before updates, then in arrival order. */
+        private int rank() {
+            return m_urgency * 2 - (m_create ? 1 : 0);
+        }
+
+        @Override
+        public int compareTo(final Task other) {
+            final int rank = Integer.compare(rank(), other.rank());
+            return rank != 0 ? rank : Long.compare(m_sequence, other.m_sequence);
+        }
+    }
+}
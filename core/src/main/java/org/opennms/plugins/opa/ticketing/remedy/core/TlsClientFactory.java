@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+
+package org.opennms.plugins.opa.ticketing.remedy.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.TrustManagerFactory;
+
+import org.apache.cxf.configuration.jsse.TLSClientParameters;
+import org.opennms.plugins.opa.ticketing.remedy.core.diagnostics.HandshakeStats;
+import org.opennms.plugins.opa.ticketing.remedy.core.utils.AnyServerX509TrustManager;
+import org.opennms.plugins.opa.ticketing.remedy.core.utils.MeteredSSLContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Builds the TLS settings shared by all ports of a plugin.
+ *
+ * There is one {@link SSLContext} per strictness, built once from the configured truststore and
+ * keystore, so every connection to Remedy draws on the same session cache and reconnects resume
+ * the earlier session instead of doing a full handshake.  Handshakes of both contexts are counted.
+ */
+class TlsClientFactory {
+    private static final Logger LOG = LoggerFactory.getLogger(TlsClientFactory.class);
+
+    private final DefaultRemedyConfigDao m_configDao;
+    private final HandshakeStats m_stats = new HandshakeStats();
+
+    private TLSClientParameters m_strict;
+    private TLSClientParameters m_lenient;
+
+    TlsClientFactory(final DefaultRemedyConfigDao configDao) {
+        m_configDao = configDao;
+    }
+
+    /**
+     * @param strict whether to verify the server certificate and host name
+     * @return the TLS parameters for a conduit; they may be shared by several conduits
+     */
+    synchronized TLSClientParameters getClientParameters(final boolean strict) {
+        if (strict) {
+            if (m_strict == null) {
+                m_strict = newClientParameters(true);
+            }
+            return m_strict;
+        }
+        if (m_lenient == null) {
+            m_lenient = newClientParameters(false);
+        }
+        return m_lenient;
+    }
+
+    HandshakeStats getStats() {
+        return m_stats;
+    }
+
+    private TLSClientParameters newClientParameters(final boolean strict) {
+        final TLSClientParameters parameters = new TLSClientParameters();
+        parameters.setSslContext(newSslContext(strict));
+        if (!strict) {
+            LOG.debug("Disabling strict SSL checking.");
+            parameters.setDisableCNCheck(true);
+        }
+        return parameters;
+    }
+
+    private SSLContext newSslContext(final boolean strict) {
+        try {
+            final SSLContext context = SSLContext.getInstance(m_configDao.getTlsProtocol());
+            // accept all certificates unless strict
+            final TrustManager[] trustManagers = strict ? getTrustManagers() : new TrustManager[] { new AnyServerX509TrustManager() };
+            context.init(getKeyManagers(), trustManagers, null);
+
+            final SSLSessionContext sessions = context.getClientSessionContext();
+            if (m_configDao.getTlsSessionCacheSize() >= 0) {
+                sessions.setSessionCacheSize(m_configDao.getTlsSessionCacheSize());
+            }
+            if (m_configDao.getTlsSessionTimeout() >= 0) {
+                sessions.setSessionTimeout(m_configDao.getTlsSessionTimeout());
+            }
+            return new MeteredSSLContext(context, m_stats);
+        } catch (final GeneralSecurityException | IOException e) {
+            throw new RemedyTicketerException("Unable to initialize TLS", e);
+        }
+    }
+
+    /**
+     * @return the trust managers of the configured truststore, or null for the JVM default
+     */
+    private TrustManager[] getTrustManagers() throws GeneralSecurityException, IOException {
+        final String truststore = m_configDao.getTlsTruststore();
+        if (truststore == null) {
+            return null;
+        }
+        final TrustManagerFactory factory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        factory.init(loadKeyStore(truststore, m_configDao.getTlsTruststoreType(), m_configDao.getTlsTruststorePassword()));
+        return factory.getTrustManagers();
+    }
+
+    /**
+     * @return the key managers of the configured keystore for client authentication, or null for none
+     */
+    private KeyManager[] getKeyManagers() throws GeneralSecurityException, IOException {
+        final String keystore = m_configDao.getTlsKeystore();
+        if (keystore == null) {
+            return null;
+        }
+        final String password = m_configDao.getTlsKeystorePassword();
+        final String keyPassword = m_configDao.getTlsKeyPassword();
+        final KeyManagerFactory factory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        factory.init(loadKeyStore(keystore, m_configDao.getTlsKeystoreType(), password), toChars(keyPassword == null ? password : keyPassword));
+        return factory.getKeyManagers();
+    }
+
+    private static KeyStore loadKeyStore(final String file, final String type, final String password) throws GeneralSecurityException, IOException {
+        final KeyStore store = KeyStore.getInstance(type);
+        try (InputStream in = Files.newInputStream(Paths.get(file))) {
+            store.load(in, toChars(password));
+        }
+        return store;
+    }
+
+    private static char[] toChars(final String password) {
+        return password == null ? null : password.toCharArray();
+    }
+}
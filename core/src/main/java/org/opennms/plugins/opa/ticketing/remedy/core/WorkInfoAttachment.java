@@ -0,0 +1,189 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+
+package org.opennms.plugins.opa.ticketing.remedy.core;
+
+import java.io.Closeable;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+import javax.activation.DataHandler;
+import javax.activation.FileDataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A work-info attachment backed by a file on disk.
+ *
+ * The attachment content is never held in memory: compression streams from the source file into a
+ * temporary file, which is given up as soon as it exceeds the maximum size, and the resulting {@link DataHandler} is read lazily by CXF when the request is
+ * written (as an MTOM/XOP part when MTOM is enabled on the port).
+ */
+public class WorkInfoAttachment implements Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(WorkInfoAttachment.class);
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final String m_name;
+    private final Path m_file;
+    private final long m_size;
+    private final boolean m_temporary;
+
+    private WorkInfoAttachment(final String name, final Path file, final long size, final boolean temporary) {
+        m_name = name;
+        m_file = file;
+        m_size = size;
+        m_temporary = temporary;
+    }
+
+    /**
+     * Create an attachment from a file on disk.
+     *
+     * @param source the file to attach
+     * @param maxSize the maximum size (in bytes) of the attachment as sent to Remedy
+     * @param compress whether to gzip the content before sending it
+     * @return the attachment; it must be closed once the request has been sent
+     * @throws IOException if the file cannot be read or compressed
+     * @throws RemedyTicketerException if the attachment exceeds {@code maxSize}
+     */
+    public static WorkInfoAttachment fromFile(final Path source, final long maxSize, final boolean compress) throws IOException {
+        final long sourceSize = Files.size(source);
+        final String sourceName = source.getFileName().toString();
+
+        if (!compress) {
+            checkSize(sourceName, sourceSize, maxSize);
+            return new WorkInfoAttachment(sourceName, source, sourceSize, false);
+        }
+
+        final Path compressed = Files.createTempFile("remedy-attachment-", ".gz");
+        try {
+            try (InputStream in = Files.newInputStream(source);
+                 OutputStream file = Files.newOutputStream(compressed);
+                 OutputStream out = new GZIPOutputStream(new BoundedOutputStream(file, sourceName, maxSize), BUFFER_SIZE)) {
+                final byte[] buffer = new byte[BUFFER_SIZE];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                }
+            }
+            final long compressedSize = Files.size(compressed);
+            checkSize(sourceName, compressedSize, maxSize);
+            LOG.debug("Compressed attachment {} from {} to {} bytes.", sourceName, sourceSize, compressedSize);
+            return new WorkInfoAttachment(sourceName + ".gz", compressed, compressedSize, true);
+        } catch (final IOException | RuntimeException e) {
+            Files.deleteIfExists(compressed);
+            throw e;
+        }
+    }
+
+    /**
+     * Take over a temporary file, which is deleted when the attachment is closed.
+     *
+     * @param name the name of the attachment
+     * @param file the content of the attachment as sent to Remedy
+     */
+    static WorkInfoAttachment fromTemporaryFile(final String name, final Path file) throws IOException {
+        return new WorkInfoAttachment(name, file, Files.size(file), true);
+    }
+
+    private static void checkSize(final String name, final long size, final long maxSize) {
+        if (size > maxSize) {
+            throw new RemedyTicketerException("Attachment " + name + " is " + size + " bytes, which exceeds the maximum of " + maxSize + " bytes");
+        }
+    }
+
+    /**
+     * Fails the write that takes the output past the maximum size, and discards what is written after it
+     * so the compressor can still be closed.
+     */
+    private static class BoundedOutputStream extends FilterOutputStream {
+        private final String m_name;
+        private final long m_maxSize;
+        private long m_count;
+
+        private BoundedOutputStream(final OutputStream out, final String name, final long maxSize) {
+            super(out);
+            m_name = name;
+            m_maxSize = maxSize;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            if (count(1)) {
+                out.write(b);
+            }
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            if (count(len)) {
+                out.write(b, off, len);
+            }
+        }
+
+        private boolean count(final int len) {
+            if (m_count > m_maxSize) {
+                return false;
+            }
+            m_count += len;
+            if (m_count > m_maxSize) {
+                throw new RemedyTicketerException("Attachment " + m_name + " exceeds the maximum of " + m_maxSize + " bytes when compressed");
+            }
+            return true;
+        }
+    }
+
+    public String getName() {
+        return m_name;
+    }
+
+    public long getSize() {
+        return m_size;
+    }
+
+    public DataHandler getDataHandler() {
+        return new DataHandler(new FileDataSource(m_file.toFile()));
+    }
+
+    @Override
+    public void close() {
+        if (m_temporary) {
+            try {
+                Files.deleteIfExists(m_file);
+            } catch (final IOException e) {
+                LOG.warn("Unable to delete temporary attachment file {}", m_file, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+
+package org.opennms.plugins.opa.ticketing.remedy.core.capture;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.opennms.integration.api.v1.ticketing.Ticket;
+import org.opennms.integration.api.v1.ticketing.immutables.ImmutableTicket;
+
+/**
+ * Reads a log written by the {@link CaptureWriter}.  Records of later capture sessions are
+ * timed relative to the start of the first one.
+ */
+public class CaptureReader implements Closeable {
+    private final DataInputStream m_in;
+
+    private long m_firstStartMillis = -1;
+    private long m_sessionOffsetNanos;
+
+    public CaptureReader(final Path file) throws IOException {
+        m_in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 65536));
+        if (m_in.readInt() != CaptureWriter.MAGIC) {
+            m_in.close();
+            throw new IOException(file + " is not a Remedy capture log");
+        }
+    }
+
+    /**
+     * Read all records of a capture log.
+     */
+    public static List<CaptureRecord> readAll(final Path file) throws IOException {
+        try (CaptureReader reader = new CaptureReader(file)) {
+            final List<CaptureRecord> records = new ArrayList<>();
+            CaptureRecord record;
+            while ((record = reader.next()) != null) {
+                records.add(record);
+            }
+            return records;
+        }
+    }
+
+    /**
+     * @return the next record, or null at the end of the log
+     */
+    public CaptureRecord next() throws IOException {
+        while (true) {
+            final int type = m_in.read();
+            if (type < 0) {
+                return null;
+            }
+            try {
+                if (type == CaptureWriter.TYPE_START) {
+                    final long startMillis = m_in.readLong();
+                    if (m_firstStartMillis < 0) {
+                        m_firstStartMillis = startMillis;
+                    }
+                    m_sessionOffsetNanos = TimeUnit.MILLISECONDS.toNanos(startMillis - m_firstStartMillis);
+                    continue;
+                }
+
+                final long offsetNanos = m_sessionOffsetNanos + m_in.readLong();
+                switch (type) {
+                    case CaptureWriter.TYPE_GET:
+                        return CaptureRecord.get(offsetNanos, readString());
+                    case CaptureWriter.TYPE_SAVE_OR_UPDATE:
+                        return CaptureRecord.saveOrUpdate(offsetNanos, readTicket());
+                    case CaptureWriter.TYPE_EXCHANGE:
+                        return CaptureRecord.exchange(offsetNanos, readString(), readString(), m_in.readLong(), m_in.readLong(), m_in.readLong(), m_in.readBoolean());
+                    default:
+                        throw new IOException("Unknown capture record type " + type);
+                }
+            } catch (final EOFException e) {
+                // the last record was cut short, e.g. when capturing was interrupted
+                return null;
+            }
+        }
+    }
+
+    private Ticket readTicket() throws IOException {
+        final ImmutableTicket.Builder builder = ImmutableTicket.newBuilder()
+                .setId(readString())
+                .setAlarmId(readInteger())
+                .setNodeId(readInteger())
+                .setSummary(readString())
+                .setDetails(readString())
+                .setUser(readString());
+        final byte state = m_in.readByte();
+        if (state >= 0) {
+            builder.setState(Ticket.State.values()[state]);
+        }
+        final byte addressLength = m_in.readByte();
+        if (addressLength >= 0) {
+            final byte[] address = new byte[addressLength];
+            m_in.readFully(address);
+            builder.setIpAddress(InetAddress.getByAddress(address));
+        }
+        final int attributes = m_in.readInt();
+        for (int i = 0; i < attributes; i++) {
+            builder.addAttribute(readString(), readString());
+        }
+        return builder.build();
+    }
+
+    private Integer readInteger() throws IOException {
+        return m_in.readBoolean() ? m_in.readInt() : null;
+    }
+
+    private String readString() throws IOException {
+        final int length = m_in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        m_in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        m_in.close();
+    }
+}
@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+
+package org.opennms.plugins.opa.ticketing.remedy.core.capture;
+
+import org.opennms.integration.api.v1.ticketing.Ticket;
+
+/**
+ * An entry of a capture log: a ticket operation handed to the plugin, or a SOAP exchange it made.
+ */
+public class CaptureRecord {
+    public enum Type {
+        GET,
+        SAVE_OR_UPDATE,
+        EXCHANGE
+    }
+
+    private final Type m_type;
+    private final long m_offsetNanos;
+    private final String m_ticketId;
+    private final Ticket m_ticket;
+    private final String m_operation;
+    private final long m_durationNanos;
+    private final long m_requestSize;
+    private final long m_responseSize;
+    private final boolean m_success;
+
+    private CaptureRecord(final Type type, final long offsetNanos, final String ticketId, final Ticket ticket, final String operation,
+                          final long durationNanos, final long requestSize, final long responseSize, final boolean success) {
+        m_type = type;
+        m_offsetNanos = offsetNanos;
+        m_ticketId = ticketId;
+        m_ticket = ticket;
+        m_operation = operation;
+        m_durationNanos = durationNanos;
+        m_requestSize = requestSize;
+        m_responseSize = responseSize;
+        m_success = success;
+    }
+
+    static CaptureRecord get(final long offsetNanos, final String ticketId) {
+        return new CaptureRecord(Type.GET, offsetNanos, ticketId, null, null, 0, 0, 0, true);
+    }
+
+    static CaptureRecord saveOrUpdate(final long offsetNanos, final Ticket ticket) {
+        return new CaptureRecord(Type.SAVE_OR_UPDATE, offsetNanos, ticket.getId(), ticket, null, 0, 0, 0, true);
+    }
+
+    static CaptureRecord exchange(final long offsetNanos, final String operation, final String incidentNumber, final long durationNanos,
+                                  final long requestSize, final long responseSize, final boolean success) {
+        return new CaptureRecord(Type.EXCHANGE, offsetNanos, incidentNumber, null, operation, durationNanos, requestSize, responseSize, success);
+    }
+
+    public Type getType() {
+        return m_type;
+    }
+
+    /**
+     * @return the time of the record since the start of the capture
+     */
+    public long getOffsetNanos() {
+        return m_offsetNanos;
+    }
+
+    /**
+     * @return the ticket ID of a get or update, or the incident number of an exchange
+     */
+    public String getTicketId() {
+        return m_ticketId;
+    }
+
+    /**
+     * @return the ticket passed to saveOrUpdate, null for other records
+     */
+    public Ticket getTicket() {
+        return m_ticket;
+    }
+
+    /**
+     * @return the SOAP operation of an exchange
+     */
+    public String getOperation() {
+        return m_operation;
+    }
+
+    public long getDurationNanos() {
+        return m_durationNanos;
+    }
+
+    public long getRequestSize() {
+        return m_requestSize;
+    }
+
+    public long getResponseSize() {
+        return m_responseSize;
+    }
+
+    public boolean isSuccess() {
+        return m_success;
+    }
+}
@@ -0,0 +1,221 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+
+package org.opennms.plugins.opa.ticketing.remedy.core.capture;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import org.opennms.plugins.opa.ticketing.remedy.core.AsyncTicketingPlugin;
+import org.opennms.plugins.opa.ticketing.remedy.core.RemedyBenchmark;
+import org.opennms.plugins.opa.ticketing.remedy.core.RemedyTicketerPlugin;
+import org.opennms.plugins.opa.ticketing.remedy.core.diagnostics.LatencyHistogram;
+
+/**
+ * Replays the ticket operations of a capture log through a plugin, keeping their original
+ * timing (optionally sped up), and measures their throughput and latency.
+ *
+ * Operations go through the asynchronous plugin API, with at most {@code maxInFlight} in flight;
+ * when that limit is reached, later operations are sent late rather than dropped.
+ */
+public class CaptureReplayer {
+    private final List<CaptureRecord> m_operations = new ArrayList<>();
+    private final Map<String, long[]> m_exchangeNanos = new HashMap<>();
+    private final Map<String, AtomicInteger> m_exchangeIndex = new HashMap<>();
+
+    public CaptureReplayer(final List<CaptureRecord> records) {
+        final Map<String, List<Long>> exchanges = new HashMap<>();
+        for (final CaptureRecord record : records) {
+            if (record.getType() == CaptureRecord.Type.EXCHANGE) {
+                if (record.isSuccess()) {
+                    exchanges.computeIfAbsent(record.getOperation(), operation -> new ArrayList<>()).add(record.getDurationNanos());
+                }
+            } else {
+                m_operations.add(record);
+            }
+        }
+        for (final Map.Entry<String, List<Long>> entry : exchanges.entrySet()) {
+            m_exchangeNanos.put(entry.getKey(), entry.getValue().stream().mapToLong(Long::longValue).toArray());
+            m_exchangeIndex.put(entry.getKey(), new AtomicInteger());
+        }
+    }
+
+    /**
+     * @return the number of ticket operations to replay
+     */
+    public int getOperationCount() {
+        return m_operations.size();
+    }
+
+    /**
+     * The latency of the next call of a SOAP operation: the captured durations of that
+     * operation, in capture order and starting over when exhausted, or 0 if none were captured.
+     */
+    public long nextLatencyNanos(final String operation) {
+        final long[] durations = m_exchangeNanos.get(operation);
+        if (durations == null) {
+            return 0;
+        }
+        return durations[Math.floorMod(m_exchangeIndex.get(operation).getAndIncrement(), durations.length)];
+    }
+
+    /**
+     * Replay the operations against an in-memory stub with the configuration of {@code template},
+     * answering each SOAP call after the latency the captured exchanges had.
+     *
+     * @see #replay(AsyncTicketingPlugin, double, int)
+     */
+    public Result replayAgainstStub(final RemedyTicketerPlugin template, final double speed, final int maxInFlight) throws InterruptedException {
+        final RemedyTicketerPlugin plugin = RemedyBenchmark.newStubPlugin(template, this::nextLatencyNanos);
+        try {
+            return replay(plugin, speed, maxInFlight);
+        } finally {
+            plugin.destroy();
+        }
+    }
+
+    /**
+     * Replay the operations and wait for all of them to complete.
+     *
+     * @param speed the replay speed relative to the capture, e.g. 1 for real time or 10 for ten times faster;
+     *              0 sends every operation as soon as a slot is free
+     */
+    public Result replay(final AsyncTicketingPlugin plugin, final double speed, final int maxInFlight) throws InterruptedException {
+        final int permits = Math.max(maxInFlight, 1);
+        final Semaphore inFlight = new Semaphore(permits);
+        final Map<CaptureRecord.Type, LatencyHistogram> latencies = new EnumMap<>(CaptureRecord.Type.class);
+        latencies.put(CaptureRecord.Type.GET, new LatencyHistogram());
+        latencies.put(CaptureRecord.Type.SAVE_OR_UPDATE, new LatencyHistogram());
+        final AtomicLong errors = new AtomicLong();
+        final AtomicReference<Throwable> firstError = new AtomicReference<>();
+
+        final long firstOffset = m_operations.isEmpty() ? 0 : m_operations.get(0).getOffsetNanos();
+        final long capturedNanos = m_operations.isEmpty() ? 0 : m_operations.get(m_operations.size() - 1).getOffsetNanos() - firstOffset;
+        final long start = System.nanoTime();
+        for (final CaptureRecord record : m_operations) {
+            if (speed > 0) {
+                final long due = start + (long) ((record.getOffsetNanos() - firstOffset) / speed);
+                long wait;
+                while ((wait = due - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                    if (Thread.interrupted()) {
+                        throw new InterruptedException();
+                    }
+                }
+            }
+            inFlight.acquire();
+            final long begin = System.nanoTime();
+            CompletableFuture<?> future;
+            try {
+                future = record.getType() == CaptureRecord.Type.GET ? plugin.getAsync(record.getTicketId()) : plugin.saveOrUpdateAsync(record.getTicket());
+            } catch (final RuntimeException e) {
+                future = new CompletableFuture<>();
+                ((CompletableFuture<?>) future).completeExceptionally(e);
+            }
+            final LatencyHistogram latency = latencies.get(record.getType());
+            future.whenComplete((result, e) -> {
+                latency.record(System.nanoTime() - begin);
+                if (e != null) {
+                    errors.incrementAndGet();
+                    firstError.compareAndSet(null, e);
+                }
+                inFlight.release();
+            });
+        }
+        inFlight.acquire(permits);
+        return new Result(m_operations.size(), errors.get(), firstError.get(), System.nanoTime() - start, capturedNanos, latencies);
+    }
+
+    public static class Result {
+        private final int m_count;
+        private final long m_errors;
+        private final Throwable m_firstError;
+        private final long m_elapsedNanos;
+        private final long m_capturedNanos;
+        private final Map<CaptureRecord.Type, LatencyHistogram> m_latencies;
+
+        Result(final int count, final long errors, final Throwable firstError, final long elapsedNanos, final long capturedNanos,
+               final Map<CaptureRecord.Type, LatencyHistogram> latencies) {
+            m_count = count;
+            m_errors = errors;
+            m_firstError = firstError;
+            m_elapsedNanos = elapsedNanos;
+            m_capturedNanos = capturedNanos;
+            m_latencies = latencies;
+        }
+
+        public int getCount() {
+            return m_count;
+        }
+
+        public long getErrors() {
+            return m_errors;
+        }
+
+        /**
+         * @return the first failure, or null if every operation succeeded
+         */
+        public Throwable getFirstError() {
+            return m_firstError;
+        }
+
+        public long getElapsedNanos() {
+            return m_elapsedNanos;
+        }
+
+        /**
+         * @return the time between the first and last captured operation
+         */
+        public long getCapturedNanos() {
+            return m_capturedNanos;
+        }
+
+        /**
+         * @return the completed operations per second
+         */
+        public double getThroughput() {
+            return m_elapsedNanos == 0 ? 0 : m_count * 1e9 / m_elapsedNanos;
+        }
+
+        /**
+         * @return the latency of the replayed gets or saveOrUpdates
+         */
+        public LatencyHistogram getLatency(final CaptureRecord.Type type) {
+            return m_latencies.get(type);
+        }
+    }
+}
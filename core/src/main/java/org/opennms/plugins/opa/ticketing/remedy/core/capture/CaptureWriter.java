@@ -0,0 +1,191 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+
+package org.opennms.plugins.opa.ticketing.remedy.core.capture;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+import org.opennms.integration.api.v1.ticketing.Ticket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Records the tickets handed to the plugin and the SOAP exchanges they caused to a binary log,
+ * to be replayed offline by the {@link CaptureReplayer}.
+ *
+ * The log starts with a magic number; each capture session appends a start record with its
+ * wall clock time, followed by records timed relative to it.  Capturing stops once the log
+ * reaches the maximum size.
+ */
+public class CaptureWriter implements Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(CaptureWriter.class);
+
+    static final int MAGIC = 0x524d4443;
+    static final byte TYPE_START = 0;
+    static final byte TYPE_GET = 1;
+    static final byte TYPE_SAVE_OR_UPDATE = 2;
+    static final byte TYPE_EXCHANGE = 3;
+
+    private final Path m_file;
+    private final long m_maxSize;
+    private final long m_startMillis = System.currentTimeMillis();
+    private final long m_startNanos = System.nanoTime();
+
+    private DataOutputStream m_out;
+    private long m_initialSize;
+    private boolean m_stopped;
+
+    public CaptureWriter(final Path file, final long maxSize) {
+        m_file = file;
+        m_maxSize = maxSize;
+    }
+
+    public void get(final String ticketId) {
+        write(TYPE_GET, out -> writeString(out, ticketId));
+    }
+
+    public void saveOrUpdate(final Ticket ticket) {
+        write(TYPE_SAVE_OR_UPDATE, out -> writeTicket(out, ticket));
+    }
+
+    public void exchange(final String operation, final String incidentNumber, final long durationNanos, final long requestSize, final long responseSize, final boolean success) {
+        write(TYPE_EXCHANGE, out -> {
+            writeString(out, operation);
+            writeString(out, incidentNumber);
+            out.writeLong(durationNanos);
+            out.writeLong(requestSize);
+            out.writeLong(responseSize);
+            out.writeBoolean(success);
+        });
+    }
+
+    private synchronized void write(final byte type, final Body body) {
+        if (m_stopped) {
+            return;
+        }
+        try {
+            if (m_out == null) {
+                open();
+            }
+            if (m_initialSize + m_out.size() >= m_maxSize) {
+                LOG.warn("Capture log {} reached {} bytes, capturing stopped.", m_file, m_maxSize);
+                m_stopped = true;
+                closeQuietly();
+                return;
+            }
+            m_out.writeByte(type);
+            m_out.writeLong(System.nanoTime() - m_startNanos);
+            body.write(m_out);
+        } catch (final IOException | RuntimeException e) {
+            LOG.warn("Unable to write to capture log {}, capturing stopped.", m_file, e);
+            m_stopped = true;
+            closeQuietly();
+        }
+    }
+
+    private void open() throws IOException {
+        if (m_file.getParent() != null) {
+            Files.createDirectories(m_file.getParent());
+        }
+        m_initialSize = Files.exists(m_file) ? Files.size(m_file) : 0;
+        m_out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(m_file, StandardOpenOption.CREATE, StandardOpenOption.APPEND), 65536));
+        if (m_initialSize == 0) {
+            m_out.writeInt(MAGIC);
+        }
+        m_out.writeByte(TYPE_START);
+        m_out.writeLong(m_startMillis);
+    }
+
+    @Override
+    public synchronized void close() {
+        closeQuietly();
+    }
+
+    private void closeQuietly() {
+        if (m_out != null) {
+            try {
+                m_out.close();
+            } catch (final IOException e) {
+                LOG.debug("Failed to close {}.", m_file, e);
+            }
+            m_out = null;
+        }
+    }
+
+    private static void writeTicket(final DataOutputStream out, final Ticket ticket) throws IOException {
+        writeString(out, ticket.getId());
+        writeInteger(out, ticket.getAlarmId());
+        writeInteger(out, ticket.getNodeId());
+        writeString(out, ticket.getSummary());
+        writeString(out, ticket.getDetails());
+        writeString(out, ticket.getUser());
+        out.writeByte(ticket.getState() == null ? -1 : ticket.getState().ordinal());
+        final byte[] address = ticket.getIpAddress() == null ? null : ticket.getIpAddress().getAddress();
+        out.writeByte(address == null ? -1 : address.length);
+        if (address != null) {
+            out.write(address);
+        }
+        final Map<String, String> attributes = ticket.getAttributes();
+        out.writeInt(attributes == null ? 0 : attributes.size());
+        if (attributes != null) {
+            for (final Map.Entry<String, String> attribute : attributes.entrySet()) {
+                writeString(out, attribute.getKey());
+                writeString(out, attribute.getValue());
+            }
+        }
+    }
+
+    private static void writeInteger(final DataOutputStream out, final Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+
+    private static void writeString(final DataOutputStream out, final String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private interface Body {
+        void write(DataOutputStream out) throws IOException;
+    }
+}
@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+
+package org.opennms.plugins.opa.ticketing.remedy.core.diagnostics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Emits the plugin's Java Flight Recorder events.
+ *
+ * {@code jdk.jfr} is an optional import: on runtimes without it every method is a no-op and the
+ * event classes are never loaded.  Events are only created while a recording has them enabled,
+ * so the cost outside of a recording is a single check.
+ */
+public final class FlightRecorderEvents {
+    private static final Logger LOG = LoggerFactory.getLogger(FlightRecorderEvents.class);
+
+    static final boolean AVAILABLE = isAvailable();
+
+    private FlightRecorderEvents() {
+    }
+
+    private static boolean isAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false, FlightRecorderEvents.class.getClassLoader());
+            return true;
+        } catch (final ClassNotFoundException | LinkageError e) {
+            LOG.debug("Java Flight Recorder is not available, Remedy events are disabled.");
+            return false;
+        }
+    }
+
+    /**
+     * @return an event to pass to {@link #endSoapCall}, or null if the event is not recorded
+     */
+    static Object beginSoapCall() {
+        if (!AVAILABLE) {
+            return null;
+        }
+        final SoapCallEvent event = new SoapCallEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    static void endSoapCall(final Object e, final String operation, final String incidentNumber, final long requestSize, final long responseSize, final boolean success) {
+        if (e == null) {
+            return;
+        }
+        final SoapCallEvent event = (SoapCallEvent) e;
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.incidentNumber = incidentNumber;
+            event.requestSize = requestSize;
+            event.responseSize = responseSize;
+            event.success = success;
+            event.commit();
+        }
+    }
+
+    static void slowSoapCall(final SoapCallRecorder.SlowCall call) {
+        if (!AVAILABLE) {
+            return;
+        }
+        final SlowSoapCallEvent event = new SlowSoapCallEvent();
+        if (!event.isEnabled()) {
+            return;
+        }
+        event.operation = call.getOperation();
+        event.incidentNumber = call.getIncidentNumber();
+        event.requestSize = call.getRequestSize();
+        event.responseSize = call.getResponseSize();
+        event.error = call.getError();
+        event.request = call.getRequest();
+        event.response = call.getResponse();
+        event.commit();
+    }
+
+    /**
+     * @return an event to pass to {@link #endConfigReload}, or null if the event is not recorded
+     */
+    public static Object beginConfigReload() {
+        if (!AVAILABLE) {
+            return null;
+        }
+        final ConfigReloadEvent event = new ConfigReloadEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    public static void endConfigReload(final Object e, final String pid, final int propertyCount) {
+        if (e == null) {
+            return;
+        }
+        final ConfigReloadEvent event = (ConfigReloadEvent) e;
+        event.end();
+        if (event.shouldCommit()) {
+            event.pid = pid;
+            event.propertyCount = propertyCount;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+
+package org.opennms.plugins.opa.ticketing.remedy.core.diagnostics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts TLS handshakes and their duration, telling full handshakes from resumed sessions.
+ */
+public class HandshakeStats {
+    private final AtomicLong m_handshakes = new AtomicLong();
+    private final AtomicLong m_resumed = new AtomicLong();
+    private final AtomicLong m_failures = new AtomicLong();
+    private final LatencyHistogram m_duration = new LatencyHistogram();
+
+    public void record(final long durationNanos, final boolean resumed) {
+        m_handshakes.incrementAndGet();
+        if (resumed) {
+            m_resumed.incrementAndGet();
+        }
+        m_duration.record(durationNanos);
+    }
+
+    public void recordFailure() {
+        m_failures.incrementAndGet();
+    }
+
+    /**
+     * @return the number of completed handshakes, full or resumed
+     */
+    public long getHandshakeCount() {
+        return m_handshakes.get();
+    }
+
+    /**
+     * @return the number of handshakes that resumed an earlier session
+     */
+    public long getResumedCount() {
+        return m_resumed.get();
+    }
+
+    /**
+     * @return the number of handshakes that failed (only seen on the asynchronous transport)
+     */
+    public long getFailureCount() {
+        return m_failures.get();
+    }
+
+    public LatencyHistogram getDuration() {
+        return m_duration;
+    }
+
+    public void resetStats() {
+        m_handshakes.set(0);
+        m_resumed.set(0);
+        m_failures.set(0);
+        m_duration.reset();
+    }
+}
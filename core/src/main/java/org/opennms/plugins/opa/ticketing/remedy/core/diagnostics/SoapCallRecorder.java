@@ -0,0 +1,333 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+
+package org.opennms.plugins.opa.ticketing.remedy.core.diagnostics;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.activation.DataHandler;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.attachment.AttachmentMarshaller;
+import javax.xml.namespace.QName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Records every SOAP call as a Java Flight Recorder event and keeps the last slow calls,
+ * with their payloads, in a ring buffer.
+ *
+ * Payloads are only rendered for calls above the threshold, so the fast path never pays for
+ * marshalling.  Attachments are left out of the rendered payloads.
+ */
+public class SoapCallRecorder {
+    private static final Logger LOG = LoggerFactory.getLogger(SoapCallRecorder.class);
+
+    private static final Map<Class<?>, JAXBContext> CONTEXTS = new ConcurrentHashMap<>();
+
+    private final long m_thresholdNanos;
+    private final int m_maxPayloadChars;
+    private final SlowCall[] m_slowCalls;
+    private int m_next;
+
+    private final Map<String, LatencyHistogram> m_latencies = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> m_errors = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> m_requestBytes = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> m_responseBytes = new ConcurrentHashMap<>();
+
+    /**
+     * @param thresholdMillis calls taking at least this long are kept as slow calls
+     * @param capacity the number of slow calls to keep; 0 disables the ring buffer
+     * @param maxPayloadChars payloads of slow calls are truncated to this length
+     */
+    public SoapCallRecorder(final long thresholdMillis, final int capacity, final int maxPayloadChars) {
+        m_thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        m_maxPayloadChars = maxPayloadChars;
+        m_slowCalls = new SlowCall[Math.max(capacity, 0)];
+    }
+
+    public Call begin(final String operation) {
+        return new Call(operation);
+    }
+
+    /**
+     * @return the recorded slow calls, most recent first
+     */
+    public synchronized List<SlowCall> getSlowCalls() {
+        final List<SlowCall> calls = new ArrayList<>(m_slowCalls.length);
+        for (int i = 1; i <= m_slowCalls.length; i++) {
+            final SlowCall call = m_slowCalls[(m_next - i + m_slowCalls.length) % m_slowCalls.length];
+            if (call == null) {
+                break;
+            }
+            calls.add(call);
+        }
+        return Collections.unmodifiableList(calls);
+    }
+
+    /**
+     * @return the operations called so far
+     */
+    public Set<String> getOperations() {
+        return new TreeSet<>(m_latencies.keySet());
+    }
+
+    /**
+     * @return the latency of all calls of the operation, or null if it was not called
+     */
+    public LatencyHistogram getLatency(final String operation) {
+        return m_latencies.get(operation);
+    }
+
+    /**
+     * @return the number of failed calls of the operation
+     */
+    public long getErrorCount(final String operation) {
+        final AtomicLong errors = m_errors.get(operation);
+        return errors == null ? 0 : errors.get();
+    }
+
+    /**
+     * @return the number of bytes sent for all calls of the operation, as far as they were counted
+     */
+    public long getRequestBytes(final String operation) {
+        final AtomicLong bytes = m_requestBytes.get(operation);
+        return bytes == null ? 0 : bytes.get();
+    }
+
+    /**
+     * @return the number of bytes received for all calls of the operation, as far as they were counted
+     */
+    public long getResponseBytes(final String operation) {
+        final AtomicLong bytes = m_responseBytes.get(operation);
+        return bytes == null ? 0 : bytes.get();
+    }
+
+    /**
+     * Clear the latencies, error counts, sizes and slow calls.
+     */
+    public void resetStats() {
+        for (final LatencyHistogram latency : m_latencies.values()) {
+            latency.reset();
+        }
+        for (final AtomicLong errors : m_errors.values()) {
+            errors.set(0);
+        }
+        for (final AtomicLong bytes : m_requestBytes.values()) {
+            bytes.set(0);
+        }
+        for (final AtomicLong bytes : m_responseBytes.values()) {
+            bytes.set(0);
+        }
+        clearSlowCalls();
+    }
+
+    public synchronized void clearSlowCalls() {
+        for (int i = 0; i < m_slowCalls.length; i++) {
+            m_slowCalls[i] = null;
+        }
+        m_next = 0;
+    }
+
+    private void addSlowCall(final SlowCall call) {
+        synchronized (this) {
+            m_slowCalls[m_next] = call;
+            m_next = (m_next + 1) % m_slowCalls.length;
+        }
+        FlightRecorderEvents.slowSoapCall(call);
+    }
+
+    private String render(final String operation, final Object payload) {
+        if (payload == null) {
+            return null;
+        }
+        try {
+            final JAXBContext context = CONTEXTS.computeIfAbsent(payload.getClass(), SoapCallRecorder::newContext);
+            final Marshaller marshaller = context.createMarshaller();
+            marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);
+            marshaller.setAttachmentMarshaller(OMIT_ATTACHMENTS);
+            final StringWriter writer = new StringWriter();
+            marshaller.marshal(newElement(operation, payload), writer);
+            final StringBuffer xml = writer.getBuffer();
+            return xml.length() > m_maxPayloadChars ? xml.substring(0, m_maxPayloadChars) + "..." : xml.toString();
+        } catch (final JAXBException | RuntimeException e) {
+            LOG.debug("Unable to render {} payload of slow {} call.", payload.getClass().getSimpleName(), operation, e);
+            return payload.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+    }
+
+    private static JAXBContext newContext(final Class<?> type) {
+        try {
+            return JAXBContext.newInstance(type);
+        } catch (final JAXBException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static JAXBElement<?> newElement(final String operation, final Object payload) {
+        return new JAXBElement(new QName(operation), payload.getClass(), payload);
+    }
+
+    /** Replaces attachments with a reference instead of reading (and base64-encoding) their content. */
+    private static final AttachmentMarshaller OMIT_ATTACHMENTS = new AttachmentMarshaller() {
+        @Override
+        public boolean isXOPPackage() {
+            return true;
+        }
+
+        @Override
+        public String addMtomAttachment(final DataHandler data, final String elementNamespace, final String elementLocalName) {
+            return "cid:" + elementLocalName;
+        }
+
+        @Override
+        public String addMtomAttachment(final byte[] data, final int offset, final int length, final String mimeType, final String elementNamespace, final String elementLocalName) {
+            return "cid:" + elementLocalName;
+        }
+
+        @Override
+        public String addSwaRefAttachment(final DataHandler data) {
+            return "cid:attachment";
+        }
+    };
+
+    /**
+     * A SOAP call in progress.
+     */
+    public final class Call {
+        private final String m_operation;
+        private final long m_startMillis = System.currentTimeMillis();
+        private final long m_startNanos = System.nanoTime();
+        private final Object m_event = FlightRecorderEvents.beginSoapCall();
+
+        private Call(final String operation) {
+            m_operation = operation;
+        }
+
+        /**
+         * Finish the call.  {@code request} and {@code response} are the JAXB objects exchanged,
+         * they are only rendered if the call was slow.
+         *
+         * @return the duration of the call
+         */
+        public long end(final String incidentNumber, final Object request, final Object response, final long requestSize, final long responseSize, final Throwable error) {
+            final long durationNanos = System.nanoTime() - m_startNanos;
+            m_latencies.computeIfAbsent(m_operation, o -> new LatencyHistogram()).record(durationNanos);
+            if (error != null) {
+                m_errors.computeIfAbsent(m_operation, o -> new AtomicLong()).incrementAndGet();
+            }
+            m_requestBytes.computeIfAbsent(m_operation, o -> new AtomicLong()).addAndGet(requestSize);
+            m_responseBytes.computeIfAbsent(m_operation, o -> new AtomicLong()).addAndGet(responseSize);
+            FlightRecorderEvents.endSoapCall(m_event, m_operation, incidentNumber, requestSize, responseSize, error == null);
+
+            if (m_slowCalls.length > 0 && durationNanos >= m_thresholdNanos) {
+                addSlowCall(new SlowCall(m_operation, incidentNumber, m_startMillis, durationNanos, requestSize, responseSize,
+                        error == null ? null : error.toString(), render(m_operation, request), render(m_operation + "Response", response)));
+            }
+            return durationNanos;
+        }
+
+        public String getOperation() {
+            return m_operation;
+        }
+    }
+
+    public static class SlowCall {
+        private final String m_operation;
+        private final String m_incidentNumber;
+        private final long m_startMillis;
+        private final long m_durationNanos;
+        private final long m_requestSize;
+        private final long m_responseSize;
+        private final String m_error;
+        private final String m_request;
+        private final String m_response;
+
+        SlowCall(final String operation, final String incidentNumber, final long startMillis, final long durationNanos, final long requestSize, final long responseSize,
+                 final String error, final String request, final String response) {
+            m_operation = operation;
+            m_incidentNumber = incidentNumber;
+            m_startMillis = startMillis;
+            m_durationNanos = durationNanos;
+            m_requestSize = requestSize;
+            m_responseSize = responseSize;
+            m_error = error;
+            m_request = request;
+            m_response = response;
+        }
+
+        public String getOperation() {
+            return m_operation;
+        }
+
+        public String getIncidentNumber() {
+            return m_incidentNumber;
+        }
+
+        public long getStartMillis() {
+            return m_startMillis;
+        }
+
+        public long getDurationNanos() {
+            return m_durationNanos;
+        }
+
+        public long getRequestSize() {
+            return m_requestSize;
+        }
+
+        public long getResponseSize() {
+            return m_responseSize;
+        }
+
+        public String getError() {
+            return m_error;
+        }
+
+        public String getRequest() {
+            return m_request;
+        }
+
+        public String getResponse() {
+            return m_response;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+package org.opennms.plugins.opa.ticketing.remedy.core.ha;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps every lease in its own file of a directory shared by all nodes, for example over NFS.
+ *
+ * A lease file holds the owner, the expiry and the result on separate lines.  Leases are claimed
+ * by hard linking a complete file to its name, which fails atomically if the name is taken, so
+ * the filesystem has to support hard links.  Expired and released leases are moved aside under a
+ * unique name before they are deleted or replaced by their result, and put back if they turn out
+ * to have been claimed again in between.
+ */
+public class FileLeaseStore implements LeaseStore {
+    private static final Logger LOG = LoggerFactory.getLogger(FileLeaseStore.class);
+
+    static final String SUFFIX = ".lease";
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final Path m_directory;
+
+    public FileLeaseStore(final Path directory) {
+        m_directory = directory;
+    }
+
+    @Override
+    public boolean claim(final String key, final String owner, final long now, final long expires) throws IOException {
+        final Path file = getFile(key);
+        final Path claim = write(new Lease(key, owner, expires, null));
+        try {
+            for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+                try {
+                    Files.createLink(file, claim);
+                    return true;
+                } catch (final FileAlreadyExistsException e) {
+                    final Lease lease = read(key, file);
+                    if (lease != null && !lease.isExpired(now)) {
+                        return false;
+                    }
+                    if (lease != null) {
+                        replace(key, file, stale -> stale.getOwner().equals(lease.getOwner()) && stale.isExpired(now), null);
+                    }
+                }
+            }
+            return false;
+        } finally {
+            Files.deleteIfExists(claim);
+        }
+    }
+
+    @Override
+    public Lease get(final String key, final long now) throws IOException {
+        final Lease lease = read(key, getFile(key));
+        return lease == null || lease.isExpired(now) ? null : lease;
+    }
+
+    @Override
+    public void release(final String key, final String owner, final String result, final long expires) throws IOException {
+        replace(key, getFile(key), lease -> lease.getOwner().equals(owner), result == null ? null : new Lease(key, owner, expires, result));
+    }
+
+    @Override
+    public void purge(final long now) throws IOException {
+        if (!Files.isDirectory(m_directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(m_directory, "*" + SUFFIX)) {
+            for (final Path file : files) {
+                final String name = file.getFileName().toString();
+                final String key = URLDecoder.decode(name.substring(0, name.length() - SUFFIX.length()), "UTF-8");
+                final Lease lease = read(key, file);
+                if (lease != null && lease.isExpired(now)) {
+                    replace(key, file, expired -> expired.getOwner().equals(lease.getOwner()) && expired.isExpired(now), null);
+                }
+            }
+        }
+    }
+
+    /**
+     * Delete a lease file if its lease matches, or replace it if there is a replacement, without
+     * touching a lease claimed by another node in between.
+     */
+    private void replace(final String key, final Path file, final Predicate<Lease> matches, final Lease replacement) throws IOException {
+        final Path removed = m_directory.resolve(file.getFileName() + "." + UUID.randomUUID() + ".removed");
+        try {
+            Files.move(file, removed, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final NoSuchFileException e) {
+            return;
+        }
+        try {
+            final Lease lease = read(key, removed);
+            if (lease == null) {
+                return;
+            }
+            if (!matches.test(lease)) {
+                try {
+                    Files.createLink(file, removed);
+                } catch (final FileAlreadyExistsException e) {
+                    LOG.warn("Lease {} was claimed while {} was being put back.", file, lease);
+                }
+            } else if (replacement != null) {
+                // published through a fresh link, so a lease claimed in between is never overwritten
+                final Path replaced = write(replacement);
+                try {
+                    Files.createLink(file, replaced);
+                } catch (final FileAlreadyExistsException e) {
+                    LOG.warn("Lease {} was claimed while {} was being replaced.", file, lease);
+                } finally {
+                    Files.deleteIfExists(replaced);
+                }
+            }
+        } finally {
+            Files.deleteIfExists(removed);
+        }
+    }
+
+    private Path write(final Lease lease) throws IOException {
+        Files.createDirectories(m_directory);
+        final Path file = Files.createTempFile(m_directory, ".claim", ".tmp");
+        final String content = lease.getOwner() + '\n' + lease.getExpires() + '\n' + (lease.getResult() == null ? "" : lease.getResult());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static Lease read(final String key, final Path file) throws IOException {
+        final String content;
+        try {
+            content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        } catch (final NoSuchFileException e) {
+            return null;
+        }
+        final String[] lines = content.split("\n", 3);
+        if (lines.length < 3) {
+            throw new IOException("Invalid lease file " + file);
+        }
+        try {
+            return new Lease(key, lines[0], Long.parseLong(lines[1]), lines[2].isEmpty() ? null : lines[2]);
+        } catch (final NumberFormatException e) {
+            throw new IOException("Invalid lease file " + file, e);
+        }
+    }
+
+    private Path getFile(final String key) {
+        try {
+            return m_directory.resolve(URLEncoder.encode(key, "UTF-8") + SUFFIX);
+        } catch (final UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
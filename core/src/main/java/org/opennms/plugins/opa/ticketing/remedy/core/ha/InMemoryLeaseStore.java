@@ -0,0 +1,72 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+package org.opennms.plugins.opa.ticketing.remedy.core.ha;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps leases in memory, for plugin instances sharing a JVM and for tests.
+ */
+public class InMemoryLeaseStore implements LeaseStore {
+    private final ConcurrentMap<String, Lease> m_leases = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean claim(final String key, final String owner, final long now, final long expires) {
+        final Lease claimed = new Lease(key, owner, expires, null);
+        return m_leases.compute(key, (k, lease) -> lease == null || lease.isExpired(now) ? claimed : lease) == claimed;
+    }
+
+    @Override
+    public Lease get(final String key, final long now) {
+        final Lease lease = m_leases.get(key);
+        return lease == null || lease.isExpired(now) ? null : lease;
+    }
+
+    @Override
+    public void release(final String key, final String owner, final String result, final long expires) {
+        m_leases.computeIfPresent(key, (k, lease) -> {
+            if (!lease.getOwner().equals(owner)) {
+                return lease;
+            }
+            return result == null ? null : new Lease(key, owner, expires, result);
+        });
+    }
+
+    @Override
+    public void purge(final long now) {
+        m_leases.values().removeIf(lease -> lease.isExpired(now));
+    }
+
+    /**
+     * @return the number of leases, including expired ones that were not purged yet
+     */
+    public int size() {
+        return m_leases.size();
+    }
+}
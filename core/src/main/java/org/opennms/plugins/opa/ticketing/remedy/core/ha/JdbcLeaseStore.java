@@ -0,0 +1,247 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+package org.opennms.plugins.opa.ticketing.remedy.core.ha;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps leases in a table of a database shared by all nodes, for example the OpenNMS database.
+ *
+ * The table is not created by the plugin:
+ * <pre>
+ * CREATE TABLE remedy_lease (
+ *     lease_key VARCHAR(255) PRIMARY KEY,
+ *     owner     VARCHAR(255) NOT NULL,
+ *     expires   BIGINT NOT NULL,
+ *     result    VARCHAR(255)
+ * );
+ * </pre>
+ * Connections are opened through {@link DriverManager}, so the JDBC driver has to be on the class
+ * path of the container.  Up to {@code maxIdle} of them are kept open and reused; a connection
+ * is dropped as soon as a statement on it fails.
+ */
+public class JdbcLeaseStore implements LeaseStore {
+    public static final String DEFAULT_TABLE = "remedy_lease";
+
+    private static final Pattern TABLE_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)?");
+
+    /** SQLSTATE class of integrity constraint violations, such as a duplicate primary key */
+    private static final String SQLSTATE_INTEGRITY_CONSTRAINT = "23";
+
+    public static final int DEFAULT_MAX_IDLE = 4;
+
+    private interface Statements<T> {
+        T run(Connection connection) throws SQLException;
+    }
+
+    private final String m_url;
+    private final String m_user;
+    private final String m_password;
+    private final int m_maxIdle;
+    private final Deque<Connection> m_idle = new ArrayDeque<>();
+    private boolean m_closed;
+
+    private final String m_insert;
+    private final String m_takeOver;
+    private final String m_select;
+    private final String m_delete;
+    private final String m_update;
+    private final String m_purge;
+
+    public JdbcLeaseStore(final String url, final String user, final String password, final String table) {
+        this(url, user, password, table, DEFAULT_MAX_IDLE);
+    }
+
+    /**
+     * @param maxIdle the number of connections kept open between operations
+     */
+    public JdbcLeaseStore(final String url, final String user, final String password, final String table, final int maxIdle) {
+        if (!TABLE_NAME.matcher(table).matches()) {
+            throw new IllegalArgumentException("Invalid lease table name '" + table + "'");
+        }
+        m_url = Objects.requireNonNull(url);
+        m_user = user;
+        m_password = password;
+        m_maxIdle = Math.max(maxIdle, 0);
+        m_insert = "INSERT INTO " + table + " (lease_key, owner, expires, result) VALUES (?, ?, ?, NULL)";
+        m_takeOver = "UPDATE " + table + " SET owner = ?, expires = ?, result = NULL WHERE lease_key = ? AND expires <= ?";
+        m_select = "SELECT owner, expires, result FROM " + table + " WHERE lease_key = ? AND expires > ?";
+        m_delete = "DELETE FROM " + table + " WHERE lease_key = ? AND owner = ?";
+        m_update = "UPDATE " + table + " SET expires = ?, result = ? WHERE lease_key = ? AND owner = ?";
+        m_purge = "DELETE FROM " + table + " WHERE expires <= ?";
+    }
+
+    @Override
+    public boolean claim(final String key, final String owner, final long now, final long expires) throws IOException {
+        try {
+            return withConnection(connection -> claim(connection, key, owner, now, expires));
+        } catch (final SQLException e) {
+            throw new IOException("Unable to claim lease " + key, e);
+        }
+    }
+
+    private boolean claim(final Connection connection, final String key, final String owner, final long now, final long expires) throws SQLException {
+        try (PreparedStatement takeOver = connection.prepareStatement(m_takeOver)) {
+            takeOver.setString(1, owner);
+            takeOver.setLong(2, expires);
+            takeOver.setString(3, key);
+            takeOver.setLong(4, now);
+            if (takeOver.executeUpdate() == 1) {
+                return true;
+            }
+        }
+        try (PreparedStatement insert = connection.prepareStatement(m_insert)) {
+            insert.setString(1, key);
+            insert.setString(2, owner);
+            insert.setLong(3, expires);
+            insert.executeUpdate();
+            return true;
+        } catch (final SQLException e) {
+            if (e.getSQLState() != null && e.getSQLState().startsWith(SQLSTATE_INTEGRITY_CONSTRAINT)) {
+                // leased by another node
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public Lease get(final String key, final long now) throws IOException {
+        try {
+            return withConnection(connection -> {
+                try (PreparedStatement select = connection.prepareStatement(m_select)) {
+                    select.setString(1, key);
+                    select.setLong(2, now);
+                    try (ResultSet result = select.executeQuery()) {
+                        return result.next() ? new Lease(key, result.getString(1), result.getLong(2), result.getString(3)) : null;
+                    }
+                }
+            });
+        } catch (final SQLException e) {
+            throw new IOException("Unable to read lease " + key, e);
+        }
+    }
+
+    @Override
+    public void release(final String key, final String owner, final String result, final long expires) throws IOException {
+        try {
+            withConnection(connection -> {
+                if (result == null) {
+                    try (PreparedStatement delete = connection.prepareStatement(m_delete)) {
+                        delete.setString(1, key);
+                        delete.setString(2, owner);
+                        return delete.executeUpdate();
+                    }
+                }
+                try (PreparedStatement update = connection.prepareStatement(m_update)) {
+                    update.setLong(1, expires);
+                    update.setString(2, result);
+                    update.setString(3, key);
+                    update.setString(4, owner);
+                    return update.executeUpdate();
+                }
+            });
+        } catch (final SQLException e) {
+            throw new IOException("Unable to release lease " + key, e);
+        }
+    }
+
+    @Override
+    public void purge(final long now) throws IOException {
+        try {
+            withConnection(connection -> {
+                try (PreparedStatement purge = connection.prepareStatement(m_purge)) {
+                    purge.setLong(1, now);
+                    return purge.executeUpdate();
+                }
+            });
+        } catch (final SQLException e) {
+            throw new IOException("Unable to purge expired leases", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        final List<Connection> idle;
+        synchronized (m_idle) {
+            m_closed = true;
+            idle = new ArrayList<>(m_idle);
+            m_idle.clear();
+        }
+        idle.forEach(JdbcLeaseStore::closeQuietly);
+    }
+
+    /**
+     * Run statements on an idle connection, or a new one, and keep the connection for the next
+     * operation unless they failed.
+     */
+    private <T> T withConnection(final Statements<T> statements) throws SQLException {
+        Connection connection;
+        synchronized (m_idle) {
+            connection = m_idle.pollFirst();
+        }
+        if (connection == null) {
+            // statements run in auto-commit mode, each of them is atomic on its own
+            connection = DriverManager.getConnection(m_url, m_user, m_password);
+        }
+        final T result;
+        try {
+            result = statements.run(connection);
+        } catch (final SQLException | RuntimeException e) {
+            closeQuietly(connection);
+            throw e;
+        }
+        synchronized (m_idle) {
+            if (!m_closed && m_idle.size() < m_maxIdle) {
+                m_idle.addFirst(connection);
+                return result;
+            }
+        }
+        closeQuietly(connection);
+        return result;
+    }
+
+    private static void closeQuietly(final Connection connection) {
+        try {
+            connection.close();
+        } catch (final SQLException e) {
+            // the connection is of no further use either way
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+package org.opennms.plugins.opa.ticketing.remedy.core.ha;
+
+import java.util.Objects;
+
+/**
+ * A claim on an alarm or incident, as recorded in a {@link LeaseStore}.
+ */
+public class Lease {
+    private final String m_key;
+    private final String m_owner;
+    private final long m_expires;
+    private final String m_result;
+
+    public Lease(final String key, final String owner, final long expires, final String result) {
+        m_key = Objects.requireNonNull(key);
+        m_owner = Objects.requireNonNull(owner);
+        m_expires = expires;
+        m_result = result;
+    }
+
+    public String getKey() {
+        return m_key;
+    }
+
+    /**
+     * @return the claim holding the lease, {@code <node id>#<sequence>}
+     */
+    public String getOwner() {
+        return m_owner;
+    }
+
+    /**
+     * @return when the lease expires, in epoch milliseconds
+     */
+    public long getExpires() {
+        return m_expires;
+    }
+
+    /**
+     * @return the incident number left by the owner once it finished, or null while it is still working
+     */
+    public String getResult() {
+        return m_result;
+    }
+
+    public boolean isExpired(final long now) {
+        return m_expires <= now;
+    }
+
+    @Override
+    public String toString() {
+        return m_key + " leased to " + m_owner + " until " + m_expires + (m_result == null ? "" : " (" + m_result + ")");
+    }
+}
@@ -0,0 +1,445 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+package org.opennms.plugins.opa.ticketing.remedy.core.ha;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.opennms.plugins.opa.ticketing.remedy.core.RemedyTicketerException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the OpenNMS nodes of an active/active cluster from ticketing the same alarm twice.
+ *
+ * Before an incident is created for an alarm, or an incident is modified, the node claims the
+ * alarm id or the incident number in a {@link LeaseStore} shared by all nodes.  Alarms and
+ * incidents are thereby spread over the nodes as they come in, and each one is only worked on
+ * by one node at a time:
+ * <ul>
+ *     <li>a node that finds another node creating an incident for the alarm waits for it and
+ *     returns the incident number it left in the lease, without calling Remedy itself;</li>
+ *     <li>a node that finds another node modifying the incident waits for it to finish, the
+ *     modify that follows then queries the incident as changed by the other node.</li>
+ * </ul>
+ * A lease expires after {@code leaseMillis}, in case its node went down, so it has to be longer
+ * than the SOAP timeouts.  If the store cannot be reached, operations go ahead uncoordinated.
+ *
+ * The asynchronous operations claim and release their leases on a small pool of I/O threads,
+ * so that neither the caller nor the callbacks of the SOAP calls block on the store.
+ */
+public class LeaseCoordinator {
+    private static final Logger LOG = LoggerFactory.getLogger(LeaseCoordinator.class);
+
+    static final String ALARM_PREFIX = "alarm/";
+    static final String INCIDENT_PREFIX = "incident/";
+
+    private static final int MAX_CLAIM_ATTEMPTS = 3;
+
+    public static final int DEFAULT_IO_THREADS = 4;
+    /** Store operations queued per I/O thread before claims are retried later */
+    private static final int MAX_QUEUED_IO = 256;
+
+    private final LeaseStore m_store;
+    private final String m_nodeId;
+    private final long m_leaseMillis;
+    private final long m_resultMillis;
+    private final long m_pollMillis;
+    private final ScheduledThreadPoolExecutor m_scheduler;
+    private final ThreadPoolExecutor m_io;
+    private final Set<CompletableFuture<String>> m_waiting = ConcurrentHashMap.newKeySet();
+    private volatile boolean m_shutdown;
+
+    private final AtomicLong m_sequence = new AtomicLong();
+    private final AtomicLong m_claimed = new AtomicLong();
+    private final AtomicLong m_adopted = new AtomicLong();
+    private final AtomicLong m_waited = new AtomicLong();
+    private final AtomicLong m_errors = new AtomicLong();
+
+    /**
+     * @param nodeId identifies this node in the leases it holds
+     * @param leaseMillis how long a lease is held before other nodes may take over
+     * @param resultMillis how long the incident number of a new incident is kept for other nodes
+     * @param pollMillis how often a node waiting for another one looks at the lease again
+     */
+    public LeaseCoordinator(final LeaseStore store, final String nodeId, final long leaseMillis, final long resultMillis, final long pollMillis) {
+        this(store, nodeId, leaseMillis, resultMillis, pollMillis, DEFAULT_IO_THREADS);
+    }
+
+    /**
+     * @param ioThreads the number of threads running the store operations of asynchronous operations
+     */
+    public LeaseCoordinator(final LeaseStore store, final String nodeId, final long leaseMillis, final long resultMillis, final long pollMillis, final int ioThreads) {
+        m_store = store;
+        m_nodeId = nodeId;
+        m_leaseMillis = Math.max(leaseMillis, 1);
+        m_resultMillis = Math.max(resultMillis, 0);
+        m_pollMillis = Math.max(pollMillis, 1);
+        m_scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            final Thread thread = new Thread(r, "remedy-lease");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final int threads = Math.max(ioThreads, 1);
+        final AtomicLong ioThreadCount = new AtomicLong();
+        m_io = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(threads * MAX_QUEUED_IO), r -> {
+            final Thread thread = new Thread(r, "remedy-lease-io-" + ioThreadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        m_io.allowCoreThreadTimeOut(true);
+        m_scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                m_io.execute(this::purge);
+            } catch (final RejectedExecutionException e) {
+                LOG.debug("Lease store is busy, skipping purge.");
+            }
+        }, m_leaseMillis, m_leaseMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Create the incident of an alarm, unless another node does.
+     *
+     * @param alarmId the alarm, or null to create the incident uncoordinated
+     * @param submit sends the create on the calling thread and returns the incident number
+     * @return the incident number, created by this or another node
+     */
+    public String create(final Integer alarmId, final Supplier<String> submit) {
+        return alarmId == null ? submit.get() : run(ALARM_PREFIX + alarmId, true, submit);
+    }
+
+    /**
+     * Modify an incident once no other node does.
+     *
+     * @param modify sends the query and modify on the calling thread
+     */
+    public String modify(final String incidentNumber, final Supplier<String> modify) {
+        return run(INCIDENT_PREFIX + incidentNumber, false, modify);
+    }
+
+    /**
+     * @see #create(Integer, Supplier)
+     */
+    public CompletableFuture<String> createAsync(final Integer alarmId, final Supplier<CompletableFuture<String>> submit) {
+        if (alarmId == null) {
+            return submit.get();
+        }
+        final CompletableFuture<String> result = new CompletableFuture<>();
+        submitClaim(ALARM_PREFIX + alarmId, true, submit, result, false);
+        return result;
+    }
+
+    /**
+     * @see #modify(String, Supplier)
+     */
+    public CompletableFuture<String> modifyAsync(final String incidentNumber, final Supplier<CompletableFuture<String>> modify) {
+        final CompletableFuture<String> result = new CompletableFuture<>();
+        submitClaim(INCIDENT_PREFIX + incidentNumber, false, modify, result, false);
+        return result;
+    }
+
+    private String run(final String key, final boolean share, final Supplier<String> work) {
+        final String owner = newOwner();
+        boolean waited = false;
+        while (true) {
+            final Lease lease;
+            try {
+                lease = claim(key, owner);
+            } catch (final IOException e) {
+                uncoordinated(key, e);
+                return work.get();
+            }
+
+            if (lease == null) {
+                m_claimed.incrementAndGet();
+                String value = null;
+                try {
+                    value = work.get();
+                    return value;
+                } finally {
+                    release(key, owner, share ? value : null);
+                }
+            }
+            if (share && lease.getResult() != null) {
+                adopt(lease);
+                return lease.getResult();
+            }
+
+            if (!waited) {
+                waited = true;
+                m_waited.incrementAndGet();
+                LOG.debug("Waiting for {}.", lease);
+            }
+            try {
+                Thread.sleep(m_pollMillis);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RemedyTicketerException("Interrupted while waiting for " + lease.getOwner() + " to release " + key, e);
+            }
+        }
+    }
+
+    /**
+     * Claim the lease on an I/O thread.
+     */
+    private void submitClaim(final String key, final boolean share, final Supplier<CompletableFuture<String>> work, final CompletableFuture<String> result, final boolean waited) {
+        if (m_shutdown) {
+            result.completeExceptionally(new RemedyTicketerException("Lease coordinator is shut down"));
+            return;
+        }
+        m_waiting.add(result);
+        try {
+            m_io.execute(() -> {
+                if (m_waiting.remove(result)) {
+                    claimAsync(key, share, work, result, waited);
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            // the I/O threads are saturated (or shut down), try again later
+            if (m_waiting.remove(result)) {
+                scheduleClaim(key, share, work, result, waited);
+            }
+        }
+    }
+
+    /**
+     * Claim the lease again after the poll interval.
+     */
+    private void scheduleClaim(final String key, final boolean share, final Supplier<CompletableFuture<String>> work, final CompletableFuture<String> result, final boolean waited) {
+        m_waiting.add(result);
+        try {
+            m_scheduler.schedule(() -> {
+                if (m_waiting.remove(result)) {
+                    submitClaim(key, share, work, result, waited);
+                }
+            }, m_pollMillis, TimeUnit.MILLISECONDS);
+        } catch (final RejectedExecutionException e) {
+            if (m_waiting.remove(result)) {
+                result.completeExceptionally(new RemedyTicketerException("Lease coordinator is shut down", e));
+            }
+        }
+    }
+
+    private void claimAsync(final String key, final boolean share, final Supplier<CompletableFuture<String>> work, final CompletableFuture<String> result, final boolean waited) {
+        final String owner = newOwner();
+        final Lease lease;
+        try {
+            lease = claim(key, owner);
+        } catch (final IOException e) {
+            uncoordinated(key, e);
+            forward(work, result);
+            return;
+        }
+
+        if (lease == null) {
+            m_claimed.incrementAndGet();
+            final CompletableFuture<String> future = new CompletableFuture<>();
+            forward(work, future);
+            future.whenComplete((value, e) -> releaseAsync(key, owner, share && e == null ? value : null, () -> {
+                if (e != null) {
+                    result.completeExceptionally(e);
+                } else {
+                    result.complete(value);
+                }
+            }));
+            return;
+        }
+        if (share && lease.getResult() != null) {
+            adopt(lease);
+            result.complete(lease.getResult());
+            return;
+        }
+
+        if (!waited) {
+            m_waited.incrementAndGet();
+            LOG.debug("Waiting for {}.", lease);
+        }
+        scheduleClaim(key, share, work, result, true);
+    }
+
+    /**
+     * Release the lease on an I/O thread, then complete the operation.
+     */
+    private void releaseAsync(final String key, final String owner, final String result, final Runnable then) {
+        final Runnable release = () -> {
+            try {
+                release(key, owner, result);
+            } finally {
+                then.run();
+            }
+        };
+        try {
+            m_io.execute(release);
+        } catch (final RejectedExecutionException e) {
+            // saturated or shut down: the lease must still be released
+            release.run();
+        }
+    }
+
+    private static void forward(final Supplier<CompletableFuture<String>> work, final CompletableFuture<String> result) {
+        final CompletableFuture<String> future;
+        try {
+            future = work.get();
+        } catch (final RuntimeException e) {
+            result.completeExceptionally(e);
+            return;
+        }
+        future.whenComplete((value, e) -> {
+            if (e != null) {
+                result.completeExceptionally(e);
+            } else {
+                result.complete(value);
+            }
+        });
+    }
+
+    /**
+     * @return null if the key is now leased to {@code owner}, otherwise the lease held by another claim
+     */
+    private Lease claim(final String key, final String owner) throws IOException {
+        for (int attempt = 0; attempt < MAX_CLAIM_ATTEMPTS; attempt++) {
+            final long now = System.currentTimeMillis();
+            if (m_store.claim(key, owner, now, now + m_leaseMillis)) {
+                return null;
+            }
+            final Lease lease = m_store.get(key, now);
+            if (lease != null) {
+                return lease;
+            }
+            // released in between
+        }
+        throw new IOException("Unable to claim lease " + key + " after " + MAX_CLAIM_ATTEMPTS + " attempts");
+    }
+
+    private void release(final String key, final String owner, final String result) {
+        try {
+            m_store.release(key, owner, result, System.currentTimeMillis() + m_resultMillis);
+        } catch (final IOException | RuntimeException e) {
+            m_errors.incrementAndGet();
+            LOG.warn("Unable to release lease {}, other nodes will wait for it to expire.", key, e);
+        }
+    }
+
+    private void adopt(final Lease lease) {
+        m_adopted.incrementAndGet();
+        LOG.debug("Incident {} was already created by {}.", lease.getResult(), lease.getOwner());
+    }
+
+    private void uncoordinated(final String key, final Exception e) {
+        m_errors.incrementAndGet();
+        LOG.warn("Unable to claim lease {}, going ahead without it.", key, e);
+    }
+
+    private void purge() {
+        try {
+            m_store.purge(System.currentTimeMillis());
+        } catch (final IOException | RuntimeException e) {
+            LOG.warn("Unable to purge expired leases.", e);
+        }
+    }
+
+    private String newOwner() {
+        return m_nodeId + "#" + m_sequence.incrementAndGet();
+    }
+
+    public String getNodeId() {
+        return m_nodeId;
+    }
+
+    /**
+     * @return the number of operations sent by this node while holding the lease
+     */
+    public long getClaimedCount() {
+        return m_claimed.get();
+    }
+
+    /**
+     * @return the number of creates answered with the incident created by another node
+     */
+    public long getAdoptedCount() {
+        return m_adopted.get();
+    }
+
+    /**
+     * @return the number of operations that waited for another node
+     */
+    public long getWaitedCount() {
+        return m_waited.get();
+    }
+
+    /**
+     * @return the number of failed claims and releases
+     */
+    public long getErrorCount() {
+        return m_errors.get();
+    }
+
+    public void resetStats() {
+        m_claimed.set(0);
+        m_adopted.set(0);
+        m_waited.set(0);
+        m_errors.set(0);
+    }
+
+    /**
+     * Stop waiting for other nodes and close the store.
+     */
+    public void shutdown() {
+        m_shutdown = true;
+        m_scheduler.shutdownNow();
+        for (final CompletableFuture<String> waiting : m_waiting) {
+            if (m_waiting.remove(waiting)) {
+                waiting.completeExceptionally(new RemedyTicketerException("Lease coordinator is shut down"));
+            }
+        }
+        m_io.shutdown();
+        try {
+            // let pending releases finish before the store is closed
+            if (!m_io.awaitTermination(m_pollMillis + 1000, TimeUnit.MILLISECONDS)) {
+                m_io.shutdownNow();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            m_io.shutdownNow();
+        }
+        try {
+            m_store.close();
+        } catch (final IOException e) {
+            LOG.warn("Unable to close lease store.", e);
+        }
+    }
+}
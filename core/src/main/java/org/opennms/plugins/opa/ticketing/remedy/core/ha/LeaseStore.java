@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+package org.opennms.plugins.opa.ticketing.remedy.core.ha;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Shared record of which node is working on an alarm or an incident.
+ *
+ * A node claims a key before it sends the SOAP requests for it, and a claim only succeeds
+ * while no unexpired lease exists on the key, so one node at a time works on each alarm or
+ * incident.  Times are epoch milliseconds from the caller's clock; the clocks of the nodes
+ * sharing a store have to be roughly in sync.
+ *
+ * The plugin provides {@link FileLeaseStore} for a shared filesystem, {@link JdbcLeaseStore}
+ * for a shared database and {@link InMemoryLeaseStore} for nodes within one JVM.
+ */
+public interface LeaseStore extends Closeable {
+    /**
+     * Lease a key to {@code owner}, unless an unexpired lease exists.
+     *
+     * @return true if the key is now leased to {@code owner} until {@code expires}
+     */
+    boolean claim(String key, String owner, long now, long expires) throws IOException;
+
+    /**
+     * @return the unexpired lease on a key, or null
+     */
+    Lease get(String key, long now) throws IOException;
+
+    /**
+     * Give up a lease held by {@code owner}; leases held by others are left alone.
+     *
+     * With a result the lease is kept until {@code expires}, so that other nodes pick up the
+     * result instead of repeating the work.  Without a result it is removed.
+     */
+    void release(String key, String owner, String result, long expires) throws IOException;
+
+    /**
+     * Remove the leases that expired before {@code now}.
+     */
+    void purge(long now) throws IOException;
+
+    @Override
+    default void close() throws IOException {
+    }
+}
@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+
+package org.opennms.plugins.opa.ticketing.remedy.core.shell;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.apache.karaf.shell.api.action.Action;
+import org.apache.karaf.shell.api.action.Option;
+import org.apache.karaf.shell.api.action.lifecycle.Reference;
+import org.opennms.plugins.opa.ticketing.remedy.core.RemedyTicketerPlugin;
+import org.opennms.plugins.opa.ticketing.remedy.core.RemedyTicketerPluginRouter;
+
+/**
+ * Base of the commands working on one or all Remedy instances.
+ */
+abstract class AbstractInstanceCommand implements Action {
+    @Reference
+    private RemedyTicketerPluginRouter m_router;
+
+    @Option(name = "-i", aliases = "--instance", description = "The Remedy instance (default: all)")
+    private String m_instance;
+
+    /**
+     * @return the selected plugins by instance name, empty (after printing why) if the instance does not exist
+     */
+    protected Map<String, RemedyTicketerPlugin> getPlugins() {
+        final Map<String, RemedyTicketerPlugin> plugins = m_router.getPlugins();
+        if (m_instance == null) {
+            return plugins;
+        }
+        final RemedyTicketerPlugin plugin = plugins.get(m_instance);
+        if (plugin == null) {
+            System.out.println("No Remedy instance named '" + m_instance + "', known instances: " + plugins.keySet());
+            return Collections.emptyMap();
+        }
+        return Collections.singletonMap(m_instance, plugin);
+    }
+
+    static String formatMicros(final long micros) {
+        return micros < 1000 ? micros + "us" : String.format("%.1fms", micros / 1000.0);
+    }
+
+    static String formatPercent(final double ratio) {
+        return String.format("%.1f%%", ratio * 100);
+    }
+}
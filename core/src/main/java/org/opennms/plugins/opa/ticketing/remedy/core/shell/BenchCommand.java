@@ -0,0 +1,188 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+
+package org.opennms.plugins.opa.ticketing.remedy.core.shell;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.karaf.shell.api.action.Argument;
+import org.apache.karaf.shell.api.action.Command;
+import org.apache.karaf.shell.api.action.Completion;
+import org.apache.karaf.shell.api.action.Option;
+import org.apache.karaf.shell.api.action.lifecycle.Service;
+import org.apache.karaf.shell.support.completers.StringsCompleter;
+import org.opennms.plugins.opa.ticketing.remedy.core.RemedyBenchmark;
+import org.opennms.plugins.opa.ticketing.remedy.core.RemedyTicketerPlugin;
+import org.opennms.plugins.opa.ticketing.remedy.core.diagnostics.LatencyHistogram;
+
+@Command(scope = "remedy", name = "bench", description = "Run synthetic queries or creates and print their throughput and latency, "
+        + "compare the cost of writing create requests through JAXB and from pre-rendered fragments, "
+        + "or measure the cost of the configured field mapping")
+@Service
+public class BenchCommand extends AbstractInstanceCommand {
+    @Argument(index = 0, name = "operation", description = "query, create, render or mapping", required = true)
+    @Completion(value = StringsCompleter.class, values = { "query", "create", "render", "mapping" })
+    private String m_operation;
+
+    @Argument(index = 1, name = "incident", description = "The incident number to query")
+    private String m_incidentNumber;
+
+    @Option(name = "-n", aliases = "--count", description = "The number of operations, per round for render and mapping")
+    private int m_count = 100;
+
+    @Option(name = "-w", aliases = "--warmup", description = "The number of unmeasured operations before render and mapping")
+    private int m_warmup = RemedyBenchmark.DEFAULT_WARMUP;
+
+    @Option(name = "-r", aliases = "--rounds", description = "The number of measured rounds of render and mapping")
+    private int m_rounds = RemedyBenchmark.DEFAULT_ROUNDS;
+
+    @Option(name = "-c", aliases = "--concurrency", description = "The number of operations in flight")
+    private int m_concurrency = 1;
+
+    @Option(name = "-s", aliases = "--stub", description = "Answer from an in-memory stub instead of the configured endpoint")
+    private boolean m_stub;
+
+    @Option(name = "-l", aliases = "--latency", description = "The latency of the stub in milliseconds")
+    private long m_latency;
+
+    @Option(name = "-f", aliases = "--force", description = "Create tickets in the configured Remedy")
+    private boolean m_force;
+
+    @Override
+    public Object execute() throws Exception {
+        if ("render".equalsIgnoreCase(m_operation)) {
+            for (final Map.Entry<String, RemedyTicketerPlugin> entry : getPlugins().entrySet()) {
+                print(entry.getKey(), RemedyBenchmark.runRender(entry.getValue(), m_count, m_warmup, m_rounds));
+            }
+            return null;
+        }
+        if ("mapping".equalsIgnoreCase(m_operation)) {
+            for (final Map.Entry<String, RemedyTicketerPlugin> entry : getPlugins().entrySet()) {
+                if (entry.getValue().getFieldMapping().isEmpty()) {
+                    System.out.printf("Remedy instance '%s': no fields are mapped%n", entry.getKey());
+                    continue;
+                }
+                print(entry.getKey(), RemedyBenchmark.runMapping(entry.getValue(), m_count, m_warmup, m_rounds));
+            }
+            return null;
+        }
+
+        final RemedyBenchmark.Operation operation;
+        try {
+            operation = RemedyBenchmark.Operation.valueOf(m_operation.toUpperCase(Locale.ROOT));
+        } catch (final IllegalArgumentException e) {
+            System.out.println("Unknown operation '" + m_operation + "', use query, create, render or mapping");
+            return null;
+        }
+        if (operation == RemedyBenchmark.Operation.QUERY && m_incidentNumber == null && !m_stub) {
+            System.out.println("An incident number is required to query Remedy");
+            return null;
+        }
+        if (operation == RemedyBenchmark.Operation.CREATE && !m_stub && !m_force) {
+            System.out.println("Creating tickets in Remedy opens real incidents; use --stub, or --force to do it anyway");
+            return null;
+        }
+
+        for (final Map.Entry<String, RemedyTicketerPlugin> entry : getPlugins().entrySet()) {
+            final RemedyTicketerPlugin plugin = m_stub ? RemedyBenchmark.newStubPlugin(entry.getValue(), m_latency) : entry.getValue();
+            try {
+                final RemedyBenchmark.Result result = new RemedyBenchmark(plugin)
+                        .run(operation, m_incidentNumber == null ? "INC000000000001" : m_incidentNumber, m_count, m_concurrency);
+                print(entry.getKey(), result);
+            } finally {
+                if (m_stub) {
+                    plugin.destroy();
+                }
+            }
+        }
+        return null;
+    }
+
+    private void print(final String instance, final RemedyBenchmark.Result result) {
+        final LatencyHistogram latency = result.getLatency();
+        System.out.printf("Remedy instance '%s'%s: %d %s operations, concurrency %d, %d errors in %.2fs%n", instance, m_stub ? " (stub)" : "",
+                result.getCount(), result.getOperation().name().toLowerCase(Locale.ROOT), m_concurrency, result.getErrors(),
+                TimeUnit.NANOSECONDS.toMillis(result.getElapsedNanos()) / 1000.0);
+        System.out.printf("  throughput: %.1f ops/s%n", result.getThroughput());
+        System.out.printf("  latency: mean=%s p50=%s p90=%s p99=%s max=%s%n", formatMicros(latency.getMeanMicros()),
+                formatMicros(latency.getPercentileMicros(50)), formatMicros(latency.getPercentileMicros(90)),
+                formatMicros(latency.getPercentileMicros(99)), formatMicros(latency.getMaxMicros()));
+        if (result.getFirstError() != null) {
+            System.out.println("  first error: " + result.getFirstError());
+        }
+    }
+
+    private void print(final String instance, final RemedyBenchmark.RenderResult result) {
+        System.out.printf("Remedy instance '%s': %d rounds of %d create requests written after %d unmeasured, per request:%n", instance,
+                result.getRounds(), result.getCount(), Math.max(m_warmup, 0));
+        print("jaxb", result.getJaxb(), result.getCount(), result.getRounds());
+        print("rendered", result.getRendered(), result.getCount(), result.getRounds());
+    }
+
+    private static void print(final String name, final RemedyBenchmark.RenderResult.Measurement measurement, final int count, final int rounds) {
+        final long total = (long) count * rounds;
+        System.out.printf("  %-8s %s elapsed, %s cpu, %s allocated, %d bytes written%n", name + ":",
+                formatNanos(measurement.getElapsedNanos(), measurement.getElapsedDeviationNanos(), count, rounds),
+                formatNanos(measurement.getCpuNanos(), measurement.getCpuDeviationNanos(), count, rounds),
+                measurement.getAllocatedBytes() < 0 ? "unknown" : (measurement.getAllocatedBytes() / total) + " bytes",
+                measurement.getWrittenBytes() / total);
+    }
+
+    private void print(final String instance, final RemedyBenchmark.MappingResult result) {
+        System.out.printf("Remedy instance '%s': %d rounds of %d tickets mapped to %d fields after %d unmeasured, per ticket:%n", instance,
+                result.getRounds(), result.getCount(), result.getFields(), Math.max(m_warmup, 0));
+        printCost("mapping", result.getMapping(), result.getCount(), result.getRounds());
+        printCost("request", result.getRequest(), result.getCount(), result.getRounds());
+    }
+
+    private static void printCost(final String name, final RemedyBenchmark.RenderResult.Measurement measurement, final int count, final int rounds) {
+        final long total = (long) count * rounds;
+        // mapping takes nanoseconds, not microseconds
+        System.out.printf("  %-8s %s elapsed, %s cpu, %s allocated%n", name + ":",
+                formatShortNanos(measurement.getElapsedNanos(), measurement.getElapsedDeviationNanos(), count, rounds),
+                formatShortNanos(measurement.getCpuNanos(), measurement.getCpuDeviationNanos(), count, rounds),
+                measurement.getAllocatedBytes() < 0 ? "unknown" : (measurement.getAllocatedBytes() / total) + " bytes");
+    }
+
+    /**
+     * Format the mean cost of an operation, and the standard deviation of the rounds relative to their mean.
+     */
+    private static String formatShortNanos(final long nanos, final double deviation, final int count, final int rounds) {
+        return nanos < 0 ? "unknown" : String.format("%.0fns %s", (double) nanos / count / rounds, formatDeviation(nanos, deviation, rounds));
+    }
+
+    private static String formatNanos(final long nanos, final double deviation, final int count, final int rounds) {
+        return nanos < 0 ? "unknown" : String.format("%.1fus %s", nanos / 1000.0 / count / rounds, formatDeviation(nanos, deviation, rounds));
+    }
+
+    private static String formatDeviation(final long nanos, final double deviation, final int rounds) {
+        return nanos == 0 ? "(+-0%)" : String.format("(+-%.1f%%)", deviation * rounds * 100 / nanos);
+    }
+}
@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+
+package org.opennms.plugins.opa.ticketing.remedy.core.shell;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.karaf.shell.api.action.Argument;
+import org.apache.karaf.shell.api.action.Command;
+import org.apache.karaf.shell.api.action.Completion;
+import org.apache.karaf.shell.api.action.Option;
+import org.apache.karaf.shell.api.action.lifecycle.Service;
+import org.apache.karaf.shell.support.completers.FileCompleter;
+import org.opennms.plugins.opa.ticketing.remedy.core.RemedyTicketerPlugin;
+import org.opennms.plugins.opa.ticketing.remedy.core.capture.CaptureReader;
+import org.opennms.plugins.opa.ticketing.remedy.core.capture.CaptureRecord;
+import org.opennms.plugins.opa.ticketing.remedy.core.capture.CaptureReplayer;
+import org.opennms.plugins.opa.ticketing.remedy.core.diagnostics.LatencyHistogram;
+
+@Command(scope = "remedy", name = "replay", description = "Replay a capture log against an in-memory stub and print the throughput and latency")
+@Service
+public class ReplayCommand extends AbstractInstanceCommand {
+    @Argument(index = 0, name = "file", description = "The capture log (capture.file)", required = true)
+    @Completion(FileCompleter.class)
+    private String m_file;
+
+    @Option(name = "-x", aliases = "--speed", description = "The replay speed relative to the capture, e.g. 10 for ten times faster")
+    private double m_speed = 1;
+
+    @Option(name = "--max", description = "Send every operation as soon as a slot is free, ignoring the captured timing")
+    private boolean m_max;
+
+    @Option(name = "-m", aliases = "--max-in-flight", description = "The maximum number of operations in flight")
+    private int m_maxInFlight = 100;
+
+    @Override
+    public Object execute() throws Exception {
+        final Path file = Paths.get(m_file);
+        if (!Files.isReadable(file)) {
+            System.out.println("Unable to read capture log " + file);
+            return null;
+        }
+        if (!m_max && m_speed <= 0) {
+            System.out.println("The speed must be positive; use --max to replay as fast as possible");
+            return null;
+        }
+
+        final CaptureReplayer replayer = new CaptureReplayer(CaptureReader.readAll(file));
+        for (final Map.Entry<String, RemedyTicketerPlugin> entry : getPlugins().entrySet()) {
+            final CaptureReplayer.Result result = replayer.replayAgainstStub(entry.getValue(), m_max ? 0 : m_speed, m_maxInFlight);
+            print(entry.getKey(), result);
+        }
+        return null;
+    }
+
+    private void print(final String instance, final CaptureReplayer.Result result) {
+        System.out.printf("Remedy instance '%s' (stub): %d operations captured over %.2fs, replayed %s with %d errors in %.2fs%n", instance,
+                result.getCount(), TimeUnit.NANOSECONDS.toMillis(result.getCapturedNanos()) / 1000.0, m_max ? "at max speed" : "at " + m_speed + "x",
+                result.getErrors(), TimeUnit.NANOSECONDS.toMillis(result.getElapsedNanos()) / 1000.0);
+        System.out.printf("  throughput: %.1f ops/s%n", result.getThroughput());
+        print("get", result.getLatency(CaptureRecord.Type.GET));
+        print("saveOrUpdate", result.getLatency(CaptureRecord.Type.SAVE_OR_UPDATE));
+        if (result.getFirstError() != null) {
+            System.out.println("  first error: " + result.getFirstError());
+        }
+    }
+
+    private static void print(final String operation, final LatencyHistogram latency) {
+        if (latency.getCount() == 0) {
+            return;
+        }
+        System.out.printf("  %s: count=%d mean=%s p50=%s p90=%s p99=%s max=%s%n", operation, latency.getCount(), formatMicros(latency.getMeanMicros()),
+                formatMicros(latency.getPercentileMicros(50)), formatMicros(latency.getPercentileMicros(90)),
+                formatMicros(latency.getPercentileMicros(99)), formatMicros(latency.getMaxMicros()));
+    }
+}
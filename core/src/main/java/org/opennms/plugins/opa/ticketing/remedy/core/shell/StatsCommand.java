@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+
+package org.opennms.plugins.opa.ticketing.remedy.core.shell;
+
+import java.util.Map;
+
+import org.apache.karaf.shell.api.action.Command;
+import org.apache.karaf.shell.api.action.lifecycle.Service;
+import org.opennms.plugins.opa.ticketing.remedy.core.BulkResolver;
+import org.opennms.plugins.opa.ticketing.remedy.core.HttpCompression;
+import org.opennms.plugins.opa.ticketing.remedy.core.InFlightRequests;
+import org.opennms.plugins.opa.ticketing.remedy.core.OperationTimeouts;
+import org.opennms.plugins.opa.ticketing.remedy.core.QueryHedger;
+import org.opennms.plugins.opa.ticketing.remedy.core.RemedyTicketerPlugin;
+import org.opennms.plugins.opa.ticketing.remedy.core.SubmitRenderer;
+import org.opennms.plugins.opa.ticketing.remedy.core.TicketDispatcher;
+import org.opennms.plugins.opa.ticketing.remedy.core.diagnostics.HandshakeStats;
+import org.opennms.plugins.opa.ticketing.remedy.core.diagnostics.LatencyHistogram;
+import org.opennms.plugins.opa.ticketing.remedy.core.diagnostics.SoapCallRecorder;
+import org.opennms.plugins.opa.ticketing.remedy.core.ha.LeaseCoordinator;
+
+@Command(scope = "remedy", name = "stats", description = "Show SOAP call latencies, queue depths, query sharing and hedging statistics")
+@Service
+public class StatsCommand extends AbstractInstanceCommand {
+    private static final String CALL_FORMAT = "  %-26s %8s %8s %9s %9s %9s %9s %9s %9s%n";
+    private static final String GROUP_FORMAT = "  %-20s %6s %4s %7s %8s %11s %9s %9s%n";
+
+    @Override
+    public Object execute() {
+        for (final Map.Entry<String, RemedyTicketerPlugin> entry : getPlugins().entrySet()) {
+            final RemedyTicketerPlugin plugin = entry.getValue();
+            System.out.println("Remedy instance '" + entry.getKey() + "'");
+            printCalls(plugin.getCallRecorder(), plugin.getTimeouts());
+            printQueries(plugin.getInFlightRequests(), plugin.getHedger());
+            printDispatcher(plugin.getDispatcher());
+            printResolver(plugin.getBulkResolver());
+            printSubmitRenderer(plugin.getSubmitRenderer());
+            printCoordinator(plugin.getCoordinator());
+            printCompression("query/modify", plugin.getCompression());
+            printCompression("create", plugin.getCreateCompression());
+            printHandshakes(plugin.getHandshakeStats());
+            System.out.println();
+        }
+        return null;
+    }
+
+    private static void printCalls(final SoapCallRecorder recorder, final OperationTimeouts timeouts) {
+        System.out.printf(CALL_FORMAT, "SOAP operation", "calls", "errors", "p50", "p90", "p99", "max", "req avg", "resp avg");
+        for (final String operation : recorder.getOperations()) {
+            final LatencyHistogram latency = recorder.getLatency(operation);
+            System.out.printf(CALL_FORMAT, operation, latency.getCount(), recorder.getErrorCount(operation),
+                    formatMicros(latency.getPercentileMicros(50)), formatMicros(latency.getPercentileMicros(90)),
+                    formatMicros(latency.getPercentileMicros(99)), formatMicros(latency.getMaxMicros()),
+                    formatAverageBytes(recorder.getRequestBytes(operation), latency.getCount()),
+                    formatAverageBytes(recorder.getResponseBytes(operation), latency.getCount()));
+        }
+        System.out.printf("  receive timeouts: query=%s modify=%s submit=%s; %d slow calls kept%n",
+                formatTimeout(timeouts.getTimeout("HelpDesk_Query_Service")), formatTimeout(timeouts.getTimeout("HelpDesk_Modify_Service")),
+                formatTimeout(timeouts.getTimeout("HelpDesk_Submit_Service")), recorder.getSlowCalls().size());
+    }
+
+    private static void printQueries(final InFlightRequests<?> inFlight, final QueryHedger hedger) {
+        final long queries = inFlight.getQueryCount();
+        System.out.printf("  queries: %d, %d shared an in-flight call (%s hit rate); %d updates waited for an earlier update of the same incident%n",
+                queries, inFlight.getSharedQueryCount(), formatPercent(queries == 0 ? 0 : (double) inFlight.getSharedQueryCount() / queries),
+                inFlight.getSerializedModifyCount());
+        if (hedger == null) {
+            System.out.println("  hedging: disabled");
+        } else {
+            System.out.printf("  hedging: %d of %d queries hedged (%s), %d hedges won (%s)%n", hedger.getHedgeCount(), hedger.getRequestCount(),
+                    formatPercent(hedger.getHedgeRate()), hedger.getHedgeWinCount(), formatPercent(hedger.getWinRate()));
+        }
+    }
+
+    private static void printDispatcher(final TicketDispatcher dispatcher) {
+        if (dispatcher == null) {
+            System.out.println("  dispatcher: disabled");
+            return;
+        }
+        System.out.printf("  dispatcher: %s, %d queued, %d running, %d deferred; %d deferred, %d coalesced, %d shed in total%n",
+                dispatcher.isOverloaded() ? "OVERLOADED" : "ok", dispatcher.getQueued(), dispatcher.getRunning(), dispatcher.getDeferred(),
+                dispatcher.getDeferredCount(), dispatcher.getCoalescedCount(), dispatcher.getShedCount());
+        System.out.printf(GROUP_FORMAT, "target group", "weight", "max", "queued", "running", "dispatched", "wait p50", "wait p99");
+        for (final TicketDispatcher.GroupStats group : dispatcher.getGroupStats()) {
+            final LatencyHistogram wait = group.getQueueWait();
+            System.out.printf(GROUP_FORMAT, group.getName(), group.getWeight(), group.getMaxConcurrent(), group.getQueued(), group.getRunning(),
+                    group.getDispatched(), formatMicros(wait.getPercentileMicros(50)), formatMicros(wait.getPercentileMicros(99)));
+        }
+    }
+
+    private static void printResolver(final BulkResolver resolver) {
+        if (resolver == null) {
+            System.out.println("  batched resolves: disabled");
+            return;
+        }
+        System.out.printf("  batched resolves: %d batches, %d resolved, %d skipped as already done, %d resolved one by one%n",
+                resolver.getBatchCount(), resolver.getResolvedCount(), resolver.getSkippedCount(), resolver.getFallbackCount());
+    }
+
+    private static void printSubmitRenderer(final SubmitRenderer renderer) {
+        if (renderer == null) {
+            System.out.println("  submit fast path: disabled");
+            return;
+        }
+        System.out.printf("  submit fast path%s: %d rendered, %d marshalled by JAXB, %d mismatches%n", renderer.isVerifying() ? " (verifying)" : "",
+                renderer.getRenderedCount(), renderer.getFallbackCount(), renderer.getMismatchCount());
+    }
+
+    private static void printCoordinator(final LeaseCoordinator coordinator) {
+        if (coordinator == null) {
+            System.out.println("  HA coordination: disabled");
+            return;
+        }
+        System.out.printf("  HA coordination as '%s': %d leased, %d created by another node, %d waited for another node, %d lease errors%n", coordinator.getNodeId(),
+                coordinator.getClaimedCount(), coordinator.getAdoptedCount(), coordinator.getWaitedCount(), coordinator.getErrorCount());
+    }
+
+    private static void printCompression(final String port, final HttpCompression compression) {
+        if (compression == null) {
+            System.out.printf("  %s compression: disabled%n", port);
+            return;
+        }
+        System.out.printf("  %s compression (%s from %d bytes): %d of %d requests compressed, %d -> %d bytes sent (%s saved); "
+                        + "%d of %d responses compressed, %d -> %d bytes received (%s saved)%n", port, compression.getEncoding(), compression.getThreshold(),
+                compression.getCompressedRequestCount(), compression.getRequestCount(), compression.getRawBytesSent(), compression.getWireBytesSent(),
+                formatSaving(compression.getRawBytesSent(), compression.getWireBytesSent()),
+                compression.getCompressedResponseCount(), compression.getResponseCount(), compression.getWireBytesReceived(), compression.getRawBytesReceived(),
+                formatSaving(compression.getRawBytesReceived(), compression.getWireBytesReceived()));
+    }
+
+    private static String formatSaving(final long raw, final long wire) {
+        return raw == 0 ? "-" : String.format("%.0f%%", 100.0 * (raw - wire) / raw);
+    }
+
+    private static void printHandshakes(final HandshakeStats handshakes) {
+        final LatencyHistogram duration = handshakes.getDuration();
+        System.out.printf("  TLS handshakes: %d (%d resumed), %d failed; p50=%s p99=%s max=%s%n", handshakes.getHandshakeCount(),
+                handshakes.getResumedCount(), handshakes.getFailureCount(), formatMicros(duration.getPercentileMicros(50)),
+                formatMicros(duration.getPercentileMicros(99)), formatMicros(duration.getMaxMicros()));
+    }
+
+    private static String formatAverageBytes(final long bytes, final long calls) {
+        return bytes == 0 || calls == 0 ? "-" : (bytes / calls) + "B";
+    }
+
+    private static String formatTimeout(final long millis) {
+        return millis == 0 ? "default" : millis + "ms";
+    }
+}
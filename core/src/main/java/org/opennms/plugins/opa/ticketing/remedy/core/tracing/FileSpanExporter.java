@@ -0,0 +1,251 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+
+package org.opennms.plugins.opa.ticketing.remedy.core.tracing;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Appends finished spans to a file, one JSON object per line.
+ *
+ * The field names follow the OpenTelemetry span data model so the file can be converted
+ * and imported into other tools.  When the file grows beyond the configured size it is
+ * rotated to {@code <file>.1}.
+ *
+ * Spans are serialized on the thread that ends them and written by a background thread, in
+ * batches, so that SOAP callbacks do not wait for the disk.  If the writer falls more than
+ * {@value #MAX_PENDING} spans behind, further spans are dropped.
+ */
+public class FileSpanExporter implements SpanExporter, Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(FileSpanExporter.class);
+
+    static final int MAX_PENDING = 4096;
+    private static final int MAX_BATCH = 256;
+    private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+
+    /** Wakes up the writer when closing; it is not written */
+    private static final String WAKE_UP = "";
+
+    private final Path m_file;
+    private final long m_maxSize;
+    private final BlockingQueue<String> m_pending = new ArrayBlockingQueue<>(MAX_PENDING);
+    private final AtomicLong m_dropped = new AtomicLong();
+    private final Thread m_thread;
+    private volatile boolean m_closed;
+
+    // only used by the writer thread
+    private OutputStream m_out;
+    private long m_size;
+
+    public FileSpanExporter(final Path file, final long maxSize) {
+        m_file = file;
+        m_maxSize = maxSize;
+        m_thread = new Thread(this::run, "remedy-span-writer");
+        m_thread.setDaemon(true);
+        m_thread.start();
+    }
+
+    @Override
+    public void export(final Span span) {
+        if (m_closed) {
+            return;
+        }
+        if (!m_pending.offer(toJson(span)) && m_dropped.getAndIncrement() == 0) {
+            LOG.warn("Span writer of {} is falling behind, dropping spans.", m_file);
+        }
+    }
+
+    /**
+     * @return the number of spans dropped because the writer fell behind
+     */
+    public long getDroppedCount() {
+        return m_dropped.get();
+    }
+
+    /**
+     * Write the pending spans and close the file.
+     */
+    @Override
+    public void close() {
+        m_closed = true;
+        m_pending.offer(WAKE_UP);
+        try {
+            m_thread.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        final List<String> batch = new ArrayList<>(MAX_BATCH);
+        while (true) {
+            final String line;
+            try {
+                line = m_pending.poll(1, TimeUnit.SECONDS);
+            } catch (final InterruptedException e) {
+                break;
+            }
+            if (line == null) {
+                if (m_closed) {
+                    break;
+                }
+                continue;
+            }
+            batch.add(line);
+            m_pending.drainTo(batch, MAX_BATCH - 1);
+            write(batch);
+            batch.clear();
+        }
+        closeQuietly();
+    }
+
+    private void write(final List<String> lines) {
+        try {
+            if (m_out == null) {
+                open();
+            }
+            for (final String line : lines) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                final byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+                if (m_size > 0 && m_size + bytes.length > m_maxSize) {
+                    rotate();
+                }
+                m_out.write(bytes);
+                m_size += bytes.length;
+            }
+            m_out.flush();
+        } catch (final IOException e) {
+            LOG.warn("Unable to write spans to {}.", m_file, e);
+            closeQuietly();
+        }
+    }
+
+    private void open() throws IOException {
+        if (m_file.getParent() != null) {
+            Files.createDirectories(m_file.getParent());
+        }
+        m_out = new BufferedOutputStream(Files.newOutputStream(m_file, StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+        m_size = Files.size(m_file);
+    }
+
+    private void rotate() throws IOException {
+        closeQuietly();
+        Files.move(m_file, m_file.resolveSibling(m_file.getFileName() + ".1"), StandardCopyOption.REPLACE_EXISTING);
+        open();
+    }
+
+    private void closeQuietly() {
+        if (m_out != null) {
+            try {
+                m_out.close();
+            } catch (final IOException e) {
+                LOG.debug("Failed to close {}.", m_file, e);
+            }
+            m_out = null;
+        }
+    }
+
+    static String toJson(final Span span) {
+        final StringBuilder sb = new StringBuilder(256);
+        sb.append('{');
+        appendField(sb, "traceId", span.getTraceId()).append(',');
+        appendField(sb, "spanId", span.getSpanId()).append(',');
+        if (span.getParentSpanId() != null) {
+            appendField(sb, "parentSpanId", span.getParentSpanId()).append(',');
+        }
+        appendField(sb, "name", span.getName()).append(',');
+        sb.append("\"startTimeUnixNano\":").append(span.getStartEpochNanos()).append(',');
+        sb.append("\"endTimeUnixNano\":").append(span.getStartEpochNanos() + span.getDurationNanos()).append(',');
+        sb.append("\"status\":{");
+        appendField(sb, "code", span.getStatus().name());
+        if (span.getStatusMessage() != null) {
+            sb.append(',');
+            appendField(sb, "message", span.getStatusMessage());
+        }
+        sb.append("},\"attributes\":{");
+        boolean first = true;
+        for (final Map.Entry<String, Object> attribute : span.getAttributes().entrySet()) {
+            if (!first) {
+                sb.append(',');
+            }
+            first = false;
+            if (attribute.getValue() instanceof Number || attribute.getValue() instanceof Boolean) {
+                appendString(sb, attribute.getKey()).append(':').append(attribute.getValue());
+            } else {
+                appendField(sb, attribute.getKey(), String.valueOf(attribute.getValue()));
+            }
+        }
+        sb.append("}}\n");
+        return sb.toString();
+    }
+
+    private static StringBuilder appendField(final StringBuilder sb, final String key, final String value) {
+        return appendString(appendString(sb, key).append(':'), value);
+    }
+
+    private static StringBuilder appendString(final StringBuilder sb, final String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"');
+    }
+}
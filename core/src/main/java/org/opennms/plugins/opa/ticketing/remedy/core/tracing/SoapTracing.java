@@ -0,0 +1,245 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+
+package org.opennms.plugins.opa.ticketing.remedy.core.tracing;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+
+import org.apache.cxf.endpoint.Client;
+import org.apache.cxf.interceptor.AttachmentInInterceptor;
+import org.apache.cxf.interceptor.AttachmentOutInterceptor;
+import org.apache.cxf.interceptor.Fault;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.phase.AbstractPhaseInterceptor;
+import org.apache.cxf.phase.Phase;
+
+/**
+ * CXF interceptors that time the phases of a SOAP call, so the span wrapping the call can be
+ * broken down into request marshalling, transport and response unmarshalling, and that count
+ * the bytes sent and received, including MTOM attachments.
+ *
+ * Measurements are collected on the {@link Exchange} and copied onto the inbound message, which
+ * CXF exposes as the JAX-WS response context once the call returns.
+ */
+public final class SoapTracing {
+    static final String MARSHAL_START = SoapTracing.class.getName() + ".marshal.start";
+    static final String MARSHAL_END = SoapTracing.class.getName() + ".marshal.end";
+    static final String RECEIVE_START = SoapTracing.class.getName() + ".receive.start";
+    static final String UNMARSHAL_END = SoapTracing.class.getName() + ".unmarshal.end";
+    static final String REQUEST_SIZE = SoapTracing.class.getName() + ".request.size";
+    static final String RESPONSE_SIZE = SoapTracing.class.getName() + ".response.size";
+
+    private static final String[] PUBLISHED_KEYS = { MARSHAL_START, MARSHAL_END, RECEIVE_START, UNMARSHAL_END };
+
+    public static final String SPAN_MARSHAL = "remedy.soap.marshal";
+    public static final String SPAN_TRANSPORT = "remedy.soap.transport";
+    public static final String SPAN_UNMARSHAL = "remedy.soap.unmarshal";
+
+    private SoapTracing() {
+    }
+
+    /**
+     * Add the timing interceptors to a client.
+     */
+    public static void install(final Client client) {
+        client.getOutInterceptors().add(new TimestampInterceptor(Phase.MARSHAL, MARSHAL_START, false));
+        client.getOutInterceptors().add(new TimestampInterceptor(Phase.MARSHAL_ENDING, MARSHAL_END, false));
+        client.getInInterceptors().add(new TimestampInterceptor(Phase.RECEIVE, RECEIVE_START, false));
+        client.getInInterceptors().add(new TimestampInterceptor(Phase.POST_INVOKE, UNMARSHAL_END, true));
+        client.getOutInterceptors().add(new CountingOutInterceptor());
+        client.getInInterceptors().add(new CountingInInterceptor());
+    }
+
+    /**
+     * @return the number of bytes written for the request, or 0 if unknown
+     */
+    public static long getRequestSize(final Map<String, Object> responseContext) {
+        return getSize(responseContext, REQUEST_SIZE);
+    }
+
+    /**
+     * @return the number of bytes read for the response, or 0 if unknown
+     */
+    public static long getResponseSize(final Map<String, Object> responseContext) {
+        return getSize(responseContext, RESPONSE_SIZE);
+    }
+
+    private static long getSize(final Map<String, Object> responseContext, final String key) {
+        final Object value = responseContext == null ? null : responseContext.get(key);
+        return value instanceof Long ? (Long) value : 0;
+    }
+
+    /**
+     * Add child spans for the phases recorded in a response context.  Phases that were not
+     * recorded, for example because the port is not a CXF proxy, are skipped.
+     */
+    public static void addPhaseSpans(final Span span, final Map<String, Object> responseContext) {
+        if (!span.isRecording() || responseContext == null) {
+            return;
+        }
+        addPhaseSpan(span, SPAN_MARSHAL, responseContext.get(MARSHAL_START), responseContext.get(MARSHAL_END));
+        addPhaseSpan(span, SPAN_TRANSPORT, responseContext.get(MARSHAL_END), responseContext.get(RECEIVE_START));
+        addPhaseSpan(span, SPAN_UNMARSHAL, responseContext.get(RECEIVE_START), responseContext.get(UNMARSHAL_END));
+    }
+
+    private static void addPhaseSpan(final Span parent, final String name, final Object start, final Object end) {
+        if (start instanceof Long && end instanceof Long) {
+            parent.startChild(name, (Long) start).end((Long) end);
+        }
+    }
+
+    private static class TimestampInterceptor extends AbstractPhaseInterceptor<Message> {
+        private final String m_key;
+        private final boolean m_publish;
+
+        TimestampInterceptor(final String phase, final String key, final boolean publish) {
+            super(key, phase);
+            m_key = key;
+            m_publish = publish;
+        }
+
+        @Override
+        public void handleMessage(final Message message) throws Fault {
+            final Exchange exchange = message.getExchange();
+            exchange.put(m_key, System.nanoTime());
+            if (m_publish) {
+                for (final String key : PUBLISHED_KEYS) {
+                    final Object value = exchange.get(key);
+                    if (value != null) {
+                        message.put(key, value);
+                    }
+                }
+                publishCount(exchange, message, REQUEST_SIZE);
+                publishCount(exchange, message, RESPONSE_SIZE);
+            }
+        }
+
+        private static void publishCount(final Exchange exchange, final Message message, final String key) {
+            final Object counter = exchange.get(key);
+            if (counter instanceof CountingOutputStream) {
+                message.put(key, ((CountingOutputStream) counter).m_count);
+            } else if (counter instanceof CountingInputStream) {
+                message.put(key, ((CountingInputStream) counter).m_count);
+            }
+        }
+    }
+
+    private static class CountingOutInterceptor extends AbstractPhaseInterceptor<Message> {
+        CountingOutInterceptor() {
+            super(Phase.PRE_STREAM);
+            // count the wire stream, before MTOM attachments are serialized into it
+            addBefore(AttachmentOutInterceptor.class.getName());
+        }
+
+        @Override
+        public void handleMessage(final Message message) throws Fault {
+            final OutputStream os = message.getContent(OutputStream.class);
+            if (os != null) {
+                final CountingOutputStream counter = new CountingOutputStream(os);
+                message.setContent(OutputStream.class, counter);
+                message.getExchange().put(REQUEST_SIZE, counter);
+            }
+        }
+    }
+
+    private static class CountingInInterceptor extends AbstractPhaseInterceptor<Message> {
+        CountingInInterceptor() {
+            super(Phase.RECEIVE);
+            addBefore(AttachmentInInterceptor.class.getName());
+        }
+
+        @Override
+        public void handleMessage(final Message message) throws Fault {
+            final InputStream is = message.getContent(InputStream.class);
+            if (is != null) {
+                final CountingInputStream counter = new CountingInputStream(is);
+                message.setContent(InputStream.class, counter);
+                message.getExchange().put(RESPONSE_SIZE, counter);
+            }
+        }
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long m_count;
+
+        CountingOutputStream(final OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            out.write(b);
+            m_count++;
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            out.write(b, off, len);
+            m_count += len;
+        }
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        private long m_count;
+
+        CountingInputStream(final InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = in.read();
+            if (b >= 0) {
+                m_count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            final int n = in.read(b, off, len);
+            if (n > 0) {
+                m_count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            final long skipped = in.skip(n);
+            m_count += skipped;
+            return skipped;
+        }
+    }
+}
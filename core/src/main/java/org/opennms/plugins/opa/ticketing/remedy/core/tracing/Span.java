@@ -0,0 +1,173 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+
+package org.opennms.plugins.opa.ticketing.remedy.core.tracing;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A timed operation within a trace, modelled after OpenTelemetry spans.
+ *
+ * Spans are explicitly parented (see {@link #startChild(String)}) rather than tracked in
+ * thread-local state, so they can follow a request across asynchronous callbacks.
+ * Timestamps are {@link System#nanoTime()} values; {@link #getStartEpochNanos()} converts them
+ * to wall-clock time for exporters.
+ */
+public class Span implements AutoCloseable {
+    public enum Status { UNSET, OK, ERROR }
+
+    private final Tracer m_tracer;
+    private final String m_traceId;
+    private final String m_spanId;
+    private final String m_parentSpanId;
+    private final String m_name;
+    private final long m_startNanos;
+    private final Map<String, Object> m_attributes = new LinkedHashMap<>();
+
+    private volatile long m_endNanos = -1;
+    private volatile Status m_status = Status.UNSET;
+    private volatile String m_statusMessage;
+
+    Span(final Tracer tracer, final String traceId, final String parentSpanId, final String name, final long startNanos) {
+        m_tracer = tracer;
+        m_traceId = traceId;
+        m_spanId = tracer == null ? "0000000000000000" : String.format("%016x", ThreadLocalRandom.current().nextLong());
+        m_parentSpanId = parentSpanId;
+        m_name = Objects.requireNonNull(name);
+        m_startNanos = startNanos;
+    }
+
+    /**
+     * @return true if this span is recorded and exported; false for the no-op span handed out when tracing is disabled
+     */
+    public boolean isRecording() {
+        return m_tracer != null;
+    }
+
+    public Span startChild(final String name) {
+        return startChild(name, System.nanoTime());
+    }
+
+    /**
+     * Start a child span at a point in time that was measured elsewhere (for example in a SOAP interceptor).
+     */
+    public Span startChild(final String name, final long startNanos) {
+        if (m_tracer == null) {
+            return this;
+        }
+        return new Span(m_tracer, m_traceId, m_spanId, name, startNanos);
+    }
+
+    public Span setAttribute(final String key, final Object value) {
+        if (m_tracer != null && value != null) {
+            synchronized (m_attributes) {
+                m_attributes.put(key, value);
+            }
+        }
+        return this;
+    }
+
+    public Span setStatus(final Status status, final String message) {
+        m_status = status;
+        m_statusMessage = message;
+        return this;
+    }
+
+    public Span recordException(final Throwable t) {
+        setAttribute("exception.type", t.getClass().getName());
+        setAttribute("exception.message", t.getMessage());
+        return setStatus(Status.ERROR, t.getMessage());
+    }
+
+    public void end() {
+        end(System.nanoTime());
+    }
+
+    /**
+     * End the span at the given {@link System#nanoTime()}.  Only the first call has any effect.
+     */
+    public void end(final long endNanos) {
+        if (m_tracer == null || m_endNanos >= 0) {
+            return;
+        }
+        synchronized (this) {
+            if (m_endNanos >= 0) {
+                return;
+            }
+            m_endNanos = endNanos;
+        }
+        m_tracer.export(this);
+    }
+
+    @Override
+    public void close() {
+        end();
+    }
+
+    public String getTraceId() {
+        return m_traceId;
+    }
+
+    public String getSpanId() {
+        return m_spanId;
+    }
+
+    public String getParentSpanId() {
+        return m_parentSpanId;
+    }
+
+    public String getName() {
+        return m_name;
+    }
+
+    public long getStartEpochNanos() {
+        return m_tracer == null ? 0 : m_tracer.toEpochNanos(m_startNanos);
+    }
+
+    public long getDurationNanos() {
+        return m_endNanos < 0 ? -1 : m_endNanos - m_startNanos;
+    }
+
+    public Map<String, Object> getAttributes() {
+        synchronized (m_attributes) {
+            return Collections.unmodifiableMap(new LinkedHashMap<>(m_attributes));
+        }
+    }
+
+    public Status getStatus() {
+        return m_status;
+    }
+
+    public String getStatusMessage() {
+        return m_statusMessage;
+    }
+}
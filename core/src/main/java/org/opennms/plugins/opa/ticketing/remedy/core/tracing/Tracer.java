@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+
+package org.opennms.plugins.opa.ticketing.remedy.core.tracing;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates {@link Span}s and hands finished spans to the configured {@link SpanExporter}s.
+ *
+ * When no exporter is configured every span is a shared no-op, so instrumentation costs
+ * next to nothing.
+ */
+public class Tracer {
+    private static final Logger LOG = LoggerFactory.getLogger(Tracer.class);
+
+    private static final Span NOOP = new Span(null, "00000000000000000000000000000000", null, "noop", 0);
+
+    private final List<SpanExporter> m_exporters;
+    private volatile Collection<SpanExporter> m_serviceExporters = Collections.emptyList();
+
+    private final long m_epochNanosAtStart = System.currentTimeMillis() * 1_000_000L;
+    private final long m_nanoTimeAtStart = System.nanoTime();
+
+    public Tracer(final List<SpanExporter> exporters) {
+        m_exporters = new ArrayList<>(exporters);
+    }
+
+    /**
+     * Set additional exporters, typically the live list of {@link SpanExporter} OSGi services.
+     */
+    public void setServiceExporters(final Collection<SpanExporter> exporters) {
+        m_serviceExporters = exporters == null ? Collections.emptyList() : exporters;
+    }
+
+    public boolean isEnabled() {
+        return !m_exporters.isEmpty() || !m_serviceExporters.isEmpty();
+    }
+
+    /**
+     * Start a new trace.
+     */
+    public Span startSpan(final String name) {
+        if (!isEnabled()) {
+            return NOOP;
+        }
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        return new Span(this, String.format("%016x%016x", random.nextLong(), random.nextLong()), null, name, System.nanoTime());
+    }
+
+    /**
+     * Close exporters owned by this tracer, such as an open trace file.
+     */
+    public void close() {
+        for (final SpanExporter exporter : m_exporters) {
+            if (exporter instanceof Closeable) {
+                try {
+                    ((Closeable) exporter).close();
+                } catch (final IOException e) {
+                    LOG.debug("Failed to close span exporter {}.", exporter, e);
+                }
+            }
+        }
+    }
+
+    long toEpochNanos(final long nanoTime) {
+        return m_epochNanosAtStart + (nanoTime - m_nanoTimeAtStart);
+    }
+
+    void export(final Span span) {
+        for (final SpanExporter exporter : m_exporters) {
+            export(exporter, span);
+        }
+        for (final SpanExporter exporter : m_serviceExporters) {
+            export(exporter, span);
+        }
+    }
+
+    private static void export(final SpanExporter exporter, final Span span) {
+        try {
+            exporter.export(span);
+        } catch (final RuntimeException e) {
+            LOG.warn("Span exporter {} failed to export span {}.", exporter, span.getName(), e);
+        }
+    }
+}
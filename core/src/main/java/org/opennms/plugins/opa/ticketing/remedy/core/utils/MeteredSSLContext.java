@@ -0,0 +1,374 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+
+package org.opennms.plugins.opa.ticketing.remedy.core.utils;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.security.KeyManagementException;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLContextSpi;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLEngineResult.HandshakeStatus;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLServerSocketFactory;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManager;
+
+import org.opennms.plugins.opa.ticketing.remedy.core.diagnostics.HandshakeStats;
+
+/**
+ * An {@link SSLContext} that records the handshakes of the sockets and engines it creates.
+ *
+ * Sockets (the blocking transport) report their handshakes through a listener, timed from the
+ * creation of the socket; engines (the asynchronous transport) are timed from the first
+ * handshake record they produce or consume until the handshake finishes.  A handshake counts
+ * as resumed when its session was created before the handshake started.
+ */
+public class MeteredSSLContext extends SSLContext {
+    public MeteredSSLContext(final SSLContext delegate, final HandshakeStats stats) {
+        super(new Spi(delegate, stats), delegate.getProvider(), delegate.getProtocol());
+    }
+
+    private static boolean isResumed(final SSLSession session, final long startMillis) {
+        return session != null && session.getCreationTime() < startMillis;
+    }
+
+    private static class Spi extends SSLContextSpi {
+        private final SSLContext m_delegate;
+        private final HandshakeStats m_stats;
+
+        private Spi(final SSLContext delegate, final HandshakeStats stats) {
+            m_delegate = delegate;
+            m_stats = stats;
+        }
+
+        @Override
+        protected void engineInit(final KeyManager[] km, final TrustManager[] tm, final SecureRandom sr) throws KeyManagementException {
+            m_delegate.init(km, tm, sr);
+        }
+
+        @Override
+        protected SSLSocketFactory engineGetSocketFactory() {
+            return new MeteredSocketFactory(m_delegate.getSocketFactory(), m_stats);
+        }
+
+        @Override
+        protected SSLServerSocketFactory engineGetServerSocketFactory() {
+            return m_delegate.getServerSocketFactory();
+        }
+
+        @Override
+        protected SSLEngine engineCreateSSLEngine() {
+            return new MeteredEngine(m_delegate.createSSLEngine(), m_stats);
+        }
+
+        @Override
+        protected SSLEngine engineCreateSSLEngine(final String host, final int port) {
+            return new MeteredEngine(m_delegate.createSSLEngine(host, port), m_stats);
+        }
+
+        @Override
+        protected SSLSessionContext engineGetServerSessionContext() {
+            return m_delegate.getServerSessionContext();
+        }
+
+        @Override
+        protected SSLSessionContext engineGetClientSessionContext() {
+            return m_delegate.getClientSessionContext();
+        }
+
+        @Override
+        protected SSLParameters engineGetDefaultSSLParameters() {
+            return m_delegate.getDefaultSSLParameters();
+        }
+
+        @Override
+        protected SSLParameters engineGetSupportedSSLParameters() {
+            return m_delegate.getSupportedSSLParameters();
+        }
+    }
+
+    private static class MeteredSocketFactory extends SSLSocketFactory {
+        private final SSLSocketFactory m_delegate;
+        private final HandshakeStats m_stats;
+
+        private MeteredSocketFactory(final SSLSocketFactory delegate, final HandshakeStats stats) {
+            m_delegate = delegate;
+            m_stats = stats;
+        }
+
+        private Socket meter(final Socket socket) {
+            if (socket instanceof SSLSocket) {
+                final long startNanos = System.nanoTime();
+                final long startMillis = System.currentTimeMillis();
+                ((SSLSocket) socket).addHandshakeCompletedListener(event ->
+                        m_stats.record(System.nanoTime() - startNanos, isResumed(event.getSession(), startMillis)));
+            }
+            return socket;
+        }
+
+        @Override
+        public String[] getDefaultCipherSuites() {
+            return m_delegate.getDefaultCipherSuites();
+        }
+
+        @Override
+        public String[] getSupportedCipherSuites() {
+            return m_delegate.getSupportedCipherSuites();
+        }
+
+        @Override
+        public Socket createSocket() throws IOException {
+            return meter(m_delegate.createSocket());
+        }
+
+        @Override
+        public Socket createSocket(final Socket s, final String host, final int port, final boolean autoClose) throws IOException {
+            return meter(m_delegate.createSocket(s, host, port, autoClose));
+        }
+
+        @Override
+        public Socket createSocket(final String host, final int port) throws IOException {
+            return meter(m_delegate.createSocket(host, port));
+        }
+
+        @Override
+        public Socket createSocket(final String host, final int port, final InetAddress localHost, final int localPort) throws IOException {
+            return meter(m_delegate.createSocket(host, port, localHost, localPort));
+        }
+
+        @Override
+        public Socket createSocket(final InetAddress host, final int port) throws IOException {
+            return meter(m_delegate.createSocket(host, port));
+        }
+
+        @Override
+        public Socket createSocket(final InetAddress address, final int port, final InetAddress localAddress, final int localPort) throws IOException {
+            return meter(m_delegate.createSocket(address, port, localAddress, localPort));
+        }
+    }
+
+    private static class MeteredEngine extends SSLEngine {
+        private final SSLEngine m_delegate;
+        private final HandshakeStats m_stats;
+        private long m_startNanos = -1;
+        private long m_startMillis;
+
+        private MeteredEngine(final SSLEngine delegate, final HandshakeStats stats) {
+            super(delegate.getPeerHost(), delegate.getPeerPort());
+            m_delegate = delegate;
+            m_stats = stats;
+        }
+
+        private void start(final long startNanos) {
+            if (m_startNanos < 0) {
+                m_startNanos = startNanos;
+                m_startMillis = System.currentTimeMillis() - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            }
+        }
+
+        private SSLEngineResult meter(final long callNanos, final SSLEngineResult result) {
+            final HandshakeStatus status = result.getHandshakeStatus();
+            if (status != HandshakeStatus.NOT_HANDSHAKING) {
+                // a client engine starts its handshake implicitly on the first wrap
+                start(callNanos);
+            }
+            if (status == HandshakeStatus.FINISHED) {
+                m_stats.record(System.nanoTime() - m_startNanos, isResumed(m_delegate.getSession(), m_startMillis));
+                m_startNanos = -1;
+            }
+            return result;
+        }
+
+        private SSLException fail(final SSLException e) {
+            if (m_startNanos >= 0) {
+                m_stats.recordFailure();
+                m_startNanos = -1;
+            }
+            return e;
+        }
+
+        @Override
+        public SSLEngineResult wrap(final ByteBuffer[] srcs, final int offset, final int length, final ByteBuffer dst) throws SSLException {
+            final long callNanos = System.nanoTime();
+            try {
+                return meter(callNanos, m_delegate.wrap(srcs, offset, length, dst));
+            } catch (final SSLException e) {
+                throw fail(e);
+            }
+        }
+
+        @Override
+        public SSLEngineResult unwrap(final ByteBuffer src, final ByteBuffer[] dsts, final int offset, final int length) throws SSLException {
+            final long callNanos = System.nanoTime();
+            try {
+                return meter(callNanos, m_delegate.unwrap(src, dsts, offset, length));
+            } catch (final SSLException e) {
+                throw fail(e);
+            }
+        }
+
+        @Override
+        public Runnable getDelegatedTask() {
+            return m_delegate.getDelegatedTask();
+        }
+
+        @Override
+        public void closeInbound() throws SSLException {
+            m_delegate.closeInbound();
+        }
+
+        @Override
+        public boolean isInboundDone() {
+            return m_delegate.isInboundDone();
+        }
+
+        @Override
+        public void closeOutbound() {
+            m_delegate.closeOutbound();
+        }
+
+        @Override
+        public boolean isOutboundDone() {
+            return m_delegate.isOutboundDone();
+        }
+
+        @Override
+        public String[] getSupportedCipherSuites() {
+            return m_delegate.getSupportedCipherSuites();
+        }
+
+        @Override
+        public String[] getEnabledCipherSuites() {
+            return m_delegate.getEnabledCipherSuites();
+        }
+
+        @Override
+        public void setEnabledCipherSuites(final String[] suites) {
+            m_delegate.setEnabledCipherSuites(suites);
+        }
+
+        @Override
+        public String[] getSupportedProtocols() {
+            return m_delegate.getSupportedProtocols();
+        }
+
+        @Override
+        public String[] getEnabledProtocols() {
+            return m_delegate.getEnabledProtocols();
+        }
+
+        @Override
+        public void setEnabledProtocols(final String[] protocols) {
+            m_delegate.setEnabledProtocols(protocols);
+        }
+
+        @Override
+        public SSLSession getSession() {
+            return m_delegate.getSession();
+        }
+
+        @Override
+        public SSLSession getHandshakeSession() {
+            return m_delegate.getHandshakeSession();
+        }
+
+        @Override
+        public void beginHandshake() throws SSLException {
+            start(System.nanoTime());
+            m_delegate.beginHandshake();
+        }
+
+        @Override
+        public HandshakeStatus getHandshakeStatus() {
+            return m_delegate.getHandshakeStatus();
+        }
+
+        @Override
+        public void setUseClientMode(final boolean mode) {
+            m_delegate.setUseClientMode(mode);
+        }
+
+        @Override
+        public boolean getUseClientMode() {
+            return m_delegate.getUseClientMode();
+        }
+
+        @Override
+        public void setNeedClientAuth(final boolean need) {
+            m_delegate.setNeedClientAuth(need);
+        }
+
+        @Override
+        public boolean getNeedClientAuth() {
+            return m_delegate.getNeedClientAuth();
+        }
+
+        @Override
+        public void setWantClientAuth(final boolean want) {
+            m_delegate.setWantClientAuth(want);
+        }
+
+        @Override
+        public boolean getWantClientAuth() {
+            return m_delegate.getWantClientAuth();
+        }
+
+        @Override
+        public void setEnableSessionCreation(final boolean flag) {
+            m_delegate.setEnableSessionCreation(flag);
+        }
+
+        @Override
+        public boolean getEnableSessionCreation() {
+            return m_delegate.getEnableSessionCreation();
+        }
+
+        @Override
+        public SSLParameters getSSLParameters() {
+            return m_delegate.getSSLParameters();
+        }
+
+        @Override
+        public void setSSLParameters(final SSLParameters params) {
+            m_delegate.setSSLParameters(params);
+        }
+    }
+}
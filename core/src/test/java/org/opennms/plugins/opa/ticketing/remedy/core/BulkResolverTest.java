@@ -0,0 +1,215 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+
+package org.opennms.plugins.opa.ticketing.remedy.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.opennms.integration.api.v1.ticketing.Ticket;
+import org.opennms.integration.api.v1.ticketing.immutables.ImmutableTicket;
+import org.opennms.integration.remedy.ticketservice.GetListInputMap;
+import org.opennms.integration.remedy.ticketservice.GetListOutputMap;
+import org.opennms.integration.remedy.ticketservice.StatusType;
+
+class BulkResolverTest {
+    @Test
+    void testResolveBatch() throws Exception {
+        final List<GetListInputMap> lookups = new ArrayList<>();
+        final BulkResolver resolver = new BulkResolver(50, 100, 2, input -> {
+            lookups.add(input);
+            final GetListOutputMap output = new GetListOutputMap();
+            output.getGetListValues().add(values("INC1", StatusType.ASSIGNED));
+            output.getGetListValues().add(values("INC2", StatusType.CLOSED));
+            output.getGetListValues().add(values("INC3", StatusType.IN_PROGRESS));
+            output.getGetListValues().add(values("INC4", StatusType.PENDING));
+            return CompletableFuture.completedFuture(output);
+        });
+        final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            final AtomicInteger running = new AtomicInteger();
+            final AtomicInteger maxRunning = new AtomicInteger();
+            final Map<String, AtomicInteger> modifies = new HashMap<>();
+            final List<CompletableFuture<Void>> results = new ArrayList<>();
+            for (final String incident : new String[] { "INC1", "INC2", "INC3", "INC4", "INC1", "INC5" }) {
+                final AtomicInteger count = modifies.computeIfAbsent(incident, i -> new AtomicInteger());
+                results.add(resolver.resolve(incident, remedy -> {
+                    assertEquals(incident, remedy.getSummary());
+                    count.incrementAndGet();
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    final CompletableFuture<Void> modified = new CompletableFuture<>();
+                    scheduler.schedule(() -> {
+                        running.decrementAndGet();
+                        modified.complete(null);
+                    }, 10, TimeUnit.MILLISECONDS);
+                    return modified;
+                }, () -> {
+                    throw new AssertionError("unexpected fallback");
+                }));
+            }
+            for (int i = 0; i < 5; i++) {
+                results.get(i).get(5, TimeUnit.SECONDS);
+            }
+            final ExecutionException missing = assertThrows(ExecutionException.class, () -> results.get(5).get(5, TimeUnit.SECONDS));
+            assertTrue(missing.getCause().getMessage().contains("INC5"));
+
+            assertEquals(1, lookups.size());
+            assertEquals("'Incident Number' = \"INC1\" OR 'Incident Number' = \"INC2\" OR 'Incident Number' = \"INC3\" OR "
+                    + "'Incident Number' = \"INC4\" OR 'Incident Number' = \"INC5\"", lookups.get(0).getQualification());
+            // the closed incident is skipped, and each resolve of INC1 is sent
+            assertEquals(2, modifies.get("INC1").get());
+            assertEquals(0, modifies.get("INC2").get());
+            assertEquals(1, modifies.get("INC3").get());
+            assertEquals(1, modifies.get("INC4").get());
+            assertTrue(maxRunning.get() <= 2);
+            assertEquals(1, resolver.getBatchCount());
+            assertEquals(4, resolver.getResolvedCount());
+            assertEquals(1, resolver.getSkippedCount());
+        } finally {
+            resolver.shutdown();
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    void testFullBatchDoesNotShortenNextWindow() throws Exception {
+        final List<GetListInputMap> lookups = new CopyOnWriteArrayList<>();
+        final BulkResolver resolver = new BulkResolver(500, 2, 2, input -> {
+            lookups.add(input);
+            final GetListOutputMap output = new GetListOutputMap();
+            output.getGetListValues().add(values("INC1", StatusType.ASSIGNED));
+            output.getGetListValues().add(values("INC2", StatusType.ASSIGNED));
+            output.getGetListValues().add(values("INC3", StatusType.ASSIGNED));
+            return CompletableFuture.completedFuture(output);
+        });
+        try {
+            final long start = System.nanoTime();
+            final CompletableFuture<Void> first = resolver.resolve("INC1", remedy -> CompletableFuture.completedFuture(null), CompletableFuture::new);
+            final CompletableFuture<Void> second = resolver.resolve("INC2", remedy -> CompletableFuture.completedFuture(null), CompletableFuture::new);
+            first.get(5, TimeUnit.SECONDS);
+            second.get(5, TimeUnit.SECONDS);
+            assertEquals(1, lookups.size());
+
+            // the next batch starts half way through the window of the full one
+            Thread.sleep(Math.max(0, 250 - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+            final CompletableFuture<Void> third = resolver.resolve("INC3", remedy -> CompletableFuture.completedFuture(null), CompletableFuture::new);
+
+            // past the end of the first window, before the end of the second
+            Thread.sleep(Math.max(0, 600 - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+            assertFalse(third.isDone());
+            assertEquals(1, lookups.size());
+
+            third.get(5, TimeUnit.SECONDS);
+            assertEquals(2, lookups.size());
+            assertEquals(2, resolver.getBatchCount());
+        } finally {
+            resolver.shutdown();
+        }
+    }
+
+    @Test
+    void testFallbackWhenLookupFails() throws Exception {
+        final BulkResolver resolver = new BulkResolver(10, 2, 4, input -> {
+            final CompletableFuture<GetListOutputMap> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new RemedyTicketerException("ERROR (302): Entry does not exist in database"));
+            return failed;
+        });
+        try {
+            final AtomicInteger fallbacks = new AtomicInteger();
+            final CompletableFuture<Void> first = resolver.resolve("INC1", remedy -> {
+                throw new AssertionError("unexpected modify");
+            }, () -> CompletableFuture.completedFuture(fallbacks.incrementAndGet()));
+            final CompletableFuture<Void> second = resolver.resolve("INC2", remedy -> {
+                throw new AssertionError("unexpected modify");
+            }, () -> CompletableFuture.completedFuture(fallbacks.incrementAndGet()));
+            first.get(5, TimeUnit.SECONDS);
+            second.get(5, TimeUnit.SECONDS);
+            assertEquals(2, fallbacks.get());
+            assertEquals(2, resolver.getFallbackCount());
+        } finally {
+            resolver.shutdown();
+        }
+    }
+
+    @Test
+    void testPluginResolvesInBatches() throws Exception {
+        final Map<String, Object> config = new HashMap<>();
+        config.put("resolve.batch.enabled", "true");
+        config.put("resolve.batch.window", "100");
+        final RemedyTicketerPlugin plugin = new RemedyTicketerPlugin(new RemedyTicketerPluginTest.MockConfigurationAdmin(config));
+        final StubIncidentPort stub = new StubIncidentPort(operation -> 0);
+        plugin.readPort = stub;
+        plugin.createPort = stub;
+        try {
+            final List<CompletableFuture<String>> results = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                final Ticket ticket = ImmutableTicket.newBuilder()
+                        .setId(String.format("INC%012d", i))
+                        .setAlarmId(i)
+                        .setState(Ticket.State.CLOSED)
+                        .setSummary("Cleared")
+                        .build();
+                results.add(plugin.saveOrUpdateAsync(ticket));
+            }
+            for (int i = 0; i < 20; i++) {
+                assertEquals(String.format("INC%012d", i), results.get(i).get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, plugin.getCallRecorder().getLatency(RemedyTicketerPlugin.OPERATION_QUERY_LIST).getCount());
+            assertEquals(20, plugin.getCallRecorder().getLatency(RemedyTicketerPlugin.OPERATION_MODIFY).getCount());
+            assertNull(plugin.getCallRecorder().getLatency(RemedyTicketerPlugin.OPERATION_QUERY));
+        } finally {
+            plugin.destroy();
+            stub.shutdown();
+        }
+    }
+
+    private static GetListOutputMap.GetListValues values(final String incidentNumber, final StatusType status) {
+        final GetListOutputMap.GetListValues values = new GetListOutputMap.GetListValues();
+        values.setIncidentNumber(incidentNumber);
+        values.setSummary(incidentNumber);
+        values.setStatus(status);
+        values.setUrgency("4-Low");
+        return values;
+    }
+}
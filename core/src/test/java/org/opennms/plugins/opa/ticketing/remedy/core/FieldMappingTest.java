@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+package org.opennms.plugins.opa.ticketing.remedy.core;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.bind.JAXBContext;
+
+import org.junit.jupiter.api.Test;
+import org.opennms.integration.api.v1.ticketing.Ticket;
+import org.opennms.integration.api.v1.ticketing.immutables.ImmutableTicket;
+import org.opennms.integration.remedy.ticketservice.AuthenticationInfo;
+import org.opennms.integration.remedy.ticketservice.CreateInputMap;
+import org.opennms.integration.remedy.ticketservice.ReportedSourceType;
+
+class FieldMappingTest {
+    @Test
+    void testFieldsAreMappedFromAttributes() {
+        final RemedyTicketerPlugin plugin = new RemedyTicketerPlugin(new RemedyTicketerPluginTest.MockConfigurationAdmin(mappingConfig()));
+        try {
+            final CreateInputMap mapped = plugin.getRemedyCreateInputMap(ticket("Critical", "Email", "db1"), new ArrayList<>());
+            assertEquals("1-Extensive/Widespread", mapped.getImpact());
+            assertEquals(ReportedSourceType.EMAIL, mapped.getReportedSource());
+            assertEquals("db1", mapped.getHPDCI());
+            assertEquals("Databases", mapped.getCategorizationTier1());
+            assertEquals("2-High", mapped.getUrgency());
+
+            // values missing from the table, or attributes missing from the ticket, fall back to the default
+            final CreateInputMap unmapped = plugin.getRemedyCreateInputMap(ticket("Warning", "No such source", null), new ArrayList<>());
+            assertEquals("4-Minor/Localized", unmapped.getImpact());
+            assertEquals(ReportedSourceType.fromValue(plugin.getConfigDao().getReportedSource()), unmapped.getReportedSource());
+            assertNull(unmapped.getHPDCI());
+            assertEquals("Databases", unmapped.getCategorizationTier1());
+            assertEquals(plugin.getConfigDao().getUrgency(), unmapped.getUrgency());
+        } finally {
+            plugin.destroy();
+        }
+    }
+
+    @Test
+    void testRendererWritesMappedFields() throws Exception {
+        final RemedyTicketerPlugin plugin = new RemedyTicketerPlugin(new RemedyTicketerPluginTest.MockConfigurationAdmin(mappingConfig()));
+        try {
+            final SubmitRenderer renderer = plugin.newSubmitRenderer(JAXBContext.newInstance(CreateInputMap.class, AuthenticationInfo.class), true);
+
+            // constant and default fields are part of the fragments, urgency is written per ticket
+            final CreateInputMap defaults = plugin.getRemedyCreateInputMap(ticket("Warning", null, null), new ArrayList<>());
+            defaults.setUrgency("2-High");
+            assertTrue(renderer.canRender(defaults));
+            final String xml = renderer.render(defaults);
+            assertTrue(xml.contains(">Databases<"), xml);
+            assertArrayEquals(renderer.marshal(defaults), xml.getBytes(StandardCharsets.UTF_8));
+
+            assertFalse(renderer.canRender(plugin.getRemedyCreateInputMap(ticket("Critical", null, null), new ArrayList<>())));
+            assertFalse(renderer.canRender(plugin.getRemedyCreateInputMap(ticket("Warning", null, "db1"), new ArrayList<>())));
+        } finally {
+            plugin.destroy();
+        }
+    }
+
+    @Test
+    void testInvalidMappingsAreRejected() {
+        assertTrue(FieldMapping.compile(Collections.singletonMap("endpoint", "http://localhost/")).isEmpty());
+        assertThrows(ConfigRetrievalException.class, () -> FieldMapping.compile(Collections.singletonMap("mapping.No_Such_Field.default", "x")));
+        assertThrows(ConfigRetrievalException.class, () -> FieldMapping.compile(Collections.singletonMap("mapping.Reported_Source.default", "Pigeon")));
+        assertThrows(ConfigRetrievalException.class, () -> FieldMapping.compile(Collections.singletonMap("mapping.WorkInfoAttachment1OrigSize.default", "1")));
+        assertThrows(ConfigRetrievalException.class, () -> FieldMapping.compile(Collections.singletonMap("mapping.Impact.value.Critical", "1-Extensive/Widespread")));
+        assertThrows(ConfigRetrievalException.class, () -> FieldMapping.compile(Collections.singletonMap("mapping.Impact.other", "x")));
+    }
+
+    private static Map<String, Object> mappingConfig() {
+        final Map<String, Object> config = new HashMap<>();
+        config.put("mapping.Impact.attribute", "severity");
+        config.put("mapping.Impact.value.Critical", "1-Extensive/Widespread");
+        config.put("mapping.Impact.default", "4-Minor/Localized");
+        config.put("mapping.Reported_Source.attribute", "source");
+        config.put("mapping.HPD_CI.attribute", "nodelabel");
+        config.put("mapping.Categorization_Tier_1.default", "Databases");
+        config.put("mapping.Urgency.attribute", "severity");
+        config.put("mapping.Urgency.value.Critical", "2-High");
+        return config;
+    }
+
+    private static Ticket ticket(final String severity, final String source, final String nodeLabel) {
+        final Map<String, String> attributes = new HashMap<>();
+        attributes.put("severity", severity);
+        if (source != null) {
+            attributes.put("source", source);
+        }
+        if (nodeLabel != null) {
+            attributes.put("nodelabel", nodeLabel);
+        }
+        return ImmutableTicket.newBuilder()
+                .setAlarmId(3)
+                .setState(Ticket.State.OPEN)
+                .setSummary("Test OpenNMS Integration")
+                .setDetails("Yo, this is a unit test ticket")
+                .setAttributes(attributes)
+                .build();
+    }
+}
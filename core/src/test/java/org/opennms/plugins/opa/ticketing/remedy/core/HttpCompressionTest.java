@@ -0,0 +1,172 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+package org.opennms.plugins.opa.ticketing.remedy.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.opennms.integration.api.v1.ticketing.Ticket;
+import org.opennms.integration.api.v1.ticketing.Ticket.State;
+import org.opennms.integration.api.v1.ticketing.immutables.ImmutableTicket;
+
+import com.sun.net.httpserver.HttpServer;
+
+class HttpCompressionTest {
+    private static final byte[] RESPONSE = ("<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\"><soapenv:Body>"
+            + "<ns0:HelpDesk_Submit_ServiceResponse xmlns:ns0=\"urn:HPD_IncidentInterface_Create_WS\" xmlns=\"HPD_IncidentInterface_WS\">"
+            + "<Incident_Number>hehehe</Incident_Number></ns0:HelpDesk_Submit_ServiceResponse></soapenv:Body></soapenv:Envelope>")
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final List<String> m_requestEncodings = Collections.synchronizedList(new ArrayList<>());
+    private final List<String> m_requests = Collections.synchronizedList(new ArrayList<>());
+
+    @Test
+    void testCompressedRequestsAndResponses() throws Exception {
+        final HttpServer server = startServer("gzip");
+        final Map<String, Object> config = new HashMap<>();
+        config.put("createendpoint", "http://localhost:" + server.getAddress().getPort() + "/");
+        config.put("endpoint.compression", "gzip");
+        config.put("endpoint.compression.threshold", "512");
+        final RemedyTicketerPlugin plugin = new RemedyTicketerPlugin(new RemedyTicketerPluginTest.MockConfigurationAdmin(config));
+        try {
+            assertEquals("hehehe", plugin.saveOrUpdate(ticket()));
+            assertEquals("hehehe", plugin.saveOrUpdateAsync(ticket()).get(5, TimeUnit.SECONDS));
+        } finally {
+            plugin.destroy();
+            server.stop(0);
+        }
+
+        assertEquals(Collections.nCopies(2, "gzip"), m_requestEncodings);
+        for (final String request : m_requests) {
+            assertTrue(request.contains("HelpDesk_Submit_Service"), request);
+        }
+
+        final HttpCompression compression = plugin.getCreateCompression();
+        assertEquals(2, compression.getRequestCount());
+        assertEquals(2, compression.getCompressedRequestCount());
+        assertEquals(m_requests.stream().mapToLong(request -> request.getBytes(StandardCharsets.UTF_8).length).sum(), compression.getRawBytesSent());
+        assertTrue(compression.getWireBytesSent() < compression.getRawBytesSent());
+        assertEquals(2, compression.getCompressedResponseCount());
+        assertEquals(2L * RESPONSE.length, compression.getRawBytesReceived());
+        assertTrue(compression.getWireBytesReceived() < compression.getRawBytesReceived());
+    }
+
+    @Test
+    void testRequestsBelowThresholdAreNotCompressed() throws Exception {
+        final HttpServer server = startServer("deflate");
+        final Map<String, Object> config = new HashMap<>();
+        config.put("createendpoint", "http://localhost:" + server.getAddress().getPort() + "/");
+        config.put("createendpoint.compression", "deflate");
+        config.put("createendpoint.compression.threshold", "1000000");
+        final RemedyTicketerPlugin plugin = new RemedyTicketerPlugin(new RemedyTicketerPluginTest.MockConfigurationAdmin(config));
+        try {
+            assertEquals("hehehe", plugin.saveOrUpdate(ticket()));
+        } finally {
+            plugin.destroy();
+            server.stop(0);
+        }
+
+        assertNull(plugin.getCompression());
+        assertEquals(Collections.singletonList(null), m_requestEncodings);
+        final HttpCompression compression = plugin.getCreateCompression();
+        assertEquals(0, compression.getCompressedRequestCount());
+        assertEquals(compression.getRawBytesSent(), compression.getWireBytesSent());
+        assertEquals(1, compression.getCompressedResponseCount());
+        assertEquals(RESPONSE.length, compression.getRawBytesReceived());
+    }
+
+    private static Ticket ticket() {
+        return ImmutableTicket.newBuilder()
+                .setAlarmId(3)
+                .setState(State.OPEN)
+                .setSummary("Test OpenNMS Integration")
+                .setDetails("Yo, this is a unit test ticket")
+                .build();
+    }
+
+    /**
+     * @param responseEncoding how to encode the responses, if the request accepts it
+     */
+    private HttpServer startServer(final String responseEncoding) throws IOException {
+        final HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            final String encoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+            m_requestEncodings.add(encoding);
+            final InputStream body = "gzip".equals(encoding) ? new GZIPInputStream(exchange.getRequestBody()) : exchange.getRequestBody();
+            m_requests.add(new String(readFully(body), StandardCharsets.UTF_8));
+
+            final String accepted = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            final ByteArrayOutputStream response = new ByteArrayOutputStream();
+            if (accepted != null && accepted.contains(responseEncoding)) {
+                exchange.getResponseHeaders().add("Content-Encoding", responseEncoding);
+                // raw deflate data, as sent by some servers
+                try (OutputStream out = "gzip".equals(responseEncoding) ? new GZIPOutputStream(response)
+                        : new DeflaterOutputStream(response, new Deflater(Deflater.DEFAULT_COMPRESSION, true))) {
+                    out.write(RESPONSE);
+                }
+            } else {
+                response.write(RESPONSE);
+            }
+            exchange.getResponseHeaders().add("Content-Type", "text/xml; charset=UTF-8");
+            exchange.sendResponseHeaders(200, response.size());
+            response.writeTo(exchange.getResponseBody());
+            exchange.close();
+        });
+        server.start();
+        return server;
+    }
+
+    private static byte[] readFully(final InputStream in) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+
+package org.opennms.plugins.opa.ticketing.remedy.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class InFlightRequestsTest {
+    private final InFlightRequests<String> inFlight = new InFlightRequests<>();
+
+    @Test
+    void testConcurrentQueriesShareOneCall() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        final CompletableFuture<String> response = new CompletableFuture<>();
+
+        final CompletableFuture<String> first = inFlight.queryAsync("INC1", () -> {
+            calls.incrementAndGet();
+            return response;
+        });
+        final CompletableFuture<String> second = inFlight.queryAsync("INC1", () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("second");
+        });
+        assertFalse(second.isDone());
+
+        response.complete("first");
+        assertEquals("first", first.get());
+        assertEquals("first", second.get());
+        assertEquals(1, calls.get());
+        assertEquals(1, inFlight.getSharedQueryCount());
+
+        // the call completed, so the next query is sent again
+        assertEquals("third", inFlight.query("INC1", () -> "third"));
+    }
+
+    @Test
+    void testModifiesOfAnIncidentAreSerialized() throws Exception {
+        final List<String> started = new ArrayList<>();
+        final CompletableFuture<String> firstModify = new CompletableFuture<>();
+        final CompletableFuture<String> staleQuery = new CompletableFuture<>();
+
+        final CompletableFuture<String> first = inFlight.modifyAsync("INC1", () -> {
+            started.add("first");
+            return firstModify;
+        });
+        inFlight.queryAsync("INC1", () -> staleQuery);
+        final CompletableFuture<String> second = inFlight.modifyAsync("INC1", () -> {
+            started.add("second");
+            // must not share the query that was in flight during the first modify
+            return inFlight.queryAsync("INC1", () -> CompletableFuture.completedFuture("fresh"));
+        });
+        final CompletableFuture<String> other = inFlight.modifyAsync("INC2", () -> {
+            started.add("other");
+            return CompletableFuture.completedFuture("other");
+        });
+
+        assertEquals(Arrays.asList("first", "other"), started);
+        firstModify.complete("first");
+        assertSame("first", first.get());
+        assertEquals("fresh", second.get());
+        assertEquals(Arrays.asList("first", "other", "second"), started);
+        assertTrue(other.isDone());
+        assertEquals(1, inFlight.getSerializedModifyCount());
+        assertEquals(0, inFlight.getSharedQueryCount());
+    }
+}
@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+
+package org.opennms.plugins.opa.ticketing.remedy.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import javax.activation.FileDataSource;
+
+import org.junit.jupiter.api.Test;
+
+class NotesBuilderTest {
+    @Test
+    void testStripHtml() {
+        final NotesBuilder notes = new NotesBuilder(0, true, 0)
+                .append("descr: ")
+                .appendContent("<p>Disk <b>full</b> on a&lt;b &amp; c &#65;&#x42;</p><script>x</script>if 1 < 2 &unknown; done");
+        assertEquals("descr: \nDisk full on a<b & c AB\nxif 1 < 2 &unknown; done", notes.getNotes());
+        assertEquals(0, notes.getOverflowChars());
+        assertNull(notes.getOverflowAttachment());
+    }
+
+    @Test
+    void testOnlyXmlCharactersAreDecoded() {
+        final NotesBuilder notes = new NotesBuilder(0, true, 0)
+                .appendContent("&#0;&#x1F;&#xD800;&#xDFFF;&#xFFFE;&#x110000;&#9;&#x41;&#xE000;&#x1F600;");
+        assertEquals("&#0;&#x1F;&#xD800;&#xDFFF;&#xFFFE;&#x110000;\tA\uE000\uD83D\uDE00", notes.getNotes());
+    }
+
+    @Test
+    void testTruncateBelowMarkerLength() {
+        final NotesBuilder notes = new NotesBuilder(5, false, 0).append("abcdefgh");
+        assertEquals(NotesBuilder.TRUNCATED_MARKER.substring(0, 5), notes.getNotes());
+        assertEquals(8, notes.getOverflowChars());
+
+        final NotesBuilder overflow = new NotesBuilder(5, false, 1024).append("abcdefgh");
+        assertEquals(5, overflow.getNotes().length());
+        overflow.getOverflowAttachment().close();
+    }
+
+    @Test
+    void testTruncateWithoutSplittingSurrogates() {
+        final int max = NotesBuilder.TRUNCATED_MARKER.length() + 5;
+        final String content = "\uD83D\uDE00 and some more content";
+        final NotesBuilder notes = new NotesBuilder(max, false, 0).append("abcd").appendContent(content);
+        assertEquals("abcd" + NotesBuilder.TRUNCATED_MARKER, notes.getNotes());
+        assertEquals(content.length(), notes.getOverflowChars());
+        assertNull(notes.getOverflowAttachment());
+    }
+
+    @Test
+    void testOverflowAttachment() throws Exception {
+        final StringBuilder details = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            details.append("line ").append(i).append('\n');
+        }
+        final int max = 1000;
+        final NotesBuilder notes = new NotesBuilder(max, false, 1024 * 1024).append("descr: ").appendContent(details.toString());
+
+        final String text = notes.getNotes();
+        assertEquals(max, text.length());
+        assertTrue(text.endsWith(NotesBuilder.OVERFLOW_MARKER));
+
+        final Path file;
+        try (WorkInfoAttachment attachment = notes.getOverflowAttachment()) {
+            assertEquals(NotesBuilder.OVERFLOW_ATTACHMENT_NAME, attachment.getName());
+            assertTrue(attachment.getSize() < details.length() / 2);
+            file = ((FileDataSource) attachment.getDataHandler().getDataSource()).getFile().toPath();
+            assertEquals(attachment.getSize(), Files.size(file));
+
+            final String kept = text.substring(0, text.length() - NotesBuilder.OVERFLOW_MARKER.length());
+            assertEquals("descr: " + details, kept + gunzip(attachment));
+        }
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    void testOverflowAttachmentIsCapped() throws Exception {
+        // random text barely compresses
+        final Random random = new Random(1);
+        final StringBuilder details = new StringBuilder();
+        for (int i = 0; i < 200000; i++) {
+            details.append(i % 7 == 0 ? "\uD83D\uDE00" : String.valueOf((char) (0x20 + random.nextInt(0x7000))));
+        }
+        final int maxSize = 50000;
+        final NotesBuilder notes = new NotesBuilder(100, false, maxSize).appendContent(details.toString());
+
+        try (WorkInfoAttachment attachment = notes.getOverflowAttachment()) {
+            assertTrue(attachment.getSize() <= maxSize, () -> attachment.getSize() + " bytes");
+            assertTrue(attachment.getSize() > maxSize / 2, () -> attachment.getSize() + " bytes");
+            final String kept = notes.getNotes().substring(0, notes.getNotes().length() - NotesBuilder.OVERFLOW_MARKER.length());
+            assertTrue(details.toString().startsWith(kept + gunzip(attachment)));
+        }
+    }
+
+    private static String gunzip(final WorkInfoAttachment attachment) throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = new GZIPInputStream(attachment.getDataHandler().getInputStream())) {
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
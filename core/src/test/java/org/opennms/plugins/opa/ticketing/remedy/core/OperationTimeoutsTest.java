@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+
+package org.opennms.plugins.opa.ticketing.remedy.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.xml.namespace.QName;
+import javax.xml.ws.WebServiceException;
+
+import org.apache.cxf.endpoint.Client;
+import org.apache.cxf.interceptor.Fault;
+import org.apache.cxf.interceptor.Interceptor;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.apache.cxf.service.model.BindingOperationInfo;
+import org.junit.jupiter.api.Test;
+
+class OperationTimeoutsTest {
+    private final OperationTimeouts timeouts = new OperationTimeouts(99, 3, 100, 10000, 50, 5000);
+
+    @Test
+    void testAdaptiveTimeoutFollowsObservedLatency() {
+        timeouts.setTimeout("query", OperationTimeouts.ADAPTIVE);
+        timeouts.setTimeout("submit", 60000);
+
+        // too few calls to go by
+        assertEquals(10000, timeouts.getTimeout("query"));
+        for (int i = 0; i < OperationTimeouts.MIN_SAMPLES; i++) {
+            timeouts.record("query", TimeUnit.MILLISECONDS.toNanos(200));
+        }
+        assertEquals(600, timeouts.getTimeout("query"));
+
+        // clamped to the lower bound
+        for (int i = 0; i < 50; i++) {
+            timeouts.record("query", TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        assertEquals(100, timeouts.getTimeout("query"));
+
+        assertEquals(60000, timeouts.getTimeout("submit"));
+        assertEquals(0, timeouts.getTimeout("modify"));
+    }
+
+    @Test
+    void testTimedOutCallsRaiseAdaptiveTimeout() {
+        timeouts.setTimeout("query", OperationTimeouts.ADAPTIVE);
+        for (int i = 0; i < OperationTimeouts.MIN_SAMPLES; i++) {
+            timeouts.record("query", TimeUnit.MILLISECONDS.toNanos(200));
+        }
+        assertEquals(600, timeouts.getTimeout("query"));
+
+        // the server slows down: only the timed-out calls would see it
+        timeouts.recordTimeout("query", TimeUnit.MILLISECONDS.toNanos(550));
+        assertEquals(1800, timeouts.getTimeout("query"));
+        timeouts.recordTimeout("query", TimeUnit.MILLISECONDS.toNanos(1700));
+        assertEquals(5400, timeouts.getTimeout("query"));
+        timeouts.recordTimeout("query", 0);
+        assertEquals(10000, timeouts.getTimeout("query"));
+    }
+
+    @Test
+    void testIsTimeout() {
+        assertTrue(OperationTimeouts.isTimeout(new WebServiceException(new Fault(new SocketTimeoutException("Read timed out")))));
+        assertTrue(OperationTimeouts.isTimeout(new ExecutionException(new TimeoutException())));
+        assertFalse(OperationTimeouts.isTimeout(new WebServiceException(new Fault(new ConnectException("Connection refused")))));
+        assertFalse(OperationTimeouts.isTimeout(null));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testTimeoutIsAppliedPerCall() {
+        timeouts.setTimeout("HelpDesk_Query_Service", 1500);
+
+        final List<Interceptor<? extends Message>> interceptors = new ArrayList<>();
+        final Client client = mock(Client.class);
+        when(client.getOutInterceptors()).thenReturn(interceptors);
+        timeouts.install(client);
+
+        final Message query = newMessage("HelpDesk_Query_Service");
+        final Message modify = newMessage("HelpDesk_Modify_Service");
+        for (final Interceptor<? extends Message> interceptor : interceptors) {
+            ((Interceptor<Message>) interceptor).handleMessage(query);
+            ((Interceptor<Message>) interceptor).handleMessage(modify);
+        }
+        assertEquals(1500L, query.get(Message.RECEIVE_TIMEOUT));
+        assertEquals(5000L, query.get(Message.CONNECTION_TIMEOUT));
+        assertFalse(modify.containsKey(Message.RECEIVE_TIMEOUT));
+    }
+
+    private static Message newMessage(final String operation) {
+        final BindingOperationInfo info = mock(BindingOperationInfo.class);
+        when(info.getName()).thenReturn(new QName("urn:HPD_IncidentInterface_WS", operation));
+        final Exchange exchange = new ExchangeImpl();
+        exchange.put(BindingOperationInfo.class, info);
+        final Message message = new MessageImpl();
+        message.setExchange(exchange);
+        return message;
+    }
+}
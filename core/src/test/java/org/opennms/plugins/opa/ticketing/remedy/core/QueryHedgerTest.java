@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+
+package org.opennms.plugins.opa.ticketing.remedy.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.opennms.plugins.opa.ticketing.remedy.core.diagnostics.LatencyHistogram;
+
+class QueryHedgerTest {
+    private final LatencyHistogram observed = new LatencyHistogram();
+    private QueryHedger hedger;
+
+    @AfterEach
+    void tearDown() {
+        hedger.shutdown();
+    }
+
+    @Test
+    void testSlowRequestIsHedged() throws Exception {
+        hedger = new QueryHedger(95, 1, 100);
+        observed.record(TimeUnit.MILLISECONDS.toNanos(5));
+
+        final CompletableFuture<String> fast = hedger.hedge(observed, () -> CompletableFuture.completedFuture("primary"), () -> CompletableFuture.completedFuture("hedge"));
+        assertEquals("primary", fast.get(1, TimeUnit.SECONDS));
+
+        final CompletableFuture<String> slow = hedger.hedge(observed, CompletableFuture::new, () -> CompletableFuture.completedFuture("hedge"));
+        assertEquals("hedge", slow.get(1, TimeUnit.SECONDS));
+
+        assertEquals(2, hedger.getRequestCount());
+        assertEquals(1, hedger.getHedgeCount());
+        assertEquals(1, hedger.getHedgeWinCount());
+        assertEquals(0.5, hedger.getHedgeRate());
+        assertEquals(1.0, hedger.getWinRate());
+    }
+
+    @Test
+    void testHedgingIsLimitedByBudget() throws Exception {
+        hedger = new QueryHedger(95, 1, 2);
+        observed.record(TimeUnit.MILLISECONDS.toNanos(1));
+
+        // the initial burst is the budget
+        for (int i = 0; i < 2; i++) {
+            assertEquals("hedge", hedger.hedge(observed, CompletableFuture::new, () -> CompletableFuture.completedFuture("hedge")).get(1, TimeUnit.SECONDS));
+        }
+
+        final CompletableFuture<String> primary = new CompletableFuture<>();
+        final CompletableFuture<String> result = hedger.hedge(observed, () -> primary, () -> CompletableFuture.completedFuture("hedge"));
+        Thread.sleep(50);
+        assertFalse(result.isDone());
+        assertEquals(2, hedger.getHedgeCount());
+
+        primary.complete("primary");
+        assertEquals("primary", result.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testNoBudgetNeverHedges() throws Exception {
+        hedger = new QueryHedger(95, 1, 0);
+        observed.record(TimeUnit.MILLISECONDS.toNanos(1));
+
+        final CompletableFuture<String> primary = new CompletableFuture<>();
+        final CompletableFuture<String> result = hedger.hedge(observed, () -> primary, () -> CompletableFuture.completedFuture("hedge"));
+        Thread.sleep(50);
+        assertFalse(result.isDone());
+        assertEquals(0, hedger.getHedgeCount());
+
+        primary.complete("primary");
+        assertEquals("primary", result.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testLosingAttemptIsCancelled() throws Exception {
+        hedger = new QueryHedger(95, 1, 100);
+        observed.record(TimeUnit.MILLISECONDS.toNanos(1));
+
+        final CompletableFuture<String> primary = new CompletableFuture<>();
+        assertEquals("hedge", hedger.hedge(observed, () -> primary, () -> CompletableFuture.completedFuture("hedge")).get(1, TimeUnit.SECONDS));
+        assertThrows(CancellationException.class, () -> primary.get(1, TimeUnit.SECONDS));
+
+        final CompletableFuture<String> hedge = new CompletableFuture<>();
+        final CountDownLatch hedged = new CountDownLatch(1);
+        final CompletableFuture<String> slow = new CompletableFuture<>();
+        final CompletableFuture<String> result = hedger.hedge(observed, () -> slow, () -> {
+            hedged.countDown();
+            return hedge;
+        });
+        assertTrue(hedged.await(1, TimeUnit.SECONDS));
+        slow.complete("primary");
+        assertEquals("primary", result.get(1, TimeUnit.SECONDS));
+        assertThrows(CancellationException.class, () -> hedge.get(1, TimeUnit.SECONDS));
+    }
+}
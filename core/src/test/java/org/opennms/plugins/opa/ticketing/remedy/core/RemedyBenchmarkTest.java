@@ -0,0 +1,225 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+
+package org.opennms.plugins.opa.ticketing.remedy.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.opennms.integration.api.v1.ticketing.Ticket;
+import org.opennms.integration.api.v1.ticketing.immutables.ImmutableTicket;
+import org.opennms.plugins.opa.ticketing.remedy.core.capture.CaptureReader;
+import org.opennms.plugins.opa.ticketing.remedy.core.capture.CaptureRecord;
+import org.opennms.plugins.opa.ticketing.remedy.core.capture.CaptureReplayer;
+
+class RemedyBenchmarkTest {
+    @Test
+    void testBenchmarkAgainstStub() throws Exception {
+        final RemedyTicketerPlugin template = new RemedyTicketerPlugin(new RemedyTicketerPluginTest.MockConfigurationAdmin());
+        final RemedyTicketerPlugin plugin = RemedyBenchmark.newStubPlugin(template, 1);
+        try {
+            final RemedyBenchmark benchmark = new RemedyBenchmark(plugin);
+
+            final RemedyBenchmark.Result created = benchmark.run(RemedyBenchmark.Operation.CREATE, null, 20, 4);
+            assertEquals(20, created.getCount());
+            assertEquals(0, created.getErrors(), () -> String.valueOf(created.getFirstError()));
+            assertEquals(20, created.getLatency().getCount());
+            assertTrue(created.getLatency().getPercentileMicros(50) >= 1000);
+            assertTrue(created.getThroughput() > 0);
+
+            final RemedyBenchmark.Result queried = benchmark.run(RemedyBenchmark.Operation.QUERY, "INC000000000001", 10, 1);
+            assertEquals(0, queried.getErrors());
+            assertNull(queried.getFirstError());
+            assertEquals(10, plugin.getCallRecorder().getLatency(RemedyTicketerPlugin.OPERATION_QUERY).getCount());
+
+            plugin.resetStats();
+            assertEquals(0, plugin.getCallRecorder().getLatency(RemedyTicketerPlugin.OPERATION_QUERY).getCount());
+            assertEquals(0, plugin.getInFlightRequests().getQueryCount());
+        } finally {
+            plugin.destroy();
+            template.destroy();
+        }
+    }
+
+    @Test
+    void testStubDoesNotShareLeases(@TempDir final Path tempDir) throws Exception {
+        final Map<String, Object> config = new HashMap<>();
+        config.put("ha.store", "file");
+        config.put("ha.file.directory", tempDir.toString());
+        final RemedyTicketerPlugin template = new RemedyTicketerPlugin(new RemedyTicketerPluginTest.MockConfigurationAdmin(config));
+        final RemedyTicketerPlugin plugin = RemedyBenchmark.newStubPlugin(template, 0);
+        try {
+            assertNotNull(template.getCoordinator());
+            assertNull(plugin.getCoordinator());
+
+            final RemedyBenchmark.Result created = new RemedyBenchmark(plugin).run(RemedyBenchmark.Operation.CREATE, null, 5, 1);
+            assertEquals(0, created.getErrors(), () -> String.valueOf(created.getFirstError()));
+            try (Stream<Path> leases = Files.list(tempDir)) {
+                assertEquals(0, leases.count());
+            }
+        } finally {
+            plugin.destroy();
+            template.destroy();
+        }
+    }
+
+    @Test
+    void testStubHedgesToStub() throws Exception {
+        final Map<String, Object> config = new HashMap<>();
+        config.put("hedge.enabled", "true");
+        config.put("hedge.endpoint", "http://127.0.0.1:9/arsys/services/ARService?server=hedge");
+        config.put("hedge.min-delay", "1");
+        final RemedyTicketerPlugin template = new RemedyTicketerPlugin(new RemedyTicketerPluginTest.MockConfigurationAdmin(config));
+        // fast until the hedge delay is known, then slow enough to be hedged
+        final AtomicInteger calls = new AtomicInteger();
+        final RemedyTicketerPlugin plugin = RemedyBenchmark.newStubPlugin(template,
+                operation -> TimeUnit.MILLISECONDS.toNanos(calls.incrementAndGet() <= OperationTimeouts.MIN_SAMPLES ? 1 : 100));
+        try {
+            final RemedyBenchmark.Result queried = new RemedyBenchmark(plugin).run(RemedyBenchmark.Operation.QUERY, "INC000000000001", OperationTimeouts.MIN_SAMPLES + 3, 1);
+            assertEquals(0, queried.getErrors(), () -> String.valueOf(queried.getFirstError()));
+            assertTrue(plugin.getHedger().getHedgeCount() > 0);
+            assertSame(plugin.readPort, plugin.hedgePort);
+        } finally {
+            plugin.destroy();
+            template.destroy();
+        }
+    }
+
+    @Test
+    void testRenderBenchmark() throws Exception {
+        final RemedyTicketerPlugin plugin = new RemedyTicketerPlugin(new RemedyTicketerPluginTest.MockConfigurationAdmin());
+        try {
+            final RemedyBenchmark.RenderResult result = RemedyBenchmark.runRender(plugin, 200, 100, 3);
+            assertEquals(200, result.getCount());
+            assertEquals(3, result.getRounds());
+            for (final RemedyBenchmark.RenderResult.Measurement measurement : Arrays.asList(result.getJaxb(), result.getRendered())) {
+                assertTrue(measurement.getElapsedNanos() > 0);
+                assertTrue(measurement.getElapsedDeviationNanos() >= 0);
+                assertTrue(measurement.getWrittenBytes() > 3 * 200 * 500, () -> String.valueOf(measurement.getWrittenBytes()));
+            }
+        } finally {
+            plugin.destroy();
+        }
+    }
+
+    @Test
+    void testMappingBenchmark() {
+        final Map<String, Object> config = new HashMap<>();
+        config.put("mapping.Impact.attribute", "severity");
+        config.put("mapping.Impact.value.Critical", "1-Extensive/Widespread");
+        config.put("mapping.Impact.default", "4-Minor/Localized");
+        config.put("mapping.HPD_CI.attribute", "nodelabel");
+        final RemedyTicketerPlugin plugin = new RemedyTicketerPlugin(new RemedyTicketerPluginTest.MockConfigurationAdmin(config));
+        try {
+            final RemedyBenchmark.MappingResult result = RemedyBenchmark.runMapping(plugin, 200, 100, 3);
+            assertEquals(200, result.getCount());
+            assertEquals(3, result.getRounds());
+            assertEquals(2, result.getFields());
+            assertTrue(result.getMapping().getElapsedNanos() > 0);
+            assertTrue(result.getRequest().getElapsedNanos() > 0);
+        } finally {
+            plugin.destroy();
+        }
+    }
+
+    @Test
+    void testCaptureAndReplay(@TempDir final Path tempDir) throws Exception {
+        final Path file = tempDir.resolve("capture.bin");
+        final RemedyTicketerPlugin plugin = new RemedyTicketerPlugin(new RemedyTicketerPluginTest.MockConfigurationAdmin(
+                Collections.singletonMap("capture.file", file.toString())));
+        final StubIncidentPort stub = new StubIncidentPort(operation -> TimeUnit.MILLISECONDS.toNanos(2));
+        plugin.readPort = stub;
+        plugin.createPort = stub;
+
+        final Ticket ticket = ImmutableTicket.newBuilder()
+                .setAlarmId(7)
+                .setState(Ticket.State.OPEN)
+                .setSummary("Capture summary")
+                .setDetails("Capture details")
+                .setIpAddress(InetAddress.getByName("192.168.1.1"))
+                .setAttributes(Collections.singletonMap("remedy.urgency", "2-High"))
+                .build();
+        final String incidentNumber;
+        try {
+            incidentNumber = plugin.saveOrUpdate(ticket);
+            plugin.getAsync(incidentNumber).get();
+        } finally {
+            plugin.destroy();
+            stub.shutdown();
+        }
+
+        final List<CaptureRecord> records = CaptureReader.readAll(file);
+        assertEquals(4, records.size(), records::toString);
+        assertEquals(CaptureRecord.Type.SAVE_OR_UPDATE, records.get(0).getType());
+        final Ticket captured = records.get(0).getTicket();
+        assertEquals(Integer.valueOf(7), captured.getAlarmId());
+        assertNull(captured.getId());
+        assertEquals("Capture details", captured.getDetails());
+        assertEquals(InetAddress.getByName("192.168.1.1"), captured.getIpAddress());
+        assertEquals("2-High", captured.getAttributes().get("remedy.urgency"));
+        assertEquals(CaptureRecord.Type.EXCHANGE, records.get(1).getType());
+        assertEquals(RemedyTicketerPlugin.OPERATION_SUBMIT, records.get(1).getOperation());
+        assertEquals(incidentNumber, records.get(1).getTicketId());
+        assertTrue(records.get(1).getDurationNanos() >= TimeUnit.MILLISECONDS.toNanos(2));
+        assertEquals(CaptureRecord.Type.GET, records.get(2).getType());
+        assertEquals(incidentNumber, records.get(2).getTicketId());
+        assertTrue(records.get(2).getOffsetNanos() >= records.get(1).getOffsetNanos());
+
+        final CaptureReplayer replayer = new CaptureReplayer(records);
+        assertEquals(2, replayer.getOperationCount());
+        final RemedyTicketerPlugin template = new RemedyTicketerPlugin(new RemedyTicketerPluginTest.MockConfigurationAdmin());
+        try {
+            final CaptureReplayer.Result result = replayer.replayAgainstStub(template, 0, 1);
+            assertEquals(2, result.getCount());
+            assertEquals(0, result.getErrors(), () -> String.valueOf(result.getFirstError()));
+            assertEquals(1, result.getLatency(CaptureRecord.Type.GET).getCount());
+            assertEquals(1, result.getLatency(CaptureRecord.Type.SAVE_OR_UPDATE).getCount());
+            // the stub answers after the captured latency
+            assertTrue(result.getLatency(CaptureRecord.Type.SAVE_OR_UPDATE).getMaxMicros() >= 1000);
+        } finally {
+            template.destroy();
+        }
+    }
+}
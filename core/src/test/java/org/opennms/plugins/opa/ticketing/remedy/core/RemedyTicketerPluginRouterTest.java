@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+
+package org.opennms.plugins.opa.ticketing.remedy.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Dictionary;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.opennms.integration.api.v1.ticketing.Ticket;
+import org.opennms.integration.api.v1.ticketing.Ticket.State;
+import org.opennms.integration.api.v1.ticketing.immutables.ImmutableTicket;
+import org.opennms.integration.remedy.ticketservice.AuthenticationInfo;
+import org.opennms.integration.remedy.ticketservice.CreateInputMap;
+import org.opennms.integration.remedy.ticketservice.CreateOutputMap;
+import org.opennms.integration.remedy.ticketservice.GetInputMap;
+import org.opennms.integration.remedy.ticketservice.GetOutputMap;
+import org.opennms.integration.remedy.ticketservice.HPDIncidentInterfaceCreateWSPortTypePortType;
+import org.opennms.integration.remedy.ticketservice.HPDIncidentInterfaceWSPortTypePortType;
+import org.opennms.integration.remedy.ticketservice.StatusType;
+import org.osgi.service.cm.ConfigurationException;
+
+class RemedyTicketerPluginRouterTest {
+    private RemedyTicketerPlugin defaultPlugin;
+    private RemedyTicketerPluginFactory factory;
+    private RemedyTicketerPluginRouter router;
+
+    @BeforeEach
+    void setup() {
+        defaultPlugin = mock(RemedyTicketerPlugin.class);
+        factory = new RemedyTicketerPluginFactory();
+        router = new RemedyTicketerPluginRouter(defaultPlugin, factory);
+    }
+
+    @Test
+    void testRoutesByAttributeAndPrefixesTicketId() throws Exception {
+        final Dictionary<String, Object> props = new RemedyTicketerPluginTest.MockConfiguration().getProperties();
+        props.put("felix.fileinstall.filename", "file:/opt/opennms/etc/org.opennms.plugins.opa.ticketing.remedy-customerA.cfg");
+        props.put("route.customer", "customer-?a");
+        factory.updated("org.opennms.plugins.opa.ticketing.remedy.1234", props);
+
+        final RemedyTicketerPlugin plugin = factory.getInstance("customerA").getPlugin();
+        plugin.readPort = mock(HPDIncidentInterfaceWSPortTypePortType.class);
+        plugin.createPort = mock(HPDIncidentInterfaceCreateWSPortTypePortType.class);
+
+        final CreateOutputMap outputMap = new CreateOutputMap();
+        outputMap.setIncidentNumber("INC0001");
+        when(plugin.createPort.helpDeskSubmitService(any(AuthenticationInfo.class), any(CreateInputMap.class))).thenReturn(outputMap);
+
+        final Ticket ticket = ImmutableTicket.newBuilder()
+                .setAlarmId(3)
+                .setState(State.OPEN)
+                .setSummary("Test OpenNMS Integration")
+                .addAttribute("customer", "customer-a")
+                .build();
+        assertEquals("customerA:INC0001", router.saveOrUpdate(ticket));
+
+        final GetOutputMap remedy = new GetOutputMap();
+        remedy.setStatus(StatusType.ASSIGNED);
+        remedy.setUrgency("4-Low");
+        when(plugin.readPort.helpDeskQueryService(any(), any())).thenReturn(remedy);
+
+        assertEquals("customerA:INC0001", router.get("customerA:INC0001").getId());
+        final ArgumentCaptor<GetInputMap> captor = ArgumentCaptor.forClass(GetInputMap.class);
+        verify(plugin.readPort).helpDeskQueryService(captor.capture(), any());
+        assertEquals("INC0001", captor.getValue().getIncidentNumber());
+        verifyNoInteractions(defaultPlugin);
+    }
+
+    @Test
+    void testUnmatchedTicketsUseDefaultPlugin() throws Exception {
+        final Dictionary<String, Object> props = new RemedyTicketerPluginTest.MockConfiguration().getProperties();
+        props.put("name", "customerA");
+        props.put("route.customer", "customer-?a");
+        factory.updated("org.opennms.plugins.opa.ticketing.remedy.1234", props);
+
+        final Ticket ticket = ImmutableTicket.newBuilder()
+                .setAlarmId(3)
+                .setState(State.OPEN)
+                .setSummary("Test OpenNMS Integration")
+                .addAttribute("customer", "customer-b")
+                .build();
+        when(defaultPlugin.saveOrUpdate(ticket)).thenReturn("INC0002");
+
+        assertEquals("INC0002", router.saveOrUpdate(ticket));
+    }
+
+    @Test
+    void testFirstMatchingInstanceByName() throws Exception {
+        for (final String name : new String[] { "zulu", "alpha", "mike" }) {
+            final Dictionary<String, Object> props = new RemedyTicketerPluginTest.MockConfiguration().getProperties();
+            props.put("name", name);
+            props.put("route.customer", "customer-.*");
+            factory.updated("org.opennms.plugins.opa.ticketing.remedy." + name, props);
+        }
+        final RemedyTicketerPlugin plugin = factory.getInstance("alpha").getPlugin();
+        plugin.createPort = mock(HPDIncidentInterfaceCreateWSPortTypePortType.class);
+        final CreateOutputMap outputMap = new CreateOutputMap();
+        outputMap.setIncidentNumber("INC0003");
+        when(plugin.createPort.helpDeskSubmitService(any(AuthenticationInfo.class), any(CreateInputMap.class))).thenReturn(outputMap);
+
+        final Ticket ticket = ImmutableTicket.newBuilder()
+                .setAlarmId(3)
+                .setState(State.OPEN)
+                .setSummary("Test OpenNMS Integration")
+                .addAttribute("customer", "customer-a")
+                .build();
+        assertEquals("alpha:INC0003", router.saveOrUpdate(ticket));
+        assertEquals(Arrays.asList("default", "alpha", "mike", "zulu"), new ArrayList<>(router.getPlugins().keySet()));
+    }
+
+    @Test
+    void testUnknownInstance() throws Exception {
+        final RemedyTicketerException e = assertThrows(RemedyTicketerException.class, () -> router.get("nobody:INC0001"));
+        assertEquals("No Remedy instance named 'nobody' is configured (nobody:INC0001)", e.getMessage());
+
+        final Dictionary<String, Object> props = new RemedyTicketerPluginTest.MockConfiguration().getProperties();
+        props.put("name", "bad:name");
+        assertThrows(ConfigurationException.class, () -> factory.updated("org.opennms.plugins.opa.ticketing.remedy.1234", props));
+
+        props.put("name", RemedyTicketerPluginRouter.DEFAULT_INSTANCE);
+        assertThrows(ConfigurationException.class, () -> factory.updated("org.opennms.plugins.opa.ticketing.remedy.1234", props));
+        props.remove("name");
+        props.put("felix.fileinstall.filename", "file:/opt/opennms/etc/org.opennms.plugins.opa.ticketing.remedy-default.cfg");
+        assertThrows(ConfigurationException.class, () -> factory.updated("org.opennms.plugins.opa.ticketing.remedy.1234", props));
+        assertEquals(0, factory.getInstances().size());
+    }
+}
@@ -30,31 +30,85 @@ package org.opennms.plugins.opa.ticketing.remedy.core;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Dictionary;
+import java.util.HashMap;
 import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import javax.activation.FileDataSource;
+import javax.xml.XMLConstants;
+import javax.xml.bind.JAXBContext;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.dom.DOMResult;
+import javax.xml.ws.AsyncHandler;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import javax.xml.ws.Response;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.stubbing.Answer;
 import org.opennms.integration.api.v1.ticketing.Ticket;
 import org.opennms.integration.api.v1.ticketing.Ticket.State;
 import org.opennms.integration.api.v1.ticketing.immutables.ImmutableTicket;
 import org.opennms.integration.remedy.ticketservice.AuthenticationInfo;
 import org.opennms.integration.remedy.ticketservice.CreateInputMap;
 import org.opennms.integration.remedy.ticketservice.CreateOutputMap;
+import org.opennms.integration.remedy.ticketservice.GetOutputMap;
 import org.opennms.integration.remedy.ticketservice.HPDIncidentInterfaceCreateWSPortTypePortType;
 import org.opennms.integration.remedy.ticketservice.HPDIncidentInterfaceWSPortTypePortType;
+import org.opennms.integration.remedy.ticketservice.ObjectFactory;
+import org.opennms.integration.remedy.ticketservice.SetInputMap;
+import org.opennms.integration.remedy.ticketservice.SetOutputMap;
+import org.opennms.integration.remedy.ticketservice.StatusType;
+import org.opennms.plugins.opa.ticketing.remedy.core.diagnostics.SoapCallRecorder;
+import org.opennms.plugins.opa.ticketing.remedy.core.ha.InMemoryLeaseStore;
+import org.opennms.plugins.opa.ticketing.remedy.core.tracing.Span;
+import org.opennms.plugins.opa.ticketing.remedy.core.tracing.SpanExporter;
 import org.osgi.framework.InvalidSyntaxException;
 import org.osgi.service.cm.Configuration;
 import org.osgi.service.cm.ConfigurationAdmin;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xml.sax.InputSource;
 
 import com.github.skjolber.mockito.soap.SoapServiceExtension;
+import com.sun.net.httpserver.HttpServer;
 
 class RemedyTicketerPluginTest {
     private HPDIncidentInterfaceWSPortTypePortType mockIncidentPort;
@@ -107,6 +161,126 @@ class RemedyTicketerPluginTest {
         assertEquals("hehehe", incidentNumber);
     }
 
+    @Test
+    @ExtendWith(SoapServiceExtension.class)
+    void testCreateNewTicketOnTwoNodes() throws Exception {
+        final InMemoryLeaseStore store = new InMemoryLeaseStore();
+        final RemedyTicketerPlugin node1 = new RemedyTicketerPlugin(new MockConfigurationAdmin());
+        final RemedyTicketerPlugin node2 = new RemedyTicketerPlugin(new MockConfigurationAdmin());
+        try {
+            for (final RemedyTicketerPlugin plugin : Arrays.asList(node1, node2)) {
+                plugin.readPort = mockIncidentPort;
+                plugin.createPort = mockIncidentCreatePort;
+                plugin.setLeaseStore(store);
+            }
+
+            final CreateOutputMap outputMap = new CreateOutputMap();
+            outputMap.setIncidentNumber("hehehe");
+            when(mockIncidentCreatePort.helpDeskSubmitService(any(AuthenticationInfo.class), any(CreateInputMap.class))).thenReturn(outputMap);
+
+            final Ticket ticket = ImmutableTicket.newBuilder()
+                    .setAlarmId(3)
+                    .setState(State.OPEN)
+                    .setSummary("Test OpenNMS Integration")
+                    .build();
+            assertEquals("hehehe", node1.saveOrUpdate(ticket));
+            assertEquals("hehehe", node2.saveOrUpdate(ticket));
+            assertEquals("hehehe", node2.saveOrUpdateAsync(ticket).get(5, TimeUnit.SECONDS));
+
+            verify(mockIncidentCreatePort, times(1)).helpDeskSubmitService(any(), any());
+            verify(mockIncidentCreatePort, never()).helpDeskSubmitServiceAsync(any(), any(), any());
+            assertEquals(2, node2.getCoordinator().getAdoptedCount());
+        } finally {
+            node1.destroy();
+            node2.destroy();
+        }
+    }
+
+    @Test
+    @ExtendWith(SoapServiceExtension.class)
+    void testCreateNewTicketIsTraced() throws Exception {
+        final RemedyTicketerPlugin plugin = new RemedyTicketerPlugin(new MockConfigurationAdmin());
+        plugin.readPort = mockIncidentPort;
+        plugin.createPort = mockIncidentCreatePort;
+
+        final List<Span> spans = new ArrayList<>();
+        plugin.setSpanExporters(Collections.<SpanExporter>singletonList(spans::add));
+
+        final Ticket ticket = ImmutableTicket.newBuilder()
+                .setAlarmId(3)
+                .setState(State.OPEN)
+                .setSummary("Test OpenNMS Integration")
+                .build();
+
+        final CreateOutputMap outputMap = new CreateOutputMap();
+        outputMap.setIncidentNumber("hehehe");
+        when(mockIncidentCreatePort.helpDeskSubmitService(any(AuthenticationInfo.class), any(CreateInputMap.class))).thenReturn(outputMap);
+
+        plugin.saveOrUpdate(ticket);
+
+        // children end before their parent
+        final Span root = spans.get(spans.size() - 1);
+        assertEquals(RemedyTicketerPlugin.SPAN_SAVE_OR_UPDATE, root.getName());
+        assertEquals(3, root.getAttributes().get(RemedyTicketerPlugin.SPAN_ATTRIBUTE_ALARM_ID));
+        assertEquals("hehehe", root.getAttributes().get(RemedyTicketerPlugin.SPAN_ATTRIBUTE_INCIDENT_NUMBER));
+
+        final List<Span> children = spans.subList(0, spans.size() - 1);
+        assertEquals(Arrays.asList(RemedyTicketerPlugin.SPAN_CONFIG, RemedyTicketerPlugin.SPAN_REQUEST,
+                RemedyTicketerPlugin.SPAN_SOAP_PREFIX + RemedyTicketerPlugin.OPERATION_SUBMIT, RemedyTicketerPlugin.SPAN_RESPONSE),
+                children.stream().map(Span::getName).collect(Collectors.toList()));
+        for (final Span child : children) {
+            assertEquals(root.getTraceId(), child.getTraceId());
+            assertEquals(root.getSpanId(), child.getParentSpanId());
+            assertTrue(child.getDurationNanos() >= 0);
+        }
+    }
+
+    @Test
+    @ExtendWith(SoapServiceExtension.class)
+    void testSoapCallsAreRecorded(@TempDir final Path tempDir) throws Exception {
+        final Map<String, Object> config = new HashMap<>();
+        config.put("diagnostics.slow-call.threshold", "0");
+        config.put("diagnostics.slow-call.capacity", "1");
+        final RemedyTicketerPlugin plugin = new RemedyTicketerPlugin(new MockConfigurationAdmin(config));
+        plugin.readPort = mockIncidentPort;
+        plugin.createPort = mockIncidentCreatePort;
+
+        final Ticket ticket = ImmutableTicket.newBuilder()
+                .setAlarmId(3)
+                .setState(State.OPEN)
+                .setSummary("Test OpenNMS Integration")
+                .build();
+
+        final CreateOutputMap outputMap = new CreateOutputMap();
+        outputMap.setIncidentNumber("hehehe");
+        when(mockIncidentCreatePort.helpDeskSubmitService(any(AuthenticationInfo.class), any(CreateInputMap.class))).thenReturn(outputMap);
+
+        final Path file = tempDir.resolve("remedy.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("org.opennms.plugins.opa.ticketing.remedy.SoapCall");
+            recording.start();
+            plugin.saveOrUpdate(ticket);
+            plugin.saveOrUpdate(ticket);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        final List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getEventType().getName().equals("org.opennms.plugins.opa.ticketing.remedy.SoapCall"))
+                .collect(Collectors.toList());
+        assertEquals(2, events.size());
+        assertEquals(RemedyTicketerPlugin.OPERATION_SUBMIT, events.get(0).getString("operation"));
+        assertEquals("hehehe", events.get(0).getString("incidentNumber"));
+        assertTrue(events.get(0).getBoolean("success"));
+
+        // only the most recent call is kept
+        final List<SoapCallRecorder.SlowCall> slowCalls = plugin.getCallRecorder().getSlowCalls();
+        assertEquals(1, slowCalls.size());
+        assertEquals("hehehe", slowCalls.get(0).getIncidentNumber());
+        assertTrue(slowCalls.get(0).getRequest().contains("Test OpenNMS Integration"), slowCalls.get(0).getRequest());
+        assertTrue(slowCalls.get(0).getResponse().contains("hehehe"), slowCalls.get(0).getResponse());
+    }
+
     @Test
     @ExtendWith(SoapServiceExtension.class)
     void testUpdateTicket() throws Exception {
@@ -133,7 +307,397 @@ class RemedyTicketerPluginTest {
         assertEquals("hehehe", incidentNumber);
     }
 
+    @Test
+    @ExtendWith(SoapServiceExtension.class)
+    void testUpdateTicketWithAttachment(@TempDir final Path attachmentDir) throws Exception {
+        final Path diagnostics = attachmentDir.resolve("diagnostics.txt");
+        Files.write(diagnostics, "alarm history\nalarm history\nalarm history\n".getBytes(StandardCharsets.UTF_8));
+
+        final RemedyTicketerPlugin plugin = new RemedyTicketerPlugin(new MockConfigurationAdmin(Collections.singletonMap("attachment.directory", attachmentDir.toString())));
+        plugin.readPort = mockIncidentPort;
+        plugin.createPort = mockIncidentCreatePort;
+
+        final GetOutputMap remedy = new GetOutputMap();
+        remedy.setStatus(StatusType.ASSIGNED);
+        remedy.setUrgency("4-Low");
+        when(mockIncidentPort.helpDeskQueryService(any(), any())).thenReturn(remedy);
+
+        final Ticket ticket = ImmutableTicket.newBuilder()
+                .setId("hehehe")
+                .setAlarmId(3)
+                .setState(State.OPEN)
+                .setSummary("Test OpenNMS Integration")
+                .setAttributes(Collections.singletonMap("remedy.attachment", "diagnostics.txt"))
+                .build();
+
+        assertEquals("hehehe", plugin.saveOrUpdate(ticket));
+
+        final ArgumentCaptor<SetInputMap> captor = ArgumentCaptor.forClass(SetInputMap.class);
+        verify(mockIncidentPort).helpDeskModifyService(captor.capture(), any(AuthenticationInfo.class));
+        assertEquals("diagnostics.txt.gz", captor.getValue().getWorkInfoAttachment1Name());
+        assertNotNull(captor.getValue().getWorkInfoAttachment1Data());
+        assertTrue(captor.getValue().getWorkInfoAttachment1OrigSize() > 0);
+    }
+
+    @Test
+    @ExtendWith(SoapServiceExtension.class)
+    void testUpdateTicketWithAttachmentAsync(@TempDir final Path attachmentDir) throws Exception {
+        Files.write(attachmentDir.resolve("diagnostics.txt"), "alarm history\nalarm history\nalarm history\n".getBytes(StandardCharsets.UTF_8));
+        final byte[] core = new byte[64 * 1024];
+        new Random(1).nextBytes(core);
+        Files.write(attachmentDir.resolve("core.bin"), core);
+
+        final Map<String, Object> config = new HashMap<>();
+        config.put("attachment.directory", attachmentDir.toString());
+        config.put("attachment.max-size", "4096");
+        final RemedyTicketerPlugin plugin = new RemedyTicketerPlugin(new MockConfigurationAdmin(config));
+        plugin.readPort = mockIncidentPort;
+        plugin.createPort = mockIncidentCreatePort;
+
+        final GetOutputMap remedy = new GetOutputMap();
+        remedy.setStatus(StatusType.ASSIGNED);
+        remedy.setUrgency("4-Low");
+        doAnswer(respondWith(remedy)).when(mockIncidentPort).helpDeskQueryServiceAsync(any(), any(), any());
+        final List<String> attachedOn = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            // the attachment is still there while the request is sent
+            final SetInputMap modify = invocation.getArgument(0);
+            attachedOn.add(((FileDataSource) modify.getWorkInfoAttachment1Data().getDataSource()).getFile().exists() ? modify.getWorkInfoAttachment1Name() : null);
+            return respondWith(new SetOutputMap()).answer(invocation);
+        }).when(mockIncidentPort).helpDeskModifyServiceAsync(any(), any(), any());
+
+        final Ticket ticket = ImmutableTicket.newBuilder()
+                .setId("hehehe")
+                .setAlarmId(3)
+                .setState(State.OPEN)
+                .setSummary("Test OpenNMS Integration")
+                .setAttributes(Collections.singletonMap("remedy.attachment", "diagnostics.txt"))
+                .build();
+        try {
+            assertEquals("hehehe", plugin.saveOrUpdateAsync(ticket).get(5, TimeUnit.SECONDS));
+            assertEquals(Collections.singletonList("diagnostics.txt.gz"), attachedOn);
+
+            final Ticket tooLarge = ImmutableTicket.newBuilderFrom(ticket).setAttributes(Collections.singletonMap("remedy.attachment", "core.bin")).build();
+            final ExecutionException e = assertThrows(ExecutionException.class, () -> plugin.saveOrUpdateAsync(tooLarge).get(5, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof RemedyTicketerException);
+            verify(mockIncidentPort).helpDeskModifyServiceAsync(any(), any(), any());
+        } finally {
+            plugin.destroy();
+        }
+    }
+
+    @Test
+    @ExtendWith(SoapServiceExtension.class)
+    void testMinimalModifySendsOnlyChangedFields() throws Exception {
+        final RemedyTicketerPlugin plugin = new RemedyTicketerPlugin(new MockConfigurationAdmin(Collections.singletonMap("modify.minimal", "true")));
+        plugin.readPort = mockIncidentPort;
+        plugin.createPort = mockIncidentCreatePort;
+
+        final GetOutputMap remedy = new GetOutputMap();
+        remedy.setStatus(StatusType.ASSIGNED);
+        remedy.setUrgency("4-Low");
+        remedy.setSummary("Test OpenNMS Integration");
+        remedy.setNotes("Notes edited in Remedy");
+        remedy.setCategorizationTier1("Edited");
+        when(mockIncidentPort.helpDeskQueryService(any(), any())).thenReturn(remedy);
+
+        final Ticket ticket = ImmutableTicket.newBuilder()
+                .setId("hehehe")
+                .setAlarmId(3)
+                .setState(State.CLOSED)
+                .setSummary("Test OpenNMS Integration")
+                .build();
+
+        assertEquals("hehehe", plugin.saveOrUpdate(ticket));
+
+        final ArgumentCaptor<SetInputMap> captor = ArgumentCaptor.forClass(SetInputMap.class);
+        verify(mockIncidentPort).helpDeskModifyService(captor.capture(), any(AuthenticationInfo.class));
+        final SetInputMap modify = captor.getValue();
+        assertEquals("hehehe", modify.getIncidentNumber());
+        assertEquals("MODIFY", modify.getAction());
+        assertEquals(StatusType.RESOLVED, modify.getStatus());
+        assertEquals(plugin.getConfigDao().getResolution(), modify.getResolution());
+        assertNotNull(modify.getStatusReason());
+        assertNotNull(modify.getUrgency());
+        assertNull(modify.getSummary());
+        assertNull(modify.getNotes());
+        assertNull(modify.getCategorizationTier1());
+        assertNull(modify.getWorkInfoDate());
+
+        // most of these elements are required by the schema; the AR server has to accept them left out
+        final DOMResult wire = new DOMResult();
+        JAXBContext.newInstance(ObjectFactory.class).createMarshaller().marshal(new ObjectFactory().createHelpDeskModifyService(modify), wire);
+        final List<String> elements = new ArrayList<>();
+        for (Node node = ((Document) wire.getNode()).getDocumentElement().getFirstChild(); node != null; node = node.getNextSibling()) {
+            assertNull(((Element) node).getAttributeNodeNS(XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI, "nil"), node.getLocalName());
+            elements.add(node.getLocalName());
+        }
+        assertEquals(Arrays.asList("Resolution", "Status", "Urgency", "Action", "Incident_Number", "Status_Reason"), elements);
+    }
+
+    @Test
+    @ExtendWith(SoapServiceExtension.class)
+    void testUpdateTicketRejectsAttachmentOutsideDirectory(@TempDir final Path tempDir) throws Exception {
+        final Path attachmentDir = Files.createDirectory(tempDir.resolve("attachments"));
+        Files.write(tempDir.resolve("secret.txt"), "nope".getBytes(StandardCharsets.UTF_8));
+
+        final RemedyTicketerPlugin plugin = new RemedyTicketerPlugin(new MockConfigurationAdmin(Collections.singletonMap("attachment.directory", attachmentDir.toString())));
+        plugin.readPort = mockIncidentPort;
+        plugin.createPort = mockIncidentCreatePort;
+
+        final GetOutputMap remedy = new GetOutputMap();
+        remedy.setStatus(StatusType.ASSIGNED);
+        remedy.setUrgency("4-Low");
+        when(mockIncidentPort.helpDeskQueryService(any(), any())).thenReturn(remedy);
+
+        final Ticket ticket = ImmutableTicket.newBuilder()
+                .setId("hehehe")
+                .setAlarmId(3)
+                .setState(State.OPEN)
+                .setSummary("Test OpenNMS Integration")
+                .setAttributes(Collections.singletonMap("remedy.attachment", "../secret.txt"))
+                .build();
+
+        assertThrows(RemedyTicketerException.class, () -> plugin.saveOrUpdate(ticket));
+        verify(mockIncidentPort, never()).helpDeskModifyService(any(), any());
+    }
+
+    @Test
+    @ExtendWith(SoapServiceExtension.class)
+    void testGetAsync() throws Exception {
+        final RemedyTicketerPlugin plugin = new RemedyTicketerPlugin(new MockConfigurationAdmin());
+        plugin.readPort = mockIncidentPort;
+        plugin.createPort = mockIncidentCreatePort;
+
+        final GetOutputMap remedy = new GetOutputMap();
+        remedy.setStatus(StatusType.RESOLVED);
+        remedy.setUrgency("4-Low");
+        remedy.setSummary("Test OpenNMS Integration");
+        doAnswer(respondWith(remedy)).when(mockIncidentPort).helpDeskQueryServiceAsync(any(), any(), any());
+
+        final Ticket ticket = plugin.getAsync("hehehe").get(5, TimeUnit.SECONDS);
+        assertEquals("hehehe", ticket.getId());
+        assertEquals(State.CLOSED, ticket.getState());
+        assertEquals("Test OpenNMS Integration", ticket.getSummary());
+
+        doAnswer(respondWith(null)).when(mockIncidentPort).helpDeskQueryServiceAsync(any(), any(), any());
+        final ExecutionException e = assertThrows(ExecutionException.class, () -> plugin.getAsync("12345").get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof RemedyTicketerException);
+        assertEquals("Unable to retrieve ticket, or ticket ID '12345' invalid.", e.getCause().getCause().getMessage());
+    }
+
+    @Test
+    @ExtendWith(SoapServiceExtension.class)
+    void testSaveOrUpdateAsync() throws Exception {
+        final RemedyTicketerPlugin plugin = new RemedyTicketerPlugin(new MockConfigurationAdmin());
+        plugin.readPort = mockIncidentPort;
+        plugin.createPort = mockIncidentCreatePort;
+
+        final CreateOutputMap outputMap = new CreateOutputMap();
+        outputMap.setIncidentNumber("hehehe");
+        doAnswer(respondWith(outputMap)).when(mockIncidentCreatePort).helpDeskSubmitServiceAsync(any(), any(), any());
+
+        final Ticket ticket = ImmutableTicket.newBuilder()
+                .setAlarmId(3)
+                .setState(State.OPEN)
+                .setSummary("Test OpenNMS Integration")
+                .build();
+        assertEquals("hehehe", plugin.saveOrUpdateAsync(ticket).get(5, TimeUnit.SECONDS));
+
+        final GetOutputMap remedy = new GetOutputMap();
+        remedy.setStatus(StatusType.ASSIGNED);
+        remedy.setUrgency("4-Low");
+        doAnswer(respondWith(remedy)).when(mockIncidentPort).helpDeskQueryServiceAsync(any(), any(), any());
+        doAnswer(respondWith(new SetOutputMap())).when(mockIncidentPort).helpDeskModifyServiceAsync(any(), any(), any());
+
+        final Ticket update = ImmutableTicket.newBuilderFrom(ticket).setId("hehehe").setState(State.CLOSED).build();
+        assertEquals("hehehe", plugin.saveOrUpdateAsync(update).get(5, TimeUnit.SECONDS));
+
+        final ArgumentCaptor<SetInputMap> captor = ArgumentCaptor.forClass(SetInputMap.class);
+        verify(mockIncidentPort).helpDeskModifyServiceAsync(captor.capture(), any(), any());
+        assertEquals(StatusType.RESOLVED, captor.getValue().getStatus());
+    }
+
+    @Test
+    @ExtendWith(SoapServiceExtension.class)
+    void testCreateNewTicketFromRenderedRequest() throws Exception {
+        final List<String> requests = Collections.synchronizedList(new ArrayList<>());
+        final HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            requests.add(new String(readFully(exchange.getRequestBody()), StandardCharsets.UTF_8));
+            final byte[] response = ("<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\"><soapenv:Body>"
+                    + "<ns0:HelpDesk_Submit_ServiceResponse xmlns:ns0=\"urn:HPD_IncidentInterface_Create_WS\" xmlns=\"HPD_IncidentInterface_WS\">"
+                    + "<Incident_Number>hehehe</Incident_Number></ns0:HelpDesk_Submit_ServiceResponse></soapenv:Body></soapenv:Envelope>")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "text/xml; charset=UTF-8");
+            exchange.sendResponseHeaders(200, response.length);
+            exchange.getResponseBody().write(response);
+            exchange.close();
+        });
+        server.start();
+
+        final Map<String, Object> config = new HashMap<>();
+        config.put("createendpoint", "http://localhost:" + server.getAddress().getPort() + "/");
+        config.put("submit.fast-path", "true");
+        config.put("submit.fast-path.verify", "true");
+        final RemedyTicketerPlugin plugin = new RemedyTicketerPlugin(new MockConfigurationAdmin(config));
+
+        final Ticket ticket = ImmutableTicket.newBuilder()
+                .setAlarmId(3)
+                .setState(State.OPEN)
+                .setSummary("Disk <full> & slow")
+                .setDetails("Yo, this is a unit test ticket")
+                .build();
+        try {
+            assertEquals("hehehe", plugin.saveOrUpdate(ticket));
+            assertEquals("hehehe", plugin.saveOrUpdateAsync(ticket).get(5, TimeUnit.SECONDS));
+        } finally {
+            plugin.destroy();
+            server.stop(0);
+        }
+
+        final SubmitRenderer renderer = plugin.getSubmitRenderer();
+        assertEquals(2, renderer.getRenderedCount());
+        assertEquals(0, renderer.getMismatchCount());
+
+        assertEquals(2, requests.size());
+        for (final String request : requests) {
+            final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setNamespaceAware(true);
+            final Document document = factory.newDocumentBuilder().parse(new InputSource(new StringReader(request)));
+            assertEquals("opennmstnn", document.getElementsByTagNameNS("*", "userName").item(0).getTextContent());
+            assertEquals(1, document.getElementsByTagNameNS("urn:HPD_IncidentInterface_Create_WS", "HelpDesk_Submit_Service").getLength());
+            assertEquals("Disk <full> & slow", document.getElementsByTagNameNS("*", "Summary").item(0).getTextContent());
+            assertEquals("TNnet", document.getElementsByTagNameNS("*", "Assigned_Group").item(0).getTextContent());
+            assertEquals("4-Low", document.getElementsByTagNameNS("*", "Urgency").item(0).getTextContent());
+        }
+    }
+
+    @Test
+    @ExtendWith(SoapServiceExtension.class)
+    void testNotesOverflowIsSentAsMtomAttachment() throws Exception {
+        final List<String> contentTypes = Collections.synchronizedList(new ArrayList<>());
+        final List<String> requests = Collections.synchronizedList(new ArrayList<>());
+        final HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            contentTypes.add(exchange.getRequestHeaders().getFirst("Content-Type"));
+            requests.add(new String(readFully(exchange.getRequestBody()), StandardCharsets.ISO_8859_1));
+            final byte[] response = ("<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\"><soapenv:Body>"
+                    + "<ns0:HelpDesk_Submit_ServiceResponse xmlns:ns0=\"urn:HPD_IncidentInterface_Create_WS\" xmlns=\"HPD_IncidentInterface_WS\">"
+                    + "<Incident_Number>hehehe</Incident_Number></ns0:HelpDesk_Submit_ServiceResponse></soapenv:Body></soapenv:Envelope>")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "text/xml; charset=UTF-8");
+            exchange.sendResponseHeaders(200, response.length);
+            exchange.getResponseBody().write(response);
+            exchange.close();
+        });
+        server.start();
+
+        final Map<String, Object> config = new HashMap<>();
+        config.put("createendpoint", "http://localhost:" + server.getAddress().getPort() + "/");
+        config.put("notes.max-length", "200");
+        config.put("notes.overflow-attachment", "true");
+        final RemedyTicketerPlugin plugin = new RemedyTicketerPlugin(new MockConfigurationAdmin(config));
+
+        final StringBuilder details = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            details.append("line ").append(i).append('\n');
+        }
+        final Ticket ticket = ImmutableTicket.newBuilder()
+                .setAlarmId(3)
+                .setState(State.OPEN)
+                .setSummary("Disk full")
+                .setDetails(details.toString())
+                .build();
+        try {
+            assertEquals("hehehe", plugin.saveOrUpdate(ticket));
+            assertEquals("hehehe", plugin.saveOrUpdateAsync(ticket).get(5, TimeUnit.SECONDS));
+        } finally {
+            plugin.destroy();
+            server.stop(0);
+        }
+
+        assertEquals(2, requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            assertTrue(contentTypes.get(i).startsWith("multipart/related"), contentTypes.get(i));
+            assertTrue(contentTypes.get(i).contains("application/xop+xml"), contentTypes.get(i));
+            final String request = requests.get(i);
+            assertTrue(request.contains("<WorkInfoAttachment1Name>" + NotesBuilder.OVERFLOW_ATTACHMENT_NAME + "</WorkInfoAttachment1Name>"));
+            assertTrue(request.matches("(?s).*<WorkInfoAttachment1Data><xop:Include [^>]*href=\"cid:[^\"]+\"[^>]*/></WorkInfoAttachment1Data>.*"), request);
+        }
+    }
+
+    private static byte[] readFully(final InputStream in) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Answer a generated {@code *Async} callback method by completing its {@link AsyncHandler} with the given value.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Answer<Object> respondWith(final T value) {
+        return invocation -> {
+            final AsyncHandler<T> handler = (AsyncHandler<T>) invocation.getArguments()[invocation.getArguments().length - 1];
+            final CompletableFuture<T> future = CompletableFuture.completedFuture(value);
+            handler.handleResponse(new CompletedResponse<>(future));
+            return future;
+        };
+    }
+
+    static class CompletedResponse<T> implements Response<T> {
+        private final CompletableFuture<T> future;
+
+        CompletedResponse(final CompletableFuture<T> future) {
+            this.future = future;
+        }
+
+        @Override
+        public Map<String, Object> getContext() {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public boolean cancel(final boolean mayInterruptIfRunning) {
+            return future.cancel(mayInterruptIfRunning);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return future.isCancelled();
+        }
+
+        @Override
+        public boolean isDone() {
+            return future.isDone();
+        }
+
+        @Override
+        public T get() throws InterruptedException, ExecutionException {
+            return future.get();
+        }
+
+        @Override
+        public T get(final long timeout, final TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            return future.get(timeout, unit);
+        }
+    }
+
     static class MockConfigurationAdmin implements ConfigurationAdmin {
+        private final Map<String, ?> overrides;
+
+        MockConfigurationAdmin() {
+            this(Collections.emptyMap());
+        }
+
+        MockConfigurationAdmin(final Map<String, ?> overrides) {
+            this.overrides = overrides;
+        }
+
         @Override
         public Configuration createFactoryConfiguration(String factoryPid) throws IOException {
             throw new IllegalStateException("not yet implemented!");
@@ -151,7 +715,9 @@ class RemedyTicketerPluginTest {
 
         @Override
         public Configuration getConfiguration(String pid) throws IOException {
-            return new MockConfiguration();
+            final MockConfiguration configuration = new MockConfiguration();
+            overrides.forEach(configuration.dict::put);
+            return configuration;
         }
 
         @Override
@@ -0,0 +1,217 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+
+package org.opennms.plugins.opa.ticketing.remedy.core;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.Marshaller;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.junit.jupiter.api.Test;
+import org.opennms.integration.api.v1.ticketing.Ticket;
+import org.opennms.integration.api.v1.ticketing.immutables.ImmutableTicket;
+import org.opennms.integration.remedy.ticketservice.AuthenticationInfo;
+import org.opennms.integration.remedy.ticketservice.CreateInputMap;
+import org.opennms.integration.remedy.ticketservice.WorkInfoTypeType;
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+
+import com.sun.net.httpserver.HttpServer;
+
+class SubmitRendererTest {
+    private static final JAXBContext CONTEXT = newContext();
+
+    private static final String SOAP_NAMESPACE = "http://schemas.xmlsoap.org/soap/envelope/";
+
+    private static JAXBContext newContext() {
+        try {
+            return JAXBContext.newInstance(CreateInputMap.class, AuthenticationInfo.class);
+        } catch (final Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Test
+    void testRenderedRequestsMatchJaxb() {
+        final RemedyTicketerPlugin plugin = new RemedyTicketerPlugin(new RemedyTicketerPluginTest.MockConfigurationAdmin());
+        final SubmitRenderer renderer = plugin.newSubmitRenderer(CONTEXT, true);
+
+        final Ticket ticket = ImmutableTicket.newBuilder()
+                .setAlarmId(3)
+                .setState(Ticket.State.OPEN)
+                .setSummary("Disk <full> & \"slow\" on 'db1'\r\n\t\u00E9\u20AC\uD83D\uDE00 ]]>")
+                .setDetails("<p>descr</p>\u0001")
+                .setUser("admin")
+                .build();
+        final CreateInputMap input = plugin.getRemedyCreateInputMap(ticket, new ArrayList<>());
+        assertTrue(renderer.canRender(input));
+        assertArrayEquals(renderer.marshal(input), renderer.render(input).getBytes(StandardCharsets.UTF_8));
+
+        // fields without a value are left out, empty ones are not
+        input.setNotes(null);
+        input.setAssignedGroup("");
+        assertArrayEquals(renderer.marshal(input), renderer.render(input).getBytes(StandardCharsets.UTF_8));
+
+        assertTrue(renderer.prepare(plugin.getRemedyAuthenticationHeader(), input));
+        assertEquals(1, renderer.getRenderedCount());
+        assertEquals(0, renderer.getMismatchCount());
+    }
+
+    @Test
+    void testHeaderMatchesJaxb() throws Exception {
+        final RemedyTicketerPlugin plugin = new RemedyTicketerPlugin(new RemedyTicketerPluginTest.MockConfigurationAdmin());
+        final SubmitRenderer renderer = plugin.newSubmitRenderer(CONTEXT, false);
+
+        final AuthenticationInfo header = plugin.getRemedyAuthenticationHeader();
+        final StringWriter expected = new StringWriter();
+        final XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(expected);
+        final Marshaller marshaller = CONTEXT.createMarshaller();
+        marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);
+        marshaller.marshal(new JAXBElement<>(SubmitRenderer.HEADER_ELEMENT, AuthenticationInfo.class, header), writer);
+        writer.flush();
+        assertEquals(expected.toString(), renderer.renderHeader());
+        assertTrue(renderer.canRender(header));
+
+        header.setPassword("another");
+        assertFalse(renderer.canRender(header));
+    }
+
+    @Test
+    void testRequestsWithOtherFieldsAreLeftToJaxb() {
+        final RemedyTicketerPlugin plugin = new RemedyTicketerPlugin(new RemedyTicketerPluginTest.MockConfigurationAdmin());
+        final SubmitRenderer renderer = plugin.newSubmitRenderer(CONTEXT, false);
+
+        final CreateInputMap input = plugin.getRemedyCreateInputMap(ImmutableTicket.newBuilder()
+                .setAlarmId(3)
+                .setState(Ticket.State.OPEN)
+                .setSummary("summary")
+                .build(), new ArrayList<>());
+        input.setWorkInfoType(WorkInfoTypeType.GENERAL_INFORMATION);
+        input.setWorkInfoAttachment1Name(NotesBuilder.OVERFLOW_ATTACHMENT_NAME);
+        assertFalse(renderer.canRender(input));
+        assertFalse(renderer.prepare(plugin.getRemedyAuthenticationHeader(), input));
+        assertEquals(1, renderer.getFallbackCount());
+        assertEquals(0, renderer.getRenderedCount());
+    }
+
+    @Test
+    void testRenderedRequestsOnTheWireMatchJaxb() throws Exception {
+        final Ticket ticket = ImmutableTicket.newBuilder()
+                .setAlarmId(3)
+                .setState(Ticket.State.OPEN)
+                .setSummary("Disk <full> & \"slow\" on 'db1' \u00E9\u20AC\uD83D\uDE00 ]]>")
+                .setDetails("<p>descr</p>")
+                .setUser("admin")
+                .build();
+
+        final List<String> jaxb = send(Collections.emptyMap(), ticket);
+        final Map<String, Object> config = new HashMap<>();
+        config.put("submit.fast-path", "true");
+        final List<String> rendered = send(config, ticket);
+
+        assertEquals(2, jaxb.size());
+        assertEquals(jaxb, rendered);
+        for (final String request : rendered) {
+            final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setNamespaceAware(true);
+            final Document document = factory.newDocumentBuilder().parse(new InputSource(new StringReader(request)));
+            assertEquals(1, document.getElementsByTagNameNS(SOAP_NAMESPACE, "Header").getLength());
+            assertEquals(1, document.getElementsByTagNameNS(SubmitRenderer.NAMESPACE, "AuthenticationInfo").getLength());
+            assertEquals(1, document.getElementsByTagNameNS(SOAP_NAMESPACE, "Body").getLength());
+            assertEquals(1, document.getElementsByTagNameNS(SubmitRenderer.NAMESPACE, "HelpDesk_Submit_Service").getLength());
+        }
+    }
+
+    /**
+     * Create a ticket once synchronously and once asynchronously through a real CXF client, and
+     * return the requests as they were received.
+     */
+    private static List<String> send(final Map<String, Object> properties, final Ticket ticket) throws Exception {
+        final List<String> requests = Collections.synchronizedList(new ArrayList<>());
+        final HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            requests.add(new String(readFully(exchange.getRequestBody()), StandardCharsets.UTF_8));
+            final byte[] response = ("<soapenv:Envelope xmlns:soapenv=\"" + SOAP_NAMESPACE + "\"><soapenv:Body>"
+                    + "<ns0:HelpDesk_Submit_ServiceResponse xmlns:ns0=\"urn:HPD_IncidentInterface_Create_WS\" xmlns=\"HPD_IncidentInterface_WS\">"
+                    + "<Incident_Number>INC1</Incident_Number></ns0:HelpDesk_Submit_ServiceResponse></soapenv:Body></soapenv:Envelope>")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "text/xml; charset=UTF-8");
+            exchange.sendResponseHeaders(200, response.length);
+            exchange.getResponseBody().write(response);
+            exchange.close();
+        });
+        server.start();
+
+        final Map<String, Object> config = new HashMap<>(properties);
+        config.put("createendpoint", "http://localhost:" + server.getAddress().getPort() + "/");
+        final RemedyTicketerPlugin plugin = new RemedyTicketerPlugin(new RemedyTicketerPluginTest.MockConfigurationAdmin(config));
+        try {
+            assertEquals("INC1", plugin.saveOrUpdate(ticket));
+            assertEquals("INC1", plugin.saveOrUpdateAsync(ticket).get(5, TimeUnit.SECONDS));
+        } finally {
+            plugin.destroy();
+            server.stop(0);
+        }
+        if (plugin.getSubmitRenderer() != null) {
+            assertEquals(2, plugin.getSubmitRenderer().getRenderedCount());
+        }
+        return requests;
+    }
+
+    private static byte[] readFully(final InputStream in) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+}
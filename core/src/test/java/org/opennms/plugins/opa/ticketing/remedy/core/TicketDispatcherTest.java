@@ -0,0 +1,189 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+
+package org.opennms.plugins.opa.ticketing.remedy.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+class TicketDispatcherTest {
+    private final List<String> started = new ArrayList<>();
+    private final CompletableFuture<String> blocker = new CompletableFuture<>();
+
+    private Supplier<CompletableFuture<String>> operation(final String name) {
+        return () -> {
+            started.add(name);
+            return CompletableFuture.completedFuture(name);
+        };
+    }
+
+    private Supplier<CompletableFuture<String>> blocking() {
+        return () -> blocker;
+    }
+
+    @Test
+    void testCriticalWorkIsServedFirst() throws Exception {
+        final TicketDispatcher dispatcher = new TicketDispatcher(1, 100, 60000, 4, TicketDispatcher.OverloadPolicy.DEFER, 10);
+        dispatcher.submit(4, "INC0", blocking());
+
+        final CompletableFuture<String> lowUpdate = dispatcher.submit(4, "INC1", operation("low update"));
+        dispatcher.submit(4, null, operation("low create"));
+        dispatcher.submit(1, "INC2", operation("critical update"));
+        dispatcher.submit(1, null, operation("critical create"));
+        assertEquals(4, dispatcher.getQueued());
+
+        blocker.complete("INC0");
+        assertEquals(Arrays.asList("critical create", "critical update", "low create", "low update"), started);
+        assertEquals("low update", lowUpdate.get());
+        assertEquals(1, dispatcher.getCreateQueueWait(1).getCount());
+        assertEquals(2, dispatcher.getUpdateQueueWait(4).getCount());
+    }
+
+    @Test
+    void testUpdatesOfATicketKeepTheirOrder() throws Exception {
+        final TicketDispatcher dispatcher = new TicketDispatcher(1, 100, 60000, 4, TicketDispatcher.OverloadPolicy.DEFER, 10);
+        dispatcher.submit(4, "INC0", blocking());
+
+        // the resolve must not be overtaken by the more urgent reopen, nor the reopen by the second resolve
+        final CompletableFuture<String> resolve = dispatcher.submit(4, "INC1", operation("resolve INC1"));
+        final CompletableFuture<String> reopen = dispatcher.submit(1, "INC1", operation("reopen INC1"));
+        dispatcher.submit(1, "INC1", operation("resolve INC1 again"));
+        dispatcher.submit(2, "INC2", operation("update INC2"));
+        assertEquals(2, dispatcher.getQueued());
+        assertFalse(resolve.isDone());
+
+        blocker.complete("INC0");
+        assertEquals(Arrays.asList("update INC2", "resolve INC1", "reopen INC1", "resolve INC1 again"), started);
+        assertEquals("reopen INC1", reopen.get());
+    }
+
+    @Test
+    void testLowUrgencyUpdatesAreDeferredAndCoalescedUnderOverload() throws Exception {
+        final TicketDispatcher dispatcher = new TicketDispatcher(1, 1, 60000, 3, TicketDispatcher.OverloadPolicy.DEFER, 10);
+        dispatcher.submit(1, "INC0", blocking());
+        dispatcher.submit(1, null, operation("critical create"));
+
+        // the queue is overloaded: low urgency updates are kept aside
+        final CompletableFuture<String> first = dispatcher.submit(4, "INC1", operation("first update"));
+        final CompletableFuture<String> second = dispatcher.submit(3, "INC1", operation("second update"));
+        dispatcher.submit(2, "INC2", operation("high update"));
+        assertEquals(1, dispatcher.getDeferred());
+        assertEquals(1, dispatcher.getCoalescedCount());
+        assertFalse(first.isDone());
+        assertFalse(second.isDone());
+
+        blocker.complete("INC0");
+        assertEquals(Arrays.asList("critical create", "high update", "second update"), started);
+        assertEquals(0, dispatcher.getDeferred());
+        // the superseded update completes with the one that ran for it
+        assertEquals("second update", first.get());
+        assertEquals("second update", second.get());
+    }
+
+    @Test
+    void testDroppedDeferredUpdatesFail() {
+        final TicketDispatcher dispatcher = new TicketDispatcher(1, 1, 60000, 4, TicketDispatcher.OverloadPolicy.DEFER, 1);
+        dispatcher.submit(1, "INC0", blocking());
+        dispatcher.submit(1, null, operation("critical create"));
+
+        final CompletableFuture<String> shed = dispatcher.submit(4, "INC1", operation("shed update"));
+        final CompletableFuture<String> dropped = dispatcher.submit(4, "INC2", operation("dropped update"));
+        final ExecutionException e = assertThrows(ExecutionException.class, shed::get);
+        assertTrue(e.getCause() instanceof RemedyTicketerException);
+        assertFalse(dropped.isDone());
+
+        dispatcher.shutdown();
+        assertThrows(ExecutionException.class, dropped::get);
+        assertTrue(started.isEmpty());
+    }
+
+    @Test
+    void testLowUrgencyUpdatesAreShedUnderOverload() {
+        final TicketDispatcher dispatcher = new TicketDispatcher(1, 1, 60000, 4, TicketDispatcher.OverloadPolicy.SHED, 10);
+        dispatcher.submit(1, "INC0", blocking());
+        dispatcher.submit(1, null, operation("critical create"));
+
+        final ExecutionException e = assertThrows(ExecutionException.class, () -> dispatcher.submit(4, "INC1", operation("low update")).get());
+        assertTrue(e.getCause() instanceof RemedyTicketerException);
+        assertEquals(1, dispatcher.getShedCount());
+
+        // creates are never shed
+        dispatcher.submit(4, null, operation("low create"));
+        blocker.complete("INC0");
+        assertEquals(Arrays.asList("critical create", "low create"), started);
+    }
+
+    @Test
+    void testGroupsShareCapacityByWeight() {
+        final TicketDispatcher dispatcher = new TicketDispatcher(1, 100, 60000, 4, TicketDispatcher.OverloadPolicy.DEFER, 10);
+        dispatcher.setGroup("Tetranet", 1, 1);
+        dispatcher.setGroup("TNnet", 2, 1);
+        dispatcher.submit("Tetranet", 4, "INC0", blocking());
+
+        // the noisy group queues its work first
+        for (int i = 0; i < 6; i++) {
+            dispatcher.submit("Tetranet", 4, "INC-A" + i, operation("Tetranet"));
+        }
+        for (int i = 0; i < 6; i++) {
+            dispatcher.submit("TNnet", 4, "INC-B" + i, operation("TNnet"));
+        }
+
+        blocker.complete("INC0");
+        assertEquals(Arrays.asList("TNnet", "TNnet", "Tetranet", "TNnet", "TNnet", "Tetranet"), started.subList(0, 6));
+        for (final TicketDispatcher.GroupStats group : dispatcher.getGroupStats()) {
+            assertEquals(group.getName().equals("Tetranet") ? 7 : 6, group.getDispatched());
+            assertEquals(group.getDispatched(), group.getQueueWait().getCount());
+        }
+    }
+
+    @Test
+    void testCappedGroupLeavesCapacityToOthers() {
+        final TicketDispatcher dispatcher = new TicketDispatcher(2, 100, 60000, 4, TicketDispatcher.OverloadPolicy.DEFER, 10);
+        dispatcher.setGroup("Tetranet", 10, 1);
+        dispatcher.submit("Tetranet", 4, "INC0", blocking());
+        dispatcher.submit("Tetranet", 4, "INC1", operation("Tetranet"));
+        dispatcher.submit("TNnet", 4, "INC2", operation("TNnet"));
+
+        // Tetranet is at its cap, so the free slot goes to TNnet despite the weights
+        assertEquals(Arrays.asList("TNnet"), started);
+        assertEquals(1, dispatcher.getQueued());
+        blocker.complete("INC0");
+        assertEquals(Arrays.asList("TNnet", "Tetranet"), started);
+    }
+}
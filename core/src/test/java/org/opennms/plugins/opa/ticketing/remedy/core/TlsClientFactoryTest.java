@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+
+package org.opennms.plugins.opa.ticketing.remedy.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.Dictionary;
+import java.util.Hashtable;
+
+import org.apache.cxf.configuration.jsse.TLSClientParameters;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TlsClientFactoryTest {
+    @Test
+    void testSharedParametersPerStrictness() {
+        final Dictionary<String, Object> properties = new Hashtable<>();
+        properties.put("endpoint.strict-ssl", "true");
+        properties.put("tls.session.cache-size", "10");
+        assertTrue(new DefaultRemedyConfigDao(properties).getCreateStrictSsl());
+        properties.put("createendpoint.strict-ssl", "false");
+        final DefaultRemedyConfigDao configDao = new DefaultRemedyConfigDao(properties);
+        assertTrue(configDao.getStrictSsl());
+        assertFalse(configDao.getCreateStrictSsl());
+
+        final TlsClientFactory factory = new TlsClientFactory(configDao);
+        final TLSClientParameters strict = factory.getClientParameters(true);
+        final TLSClientParameters lenient = factory.getClientParameters(false);
+        assertSame(strict, factory.getClientParameters(true));
+        assertSame(lenient, factory.getClientParameters(false));
+        assertNotSame(strict.getSslContext(), lenient.getSslContext());
+        assertFalse(strict.isDisableCNCheck());
+        assertTrue(lenient.isDisableCNCheck());
+        assertEquals(10, strict.getSslContext().getClientSessionContext().getSessionCacheSize());
+    }
+
+    @Test
+    void testMissingTruststore(@TempDir final Path tempDir) {
+        final Dictionary<String, Object> properties = new Hashtable<>();
+        properties.put("tls.truststore", tempDir.resolve("missing.jks").toString());
+        final TlsClientFactory factory = new TlsClientFactory(new DefaultRemedyConfigDao(properties));
+        assertThrows(RemedyTicketerException.class, () -> factory.getClientParameters(true));
+        // the truststore is only used to verify servers
+        factory.getClientParameters(false);
+    }
+}
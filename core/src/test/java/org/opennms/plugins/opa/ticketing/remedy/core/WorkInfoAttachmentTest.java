@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+
+package org.opennms.plugins.opa.ticketing.remedy.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import javax.activation.FileDataSource;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class WorkInfoAttachmentTest {
+    @Test
+    void testCompressedAttachment(@TempDir final Path tempDir) throws Exception {
+        final Path source = tempDir.resolve("diagnostics.txt");
+        final byte[] content = new byte[1024 * 1024];
+        Files.write(source, content);
+
+        final Path compressed;
+        try (WorkInfoAttachment attachment = WorkInfoAttachment.fromFile(source, 64 * 1024, true)) {
+            assertEquals("diagnostics.txt.gz", attachment.getName());
+            compressed = ((FileDataSource) attachment.getDataHandler().getDataSource()).getFile().toPath();
+            assertEquals(Files.size(compressed), attachment.getSize());
+            assertTrue(attachment.getSize() < 64 * 1024);
+        }
+        assertFalse(Files.exists(compressed));
+    }
+
+    @Test
+    void testCompressionStopsAtMaxSize(@TempDir final Path tempDir) throws Exception {
+        // random content does not compress
+        final Path source = tempDir.resolve("core.bin");
+        final byte[] content = new byte[4 * 1024 * 1024];
+        new Random(1).nextBytes(content);
+        Files.write(source, content);
+
+        final RemedyTicketerException e = assertThrows(RemedyTicketerException.class, () -> WorkInfoAttachment.fromFile(source, 64 * 1024, true));
+        assertEquals("Attachment core.bin exceeds the maximum of 65536 bytes when compressed", e.getMessage());
+        assertThrows(RemedyTicketerException.class, () -> WorkInfoAttachment.fromFile(source, 64 * 1024, false));
+    }
+}
@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+
+package org.opennms.plugins.opa.ticketing.remedy.core.ha;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class JdbcLeaseStoreTest {
+    private String url;
+    private Connection keepAlive;
+    private JdbcLeaseStore node1;
+    private JdbcLeaseStore node2;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        url = "jdbc:h2:mem:" + UUID.randomUUID();
+        // the in-memory database lives as long as a connection to it is open
+        keepAlive = DriverManager.getConnection(url, "sa", "");
+        try (Statement statement = keepAlive.createStatement()) {
+            statement.execute("CREATE TABLE remedy_lease ("
+                    + " lease_key VARCHAR(255) PRIMARY KEY,"
+                    + " owner VARCHAR(255) NOT NULL,"
+                    + " expires BIGINT NOT NULL,"
+                    + " result VARCHAR(255))");
+        }
+        node1 = new JdbcLeaseStore(url, "sa", "", JdbcLeaseStore.DEFAULT_TABLE);
+        node2 = new JdbcLeaseStore(url, "sa", "", JdbcLeaseStore.DEFAULT_TABLE);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        node1.close();
+        node2.close();
+        keepAlive.close();
+    }
+
+    @Test
+    void testClaim() throws Exception {
+        assertTrue(node1.claim("create:7", "node1", 1000, 2000));
+
+        final Lease lease = node2.get("create:7", 1000);
+        assertEquals("node1", lease.getOwner());
+        assertEquals(2000, lease.getExpires());
+        assertNull(lease.getResult());
+        assertNull(node2.get("create:7", 2000));
+    }
+
+    @Test
+    void testSecondNodeLosesInsertRace() throws Exception {
+        assertTrue(node1.claim("create:7", "node1", 1000, 2000));
+        // no expired lease to take over, and the insert hits the primary key
+        assertFalse(node2.claim("create:7", "node2", 1500, 2500));
+        assertEquals("node1", node2.get("create:7", 1500).getOwner());
+
+        // the failed insert does not break the connection for the next operation
+        assertTrue(node2.claim("create:8", "node2", 1500, 2500));
+    }
+
+    @Test
+    void testExpiredLeaseIsTakenOver() throws Exception {
+        assertTrue(node1.claim("create:7", "node1", 1000, 2000));
+        node1.release("create:7", "node1", "INC7", 2000);
+
+        assertTrue(node2.claim("create:7", "node2", 2000, 3000));
+        final Lease lease = node1.get("create:7", 2000);
+        assertEquals("node2", lease.getOwner());
+        assertEquals(3000, lease.getExpires());
+        assertNull(lease.getResult());
+
+        // the old owner can no longer release it
+        node1.release("create:7", "node1", null, 0);
+        assertEquals("node2", node1.get("create:7", 2000).getOwner());
+    }
+
+    @Test
+    void testRelease() throws Exception {
+        assertTrue(node1.claim("create:7", "node1", 1000, 2000));
+        node1.release("create:7", "node1", "INC7", 5000);
+
+        final Lease lease = node2.get("create:7", 3000);
+        assertEquals("node1", lease.getOwner());
+        assertEquals("INC7", lease.getResult());
+        assertFalse(node2.claim("create:7", "node2", 3000, 4000));
+
+        assertTrue(node1.claim("modify:INC7", "node1", 1000, 2000));
+        node1.release("modify:INC7", "node1", null, 0);
+        assertNull(node2.get("modify:INC7", 1000));
+        assertTrue(node2.claim("modify:INC7", "node2", 1000, 2000));
+
+        node1.purge(5000);
+        assertNull(node2.get("create:7", 1000));
+    }
+}
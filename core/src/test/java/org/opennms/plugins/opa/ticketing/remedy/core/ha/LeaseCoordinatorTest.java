@@ -0,0 +1,280 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+package org.opennms.plugins.opa.ticketing.remedy.core.ha;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.opennms.plugins.opa.ticketing.remedy.core.RemedyTicketerException;
+
+class LeaseCoordinatorTest {
+    @Test
+    void testIncidentIsCreatedByOneNode() throws Exception {
+        final InMemoryLeaseStore store = new InMemoryLeaseStore();
+        final LeaseCoordinator node1 = new LeaseCoordinator(store, "node1", 10000, 10000, 5);
+        final LeaseCoordinator node2 = new LeaseCoordinator(store, "node2", 10000, 10000, 5);
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final AtomicInteger submits = new AtomicInteger();
+            final CountDownLatch submitting = new CountDownLatch(1);
+            final CountDownLatch created = new CountDownLatch(1);
+            final Future<String> first = executor.submit(() -> node1.create(7, () -> {
+                submits.incrementAndGet();
+                submitting.countDown();
+                await(created);
+                return "INC7";
+            }));
+            assertTrue(submitting.await(5, TimeUnit.SECONDS));
+
+            final CompletableFuture<String> second = node2.createAsync(7, () -> {
+                submits.incrementAndGet();
+                return CompletableFuture.completedFuture("INC8");
+            });
+            final Future<String> third = executor.submit(() -> node2.create(7, () -> {
+                submits.incrementAndGet();
+                return "INC9";
+            }));
+            Thread.sleep(50);
+            assertFalse(second.isDone());
+            created.countDown();
+
+            assertEquals("INC7", first.get(5, TimeUnit.SECONDS));
+            assertEquals("INC7", second.get(5, TimeUnit.SECONDS));
+            assertEquals("INC7", third.get(5, TimeUnit.SECONDS));
+            assertEquals(1, submits.get());
+            assertEquals(1, node1.getClaimedCount());
+            assertEquals(2, node2.getAdoptedCount());
+        } finally {
+            executor.shutdownNow();
+            node1.shutdown();
+            node2.shutdown();
+        }
+    }
+
+    @Test
+    void testFailedCreateIsRetriedByWaitingNode() throws Exception {
+        final InMemoryLeaseStore store = new InMemoryLeaseStore();
+        final LeaseCoordinator node1 = new LeaseCoordinator(store, "node1", 10000, 10000, 5);
+        final LeaseCoordinator node2 = new LeaseCoordinator(store, "node2", 10000, 10000, 5);
+        try {
+            final CompletableFuture<String> failing = new CompletableFuture<>();
+            final CountDownLatch claimed = new CountDownLatch(1);
+            final CompletableFuture<String> first = node1.createAsync(7, () -> {
+                claimed.countDown();
+                return failing;
+            });
+            // claims are made on the I/O threads: let node1 hold the lease before node2 asks for it
+            assertTrue(claimed.await(5, TimeUnit.SECONDS));
+            final CompletableFuture<String> second = node2.createAsync(7, () -> CompletableFuture.completedFuture("INC8"));
+            failing.completeExceptionally(new RemedyTicketerException("Remedy is down"));
+
+            assertTrue(assertThrows(Exception.class, () -> first.get(5, TimeUnit.SECONDS)).getCause() instanceof RemedyTicketerException);
+            assertEquals("INC8", second.get(5, TimeUnit.SECONDS));
+            assertEquals(1, node2.getClaimedCount());
+        } finally {
+            node1.shutdown();
+            node2.shutdown();
+        }
+    }
+
+    @Test
+    void testModifiesOfAnIncidentDoNotOverlap() throws Exception {
+        final InMemoryLeaseStore store = new InMemoryLeaseStore();
+        final List<LeaseCoordinator> nodes = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            nodes.add(new LeaseCoordinator(store, "node" + i, 10000, 10000, 1));
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(6);
+        try {
+            final AtomicInteger running = new AtomicInteger();
+            final AtomicInteger maxRunning = new AtomicInteger();
+            final List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 12; i++) {
+                final LeaseCoordinator node = nodes.get(i % nodes.size());
+                results.add(executor.submit(() -> node.modify("INC1", () -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(2);
+                    } catch (final InterruptedException e) {
+                        throw new AssertionError(e);
+                    }
+                    running.decrementAndGet();
+                    return "INC1";
+                })));
+            }
+            for (final Future<String> result : results) {
+                assertEquals("INC1", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, maxRunning.get());
+            // modifies leave no result behind
+            assertNull(store.get(LeaseCoordinator.INCIDENT_PREFIX + "INC1", System.currentTimeMillis()));
+        } finally {
+            executor.shutdownNow();
+            nodes.forEach(LeaseCoordinator::shutdown);
+        }
+    }
+
+    @Test
+    void testExpiredLeaseIsTakenOver() throws Exception {
+        final InMemoryLeaseStore store = new InMemoryLeaseStore();
+        // a node that went down while creating the incident
+        final long now = System.currentTimeMillis();
+        assertTrue(store.claim(LeaseCoordinator.ALARM_PREFIX + 7, "node1#1", now, now + 50));
+
+        final LeaseCoordinator node2 = new LeaseCoordinator(store, "node2", 10000, 10000, 5);
+        try {
+            assertEquals("INC8", node2.create(7, () -> "INC8"));
+            assertEquals(1, node2.getWaitedCount());
+        } finally {
+            node2.shutdown();
+        }
+    }
+
+    @Test
+    void testUnreachableStoreDoesNotBlockTickets() throws Exception {
+        final LeaseCoordinator node = new LeaseCoordinator(new LeaseStore() {
+            @Override
+            public boolean claim(final String key, final String owner, final long now, final long expires) throws IOException {
+                throw new IOException("unreachable");
+            }
+
+            @Override
+            public Lease get(final String key, final long now) {
+                return null;
+            }
+
+            @Override
+            public void release(final String key, final String owner, final String result, final long expires) {
+            }
+
+            @Override
+            public void purge(final long now) {
+            }
+        }, "node1", 10000, 10000, 5);
+        try {
+            assertEquals("INC7", node.create(7, () -> "INC7"));
+            assertEquals("INC8", node.createAsync(8, () -> CompletableFuture.completedFuture("INC8")).get(5, TimeUnit.SECONDS));
+            assertEquals(2, node.getErrorCount());
+            assertEquals(0, node.getClaimedCount());
+        } finally {
+            node.shutdown();
+        }
+    }
+
+    @Test
+    void testSlowStoreDoesNotBlockCaller() throws Exception {
+        final CountDownLatch stalled = new CountDownLatch(1);
+        final LeaseCoordinator node = new LeaseCoordinator(new InMemoryLeaseStore() {
+            @Override
+            public boolean claim(final String key, final String owner, final long now, final long expires) {
+                await(stalled);
+                return super.claim(key, owner, now, expires);
+            }
+        }, "node1", 10000, 10000, 5);
+        try {
+            final Thread caller = Thread.currentThread();
+            final CompletableFuture<String> created = node.createAsync(7, () -> {
+                assertFalse(caller == Thread.currentThread());
+                return CompletableFuture.completedFuture("INC7");
+            });
+            assertFalse(created.isDone());
+
+            stalled.countDown();
+            assertEquals("INC7", created.get(5, TimeUnit.SECONDS));
+            assertEquals(1, node.getClaimedCount());
+        } finally {
+            node.shutdown();
+        }
+    }
+
+    @Test
+    void testFileLeaseStore(@TempDir final Path directory) throws IOException {
+        final FileLeaseStore store = new FileLeaseStore(directory);
+        final String key = LeaseCoordinator.INCIDENT_PREFIX + "INC/1";
+
+        assertTrue(store.claim(key, "node1#1", 1000, 2000));
+        assertFalse(store.claim(key, "node2#1", 1500, 2500));
+        assertEquals("node1#1", store.get(key, 1500).getOwner());
+
+        // released with a result, the lease stays until it expires
+        store.release(key, "node2#1", "INC2", 5000);
+        store.release(key, "node1#1", "INC1", 5000);
+        assertFalse(store.claim(key, "node2#1", 1500, 2500));
+        assertEquals("INC1", store.get(key, 4000).getResult());
+        assertNull(store.get(key, 5000));
+
+        // expired leases are taken over
+        assertTrue(store.claim(key, "node2#2", 5000, 6000));
+        assertEquals("node2#2", store.get(key, 5000).getOwner());
+        assertNull(store.get(key, 5000).getResult());
+
+        // a late release by the previous owner leaves the new lease alone
+        store.release(key, "node1#1", "INC1", 9000);
+        assertEquals("node2#2", store.get(key, 5000).getOwner());
+        assertNull(store.get(key, 5000).getResult());
+
+        // released without a result, the lease is gone
+        store.release(key, "node2#2", null, 0);
+        assertNull(store.get(key, 5000));
+        assertTrue(store.claim(key, "node1#2", 5000, 6000));
+
+        store.purge(5500);
+        assertEquals("node1#2", store.get(key, 5500).getOwner());
+        store.purge(6000);
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (final InterruptedException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
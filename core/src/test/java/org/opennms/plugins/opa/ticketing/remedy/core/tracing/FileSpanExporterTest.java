@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * This file is part of OpenNMS(R).
+ *
+ * Copyright (C) 2026 The OpenNMS Group, Inc.
+ * OpenNMS(R) is Copyright (C) 1999-2026 The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is a registered trademark of The OpenNMS Group, Inc.
+ *
+ * OpenNMS(R) is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * OpenNMS(R) is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with OpenNMS(R).  If not, see:
+ *      http://www.gnu.org/licenses/
+ *
+ * For more information contact:
+ *     OpenNMS(R) Licensing <license@opennms.org>
+ *     http://www.opennms.org/
+ *     http://www.opennms.com/
+ *******************************************************************************/
+package org.opennms.plugins.opa.ticketing.remedy.core.tracing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FileSpanExporterTest {
+    @Test
+    void testRotatesByEncodedSize(@TempDir final Path directory) throws Exception {
+        final Path file = directory.resolve("traces.json");
+        final String summary = "Plattenplatz über éééééééééééééééé";
+
+        // the same span always has the same size, its ids and times have a fixed number of digits
+        final int length = FileSpanExporter.toJson(newSpan(summary)).getBytes(StandardCharsets.UTF_8).length;
+        final FileSpanExporter exporter = new FileSpanExporter(file, 2L * length - 1);
+        final Tracer tracer = new Tracer(Collections.singletonList(exporter));
+        for (int i = 0; i < 3; i++) {
+            tracer.startSpan("create").setAttribute("summary", summary).end();
+        }
+        tracer.close();
+
+        // counted in characters, two spans would have fit in the file
+        final List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).contains(summary), lines.get(0));
+        assertEquals(length, Files.size(file));
+        assertEquals(length, Files.size(directory.resolve("traces.json.1")));
+        assertEquals(0, exporter.getDroppedCount());
+    }
+
+    private static Span newSpan(final String summary) {
+        final Span span = new Tracer(Collections.singletonList(s -> { })).startSpan("create").setAttribute("summary", summary);
+        span.end();
+        return span;
+    }
+}